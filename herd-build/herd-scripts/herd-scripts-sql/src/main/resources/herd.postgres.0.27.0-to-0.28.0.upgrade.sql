@@ -74,3 +74,58 @@ insert into scrty_fn_lk (scrty_fn_cd, creat_ts, creat_user_id, updt_ts, updt_use
 values ('FN_TAGS_POST', current_timestamp, 'SYSTEM', current_timestamp, 'SYSTEM');
 insert into scrty_fn_lk (scrty_fn_cd, creat_ts, creat_user_id, updt_ts, updt_user_id) 
 values ('FN_TAGS_PUT', current_timestamp, 'SYSTEM', current_timestamp, 'SYSTEM');
+
+insert into scrty_fn_lk (scrty_fn_cd, creat_ts, creat_user_id, updt_ts, updt_user_id) 
+values ('FN_SERVICE_METHOD_METRICS_GET', current_timestamp, 'SYSTEM', current_timestamp, 'SYSTEM');
+
+CREATE TABLE strge_plcy_slctn_wtrmk  ( 
+    strge_plcy_prty_lvl_nb    int4            NOT NULL,
+    bus_objct_data_id         int8            NULL,
+    bus_objct_data_creat_ts   timestamp       NULL,
+    creat_ts                  timestamp       NOT NULL DEFAULT ('now'::text)::timestamp without time zone,
+    creat_user_id             varchar(100)    NOT NULL,
+    updt_ts                   timestamp       NOT NULL DEFAULT ('now'::text)::timestamp without time zone,
+    updt_user_id              varchar(100)    NULL
+    );
+
+alter table strge_plcy_slctn_wtrmk add constraint strge_plcy_slctn_wtrmk_pk primary key (strge_plcy_prty_lvl_nb);
+
+insert into strge_plcy_slctn_wtrmk (strge_plcy_prty_lvl_nb, creat_ts, creat_user_id, updt_ts, updt_user_id) 
+values (0, current_timestamp, 'SYSTEM', current_timestamp, 'SYSTEM');
+insert into strge_plcy_slctn_wtrmk (strge_plcy_prty_lvl_nb, creat_ts, creat_user_id, updt_ts, updt_user_id) 
+values (1, current_timestamp, 'SYSTEM', current_timestamp, 'SYSTEM');
+insert into strge_plcy_slctn_wtrmk (strge_plcy_prty_lvl_nb, creat_ts, creat_user_id, updt_ts, updt_user_id) 
+values (2, current_timestamp, 'SYSTEM', current_timestamp, 'SYSTEM');
+insert into strge_plcy_slctn_wtrmk (strge_plcy_prty_lvl_nb, creat_ts, creat_user_id, updt_ts, updt_user_id) 
+values (3, current_timestamp, 'SYSTEM', current_timestamp, 'SYSTEM');
+
+CREATE TABLE athrn_gnrtn  ( 
+    athrn_gnrtn_cd            varchar(50)     NOT NULL,
+    gnrtn_nb                  int8            NOT NULL,
+    creat_ts                  timestamp       NOT NULL DEFAULT ('now'::text)::timestamp without time zone,
+    creat_user_id             varchar(100)    NOT NULL,
+    updt_ts                   timestamp       NOT NULL DEFAULT ('now'::text)::timestamp without time zone,
+    updt_user_id              varchar(100)    NULL
+    );
+
+alter table athrn_gnrtn add constraint athrn_gnrtn_pk primary key (athrn_gnrtn_cd);
+
+insert into athrn_gnrtn (athrn_gnrtn_cd, gnrtn_nb, creat_ts, creat_user_id, updt_ts, updt_user_id) 
+values ('USER_NMSPC_ATHRN', 0, current_timestamp, 'SYSTEM', current_timestamp, 'SYSTEM');
+
+CREATE TABLE ntfcn_rgstn_gnrtn  ( 
+    ntfcn_rgstn_gnrtn_cd      varchar(50)     NOT NULL,
+    gnrtn_nb                  int8            NOT NULL,
+    creat_ts                  timestamp       NOT NULL DEFAULT ('now'::text)::timestamp without time zone,
+    creat_user_id             varchar(100)    NOT NULL,
+    updt_ts                   timestamp       NOT NULL DEFAULT ('now'::text)::timestamp without time zone,
+    updt_user_id              varchar(100)    NULL
+    );
+
+alter table ntfcn_rgstn_gnrtn add constraint ntfcn_rgstn_gnrtn_pk primary key (ntfcn_rgstn_gnrtn_cd);
+
+insert into ntfcn_rgstn_gnrtn (ntfcn_rgstn_gnrtn_cd, gnrtn_nb, creat_ts, creat_user_id, updt_ts, updt_user_id) 
+values ('NTFCN_RGSTN', 0, current_timestamp, 'SYSTEM', current_timestamp, 'SYSTEM');
+
+create index bus_objct_dfntn_ix3 on bus_objct_dfntn (upper(name_space_cd), upper(name_tx));
+create index bus_objct_frmt_ix6 on bus_objct_frmt (bus_objct_dfntn_id, upper(usage_cd), upper(file_type_cd));
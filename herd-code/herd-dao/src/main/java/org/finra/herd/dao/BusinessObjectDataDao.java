@@ -15,16 +15,17 @@
 */
 package org.finra.herd.dao;
 
+import java.sql.Timestamp;
 import java.util.List;
-import java.util.Map;
 
 import org.finra.herd.model.api.xml.BusinessObjectData;
 import org.finra.herd.model.api.xml.BusinessObjectDataKey;
 import org.finra.herd.model.api.xml.BusinessObjectDataSearchFilter;
+import org.finra.herd.model.api.xml.BusinessObjectDataSearchResult;
 import org.finra.herd.model.api.xml.BusinessObjectFormatKey;
 import org.finra.herd.model.dto.StoragePolicyPriorityLevel;
+import org.finra.herd.model.dto.StoragePolicySelectionCandidate;
 import org.finra.herd.model.jpa.BusinessObjectDataEntity;
-import org.finra.herd.model.jpa.StoragePolicyEntity;
 
 public interface BusinessObjectDataDao extends BaseJpaDao
 {
@@ -156,20 +157,24 @@ public interface BusinessObjectDataDao extends BaseJpaDao
         List<String> businessObjectDataStatusesToIgnore);
 
     /**
-     * Retrieves a map of business object data entities to their corresponding storage policy entities, where the business object data status is supported by
-     * the storage policy feature and the business object data alternate key values match storage policy's filter and transition (not taking into account
-     * storage policy rules). The storage policy priority level identifies a particular storage policy priority that will be selected by the query. The returned
-     * map is ordered by the business object data "created on" timestamp, starting with the oldest business object data entity.
+     * Retrieves a list of business object data instances selected by storage policies from the specified storage policy priority level, where the business
+     * object data status is supported by the storage policy feature, the business object data alternate key values match storage policy's filter and
+     * transition, and the business object data is old enough for the storage policy rule. Business object data that matches a storage policy from a higher
+     * storage policy priority level is not selected. Only the IDs and the business object data keys are retrieved. The returned list is ordered by the
+     * business object data "created on" timestamp and ID, starting with the oldest business object data.
      *
      * @param storagePolicyPriorityLevel the storage policy priority level
+     * @param higherStoragePolicyPriorityLevels the list of storage policy priority levels with a higher priority
      * @param supportedBusinessObjectDataStatuses the list of business object data statuses that storage policies apply to
-     * @param startPosition the position of the first result, numbered from 0
-     * @param maxResult the maximum number of results to retrieve
+     * @param currentTimestamp the current timestamp used to compute the storage policy rule thresholds
+     * @param startAfterCandidate the optional candidate to resume after, i.e. only candidates positioned after it are retrieved
+     * @param maxResult the maximum number of rows to retrieve
      *
-     * @return the map of business object data entities to their corresponding storage policy entities
+     * @return the list of storage policy selection candidates, one per business object data
      */
-    public Map<BusinessObjectDataEntity, StoragePolicyEntity> getBusinessObjectDataEntitiesMatchingStoragePolicies(
-        StoragePolicyPriorityLevel storagePolicyPriorityLevel, List<String> supportedBusinessObjectDataStatuses, int startPosition, int maxResult);
+    public List<StoragePolicySelectionCandidate> getStoragePolicySelectionCandidates(StoragePolicyPriorityLevel storagePolicyPriorityLevel,
+        List<StoragePolicyPriorityLevel> higherStoragePolicyPriorityLevels, List<String> supportedBusinessObjectDataStatuses, Timestamp currentTimestamp,
+        StoragePolicySelectionCandidate startAfterCandidate, int maxResult);
 
     /**
      * Retrieves a list of business object data by their partition value.
@@ -189,4 +194,14 @@ public interface BusinessObjectDataDao extends BaseJpaDao
      * @return A list of business object data
      */
     public List<BusinessObjectData> searchBusinessObjectData(List<BusinessObjectDataSearchFilter> filters);
+
+    /**
+     * Retrieves a page of business object data by list of filters. The page size is the configured maximum number of search results per page.
+     *
+     * @param filters search filters
+     * @param pageToken the token returned with the previous page, null to get the first page
+     *
+     * @return the search result with the next page token when more business object data may follow
+     */
+    public BusinessObjectDataSearchResult searchBusinessObjectData(List<BusinessObjectDataSearchFilter> filters, String pageToken);
 }
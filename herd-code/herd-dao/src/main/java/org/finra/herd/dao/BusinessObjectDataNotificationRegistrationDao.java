@@ -72,4 +72,14 @@ public interface BusinessObjectDataNotificationRegistrationDao extends BaseJpaDa
     public List<BusinessObjectDataNotificationRegistrationEntity> getBusinessObjectDataNotificationRegistrations(String notificationEventTypeCode,
         BusinessObjectDataKey businessObjectDataKey, String newBusinessObjectDataStatus, String oldBusinessObjectDataStatus,
         String notificationRegistrationStatus);
+
+    /**
+     * Retrieves a list of business object data notification registration entities with the specified notification registration status. The notification event
+     * type, business object definition, file type and business object data status associations are fetched along with the notification registration entities.
+     *
+     * @param notificationRegistrationStatus the status of the notification registration (case-insensitive)
+     *
+     * @return the list of business object data notification registration entities
+     */
+    public List<BusinessObjectDataNotificationRegistrationEntity> getBusinessObjectDataNotificationRegistrationsByStatus(String notificationRegistrationStatus);
 }
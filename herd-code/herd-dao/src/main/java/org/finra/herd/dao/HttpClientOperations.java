@@ -41,8 +41,9 @@ public interface HttpClientOperations
     public CloseableHttpResponse execute(CloseableHttpClient httpClient, HttpUriRequest request) throws IOException, JAXBException;
 
     /**
-     * Creates a new CloseableHttpClient.
-     * 
+     * Creates a new CloseableHttpClient. Implementations may share pooled connections across clients, so a client should be closed once the request is
+     * completed to release its connections.
+     *
      * @return CloseableHttpClient
      */
     public CloseableHttpClient createHttpClient();
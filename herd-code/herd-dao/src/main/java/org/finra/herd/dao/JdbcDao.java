@@ -15,6 +15,8 @@
 */
 package org.finra.herd.dao;
 
+import java.io.Writer;
+
 import org.finra.herd.model.api.xml.JdbcStatementResultSet;
 import org.springframework.jdbc.core.JdbcTemplate;
 
@@ -41,4 +43,15 @@ public interface JdbcDao
      * @return the {@link JdbcStatementResultSet}
      */
     JdbcStatementResultSet query(JdbcTemplate jdbcTemplate, String sql, Integer maxResult);
+
+    /**
+     * Executes a JDBC query and writes its result to the given writer in CSV format, with a header line of column names followed by one line per row. The
+     * rows are written as they are read, so the result is never held in memory.
+     * 
+     * @param jdbcTemplate JDBC template to use
+     * @param sql SQL statement to execute
+     * @param writer the writer to write the result to
+     * @return the number of rows written
+     */
+    long queryToCsv(JdbcTemplate jdbcTemplate, String sql, Writer writer);
 }
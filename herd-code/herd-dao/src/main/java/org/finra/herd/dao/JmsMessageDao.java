@@ -15,6 +15,8 @@
 */
 package org.finra.herd.dao;
 
+import java.util.List;
+
 import org.finra.herd.model.jpa.JmsMessageEntity;
 
 public interface JmsMessageDao extends BaseJpaDao
@@ -25,4 +27,22 @@ public interface JmsMessageDao extends BaseJpaDao
      * @return the JMS message
      */
     public JmsMessageEntity getOldestJmsMessage();
+
+    /**
+     * Selects and locks up to the specified number of the oldest JMS messages (messages with the lowest sequence generated ids) from the queue. The selected
+     * messages stay locked until the current transaction ends. The messages locked by another transaction are skipped, so concurrent transactions claim
+     * disjoint sets of messages.
+     *
+     * @param maxResults the maximum number of JMS messages to select
+     *
+     * @return the list of JMS messages ordered by their ids
+     */
+    public List<JmsMessageEntity> getOldestJmsMessages(int maxResults);
+
+    /**
+     * Gets the number of JMS messages in the queue.
+     *
+     * @return the number of JMS messages
+     */
+    public long getJmsMessageCount();
 }
@@ -0,0 +1,483 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.dao;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import com.amazonaws.services.s3.AmazonS3Client;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import org.finra.herd.core.helper.ConfigurationHelper;
+import org.finra.herd.model.dto.ConfigurationValue;
+import org.finra.herd.model.dto.HerdAWSCredentialsProvider;
+import org.finra.herd.model.dto.S3FileTransferRequestParamsDto;
+
+/**
+ * A bounded registry of long-lived Amazon S3 clients keyed by the client settings of {@link S3FileTransferRequestParamsDto} (endpoint, HTTP proxy, socket
+ * timeout and credentials). Clients are leased with {@link #acquireClient} and must be handed back with {@link #releaseClient} instead of being shut down by
+ * the caller. A pooled client is only shut down once it is evicted while not leased or when the registry itself is destroyed.
+ */
+@Component
+public class S3ClientRegistry implements DisposableBean
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(S3ClientRegistry.class);
+
+    /**
+     * The minimum interval between two sweeps for idle clients.
+     */
+    private static final long IDLE_CLIENT_SWEEP_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    @Autowired
+    private ConfigurationHelper configurationHelper;
+
+    /**
+     * The pooled client entries keyed by the client settings. Guarded by "this".
+     */
+    private final Map<S3ClientKey, S3ClientEntry> entriesByKey = new HashMap<>();
+
+    /**
+     * The leased or pooled client entries keyed by the client instance. Guarded by "this".
+     */
+    private final Map<AmazonS3Client, S3ClientEntry> entriesByClient = new IdentityHashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    private long lastIdleClientSweepMillis = System.currentTimeMillis();
+
+    private boolean destroyed;
+
+    /**
+     * Leases an S3 client matching the client settings of the specified parameters. A pooled client is reused when available, otherwise a new client is
+     * created using the specified client factory. The returned client must be handed back via {@link #releaseClient(AmazonS3Client)}.
+     *
+     * @param params the S3 file transfer request parameters
+     * @param clientFactory the factory that creates a new S3 client for the specified parameters
+     *
+     * @return the S3 client
+     */
+    public AmazonS3Client acquireClient(S3FileTransferRequestParamsDto params, Function<S3FileTransferRequestParamsDto, AmazonS3Client> clientFactory)
+    {
+        int maxSize = configurationHelper.getProperty(ConfigurationValue.S3_CLIENT_REGISTRY_MAX_SIZE, Integer.class);
+        long idleTimeoutMillis =
+            TimeUnit.SECONDS.toMillis(configurationHelper.getProperty(ConfigurationValue.S3_CLIENT_REGISTRY_IDLE_TIMEOUT_SECS, Integer.class));
+
+        S3ClientKey key = new S3ClientKey(params);
+        List<AmazonS3Client> clientsToShutdown = new ArrayList<>();
+        AmazonS3Client pooledClient = null;
+
+        synchronized (this)
+        {
+            long currentTimeMillis = System.currentTimeMillis();
+            if (currentTimeMillis - lastIdleClientSweepMillis >= IDLE_CLIENT_SWEEP_INTERVAL_MILLIS)
+            {
+                evictIdleEntries(currentTimeMillis - idleTimeoutMillis, clientsToShutdown);
+                lastIdleClientSweepMillis = currentTimeMillis;
+            }
+
+            S3ClientEntry entry = entriesByKey.get(key);
+            if (entry != null)
+            {
+                entry.leaseCount++;
+                entry.lastAccessTimeMillis = currentTimeMillis;
+                hitCount.incrementAndGet();
+                pooledClient = entry.client;
+            }
+        }
+
+        // Shut the evicted clients down outside of the lock, since shutting down the HTTP connection pool of a client may take a while.
+        shutdownClients(clientsToShutdown);
+
+        if (pooledClient != null)
+        {
+            return pooledClient;
+        }
+
+        // Create the client outside of the lock since the client construction (HTTP connection manager, credentials chain, etc.) is relatively expensive.
+        missCount.incrementAndGet();
+        AmazonS3Client client = clientFactory.apply(params);
+
+        synchronized (this)
+        {
+            S3ClientEntry entry = entriesByKey.get(key);
+
+            // Another thread might have registered a client for the same key while we were creating ours. If so, use the registered client.
+            if (entry != null)
+            {
+                entry.leaseCount++;
+                entry.lastAccessTimeMillis = System.currentTimeMillis();
+                clientsToShutdown.add(client);
+            }
+            else
+            {
+                entry = new S3ClientEntry(key, client);
+                entry.leaseCount = 1;
+                entry.lastAccessTimeMillis = System.currentTimeMillis();
+
+                // Only pool the client when the registry is enabled, still active and there is room for it (possibly after evicting the least recently
+                // used client that is not leased). Otherwise, the client gets shut down as soon as it is released.
+                if (!destroyed && maxSize > 0 && (entriesByKey.size() < maxSize || evictLeastRecentlyUsedEntry(clientsToShutdown)))
+                {
+                    entriesByKey.put(key, entry);
+                }
+                else
+                {
+                    entry.retired = true;
+                }
+
+                entriesByClient.put(client, entry);
+            }
+
+            pooledClient = entry.client;
+        }
+
+        shutdownClients(clientsToShutdown);
+
+        return pooledClient;
+    }
+
+    /**
+     * Hands back an S3 client previously leased via {@link #acquireClient}. The client stays open for reuse unless it is no longer pooled, in which case it is
+     * shut down once it has no remaining leases. A client not known to the registry is shut down right away.
+     *
+     * @param client the S3 client
+     */
+    public void releaseClient(AmazonS3Client client)
+    {
+        boolean shutdownClient;
+
+        synchronized (this)
+        {
+            S3ClientEntry entry = entriesByClient.get(client);
+
+            if (entry == null)
+            {
+                shutdownClient = true;
+            }
+            else
+            {
+                entry.leaseCount--;
+                entry.lastAccessTimeMillis = System.currentTimeMillis();
+
+                shutdownClient = entry.retired && entry.leaseCount <= 0;
+                if (shutdownClient)
+                {
+                    entriesByClient.remove(client);
+                }
+            }
+        }
+
+        if (shutdownClient)
+        {
+            client.shutdown();
+        }
+    }
+
+    /**
+     * Evicts and shuts down all pooled clients that are not currently leased. Clients that are leased get shut down as soon as they are released.
+     */
+    public void clear()
+    {
+        List<AmazonS3Client> clientsToShutdown = new ArrayList<>();
+
+        synchronized (this)
+        {
+            for (Iterator<S3ClientEntry> iterator = entriesByKey.values().iterator(); iterator.hasNext(); )
+            {
+                S3ClientEntry entry = iterator.next();
+                iterator.remove();
+                retireEntry(entry, clientsToShutdown);
+            }
+        }
+
+        shutdownClients(clientsToShutdown);
+    }
+
+    @Override
+    public void destroy()
+    {
+        synchronized (this)
+        {
+            LOGGER.info("Shutting down S3 client registry. s3ClientCount={} s3ClientRegistryHitCount={} s3ClientRegistryMissCount={} " +
+                "s3ClientRegistryEvictionCount={}", entriesByKey.size(), hitCount.get(), missCount.get(), evictionCount.get());
+
+            destroyed = true;
+        }
+
+        clear();
+    }
+
+    /**
+     * Gets the number of client leases served by an already pooled client.
+     *
+     * @return the hit count
+     */
+    public long getHitCount()
+    {
+        return hitCount.get();
+    }
+
+    /**
+     * Gets the number of client leases that required a new client to be created.
+     *
+     * @return the miss count
+     */
+    public long getMissCount()
+    {
+        return missCount.get();
+    }
+
+    /**
+     * Gets the number of pooled clients evicted because they were idle for too long or to make room for a new client.
+     *
+     * @return the eviction count
+     */
+    public long getEvictionCount()
+    {
+        return evictionCount.get();
+    }
+
+    /**
+     * Gets the number of currently pooled clients.
+     *
+     * @return the number of pooled clients
+     */
+    public synchronized int getSize()
+    {
+        return entriesByKey.size();
+    }
+
+    /**
+     * Evicts the pooled clients that are not leased and were last accessed before the specified threshold. Must be called while holding the lock.
+     *
+     * @param thresholdTimeMillis the last access time threshold
+     * @param clientsToShutdown the list to add the clients that need to be shut down to
+     */
+    private void evictIdleEntries(long thresholdTimeMillis, List<AmazonS3Client> clientsToShutdown)
+    {
+        for (Iterator<S3ClientEntry> iterator = entriesByKey.values().iterator(); iterator.hasNext(); )
+        {
+            S3ClientEntry entry = iterator.next();
+            if (entry.leaseCount <= 0 && entry.lastAccessTimeMillis < thresholdTimeMillis)
+            {
+                iterator.remove();
+                retireEntry(entry, clientsToShutdown);
+                evictionCount.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Evicts the least recently used pooled client that is not leased. Must be called while holding the lock.
+     *
+     * @param clientsToShutdown the list to add the evicted client to
+     *
+     * @return true if a client was evicted, false if all pooled clients are currently leased
+     */
+    private boolean evictLeastRecentlyUsedEntry(List<AmazonS3Client> clientsToShutdown)
+    {
+        S3ClientEntry leastRecentlyUsedEntry = null;
+
+        for (S3ClientEntry entry : entriesByKey.values())
+        {
+            if (entry.leaseCount <= 0 && (leastRecentlyUsedEntry == null || entry.lastAccessTimeMillis < leastRecentlyUsedEntry.lastAccessTimeMillis))
+            {
+                leastRecentlyUsedEntry = entry;
+            }
+        }
+
+        if (leastRecentlyUsedEntry == null)
+        {
+            return false;
+        }
+
+        entriesByKey.remove(leastRecentlyUsedEntry.key);
+        retireEntry(leastRecentlyUsedEntry, clientsToShutdown);
+        evictionCount.incrementAndGet();
+
+        return true;
+    }
+
+    /**
+     * Marks an entry that was removed from the pool as retired and schedules its client for shutdown when it is not leased. Must be called while holding the
+     * lock.
+     *
+     * @param entry the client entry
+     * @param clientsToShutdown the list to add the client to if it needs to be shut down
+     */
+    private void retireEntry(S3ClientEntry entry, List<AmazonS3Client> clientsToShutdown)
+    {
+        entry.retired = true;
+
+        if (entry.leaseCount <= 0)
+        {
+            entriesByClient.remove(entry.client);
+            clientsToShutdown.add(entry.client);
+        }
+    }
+
+    /**
+     * Shuts down the specified clients and clears the list.
+     *
+     * @param clients the list of clients
+     */
+    private void shutdownClients(List<AmazonS3Client> clients)
+    {
+        for (AmazonS3Client client : clients)
+        {
+            client.shutdown();
+        }
+
+        clients.clear();
+    }
+
+    /**
+     * A pooled client along with its bookkeeping information. All fields are guarded by the registry lock.
+     */
+    private static class S3ClientEntry
+    {
+        private final S3ClientKey key;
+
+        private final AmazonS3Client client;
+
+        private int leaseCount;
+
+        private long lastAccessTimeMillis;
+
+        private boolean retired;
+
+        S3ClientEntry(S3ClientKey key, AmazonS3Client client)
+        {
+            this.key = key;
+            this.client = client;
+        }
+    }
+
+    /**
+     * The settings that uniquely identify an S3 client. Additional AWS credentials providers are compared by identity, so the key can be built without
+     * resolving any credentials and callers reusing the same provider instance share a client. The credentials chain of a pooled client resolves the
+     * credentials of such a provider on demand and caches them until they expire. The signer is not part of the key since all S3 clients are signed with
+     * {@link S3Dao#SIGNER_OVERRIDE_V4}.
+     */
+    private static class S3ClientKey
+    {
+        private final String s3Endpoint;
+
+        private final String httpProxyHost;
+
+        private final Integer httpProxyPort;
+
+        private final Integer socketTimeout;
+
+        private final String s3AccessKey;
+
+        private final String s3SecretKey;
+
+        private final List<HerdAWSCredentialsProvider> additionalAwsCredentialsProviders;
+
+        private final int hashCode;
+
+        S3ClientKey(S3FileTransferRequestParamsDto params)
+        {
+            // The proxy settings are only used by the client when both the host and the port are specified.
+            boolean proxySpecified = StringUtils.isNotBlank(params.getHttpProxyHost()) && params.getHttpProxyPort() != null;
+
+            s3Endpoint = StringUtils.isNotBlank(params.getS3Endpoint()) ? params.getS3Endpoint() : null;
+            httpProxyHost = proxySpecified ? params.getHttpProxyHost() : null;
+            httpProxyPort = proxySpecified ? params.getHttpProxyPort() : null;
+            socketTimeout = params.getSocketTimeout();
+            s3AccessKey = params.getS3AccessKey();
+            s3SecretKey = params.getS3SecretKey();
+            additionalAwsCredentialsProviders = new ArrayList<>(params.getAdditionalAwsCredentialsProviders());
+
+            int providersHashCode = 1;
+            for (HerdAWSCredentialsProvider herdAWSCredentialsProvider : additionalAwsCredentialsProviders)
+            {
+                providersHashCode = 31 * providersHashCode + System.identityHashCode(herdAWSCredentialsProvider);
+            }
+            hashCode = Objects.hash(s3Endpoint, httpProxyHost, httpProxyPort, socketTimeout, s3AccessKey, s3SecretKey, providersHashCode);
+        }
+
+        @Override
+        public boolean equals(Object object)
+        {
+            if (this == object)
+            {
+                return true;
+            }
+            if (object == null || getClass() != object.getClass())
+            {
+                return false;
+            }
+
+            S3ClientKey that = (S3ClientKey) object;
+
+            return Objects.equals(s3Endpoint, that.s3Endpoint) && Objects.equals(httpProxyHost, that.httpProxyHost) &&
+                Objects.equals(httpProxyPort, that.httpProxyPort) && Objects.equals(socketTimeout, that.socketTimeout) &&
+                Objects.equals(s3AccessKey, that.s3AccessKey) && Objects.equals(s3SecretKey, that.s3SecretKey) &&
+                sameProviders(additionalAwsCredentialsProviders, that.additionalAwsCredentialsProviders);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+
+        /**
+         * Checks whether two lists contain the very same AWS credentials provider instances in the same order.
+         *
+         * @param providers the first list of AWS credentials providers
+         * @param otherProviders the second list of AWS credentials providers
+         *
+         * @return true if both lists contain the same provider instances, false otherwise
+         */
+        private static boolean sameProviders(List<HerdAWSCredentialsProvider> providers, List<HerdAWSCredentialsProvider> otherProviders)
+        {
+            if (providers.size() != otherProviders.size())
+            {
+                return false;
+            }
+
+            for (int i = 0; i < providers.size(); i++)
+            {
+                if (providers.get(i) != otherProviders.get(i))
+                {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+}
@@ -18,6 +18,7 @@ package org.finra.herd.dao;
 import java.util.Date;
 import java.util.List;
 import java.util.Properties;
+import java.util.function.Consumer;
 
 import com.amazonaws.services.s3.model.DeleteObjectsRequest;
 import com.amazonaws.services.s3.model.ObjectMetadata;
@@ -97,6 +98,21 @@ public interface S3Dao
      */
     public List<S3ObjectSummary> listDirectory(S3FileTransferRequestParamsDto s3FileTransferRequestParamsDto, boolean ignoreZeroByteDirectoryMarkers);
 
+    /**
+     * Lists all S3 objects matching the S3 key prefix in the given bucket (S3 bucket name) and passes them to the consumer a chunk at a time. Unless the
+     * listing is configured to use a single thread, the sub-directories right below the S3 key prefix are listed in parallel on a thread pool shared by all
+     * listings, and the pages of each sub-directory are passed on as they arrive. The objects right below the S3 key prefix are listed by the calling thread,
+     * so a prefix without sub-directories is not listed in parallel. The S3 objects are always passed to the consumer in the key order and from the calling
+     * thread, so the consumer does not need to be thread-safe.
+     *
+     * @param s3FileTransferRequestParamsDto the S3 file transfer request parameters. The S3 bucket name and S3 key prefix identify the S3 objects to get
+     * listed.
+     * @param ignoreZeroByteDirectoryMarkers specifies whether to ignore 0 byte objects that represent S3 directories.
+     * @param s3ObjectSummariesConsumer the consumer of the S3 object summaries that match the prefix in the given bucket.
+     */
+    public void listDirectory(S3FileTransferRequestParamsDto s3FileTransferRequestParamsDto, boolean ignoreZeroByteDirectoryMarkers,
+        Consumer<List<S3ObjectSummary>> s3ObjectSummariesConsumer);
+
 
     /**
      * Lists all S3 versions matching the S3 key prefix in the given bucket (S3 bucket name). The S3 bucket name and S3 key prefix that identify the S3 versions
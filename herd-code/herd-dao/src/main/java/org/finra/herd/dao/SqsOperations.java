@@ -15,6 +15,8 @@
 */
 package org.finra.herd.dao;
 
+import java.util.List;
+
 import com.amazonaws.ClientConfiguration;
 
 /**
@@ -26,4 +28,16 @@ public interface SqsOperations
      * Sends a text message to the specified AWS SQS queue.
      */
     public void sendSqsTextMessage(ClientConfiguration client, String queueName, String messageText);
+
+    /**
+     * Sends text messages to the specified AWS SQS queue using batch requests. The messages are sent in the order they are specified, and no more batches are
+     * sent once a message fails to be sent, so the messages that were not sent can be retried without changing the order of the messages in the queue.
+     *
+     * @param client the client configuration
+     * @param queueName the queue name
+     * @param messageTexts the list of message texts
+     *
+     * @return the sorted list of indexes of the messages that were sent before the first message that failed to be sent
+     */
+    public List<Integer> sendSqsTextMessages(ClientConfiguration client, String queueName, List<String> messageTexts);
 }
@@ -62,4 +62,17 @@ public interface StorageFileDao extends BaseJpaDao
      * @return the map of storage unit ids to their corresponding storage file paths.
      */
     public MultiValuedMap<Integer, String> getStorageFilePathsByStorageUnits(List<StorageUnitEntity> storageUnitEntities);
+
+    /**
+     * Saves a list of new storage file entities. The storage files are flushed to the database in chunks, which lets Hibernate send the inserts in JDBC
+     * batches, and each flushed chunk is detached, so the persistence context does not grow with the number of storage files. The storage file entities
+     * should not be part of a storage unit's storage files collection, since the detached entities would then be cascaded again on the next flush.
+     * <p/>
+     * The storage file entities passed in are left detached once this method returns. They are not refreshed from the database, so their createdOn and
+     * updatedOn fields hold the application timestamps set on save rather than the values stored in the database, and their lazy associations cannot be
+     * loaded. Callers that need the stored values should load the storage files again.
+     *
+     * @param storageFileEntities the list of storage file entities
+     */
+    public void saveStorageFiles(List<StorageFileEntity> storageFileEntities);
 }
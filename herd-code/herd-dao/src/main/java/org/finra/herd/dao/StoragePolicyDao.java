@@ -38,4 +38,12 @@ public interface StoragePolicyDao extends BaseJpaDao
      * @return the storage policy entity
      */
     public StoragePolicyEntity getStoragePolicyByAltKeyAndVersion(StoragePolicyKey key, Integer storagePolicyVersion);
+
+    /**
+     * Resets the storage policy selection watermarks of the specified storage policy priority level and all lower priority levels, so the next storage policy
+     * selection for these priority levels starts with the oldest business object data. The watermarks stay locked until the current transaction completes.
+     *
+     * @param storagePolicyPriorityLevelNumber the storage policy priority level number, where 0 is the highest priority level
+     */
+    public void resetStoragePolicySelectionWatermarks(int storagePolicyPriorityLevelNumber);
 }
@@ -24,6 +24,12 @@ import org.finra.herd.model.jpa.StorageUnitEntity;
 
 public interface StorageUnitDao extends BaseJpaDao
 {
+    /**
+     * The maximum number of partition filters used in a single storage unit or business object data query. Callers batching several requests into one query
+     * should keep the combined number of partition filters within this limit.
+     */
+    public static final int MAX_PARTITION_FILTERS_PER_REQUEST = 100;
+
     /**
      * Retrieves a list of storage units that belong to GLACIER storage and have the origin S3 storage unit in RESTORING state. The returned list is ordered by
      * the "updated on" timestamp of the origin S3 storage units, starting with an S3 storage unit that has the RESTORING status the longest.
@@ -100,4 +106,31 @@ public interface StorageUnitDao extends BaseJpaDao
     public List<StorageUnitEntity> getStorageUnitsByPartitionFiltersAndStorages(BusinessObjectFormatKey businessObjectFormatKey,
         List<List<String>> partitionFilters, Integer businessObjectDataVersion, String businessObjectDataStatus, List<String> storageNames,
         String storagePlatformType, String excludedStoragePlatformType, boolean selectOnlyAvailableStorageUnits);
+
+    /**
+     * Retrieves a list of storage unit entities per specified parameters.
+     *
+     * @param businessObjectFormatKey the business object format key (case-insensitive). If a business object format version isn't specified, the latest
+     * available format version for each partition value will be used.
+     * @param partitionFilters the list of partition filter to be used to select business object data instances. Each partition filter contains a list of
+     * primary and sub-partition values in the right order up to the maximum partition levels allowed by business object data registration - with partition
+     * values for the relative partitions not to be used for selection passed as nulls.
+     * @param businessObjectDataVersion the business object data version. If a business object data version isn't specified, the latest data version based on
+     * the specified business object data status is returned.
+     * @param businessObjectDataStatus the business object data status. This parameter is ignored when the business object data version is specified. When
+     * business object data version and business object data status both are not specified, the latest data version for each set of partition values will be
+     * used regardless of the status.
+     * @param storageNames the optional list of storage names where the business object data storage units should be looked for (case-insensitive)
+     * @param storagePlatformType the optional storage platform type, e.g. S3 for Hive DDL. It is ignored when the list of storages is not empty
+     * @param excludedStoragePlatformType the optional storage platform type to be excluded from search. It is ignored when the list of storages is not empty or
+     * the storage platform type is specified
+     * @param selectOnlyAvailableStorageUnits specifies if only available storage units will be selected or any storage units regardless of their status
+     * @param partitionFiltersRegistered specifies if the partition filters are known to only specify registered partition values, e.g. they already matched
+     * storage units, so they do not need to be checked against the partition values registered for the business object format
+     *
+     * @return the list of storage unit entities sorted by partition values and storage names
+     */
+    public List<StorageUnitEntity> getStorageUnitsByPartitionFiltersAndStorages(BusinessObjectFormatKey businessObjectFormatKey,
+        List<List<String>> partitionFilters, Integer businessObjectDataVersion, String businessObjectDataStatus, List<String> storageNames,
+        String storagePlatformType, String excludedStoragePlatformType, boolean selectOnlyAvailableStorageUnits, boolean partitionFiltersRegistered);
 }
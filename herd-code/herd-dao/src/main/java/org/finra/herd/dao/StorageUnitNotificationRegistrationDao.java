@@ -70,4 +70,14 @@ public interface StorageUnitNotificationRegistrationDao extends BaseJpaDao
     public List<StorageUnitNotificationRegistrationEntity> getStorageUnitNotificationRegistrations(String notificationEventTypeCode,
         BusinessObjectDataKey businessObjectDataKey, String storageName, String newStorageUnitStatus, String oldStorageUnitStatus,
         String notificationRegistrationStatus);
+
+    /**
+     * Retrieves a list of storage unit notification registration entities with the specified notification registration status. The notification event
+     * type, business object definition, file type, storage and storage unit status associations are fetched along with the notification registration entities.
+     *
+     * @param notificationRegistrationStatus the status of the notification registration (case-insensitive)
+     *
+     * @return the list of storage unit notification registration entities
+     */
+    public List<StorageUnitNotificationRegistrationEntity> getStorageUnitNotificationRegistrationsByStatus(String notificationRegistrationStatus);
 }
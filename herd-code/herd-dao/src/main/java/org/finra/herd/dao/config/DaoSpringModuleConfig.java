@@ -170,6 +170,13 @@ public class DaoSpringModuleConfig implements CachingConfigurer
         properties.setProperty(ConfigurationValue.SHOW_SQL.getKey(), configurationHelper.getProperty(ConfigurationValue.SHOW_SQL));
         LOGGER.info("hibernateShowSql={}", properties.getProperty(ConfigurationValue.SHOW_SQL.getKey()));
         properties.setProperty("hibernate.archive.autodetection", "class, hbm");
+        // Send inserts and updates to the database in JDBC batches. Ordering the statements by entity lets consecutive inserts of the same entity share a
+        // batch.
+        properties
+            .setProperty(ConfigurationValue.HIBERNATE_JDBC_BATCH_SIZE.getKey(), configurationHelper.getProperty(ConfigurationValue.HIBERNATE_JDBC_BATCH_SIZE));
+        LOGGER.info("hibernateJdbcBatchSize={}", properties.getProperty(ConfigurationValue.HIBERNATE_JDBC_BATCH_SIZE.getKey()));
+        properties.setProperty("hibernate.order_inserts", "true");
+        properties.setProperty("hibernate.order_updates", "true");
 
         // Set the Hibernate HBM2DDL Auto param if it is configured. This is only needed in JUnits.
         String hibernateHbm2DdlAutoParam = getHibernateHbm2DdlAutoParam();
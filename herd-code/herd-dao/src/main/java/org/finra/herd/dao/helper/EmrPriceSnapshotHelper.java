@@ -0,0 +1,284 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.dao.helper;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import com.amazonaws.services.ec2.model.SpotPrice;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import org.finra.herd.core.helper.ConfigurationHelper;
+import org.finra.herd.dao.Ec2Dao;
+import org.finra.herd.dao.OnDemandPriceDao;
+import org.finra.herd.model.dto.ConfigurationValue;
+import org.finra.herd.model.jpa.OnDemandPriceEntity;
+
+/**
+ * A snapshot of the EC2 spot prices per availability zone and on-demand prices per region used to find the best price for an EMR cluster. Prices are loaded
+ * on first use and returned from memory while they are younger than the configured maximum age. Prices that were requested since they were loaded are
+ * reloaded in the background before they get too old, while the other ones are dropped.
+ */
+@Component
+public class EmrPriceSnapshotHelper
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(EmrPriceSnapshotHelper.class);
+
+    @Autowired
+    private AwsHelper awsHelper;
+
+    @Autowired
+    private ConfigurationHelper configurationHelper;
+
+    @Autowired
+    private Ec2Dao ec2Dao;
+
+    @Autowired
+    private HerdStringHelper herdStringHelper;
+
+    @Autowired
+    private OnDemandPriceDao onDemandPriceDao;
+
+    /**
+     * The spot prices keyed by availability zone name and instance type.
+     */
+    private final Map<List<String>, Price> spotPrices = new ConcurrentHashMap<>();
+
+    /**
+     * The on-demand prices keyed by region name and instance type.
+     */
+    private final Map<List<String>, Price> onDemandPrices = new ConcurrentHashMap<>();
+
+    /**
+     * Returns a mapping of instance types to the latest spot prices in the given availability zone. Instance types without a spot price are not included.
+     *
+     * @param availabilityZone the name of the availability zone
+     * @param instanceTypes the instance types
+     *
+     * @return the map of instance types to spot prices
+     */
+    public Map<String, BigDecimal> getSpotPrices(String availabilityZone, Set<String> instanceTypes)
+    {
+        return getPrices(spotPrices, availabilityZone, instanceTypes, this::loadSpotPrices);
+    }
+
+    /**
+     * Returns a mapping of instance types to the on-demand prices in the given region. Instance types without an on-demand price are not included.
+     *
+     * @param regionName the name of the region
+     * @param instanceTypes the instance types
+     *
+     * @return the map of instance types to on-demand prices
+     */
+    public Map<String, BigDecimal> getOnDemandPrices(String regionName, Set<String> instanceTypes)
+    {
+        return getPrices(onDemandPrices, regionName, instanceTypes, this::loadOnDemandPrices);
+    }
+
+    /**
+     * Reloads the prices that were requested since they were loaded once they reach half of the maximum age, and drops the other ones.
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void refreshPrices()
+    {
+        long maxAgeMillis = getMaxAgeMillis();
+        if (maxAgeMillis <= 0)
+        {
+            spotPrices.clear();
+            onDemandPrices.clear();
+            return;
+        }
+
+        refreshPrices(spotPrices, maxAgeMillis / 2, this::loadSpotPrices);
+        refreshPrices(onDemandPrices, maxAgeMillis / 2, this::loadOnDemandPrices);
+    }
+
+    /**
+     * Gets the prices from the snapshot, loading the missing and expired ones.
+     *
+     * @param prices the snapshot of prices keyed by location and instance type
+     * @param location the name of the availability zone or region
+     * @param instanceTypes the instance types
+     * @param loader the function that loads the prices of instance types in a location
+     *
+     * @return the map of instance types to prices
+     */
+    private Map<String, BigDecimal> getPrices(Map<List<String>, Price> prices, String location, Set<String> instanceTypes,
+        BiFunction<String, Set<String>, Map<String, BigDecimal>> loader)
+    {
+        long maxAgeMillis = getMaxAgeMillis();
+        if (maxAgeMillis <= 0)
+        {
+            return loader.apply(location, instanceTypes);
+        }
+
+        long now = System.currentTimeMillis();
+        Map<String, BigDecimal> instanceTypePrices = new HashMap<>();
+        Set<String> instanceTypesToLoad = new HashSet<>();
+        for (String instanceType : instanceTypes)
+        {
+            Price price = prices.get(Arrays.asList(location, instanceType));
+            if (price != null && now - price.loadedOn <= maxAgeMillis)
+            {
+                price.requested = true;
+                instanceTypePrices.put(instanceType, price.value);
+            }
+            else
+            {
+                instanceTypesToLoad.add(instanceType);
+            }
+        }
+
+        if (!instanceTypesToLoad.isEmpty())
+        {
+            Map<String, BigDecimal> loadedPrices = loader.apply(location, instanceTypesToLoad);
+            loadedPrices.forEach((instanceType, value) -> prices.put(Arrays.asList(location, instanceType), new Price(value, now, true)));
+            instanceTypePrices.putAll(loadedPrices);
+        }
+
+        return instanceTypePrices;
+    }
+
+    /**
+     * Reloads the prices that are older than the specified age and were requested since they were loaded, and drops the other ones of that age.
+     *
+     * @param prices the snapshot of prices keyed by location and instance type
+     * @param refreshAgeMillis the age in milliseconds at which the prices are reloaded
+     * @param loader the function that loads the prices of instance types in a location
+     */
+    private void refreshPrices(Map<List<String>, Price> prices, long refreshAgeMillis, BiFunction<String, Set<String>, Map<String, BigDecimal>> loader)
+    {
+        long now = System.currentTimeMillis();
+
+        // Group the instance types to reload by location, so the prices of each location are loaded at once.
+        Map<String, Set<String>> instanceTypesToLoad = new HashMap<>();
+        prices.forEach((key, price) -> {
+            if (now - price.loadedOn >= refreshAgeMillis)
+            {
+                if (price.requested)
+                {
+                    instanceTypesToLoad.computeIfAbsent(key.get(0), location -> new HashSet<>()).add(key.get(1));
+                }
+                else
+                {
+                    prices.remove(key, price);
+                }
+            }
+        });
+
+        instanceTypesToLoad.forEach((location, instanceTypes) -> {
+            try
+            {
+                loader.apply(location, instanceTypes)
+                    .forEach((instanceType, value) -> prices.put(Arrays.asList(location, instanceType), new Price(value, now, false)));
+            }
+            catch (RuntimeException e)
+            {
+                // The prices are loaded again when they are requested after they expire.
+                LOGGER.warn("Failed to refresh EMR prices. location=\"{}\" instanceTypes={}", location, instanceTypes, e);
+            }
+        });
+    }
+
+    /**
+     * Loads the latest spot prices from the EC2 API.
+     *
+     * @param availabilityZone the name of the availability zone
+     * @param instanceTypes the instance types
+     *
+     * @return the map of instance types to spot prices
+     */
+    private Map<String, BigDecimal> loadSpotPrices(String availabilityZone, Set<String> instanceTypes)
+    {
+        List<String> productDescriptions = herdStringHelper.getDelimitedConfigurationValue(ConfigurationValue.EMR_SPOT_PRICE_HISTORY_PRODUCT_DESCRIPTIONS);
+        List<SpotPrice> spotPriceList = ec2Dao.getLatestSpotPrices(availabilityZone, instanceTypes, productDescriptions, awsHelper.getAwsParamsDto());
+
+        Map<String, BigDecimal> instanceTypeSpotPrices = new HashMap<>();
+        for (SpotPrice spotPrice : spotPriceList)
+        {
+            instanceTypeSpotPrices.put(spotPrice.getInstanceType(), new BigDecimal(spotPrice.getSpotPrice()));
+        }
+
+        return instanceTypeSpotPrices;
+    }
+
+    /**
+     * Loads the on-demand prices from the database.
+     *
+     * @param regionName the name of the region
+     * @param instanceTypes the instance types
+     *
+     * @return the map of instance types to on-demand prices
+     */
+    private Map<String, BigDecimal> loadOnDemandPrices(String regionName, Set<String> instanceTypes)
+    {
+        Map<String, BigDecimal> instanceTypeOnDemandPrices = new HashMap<>();
+        for (String instanceType : instanceTypes)
+        {
+            OnDemandPriceEntity onDemandPrice = onDemandPriceDao.getOnDemandPrice(regionName, instanceType);
+            if (onDemandPrice != null)
+            {
+                instanceTypeOnDemandPrices.put(instanceType, onDemandPrice.getValue());
+            }
+        }
+
+        return instanceTypeOnDemandPrices;
+    }
+
+    /**
+     * Gets the maximum age of the prices in milliseconds.
+     *
+     * @return the maximum age, zero or less when the snapshot is disabled
+     */
+    private long getMaxAgeMillis()
+    {
+        return TimeUnit.SECONDS.toMillis(configurationHelper.getProperty(ConfigurationValue.EMR_PRICE_SNAPSHOT_MAX_AGE_SECONDS, Integer.class));
+    }
+
+    /**
+     * A price along with the time it was loaded.
+     */
+    private static class Price
+    {
+        private final BigDecimal value;
+
+        private final long loadedOn;
+
+        /**
+         * Tells whether the price was requested since it was loaded.
+         */
+        private volatile boolean requested;
+
+        Price(BigDecimal value, long loadedOn, boolean requested)
+        {
+            this.value = value;
+            this.loadedOn = loadedOn;
+            this.requested = requested;
+        }
+    }
+}
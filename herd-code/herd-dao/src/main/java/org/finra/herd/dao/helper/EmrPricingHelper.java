@@ -20,7 +20,6 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -28,7 +27,6 @@ import java.util.Map;
 import java.util.Set;
 
 import com.amazonaws.services.ec2.model.AvailabilityZone;
-import com.amazonaws.services.ec2.model.SpotPrice;
 import com.amazonaws.services.ec2.model.Subnet;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -37,17 +35,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import org.finra.herd.dao.Ec2Dao;
-import org.finra.herd.dao.OnDemandPriceDao;
 import org.finra.herd.model.ObjectNotFoundException;
 import org.finra.herd.model.api.xml.EmrClusterDefinition;
 import org.finra.herd.model.api.xml.InstanceDefinition;
 import org.finra.herd.model.api.xml.MasterInstanceDefinition;
-import org.finra.herd.model.dto.ConfigurationValue;
 import org.finra.herd.model.dto.Ec2PriceDto;
 import org.finra.herd.model.dto.EmrClusterAlternateKeyDto;
 import org.finra.herd.model.dto.EmrClusterPriceDto;
 import org.finra.herd.model.dto.EmrVpcPricingState;
-import org.finra.herd.model.jpa.OnDemandPriceEntity;
 
 /**
  * Encapsulates logic for calculating the best price for EMR cluster.
@@ -61,13 +56,13 @@ public class EmrPricingHelper extends AwsHelper
     private Ec2Dao ec2Dao;
 
     @Autowired
-    private HerdStringHelper herdStringHelper;
+    private EmrPriceSnapshotHelper emrPriceSnapshotHelper;
 
     @Autowired
-    private JsonHelper jsonHelper;
+    private HerdStringHelper herdStringHelper;
 
     @Autowired
-    private OnDemandPriceDao onDemandPriceDao;
+    private JsonHelper jsonHelper;
 
     @Autowired
     private EmrVpcPricingStateFormatter emrVpcPricingStateFormatter;
@@ -558,7 +553,7 @@ public class EmrPricingHelper extends AwsHelper
 
     /**
      * Returns a mapping of instance types to on-demand prices for the given AZ and instance types. The on-demand prices are retrieved from database
-     * configurations. The on-demand prices are looked up by the AZ's region name.
+     * configurations through the price snapshot. The on-demand prices are looked up by the AZ's region name.
      *
      * @param availabilityZone The availability zone of the on-demand instances.
      * @param instanceTypes The sizes of the on-demand instances.
@@ -568,25 +563,22 @@ public class EmrPricingHelper extends AwsHelper
      */
     private Map<String, BigDecimal> getInstanceTypeOnDemandPrices(AvailabilityZone availabilityZone, Set<String> instanceTypes)
     {
-        Map<String, BigDecimal> instanceTypeOnDemandPrices = new HashMap<>();
+        Map<String, BigDecimal> instanceTypeOnDemandPrices = emrPriceSnapshotHelper.getOnDemandPrices(availabilityZone.getRegionName(), instanceTypes);
         for (String instanceType : instanceTypes)
         {
-            OnDemandPriceEntity onDemandPrice = onDemandPriceDao.getOnDemandPrice(availabilityZone.getRegionName(), instanceType);
-
-            if (onDemandPrice == null)
+            if (!instanceTypeOnDemandPrices.containsKey(instanceType))
             {
                 throw new ObjectNotFoundException(
                     "On-demand price for region '" + availabilityZone.getRegionName() + "' and instance type '" + instanceType + "' not found.");
             }
-
-            instanceTypeOnDemandPrices.put(instanceType, onDemandPrice.getValue());
         }
 
         return instanceTypeOnDemandPrices;
     }
 
     /**
-     * Returns a mapping of instance types to spot prices for the given AZ and instance types. The spot prices are retrieved from EC2 API.
+     * Returns a mapping of instance types to spot prices for the given AZ and instance types. The spot prices are retrieved from EC2 API through the price
+     * snapshot.
      * <p/>
      * This method also validates that the given instance types are real instance types supported by AWS.
      *
@@ -598,14 +590,7 @@ public class EmrPricingHelper extends AwsHelper
      */
     private Map<String, BigDecimal> getInstanceTypeSpotPrices(AvailabilityZone availabilityZone, Set<String> instanceTypes)
     {
-        List<String> productDescriptions = herdStringHelper.getDelimitedConfigurationValue(ConfigurationValue.EMR_SPOT_PRICE_HISTORY_PRODUCT_DESCRIPTIONS);
-        List<SpotPrice> spotPrices = ec2Dao.getLatestSpotPrices(availabilityZone.getZoneName(), instanceTypes, productDescriptions, getAwsParamsDto());
-
-        Map<String, BigDecimal> instanceTypeSpotPrices = new HashMap<>();
-        for (SpotPrice spotPrice : spotPrices)
-        {
-            instanceTypeSpotPrices.put(spotPrice.getInstanceType(), new BigDecimal(spotPrice.getSpotPrice()));
-        }
+        Map<String, BigDecimal> instanceTypeSpotPrices = emrPriceSnapshotHelper.getSpotPrices(availabilityZone.getZoneName(), instanceTypes);
 
         // Ensure that all of the specified instance types were found.
         // If not found, it probably means user tried to lookup non-existent types.
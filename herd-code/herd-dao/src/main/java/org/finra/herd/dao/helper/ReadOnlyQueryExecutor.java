@@ -0,0 +1,217 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.dao.helper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+
+import org.apache.commons.lang3.time.StopWatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import org.finra.herd.core.helper.ConfigurationHelper;
+import org.finra.herd.model.dto.ConfigurationValue;
+
+/**
+ * Runs independent read-only queries concurrently on a bounded thread pool shared by all callers. Each query running on the thread pool gets its own entity
+ * manager and transaction, which is rolled back once the query completes, so it uses its own database connection and does not see changes that the calling
+ * thread has not committed. Queries should only return scalar values, since the entities they load are detached once their entity manager is closed.
+ */
+@Component
+public class ReadOnlyQueryExecutor implements DisposableBean
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReadOnlyQueryExecutor.class);
+
+    @Autowired
+    private ConfigurationHelper configurationHelper;
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    private ThreadPoolExecutor executor;
+
+    /**
+     * Tells whether queries may run concurrently. This is the case when more than one thread is configured and the calling thread has no transaction or a
+     * read-only one, so none of its changes are invisible to the queries.
+     *
+     * @return true if queries may run concurrently, false otherwise
+     */
+    public boolean isConcurrentExecutionAllowed()
+    {
+        return configurationHelper.getProperty(ConfigurationValue.READ_ONLY_QUERY_THREAD_COUNT, Integer.class) > 1 &&
+            (!TransactionSynchronizationManager.isActualTransactionActive() || TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+    }
+
+    /**
+     * Runs the specified queries concurrently and waits for all of them to complete. The first query runs in the calling thread on its entity manager, since
+     * the calling thread holds a database connection while it waits anyway, and so do the queries that do not fit in the queue of the thread pool. A failed
+     * query cancels the queries that have not completed yet.
+     *
+     * @param entityManager the entity manager of the calling thread
+     * @param queries the queries, each of them gets its own entity manager unless it runs in the calling thread
+     * @param <T> the type of the query results
+     *
+     * @return the query results in the order of the queries
+     */
+    public <T> List<T> executeAll(EntityManager entityManager, List<Function<EntityManager, T>> queries)
+    {
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+
+        int timeoutSeconds = configurationHelper.getProperty(ConfigurationValue.READ_ONLY_QUERY_TIMEOUT_SECONDS, Integer.class);
+        long deadlineMillis = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(timeoutSeconds);
+
+        ThreadPoolExecutor currentExecutor = getExecutor();
+        List<Future<T>> futures = new ArrayList<>(Collections.nCopies(queries.size(), null));
+        try
+        {
+            for (int i = 1; i < queries.size(); i++)
+            {
+                Function<EntityManager, T> query = queries.get(i);
+                try
+                {
+                    futures.set(i, currentExecutor.submit(() -> execute(query)));
+                }
+                catch (RejectedExecutionException e)
+                {
+                    LOGGER.debug("Read-only query queue is full, running the query in the calling thread. queryIndex={}", i);
+                }
+            }
+
+            List<T> results = new ArrayList<>(Collections.nCopies(queries.size(), null));
+            for (int i = 0; i < queries.size(); i++)
+            {
+                if (futures.get(i) == null)
+                {
+                    results.set(i, queries.get(i).apply(entityManager));
+                }
+            }
+            for (int i = 0; i < queries.size(); i++)
+            {
+                if (futures.get(i) != null)
+                {
+                    results.set(i, futures.get(i).get(Math.max(deadlineMillis - System.currentTimeMillis(), 0L), TimeUnit.MILLISECONDS));
+                }
+            }
+
+            stopWatch.stop();
+            LOGGER.debug("Executed read-only queries. queryCount={} threadCount={} durationMillis={}", queries.size(), currentExecutor.getMaximumPoolSize(),
+                stopWatch.getTime());
+
+            return results;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for read-only queries to complete.", e);
+        }
+        catch (TimeoutException e)
+        {
+            throw new IllegalStateException(String.format("Read-only queries did not complete within %d seconds.", timeoutSeconds), e);
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Failed to execute a read-only query.", e.getCause());
+        }
+        finally
+        {
+            futures.stream().filter(Objects::nonNull).forEach(future -> future.cancel(true));
+        }
+    }
+
+    @Override
+    public synchronized void destroy()
+    {
+        if (executor != null)
+        {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Runs a query in a new entity manager and transaction.
+     *
+     * @param query the query
+     * @param <T> the type of the query result
+     *
+     * @return the query result
+     */
+    private <T> T execute(Function<EntityManager, T> query)
+    {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try
+        {
+            entityManager.getTransaction().begin();
+            return query.apply(entityManager);
+        }
+        finally
+        {
+            // Nothing is ever committed, since the queries are read-only.
+            if (entityManager.getTransaction().isActive())
+            {
+                entityManager.getTransaction().rollback();
+            }
+            entityManager.close();
+        }
+    }
+
+    /**
+     * Gets the thread pool creating it from the current configuration on first use.
+     *
+     * @return the thread pool
+     */
+    private synchronized ThreadPoolExecutor getExecutor()
+    {
+        if (executor == null)
+        {
+            int threadCount = Math.max(configurationHelper.getProperty(ConfigurationValue.READ_ONLY_QUERY_THREAD_COUNT, Integer.class), 1);
+            int queueCapacity = Math.max(configurationHelper.getProperty(ConfigurationValue.READ_ONLY_QUERY_QUEUE_CAPACITY, Integer.class), 1);
+
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("readOnlyQuery-");
+            threadFactory.setDaemon(true);
+
+            executor = new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), threadFactory);
+
+            LOGGER.info("Created read-only query thread pool. threadCount={} queueCapacity={}", threadCount, queueCapacity);
+        }
+
+        return executor;
+    }
+}
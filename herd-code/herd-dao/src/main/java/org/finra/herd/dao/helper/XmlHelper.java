@@ -15,28 +15,44 @@
 */
 package org.finra.herd.dao.helper;
 
+import java.io.StringReader;
 import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
 
-import org.apache.commons.io.IOUtils;
 import org.eclipse.persistence.jaxb.MarshallerProperties;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
- * A helper class for XML functionality.
+ * A helper class for XML functionality. The JAXB context of each class is created once and reused. Marshallers and unmarshallers are not thread safe, so
+ * each of them is used by one thread at a time and returned to a bounded pool of its class once it is done.
  */
 @Component
 public class XmlHelper
 {
+    /**
+     * The maximum number of idle marshallers or unmarshallers pooled per class.
+     */
+    private static final int MAX_POOLED_INSTANCES_PER_CLASS = 16;
+
     @Autowired
     private HerdCharacterEscapeHandler herdCharacterEscapeHandler;
 
+    private final Map<Class<?>, JAXBContext> jaxbContexts = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, Queue<Marshaller>> marshallerPools = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, Queue<Unmarshaller>> unmarshallerPools = new ConcurrentHashMap<>();
+
     /**
      * Returns XML representation of the object.
      *
@@ -62,21 +78,27 @@ public class XmlHelper
      */
     public String objectToXml(Object obj, boolean formatted) throws JAXBException
     {
-        JAXBContext requestContext = JAXBContext.newInstance(obj.getClass());
-        Marshaller requestMarshaller = requestContext.createMarshaller();
+        Queue<Marshaller> marshallerPool = marshallerPools.computeIfAbsent(obj.getClass(), key -> new ArrayBlockingQueue<>(MAX_POOLED_INSTANCES_PER_CLASS));
 
-        if (formatted)
+        Marshaller requestMarshaller = marshallerPool.poll();
+        if (requestMarshaller == null)
         {
+            requestMarshaller = getJaxbContext(obj.getClass()).createMarshaller();
             requestMarshaller.setProperty(Marshaller.JAXB_ENCODING, StandardCharsets.UTF_8.name());
-            requestMarshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+
+            // Specify a custom character escape handler to escape XML 1.1 restricted characters.
+            requestMarshaller.setProperty(MarshallerProperties.CHARACTER_ESCAPE_HANDLER, herdCharacterEscapeHandler);
         }
 
-        // Specify a custom character escape handler to escape XML 1.1 restricted characters.
-        requestMarshaller.setProperty(MarshallerProperties.CHARACTER_ESCAPE_HANDLER, herdCharacterEscapeHandler);
+        // A pooled marshaller might have been used with the other format, so the format is always set.
+        requestMarshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, formatted);
 
         StringWriter sw = new StringWriter();
         requestMarshaller.marshal(obj, sw);
 
+        // The marshaller is only pooled after a successful marshalling, so a failed one is never reused. It is dropped when the pool is full.
+        marshallerPool.offer(requestMarshaller);
+
         return sw.toString();
     }
 
@@ -93,8 +115,38 @@ public class XmlHelper
     @SuppressWarnings("unchecked")
     public <T> T unmarshallXmlToObject(Class<T> classType, String xmlString) throws JAXBException
     {
-        JAXBContext context = JAXBContext.newInstance(classType);
-        Unmarshaller un = context.createUnmarshaller();
-        return (T) un.unmarshal(IOUtils.toInputStream(xmlString));
+        Queue<Unmarshaller> unmarshallerPool = unmarshallerPools.computeIfAbsent(classType, key -> new ArrayBlockingQueue<>(MAX_POOLED_INSTANCES_PER_CLASS));
+
+        Unmarshaller un = unmarshallerPool.poll();
+        if (un == null)
+        {
+            un = getJaxbContext(classType).createUnmarshaller();
+        }
+
+        // Read the characters of the string directly rather than copying them into an input stream encoded with the default charset.
+        T result = (T) un.unmarshal(new StringReader(xmlString));
+
+        unmarshallerPool.offer(un);
+
+        return result;
+    }
+
+    /**
+     * Gets the JAXB context for the specified class creating it on first use.
+     *
+     * @param classType the class the JAXB context is bound to
+     *
+     * @return the JAXB context
+     * @throws JAXBException if the JAXB context could not be created.
+     */
+    private JAXBContext getJaxbContext(Class<?> classType) throws JAXBException
+    {
+        JAXBContext jaxbContext = jaxbContexts.get(classType);
+        if (jaxbContext == null)
+        {
+            jaxbContext = JAXBContext.newInstance(classType);
+            jaxbContexts.putIfAbsent(classType, jaxbContext);
+        }
+        return jaxbContext;
     }
 }
@@ -72,8 +72,6 @@ public abstract class AbstractHerdDao extends BaseJpaDaoImpl
      */
     public static final String DEFAULT_SINGLE_DAY_DATE_MASK = "yyyy-MM-dd";
 
-    public static final int MAX_PARTITION_FILTERS_PER_REQUEST = 100;
-
     protected static final List<SingularAttribute<BusinessObjectDataEntity, String>> BUSINESS_OBJECT_DATA_PARTITIONS = Collections.unmodifiableList(Arrays
         .asList(BusinessObjectDataEntity_.partitionValue, BusinessObjectDataEntity_.partitionValue2, BusinessObjectDataEntity_.partitionValue3,
             BusinessObjectDataEntity_.partitionValue4, BusinessObjectDataEntity_.partitionValue5));
@@ -15,39 +15,51 @@
  */
 package org.finra.herd.dao.impl;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 
 import javax.persistence.Tuple;
+import javax.persistence.criteria.AbstractQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.From;
 import javax.persistence.criteria.Join;
 import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
 import javax.persistence.criteria.Subquery;
 import javax.persistence.metamodel.SingularAttribute;
 
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
+import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 
 import org.finra.herd.core.HerdDateUtils;
 import org.finra.herd.dao.BusinessObjectDataDao;
+import org.finra.herd.dao.StorageUnitDao;
+import org.finra.herd.dao.helper.JsonHelper;
 import org.finra.herd.model.api.xml.BusinessObjectData;
 import org.finra.herd.model.api.xml.BusinessObjectDataKey;
 import org.finra.herd.model.api.xml.BusinessObjectDataSearchFilter;
 import org.finra.herd.model.api.xml.BusinessObjectDataSearchKey;
+import org.finra.herd.model.api.xml.BusinessObjectDataSearchResult;
 import org.finra.herd.model.api.xml.BusinessObjectFormatKey;
 import org.finra.herd.model.api.xml.PartitionValueFilter;
 import org.finra.herd.model.api.xml.PartitionValueRange;
 import org.finra.herd.model.dto.ConfigurationValue;
 import org.finra.herd.model.dto.StoragePolicyPriorityLevel;
+import org.finra.herd.model.dto.StoragePolicySelectionCandidate;
 import org.finra.herd.model.jpa.BusinessObjectDataEntity;
 import org.finra.herd.model.jpa.BusinessObjectDataEntity_;
 import org.finra.herd.model.jpa.BusinessObjectDataStatusEntity;
@@ -67,6 +79,8 @@ import org.finra.herd.model.jpa.StorageEntity_;
 import org.finra.herd.model.jpa.StoragePlatformEntity;
 import org.finra.herd.model.jpa.StoragePolicyEntity;
 import org.finra.herd.model.jpa.StoragePolicyEntity_;
+import org.finra.herd.model.jpa.StoragePolicyRuleTypeEntity;
+import org.finra.herd.model.jpa.StoragePolicyRuleTypeEntity_;
 import org.finra.herd.model.jpa.StoragePolicyStatusEntity;
 import org.finra.herd.model.jpa.StoragePolicyStatusEntity_;
 import org.finra.herd.model.jpa.StorageUnitEntity;
@@ -77,6 +91,9 @@ import org.finra.herd.model.jpa.StorageUnitStatusEntity_;
 @Repository
 public class BusinessObjectDataDaoImpl extends AbstractHerdDao implements BusinessObjectDataDao
 {
+    @Autowired
+    private JsonHelper jsonHelper;
+
     @Override
     public BusinessObjectDataEntity getBusinessObjectDataByAltKey(BusinessObjectDataKey businessObjectDataKey)
     {
@@ -348,12 +365,13 @@ public class BusinessObjectDataDaoImpl extends AbstractHerdDao implements Busine
         List<BusinessObjectDataEntity> resultBusinessObjectDataEntities = new ArrayList<>();
 
         // Loop through each chunk of partition filters until we have reached the end of the list.
-        for (int i = 0; i < partitionFilters.size(); i += MAX_PARTITION_FILTERS_PER_REQUEST)
+        for (int i = 0; i < partitionFilters.size(); i += StorageUnitDao.MAX_PARTITION_FILTERS_PER_REQUEST)
         {
             // Get a sub-list for the current chunk of partition filters.
             List<BusinessObjectDataEntity> chunkBusinessObjectDataEntities =
                 getBusinessObjectDataEntities(businessObjectFormatKey, partitionFilters, businessObjectDataVersion, businessObjectDataStatus, storageName, i,
-                    (i + MAX_PARTITION_FILTERS_PER_REQUEST) > partitionFilters.size() ? partitionFilters.size() - i : MAX_PARTITION_FILTERS_PER_REQUEST);
+                    (i + StorageUnitDao.MAX_PARTITION_FILTERS_PER_REQUEST) > partitionFilters.size() ? partitionFilters.size() - i :
+                        StorageUnitDao.MAX_PARTITION_FILTERS_PER_REQUEST);
 
             // Add the sub-list to the result.
             resultBusinessObjectDataEntities.addAll(chunkBusinessObjectDataEntities);
@@ -399,8 +417,9 @@ public class BusinessObjectDataDaoImpl extends AbstractHerdDao implements Busine
     }
 
     @Override
-    public Map<BusinessObjectDataEntity, StoragePolicyEntity> getBusinessObjectDataEntitiesMatchingStoragePolicies(
-        StoragePolicyPriorityLevel storagePolicyPriorityLevel, List<String> supportedBusinessObjectDataStatuses, int startPosition, int maxResult)
+    public List<StoragePolicySelectionCandidate> getStoragePolicySelectionCandidates(StoragePolicyPriorityLevel storagePolicyPriorityLevel,
+        List<StoragePolicyPriorityLevel> higherStoragePolicyPriorityLevels, List<String> supportedBusinessObjectDataStatuses, Timestamp currentTimestamp,
+        StoragePolicySelectionCandidate startAfterCandidate, int maxResult)
     {
         // Create the criteria builder and a tuple style criteria query.
         CriteriaBuilder builder = entityManager.getCriteriaBuilder();
@@ -419,41 +438,180 @@ public class BusinessObjectDataDaoImpl extends AbstractHerdDao implements Busine
         Join<BusinessObjectFormatEntity, FileTypeEntity> fileTypeEntity = businessObjectFormatEntity.join(BusinessObjectFormatEntity_.fileType);
         Join<BusinessObjectFormatEntity, BusinessObjectDefinitionEntity> businessObjectDefinitionEntity =
             businessObjectFormatEntity.join(BusinessObjectFormatEntity_.businessObjectDefinition);
+        Join<StoragePolicyEntity, StoragePolicyRuleTypeEntity> storagePolicyRuleTypeEntity =
+            storagePolicyEntity.join(StoragePolicyEntity_.storagePolicyRuleType);
+
+        // Get the business object data "created on" and ID columns that identify the position of a candidate.
+        Path<Timestamp> businessObjectDataCreatedOn = businessObjectDataEntity.get(BusinessObjectDataEntity_.createdOn);
+        Path<Integer> businessObjectDataId = businessObjectDataEntity.get(BusinessObjectDataEntity_.id);
+        Path<Integer> storagePolicyId = storagePolicyEntity.get(StoragePolicyEntity_.id);
+
+        // Get the business object data alternate key columns, so the business object data keys can be built without loading the business object data
+        // entities. The namespace and file type codes are the foreign keys of their entities, so selecting them does not need a join.
+        Path<String> namespaceCode = businessObjectDefinitionEntity.get(BusinessObjectDefinitionEntity_.namespace).get(NamespaceEntity_.code);
+        Path<String> businessObjectDefinitionName = businessObjectDefinitionEntity.get(BusinessObjectDefinitionEntity_.name);
+        Path<String> businessObjectFormatUsage = businessObjectFormatEntity.get(BusinessObjectFormatEntity_.usage);
+        Path<String> businessObjectFormatFileType = fileTypeEntity.get(FileTypeEntity_.code);
+        Path<Integer> businessObjectFormatVersion = businessObjectFormatEntity.get(BusinessObjectFormatEntity_.businessObjectFormatVersion);
+        Path<String> partitionValue = businessObjectDataEntity.get(BusinessObjectDataEntity_.partitionValue);
+        List<Path<String>> subPartitionValues = new ArrayList<>();
+        for (SingularAttribute<BusinessObjectDataEntity, String> subPartitionValueAttribute : BUSINESS_OBJECT_DATA_SUBPARTITIONS)
+        {
+            subPartitionValues.add(businessObjectDataEntity.get(subPartitionValueAttribute));
+        }
+        Path<Integer> businessObjectDataVersion = businessObjectDataEntity.get(BusinessObjectDataEntity_.version);
+
+        // Create main query restrictions based on the storage policy filter and transition.
+        List<Predicate> mainQueryPredicates =
+            getStoragePolicyMatchPredicates(builder, criteria, storagePolicyPriorityLevel, businessObjectDataEntity, businessObjectFormatEntity, fileTypeEntity,
+                businessObjectDefinitionEntity, storageUnitEntity, storagePolicyEntity);
+
+        // Add a restriction on supported business object data statuses.
+        mainQueryPredicates.add(businessObjectDataStatusEntity.get(BusinessObjectDataStatusEntity_.code).in(supportedBusinessObjectDataStatuses));
+
+        // Add a restriction on the storage policy rule, so the business object data that is not old enough for the DAYS_SINCE_BDATA_REGISTERED storage policy
+        // rule does not get selected. Storage policies with other storage policy rule types are not restricted, so they can be reported as not supported.
+        List<Predicate> storagePolicyRulePredicates = new ArrayList<>();
+        storagePolicyRulePredicates.add(
+            builder.notEqual(storagePolicyRuleTypeEntity.get(StoragePolicyRuleTypeEntity_.code), StoragePolicyRuleTypeEntity.DAYS_SINCE_BDATA_REGISTERED));
+        for (Integer storagePolicyRuleValue : getStoragePolicyRuleValues(StoragePolicyRuleTypeEntity.DAYS_SINCE_BDATA_REGISTERED))
+        {
+            // Compute threshold timestamp based on the current database timestamp and storage policy rule value.
+            Timestamp thresholdTimestamp = HerdDateUtils.addDays(currentTimestamp, -storagePolicyRuleValue);
+            storagePolicyRulePredicates.add(
+                builder.and(builder.equal(storagePolicyEntity.get(StoragePolicyEntity_.storagePolicyRuleValue), storagePolicyRuleValue),
+                    builder.lessThan(businessObjectDataCreatedOn, thresholdTimestamp)));
+        }
+        mainQueryPredicates.add(builder.or(storagePolicyRulePredicates.toArray(new Predicate[] {})));
+
+        // Eliminate business object data instances that match a storage policy with a higher priority level, whether or not they are old enough for it. This
+        // is needed to avoid a lower priority storage policy to be executed ahead of a higher priority one.
+        for (StoragePolicyPriorityLevel higherStoragePolicyPriorityLevel : higherStoragePolicyPriorityLevels)
+        {
+            Subquery<StoragePolicyEntity> subquery = criteria.subquery(StoragePolicyEntity.class);
+            Root<StoragePolicyEntity> subStoragePolicyEntity = subquery.from(StoragePolicyEntity.class);
+            Root<StorageUnitEntity> subStorageUnitEntity = subquery.from(StorageUnitEntity.class);
+
+            List<Predicate> subQueryPredicates =
+                getStoragePolicyMatchPredicates(builder, subquery, higherStoragePolicyPriorityLevel, businessObjectDataEntity, businessObjectFormatEntity,
+                    fileTypeEntity, businessObjectDefinitionEntity, subStorageUnitEntity, subStoragePolicyEntity);
+            subQueryPredicates.add(builder.equal(subStorageUnitEntity.get(StorageUnitEntity_.businessObjectData), businessObjectDataEntity));
+
+            subquery.select(subStoragePolicyEntity).where(subQueryPredicates.toArray(new Predicate[] {}));
+            mainQueryPredicates.add(builder.not(builder.exists(subquery)));
+        }
+
+        // Resume right after the specified candidate, if any.
+        if (startAfterCandidate != null)
+        {
+            mainQueryPredicates.add(builder.or(builder.greaterThan(businessObjectDataCreatedOn, startAfterCandidate.getBusinessObjectDataCreatedOn()), builder
+                .and(builder.equal(businessObjectDataCreatedOn, startAfterCandidate.getBusinessObjectDataCreatedOn()),
+                    builder.greaterThan(businessObjectDataId, startAfterCandidate.getBusinessObjectDataId()))));
+        }
+
+        // Select the IDs along with the business object data alternate key columns.
+        List<Selection<?>> selections = new ArrayList<>(
+            Arrays.asList(businessObjectDataId, businessObjectDataCreatedOn, storagePolicyId, namespaceCode, businessObjectDefinitionName,
+                businessObjectFormatUsage, businessObjectFormatFileType, businessObjectFormatVersion, partitionValue, businessObjectDataVersion));
+        selections.addAll(subPartitionValues);
+        criteria.multiselect(selections);
+
+        // Add the where clause to the main query.
+        criteria.where(mainQueryPredicates.toArray(new Predicate[] {}));
+
+        // Order the results by business object data "created on" value and then by IDs, so the position of each candidate is unique.
+        criteria.orderBy(builder.asc(businessObjectDataCreatedOn), builder.asc(businessObjectDataId), builder.asc(storagePolicyId));
+
+        // Run the query to get a list of tuples back.
+        List<Tuple> tuples = entityManager.createQuery(criteria).setMaxResults(maxResult).getResultList();
+
+        // Populate the result list from the returned tuples (i.e. 1 tuple for each row).
+        List<StoragePolicySelectionCandidate> result = new ArrayList<>();
+        for (Tuple tuple : tuples)
+        {
+            // Since multiple storage policies can contain identical filters, we add the below check to select each business object data instance only once.
+            if (result.isEmpty() || !result.get(result.size() - 1).getBusinessObjectDataId().equals(tuple.get(businessObjectDataId)))
+            {
+                // Build the business object data key. The sub-partition values are listed up to the first missing one.
+                BusinessObjectDataKey businessObjectDataKey = new BusinessObjectDataKey();
+                businessObjectDataKey.setNamespace(tuple.get(namespaceCode));
+                businessObjectDataKey.setBusinessObjectDefinitionName(tuple.get(businessObjectDefinitionName));
+                businessObjectDataKey.setBusinessObjectFormatUsage(tuple.get(businessObjectFormatUsage));
+                businessObjectDataKey.setBusinessObjectFormatFileType(tuple.get(businessObjectFormatFileType));
+                businessObjectDataKey.setBusinessObjectFormatVersion(tuple.get(businessObjectFormatVersion));
+                businessObjectDataKey.setPartitionValue(tuple.get(partitionValue));
+                List<String> businessObjectDataSubPartitionValues = new ArrayList<>();
+                for (Path<String> subPartitionValue : subPartitionValues)
+                {
+                    if (tuple.get(subPartitionValue) == null)
+                    {
+                        break;
+                    }
+                    businessObjectDataSubPartitionValues.add(tuple.get(subPartitionValue));
+                }
+                businessObjectDataKey.setSubPartitionValues(businessObjectDataSubPartitionValues);
+                businessObjectDataKey.setBusinessObjectDataVersion(tuple.get(businessObjectDataVersion));
+
+                result.add(new StoragePolicySelectionCandidate(tuple.get(businessObjectDataId), tuple.get(businessObjectDataCreatedOn),
+                    tuple.get(storagePolicyId), businessObjectDataKey));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Builds the restrictions for business object data to match the filter and the transition of a storage policy from the specified storage policy priority
+     * level, not taking into account the business object data status and the storage policy rule.
+     *
+     * @param builder the criteria builder
+     * @param query the query or subquery the restrictions are for
+     * @param storagePolicyPriorityLevel the storage policy priority level
+     * @param businessObjectDataEntity the business object data entity
+     * @param businessObjectFormatEntity the business object format entity of the business object data
+     * @param fileTypeEntity the file type entity of the business object format
+     * @param businessObjectDefinitionEntity the business object definition entity of the business object format
+     * @param storageUnitEntity the storage unit entity of the business object data
+     * @param storagePolicyEntity the storage policy entity
+     *
+     * @return the list of restrictions
+     */
+    private List<Predicate> getStoragePolicyMatchPredicates(CriteriaBuilder builder, AbstractQuery<?> query,
+        StoragePolicyPriorityLevel storagePolicyPriorityLevel, From<?, BusinessObjectDataEntity> businessObjectDataEntity,
+        From<?, BusinessObjectFormatEntity> businessObjectFormatEntity, From<?, FileTypeEntity> fileTypeEntity,
+        From<?, BusinessObjectDefinitionEntity> businessObjectDefinitionEntity, From<?, StorageUnitEntity> storageUnitEntity,
+        Root<StoragePolicyEntity> storagePolicyEntity)
+    {
         Join<StoragePolicyEntity, StoragePolicyStatusEntity> storagePolicyStatusEntity = storagePolicyEntity.join(StoragePolicyEntity_.status);
 
-        // Create main query restrictions based on the specified parameters.
-        List<Predicate> mainQueryPredicates = new ArrayList<>();
+        List<Predicate> predicates = new ArrayList<>();
 
         // Add a restriction on business object definition.
-        mainQueryPredicates.add(storagePolicyPriorityLevel.isBusinessObjectDefinitionIsNull() ?
+        predicates.add(storagePolicyPriorityLevel.isBusinessObjectDefinitionIsNull() ?
             builder.isNull(storagePolicyEntity.get(StoragePolicyEntity_.businessObjectDefinition)) :
             builder.equal(businessObjectDefinitionEntity, storagePolicyEntity.get(StoragePolicyEntity_.businessObjectDefinition)));
 
         // Add a restriction on business object format usage.
-        mainQueryPredicates.add(storagePolicyPriorityLevel.isUsageIsNull() ? builder.isNull(storagePolicyEntity.get(StoragePolicyEntity_.usage)) : builder
+        predicates.add(storagePolicyPriorityLevel.isUsageIsNull() ? builder.isNull(storagePolicyEntity.get(StoragePolicyEntity_.usage)) : builder
             .equal(builder.upper(businessObjectFormatEntity.get(BusinessObjectFormatEntity_.usage)),
                 builder.upper(storagePolicyEntity.get(StoragePolicyEntity_.usage))));
 
         // Add a restriction on business object format file type.
-        mainQueryPredicates.add(storagePolicyPriorityLevel.isFileTypeIsNull() ? builder.isNull(storagePolicyEntity.get(StoragePolicyEntity_.fileType)) :
+        predicates.add(storagePolicyPriorityLevel.isFileTypeIsNull() ? builder.isNull(storagePolicyEntity.get(StoragePolicyEntity_.fileType)) :
             builder.equal(fileTypeEntity, storagePolicyEntity.get(StoragePolicyEntity_.fileType)));
 
         // Add a restriction on storage policy filter storage.
-        mainQueryPredicates.add(builder.equal(storageUnitEntity.get(StorageUnitEntity_.storage), storagePolicyEntity.get(StoragePolicyEntity_.storage)));
+        predicates.add(builder.equal(storageUnitEntity.get(StorageUnitEntity_.storage), storagePolicyEntity.get(StoragePolicyEntity_.storage)));
 
         // Add a restriction on storage policy latest version flag.
-        mainQueryPredicates.add(builder.isTrue(storagePolicyEntity.get(StoragePolicyEntity_.latestVersion)));
+        predicates.add(builder.isTrue(storagePolicyEntity.get(StoragePolicyEntity_.latestVersion)));
 
         // Add a restriction on storage policy status.
-        mainQueryPredicates.add(builder.equal(storagePolicyStatusEntity.get(StoragePolicyStatusEntity_.code), StoragePolicyStatusEntity.ENABLED));
-
-        // Add a restriction on supported business object data statuses.
-        mainQueryPredicates.add(businessObjectDataStatusEntity.get(BusinessObjectDataStatusEntity_.code).in(supportedBusinessObjectDataStatuses));
+        predicates.add(builder.equal(storagePolicyStatusEntity.get(StoragePolicyStatusEntity_.code), StoragePolicyStatusEntity.ENABLED));
 
         // Build a subquery to eliminate business object data instances that already have storage unit in the storage policy destination storage.
-        Subquery<BusinessObjectDataEntity> subquery = criteria.subquery(BusinessObjectDataEntity.class);
+        Subquery<BusinessObjectDataEntity> subquery = query.subquery(BusinessObjectDataEntity.class);
         Root<BusinessObjectDataEntity> subBusinessObjectDataEntity = subquery.from(BusinessObjectDataEntity.class);
-        subquery.select(subBusinessObjectDataEntity);
 
         // Join to the other tables we can filter on for the subquery.
         Join<BusinessObjectDataEntity, StorageUnitEntity> subStorageUnitEntity = subBusinessObjectDataEntity.join(BusinessObjectDataEntity_.storageUnits);
@@ -467,37 +625,43 @@ public class BusinessObjectDataDaoImpl extends AbstractHerdDao implements Busine
         // Add all clauses to the subquery.
         subquery.select(subBusinessObjectDataEntity).where(subQueryPredicates.toArray(new Predicate[] {}));
 
-        // Add a main query restriction based on the subquery to eliminate business object data
+        // Add a restriction based on the subquery to eliminate business object data
         // instances that already have storage unit in the storage policy destination storage.
-        mainQueryPredicates.add(builder.not(builder.exists(subquery)));
+        predicates.add(builder.not(builder.exists(subquery)));
 
-        // Order the results by business object data "created on" value.
-        Order orderByCreatedOn = builder.asc(businessObjectDataEntity.get(BusinessObjectDataEntity_.createdOn));
+        return predicates;
+    }
 
-        // Add the select clause to the main query.
-        criteria.multiselect(businessObjectDataEntity, storagePolicyEntity);
+    /**
+     * Gets the distinct storage policy rule values used by the latest versions of the enabled storage policies with the specified storage policy rule type.
+     *
+     * @param storagePolicyRuleType the storage policy rule type
+     *
+     * @return the list of storage policy rule values
+     */
+    private List<Integer> getStoragePolicyRuleValues(String storagePolicyRuleType)
+    {
+        // Create the criteria builder and the criteria.
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Integer> criteria = builder.createQuery(Integer.class);
 
-        // Add the where clause to the main query.
-        criteria.where(mainQueryPredicates.toArray(new Predicate[] {}));
+        // The criteria root is the storage policy.
+        Root<StoragePolicyEntity> storagePolicyEntity = criteria.from(StoragePolicyEntity.class);
 
-        // Add the order by clause to the main query.
-        criteria.orderBy(orderByCreatedOn);
+        // Join to the other tables we can filter on.
+        Join<StoragePolicyEntity, StoragePolicyRuleTypeEntity> storagePolicyRuleTypeEntity =
+            storagePolicyEntity.join(StoragePolicyEntity_.storagePolicyRuleType);
+        Join<StoragePolicyEntity, StoragePolicyStatusEntity> storagePolicyStatusEntity = storagePolicyEntity.join(StoragePolicyEntity_.status);
 
-        // Run the query to get a list of tuples back.
-        List<Tuple> tuples = entityManager.createQuery(criteria).setFirstResult(startPosition).setMaxResults(maxResult).getResultList();
+        // Create the standard restrictions (i.e. the standard where clauses).
+        Predicate queryRestriction = builder.equal(storagePolicyRuleTypeEntity.get(StoragePolicyRuleTypeEntity_.code), storagePolicyRuleType);
+        queryRestriction = builder.and(queryRestriction, builder.isTrue(storagePolicyEntity.get(StoragePolicyEntity_.latestVersion)));
+        queryRestriction =
+            builder.and(queryRestriction, builder.equal(storagePolicyStatusEntity.get(StoragePolicyStatusEntity_.code), StoragePolicyStatusEntity.ENABLED));
 
-        // Populate the result map from the returned tuples (i.e. 1 tuple for each row).
-        Map<BusinessObjectDataEntity, StoragePolicyEntity> result = new LinkedHashMap<>();
-        for (Tuple tuple : tuples)
-        {
-            // Since multiple storage policies can contain identical filters, we add the below check to select each business object data instance only once.
-            if (!result.containsKey(tuple.get(businessObjectDataEntity)))
-            {
-                result.put(tuple.get(businessObjectDataEntity), tuple.get(storagePolicyEntity));
-            }
-        }
+        criteria.select(storagePolicyEntity.get(StoragePolicyEntity_.storagePolicyRuleValue)).distinct(true).where(queryRestriction);
 
-        return result;
+        return entityManager.createQuery(criteria).getResultList();
     }
 
     /**
@@ -776,6 +940,12 @@ public class BusinessObjectDataDaoImpl extends AbstractHerdDao implements Busine
 
     @Override
     public List<BusinessObjectData> searchBusinessObjectData(List<BusinessObjectDataSearchFilter> filters)
+    {
+        return searchBusinessObjectData(filters, null).getBusinessObjectDataElements();
+    }
+
+    @Override
+    public BusinessObjectDataSearchResult searchBusinessObjectData(List<BusinessObjectDataSearchFilter> filters, String pageToken)
     {
         Integer businessObjectDataSearchMaxResultsPerPage =
             configurationHelper.getProperty(ConfigurationValue.BUSINESS_OBJECT_DATA_SEARCH_MAX_RESULTS_PER_PAGE, Integer.class);
@@ -783,9 +953,9 @@ public class BusinessObjectDataDaoImpl extends AbstractHerdDao implements Busine
         // assume only one filter and only on search key, the validation should be passed by now
         BusinessObjectDataSearchKey businessDataSearchKey = filters.get(0).getBusinessObjectDataSearchKeys().get(0);
 
-        // Create the criteria builder and the criteria.
+        // Create the criteria builder and a tuple style criteria query.
         CriteriaBuilder builder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<BusinessObjectDataEntity> criteria = builder.createQuery(BusinessObjectDataEntity.class);
+        CriteriaQuery<Tuple> criteria = builder.createTupleQuery();
 
         // The criteria root is the business object data.
         Root<BusinessObjectDataEntity> businessObjectDataEntity = criteria.from(BusinessObjectDataEntity.class);
@@ -796,104 +966,241 @@ public class BusinessObjectDataDaoImpl extends AbstractHerdDao implements Busine
         Join<BusinessObjectFormatEntity, BusinessObjectDefinitionEntity> businessObjectDefinitionEntity =
             businessObjectFormatEntity.join(BusinessObjectFormatEntity_.businessObjectDefinition);
 
-        // Create the standard restrictions based on the business object search key values (i.e. the standard where clauses).
+        // Get the columns needed to build the business object data. The namespace and file type codes are the foreign keys of their entities, so selecting
+        // them does not need a join.
+        Path<String> namespaceCode = businessObjectDefinitionEntity.get(BusinessObjectDefinitionEntity_.namespace).get(NamespaceEntity_.code);
+        Path<String> businessObjectDefinitionName = businessObjectDefinitionEntity.get(BusinessObjectDefinitionEntity_.name);
+        Path<String> businessObjectFormatUsage = businessObjectFormatEntity.get(BusinessObjectFormatEntity_.usage);
+        Path<String> businessObjectFormatFileType = businessObjectFormatEntity.get(BusinessObjectFormatEntity_.fileType).get(FileTypeEntity_.code);
+        Path<Integer> businessObjectFormatVersion = businessObjectFormatEntity.get(BusinessObjectFormatEntity_.businessObjectFormatVersion);
+        Path<String> partitionKey = businessObjectFormatEntity.get(BusinessObjectFormatEntity_.partitionKey);
+        Path<Integer> businessObjectDataId = businessObjectDataEntity.get(BusinessObjectDataEntity_.id);
+        Path<String> partitionValue = businessObjectDataEntity.get(BusinessObjectDataEntity_.partitionValue);
+        List<Path<String>> subPartitionValues = Arrays.asList(businessObjectDataEntity.get(BusinessObjectDataEntity_.partitionValue2),
+            businessObjectDataEntity.get(BusinessObjectDataEntity_.partitionValue3), businessObjectDataEntity.get(BusinessObjectDataEntity_.partitionValue4),
+            businessObjectDataEntity.get(BusinessObjectDataEntity_.partitionValue5));
+        Path<Integer> businessObjectDataVersion = businessObjectDataEntity.get(BusinessObjectDataEntity_.version);
+        Path<Boolean> latestVersion = businessObjectDataEntity.get(BusinessObjectDataEntity_.latestVersion);
+
+        // Create the standard restrictions based on the business object search key values (i.e. the standard where clauses). The restrictions compare
+        // upper case values, which are backed by the function based indexes on the business object definition and format tables.
 
         // Create a restriction on namespace code.
-        Predicate predicate = builder
-            .equal(builder.upper(businessObjectDefinitionEntity.get(BusinessObjectDefinitionEntity_.namespace).get(NamespaceEntity_.code)),
-                businessDataSearchKey.getNamespace().toUpperCase());
+        Predicate predicate = builder.equal(builder.upper(namespaceCode), businessDataSearchKey.getNamespace().toUpperCase());
 
         // Create and append a restriction on business object definition name.
-        predicate = builder.and(predicate, builder.equal(builder.upper(businessObjectDefinitionEntity.get(BusinessObjectDefinitionEntity_.name)),
-            businessDataSearchKey.getBusinessObjectDefinitionName().toUpperCase()));
+        predicate = builder.and(predicate,
+            builder.equal(builder.upper(businessObjectDefinitionName), businessDataSearchKey.getBusinessObjectDefinitionName().toUpperCase()));
 
         // Create and append a restriction on business object format usage.
         if (!StringUtils.isEmpty(businessDataSearchKey.getBusinessObjectFormatUsage()))
         {
-            predicate = builder.and(predicate, builder.equal(builder.upper(businessObjectFormatEntity.get(BusinessObjectFormatEntity_.usage)),
-                businessDataSearchKey.getBusinessObjectFormatUsage().toUpperCase()));
+            predicate = builder
+                .and(predicate, builder.equal(builder.upper(businessObjectFormatUsage), businessDataSearchKey.getBusinessObjectFormatUsage().toUpperCase()));
         }
 
         if (!StringUtils.isEmpty(businessDataSearchKey.getBusinessObjectFormatFileType()))
         {
             // Create and append a restriction on business object format file type.
-            predicate = builder.and(predicate, builder
-                .equal(builder.upper(businessObjectFormatEntity.get(BusinessObjectFormatEntity_.fileType).get(FileTypeEntity_.code)),
-                    businessDataSearchKey.getBusinessObjectFormatFileType().toUpperCase()));
+            predicate = builder.and(predicate,
+                builder.equal(builder.upper(businessObjectFormatFileType), businessDataSearchKey.getBusinessObjectFormatFileType().toUpperCase()));
         }
 
         // If specified, create and append a restriction on business object format version.
         if (businessDataSearchKey.getBusinessObjectFormatVersion() != null)
         {
-            predicate = builder.and(predicate, builder.equal(businessObjectFormatEntity.get(BusinessObjectFormatEntity_.businessObjectFormatVersion),
-                businessDataSearchKey.getBusinessObjectFormatVersion()));
+            predicate = builder.and(predicate, builder.equal(businessObjectFormatVersion, businessDataSearchKey.getBusinessObjectFormatVersion()));
         }
 
         predicate = createPartitionValueFilters(businessDataSearchKey, businessObjectDataEntity, businessObjectFormatEntity, builder, predicate);
 
-        criteria.select(businessObjectDataEntity).where(predicate);
+        // The keys that identify the position of a business object data in the search results. The namespace and business object definition name are not
+        // needed, since they are the same for all the results. The business object data ID is added to make the position unique. Missing sub-partition
+        // values are sorted first, as the database sorts null values in descending order.
+        List<Expression<? extends Comparable>> positionKeys = new ArrayList<>();
+        positionKeys.add(businessObjectFormatUsage);
+        positionKeys.add(businessObjectFormatFileType);
+        positionKeys.add(businessObjectFormatVersion);
+        positionKeys.add(partitionValue);
+        positionKeys.addAll(subPartitionValues);
+        positionKeys.add(businessObjectDataVersion);
+        positionKeys.add(businessObjectDataId);
+        boolean[] ascendingPositionKeys = {true, true, false, false, false, false, false, false, false, true};
+        boolean[] nullablePositionKeys = {false, false, false, false, true, true, true, true, false, false};
+
+        // Resume right after the last business object data of the previous page, if any.
+        if (pageToken != null)
+        {
+            predicate = builder.and(predicate, getStartAfterPositionPredicate(builder, positionKeys, ascendingPositionKeys, decodePageToken(pageToken)));
+        }
+
+        // Select only the columns needed to build the business object data.
+        List<Selection<?>> selections = new ArrayList<>(positionKeys);
+        selections.addAll(Arrays.asList(namespaceCode, businessObjectDefinitionName, partitionKey, latestVersion));
+        criteria.multiselect(selections).where(predicate);
 
         //order by
         List<Order> orderList = new ArrayList<>();
-        orderList.add(builder.asc(businessObjectDefinitionEntity.get(BusinessObjectDefinitionEntity_.namespace)));
-        orderList.add(builder.asc(businessObjectDefinitionEntity.get(BusinessObjectDefinitionEntity_.name)));
-        orderList.add(builder.asc(businessObjectFormatEntity.get(BusinessObjectFormatEntity_.usage)));
-        orderList.add(builder.asc(businessObjectFormatEntity.get(BusinessObjectFormatEntity_.fileType)));
-        orderList.add(builder.desc(businessObjectFormatEntity.get(BusinessObjectFormatEntity_.businessObjectFormatVersion)));
-        orderList.add(builder.desc(businessObjectDataEntity.get(BusinessObjectDataEntity_.partitionValue)));
-        orderList.add(builder.desc(businessObjectDataEntity.get(BusinessObjectDataEntity_.partitionValue2)));
-        orderList.add(builder.desc(businessObjectDataEntity.get(BusinessObjectDataEntity_.partitionValue3)));
-        orderList.add(builder.desc(businessObjectDataEntity.get(BusinessObjectDataEntity_.partitionValue4)));
-        orderList.add(builder.desc(businessObjectDataEntity.get(BusinessObjectDataEntity_.partitionValue5)));
-        orderList.add(builder.desc(businessObjectDataEntity.get(BusinessObjectDataEntity_.version)));
+        orderList.add(builder.asc(namespaceCode));
+        orderList.add(builder.asc(businessObjectDefinitionName));
+        for (int i = 0; i < positionKeys.size(); i++)
+        {
+            // Sort the null values of a nullable key first explicitly, since the default position of null values depends on the database.
+            if (nullablePositionKeys[i])
+            {
+                orderList.add(builder.asc(builder.selectCase().when(builder.isNull(positionKeys.get(i)), 0).otherwise(1)));
+            }
+            orderList.add(ascendingPositionKeys[i] ? builder.asc(positionKeys.get(i)) : builder.desc(positionKeys.get(i)));
+        }
 
         criteria.orderBy(orderList);
 
-        List<BusinessObjectData> businessObjectDataList = new ArrayList<>();
+        // Get one more row than the page size to know whether there is a next page.
+        List<Tuple> tuples = entityManager.createQuery(criteria).setMaxResults(businessObjectDataSearchMaxResultsPerPage + 1).getResultList();
 
-        List<BusinessObjectDataEntity> entitityArray =
-            entityManager.createQuery(criteria).setMaxResults(businessObjectDataSearchMaxResultsPerPage).getResultList();
-        for (BusinessObjectDataEntity dataEntity : entitityArray)
+        List<BusinessObjectData> businessObjectDataList = new ArrayList<>();
+        for (Tuple tuple : tuples.subList(0, Math.min(tuples.size(), businessObjectDataSearchMaxResultsPerPage)))
         {
             BusinessObjectData businessObjectData = new BusinessObjectData();
-            businessObjectData.setId(dataEntity.getId());
-            businessObjectData.setPartitionValue(dataEntity.getPartitionValue());
-            businessObjectData.setVersion(dataEntity.getVersion());
-            businessObjectData.setLatestVersion(dataEntity.getLatestVersion());
-            BusinessObjectFormatEntity formatEntity = dataEntity.getBusinessObjectFormat();
-            businessObjectData.setNamespace(formatEntity.getBusinessObjectDefinition().getNamespace().getCode());
-            businessObjectData.setBusinessObjectDefinitionName(formatEntity.getBusinessObjectDefinition().getName());
-            businessObjectData.setBusinessObjectFormatUsage(formatEntity.getUsage());
-            businessObjectData.setBusinessObjectFormatFileType(formatEntity.getFileType().getCode());
-            businessObjectData.setBusinessObjectFormatVersion(formatEntity.getBusinessObjectFormatVersion());
-            businessObjectData.setPartitionKey(formatEntity.getPartitionKey());
+            businessObjectData.setId(tuple.get(businessObjectDataId));
+            businessObjectData.setPartitionValue(tuple.get(partitionValue));
+            businessObjectData.setVersion(tuple.get(businessObjectDataVersion));
+            businessObjectData.setLatestVersion(tuple.get(latestVersion));
+            businessObjectData.setNamespace(tuple.get(namespaceCode));
+            businessObjectData.setBusinessObjectDefinitionName(tuple.get(businessObjectDefinitionName));
+            businessObjectData.setBusinessObjectFormatUsage(tuple.get(businessObjectFormatUsage));
+            businessObjectData.setBusinessObjectFormatFileType(tuple.get(businessObjectFormatFileType));
+            businessObjectData.setBusinessObjectFormatVersion(tuple.get(businessObjectFormatVersion));
+            businessObjectData.setPartitionKey(tuple.get(partitionKey));
 
             List<String> subpartitions = new ArrayList<>();
-            if (dataEntity.getPartitionValue2() != null)
+            for (Path<String> subPartitionValue : subPartitionValues)
             {
-                subpartitions.add(dataEntity.getPartitionValue2());
+                if (tuple.get(subPartitionValue) != null)
+                {
+                    subpartitions.add(tuple.get(subPartitionValue));
+                }
             }
-            if (dataEntity.getPartitionValue3() != null)
+            if (subpartitions.size() > 0)
             {
-                subpartitions.add(dataEntity.getPartitionValue3());
+                businessObjectData.setSubPartitionValues(subpartitions);
             }
-            if (dataEntity.getPartitionValue4() != null)
+
+            businessObjectDataList.add(businessObjectData);
+        }
+
+        BusinessObjectDataSearchResult businessObjectDataSearchResult = new BusinessObjectDataSearchResult();
+        businessObjectDataSearchResult.setBusinessObjectDataElements(businessObjectDataList);
+
+        // Return the position of the last business object data of the page as the token of the next page.
+        if (tuples.size() > businessObjectDataSearchMaxResultsPerPage)
+        {
+            Tuple lastTuple = tuples.get(businessObjectDataSearchMaxResultsPerPage - 1);
+            List<Object> position = new ArrayList<>();
+            for (Expression<? extends Comparable> positionKey : positionKeys)
             {
-                subpartitions.add(dataEntity.getPartitionValue4());
+                position.add(lastTuple.get(positionKey));
             }
-            if (dataEntity.getPartitionValue5() != null)
+            businessObjectDataSearchResult.setNextPageToken(encodePageToken(position));
+        }
+
+        return businessObjectDataSearchResult;
+    }
+
+    /**
+     * Builds the restriction that selects the rows sorted after the specified position, i.e. the rows for which the first position key that differs is
+     * greater than the one of the position for an ascending key or lower for a descending key. Null values are sorted before any other value.
+     *
+     * @param builder the criteria builder
+     * @param positionKeys the position keys in sort order
+     * @param ascendingPositionKeys whether each position key is sorted in ascending order
+     * @param position the values of the position keys
+     *
+     * @return the restriction
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate getStartAfterPositionPredicate(CriteriaBuilder builder, List<Expression<? extends Comparable>> positionKeys,
+        boolean[] ascendingPositionKeys, List<Comparable> position)
+    {
+        List<Predicate> predicates = new ArrayList<>();
+        List<Predicate> equalPredicates = new ArrayList<>();
+        for (int i = 0; i < positionKeys.size(); i++)
+        {
+            Expression positionKey = positionKeys.get(i);
+            Comparable positionValue = position.get(i);
+
+            // All the non-null values are sorted after a null value.
+            Predicate afterPredicate;
+            Predicate equalPredicate;
+            if (positionValue == null)
             {
-                subpartitions.add(dataEntity.getPartitionValue5());
+                afterPredicate = builder.isNotNull(positionKey);
+                equalPredicate = builder.isNull(positionKey);
             }
-            if (subpartitions.size() > 0)
+            else
             {
-                businessObjectData.setSubPartitionValues(subpartitions);
+                afterPredicate = ascendingPositionKeys[i] ? builder.greaterThan(positionKey, positionValue) : builder.lessThan(positionKey, positionValue);
+                equalPredicate = builder.equal(positionKey, positionValue);
             }
 
-            businessObjectDataList.add(businessObjectData);
+            List<Predicate> andPredicates = new ArrayList<>(equalPredicates);
+            andPredicates.add(afterPredicate);
+            predicates.add(builder.and(andPredicates.toArray(new Predicate[andPredicates.size()])));
+
+            equalPredicates.add(equalPredicate);
+        }
+
+        return builder.or(predicates.toArray(new Predicate[predicates.size()]));
+    }
+
+    /**
+     * Encodes the position of a business object data in the search results as an opaque page token.
+     *
+     * @param position the values of the position keys
+     *
+     * @return the page token
+     */
+    private String encodePageToken(List<Object> position)
+    {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(jsonHelper.objectToJson(position).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a page token returned by a previous search.
+     *
+     * @param pageToken the page token
+     *
+     * @return the values of the position keys
+     * @throws IllegalArgumentException if the page token is not valid
+     */
+    @SuppressWarnings("rawtypes")
+    private List<Comparable> decodePageToken(String pageToken)
+    {
+        String invalidPageTokenMessage = String.format("Invalid page token \"%s\".", pageToken);
+
+        List<?> position;
+        try
+        {
+            position = jsonHelper.unmarshallJsonToObject(List.class, new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8));
+        }
+        catch (IOException | IllegalArgumentException e)
+        {
+            throw new IllegalArgumentException(invalidPageTokenMessage, e);
+        }
+
+        // The position holds the format usage, file type and version, the five partition values, and the business object data version and ID. Only the
+        // sub-partition values might be null.
+        Assert.isTrue(position != null && position.size() == 10, invalidPageTokenMessage);
+        List<Comparable> positionValues = new ArrayList<>();
+        for (int i = 0; i < position.size(); i++)
+        {
+            Object value = position.get(i);
+            Assert.isTrue((i >= 4 && i <= 7 && value == null) || ((i == 2 || i >= 8) ? value instanceof Integer : value instanceof String),
+                invalidPageTokenMessage);
+            positionValues.add((Comparable) value);
         }
 
-        return businessObjectDataList;
+        return positionValues;
     }
 
     /**
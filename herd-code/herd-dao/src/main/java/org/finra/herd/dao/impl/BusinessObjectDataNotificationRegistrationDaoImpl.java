@@ -250,4 +250,37 @@ public class BusinessObjectDataNotificationRegistrationDaoImpl extends AbstractN
         // Execute the query and return the results.
         return entityManager.createQuery(criteria).getResultList();
     }
+
+    @Override
+    public List<BusinessObjectDataNotificationRegistrationEntity> getBusinessObjectDataNotificationRegistrationsByStatus(String notificationRegistrationStatus)
+    {
+        // Create the criteria builder and the criteria.
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BusinessObjectDataNotificationRegistrationEntity> criteria = builder.createQuery(BusinessObjectDataNotificationRegistrationEntity.class);
+
+        // The criteria root is the business object data notification registration entity.
+        Root<BusinessObjectDataNotificationRegistrationEntity> notificationRegistrationEntityRoot =
+            criteria.from(BusinessObjectDataNotificationRegistrationEntity.class);
+
+        // Join to the other tables we can filter on.
+        Join<BusinessObjectDataNotificationRegistrationEntity, NotificationRegistrationStatusEntity> notificationRegistrationStatusEntityJoin =
+            notificationRegistrationEntityRoot.join(BusinessObjectDataNotificationRegistrationEntity_.notificationRegistrationStatus);
+
+        // Create the standard restrictions (i.e. the standard where clauses).
+        Predicate queryRestriction = builder.equal(builder.upper(notificationRegistrationStatusEntityJoin.get(NotificationRegistrationStatusEntity_.code)),
+            notificationRegistrationStatus.toUpperCase());
+
+        // Fetch the associations along with the notification registrations, so reading them does not run a query per notification registration.
+        notificationRegistrationEntityRoot.fetch(BusinessObjectDataNotificationRegistrationEntity_.notificationEventType);
+        notificationRegistrationEntityRoot.fetch(BusinessObjectDataNotificationRegistrationEntity_.businessObjectDefinition, JoinType.LEFT)
+            .fetch(BusinessObjectDefinitionEntity_.namespace, JoinType.LEFT);
+        notificationRegistrationEntityRoot.fetch(BusinessObjectDataNotificationRegistrationEntity_.fileType, JoinType.LEFT);
+        notificationRegistrationEntityRoot.fetch(BusinessObjectDataNotificationRegistrationEntity_.newBusinessObjectDataStatus, JoinType.LEFT);
+        notificationRegistrationEntityRoot.fetch(BusinessObjectDataNotificationRegistrationEntity_.oldBusinessObjectDataStatus, JoinType.LEFT);
+
+        criteria.select(notificationRegistrationEntityRoot).where(queryRestriction);
+
+        // Execute the query and return the results.
+        return entityManager.createQuery(criteria).getResultList();
+    }
 }
@@ -21,6 +21,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import com.amazonaws.services.elasticmapreduce.AmazonElasticMapReduceClient;
 import com.amazonaws.services.elasticmapreduce.model.ActionOnFailure;
@@ -28,6 +30,7 @@ import com.amazonaws.services.elasticmapreduce.model.AddJobFlowStepsRequest;
 import com.amazonaws.services.elasticmapreduce.model.Application;
 import com.amazonaws.services.elasticmapreduce.model.BootstrapActionConfig;
 import com.amazonaws.services.elasticmapreduce.model.Cluster;
+import com.amazonaws.services.elasticmapreduce.model.ClusterState;
 import com.amazonaws.services.elasticmapreduce.model.ClusterSummary;
 import com.amazonaws.services.elasticmapreduce.model.Configuration;
 import com.amazonaws.services.elasticmapreduce.model.DescribeClusterRequest;
@@ -104,6 +107,11 @@ public class EmrDaoImpl implements EmrDao
     @Autowired
     private EmrHelper emrHelper;
 
+    /**
+     * The index of the active EMR clusters by upper-cased cluster name shared across requests, or null when it was not loaded yet.
+     */
+    private volatile ActiveEmrClusterIndex activeEmrClusterIndex;
+
     /**
      * Add an EMR Step. This method adds the step to EMR cluster based on the input.
      *
@@ -199,7 +207,16 @@ public class EmrDaoImpl implements EmrDao
     @Override
     public String createEmrCluster(String clusterName, EmrClusterDefinition emrClusterDefinition, AwsParamsDto awsParams)
     {
-        return emrOperations.runEmrJobFlow(getEmrClient(awsParams), getRunJobFlowRequest(clusterName, emrClusterDefinition));
+        String clusterId = emrOperations.runEmrJobFlow(getEmrClient(awsParams), getRunJobFlowRequest(clusterName, emrClusterDefinition));
+
+        // Remove the cluster name from the index, so the next lookup gets the new cluster along with its actual state.
+        ActiveEmrClusterIndex index = activeEmrClusterIndex;
+        if (index != null && StringUtils.isNotBlank(clusterName))
+        {
+            index.clusters.remove(clusterName.toUpperCase());
+        }
+
+        return clusterId;
     }
 
     /**
@@ -212,6 +229,13 @@ public class EmrDaoImpl implements EmrDao
     public void terminateEmrCluster(String clusterId, boolean overrideTerminationProtection, AwsParamsDto awsParams)
     {
         emrOperations.terminateEmrCluster(getEmrClient(awsParams), clusterId, overrideTerminationProtection);
+
+        // Remove the terminated cluster from the index.
+        ActiveEmrClusterIndex index = activeEmrClusterIndex;
+        if (index != null && clusterId != null)
+        {
+            index.clusters.values().removeIf(clusterSummary -> clusterId.equals(clusterSummary.getId()));
+        }
     }
 
     /**
@@ -258,6 +282,10 @@ public class EmrDaoImpl implements EmrDao
     /**
      * Get an Active EMR cluster by the cluster name. Cluster only in following states are returned: ClusterState.BOOTSTRAPPING, ClusterState.RUNNING,
      * ClusterState.STARTING, ClusterState.WAITING
+     * <p/>
+     * Clusters are looked up in an index of the active clusters that is reloaded once it gets older than the configured time to live. A cluster found in the
+     * index in RUNNING or WAITING state is returned once its state is confirmed by describing the cluster. All the other lookups list the active clusters,
+     * stopping once the cluster is found, unless the index needs to be reloaded.
      *
      * @param awsParams AWS related parameters for access/secret keys and proxy details.
      * @param clusterName the cluster name value.
@@ -269,40 +297,43 @@ public class EmrDaoImpl implements EmrDao
     {
         if (StringUtils.isNotBlank(clusterName))
         {
-            /**
-             * Call AWSOperations for ListClusters API. Need to list all the active clusters that are in
-             * BOOTSTRAPPING/RUNNING/STARTING/WAITING states
-             */
-            ListClustersRequest listClustersRequest = new ListClustersRequest().withClusterStates(getActiveEmrClusterStates());
+            long timeToLiveMillis =
+                TimeUnit.SECONDS.toMillis(configurationHelper.getProperty(ConfigurationValue.EMR_ACTIVE_CLUSTER_INDEX_TIME_TO_LIVE_SECONDS, Integer.class));
 
-            /**
-             * ListClusterRequest returns only 50 clusters at a time. However, this returns a marker
-             * that can be used for subsequent calls to listClusters to get all the clusters
-             */
-            String markerForListClusters = listClustersRequest.getMarker();
-
-            // Loop through all the available clusters and look for the given cluster id
-            do
+            if (timeToLiveMillis > 0)
             {
-                /**
-                 * Call AWSOperations for ListClusters API.
-                 * Need to include the Marker returned by the previous iteration
-                 */
-                ListClustersResult clusterResult =
-                    emrOperations.listEmrClusters(getEmrClient(awsParams), listClustersRequest.withMarker(markerForListClusters));
-
-                // Loop through all the active clusters returned by AWS
-                for (ClusterSummary clusterInstance : clusterResult.getClusters())
+                ActiveEmrClusterIndex index = activeEmrClusterIndex;
+                if (index != null && System.currentTimeMillis() - index.loadedOn <= timeToLiveMillis)
                 {
-                    // If the cluster name matches, then return the status
-                    if (StringUtils.isNotBlank(clusterInstance.getName()) && clusterInstance.getName().equalsIgnoreCase(clusterName))
+                    // Use a cluster from the index only when it is not expected to change its state soon and its state is confirmed, since the cluster
+                    // might have been terminated outside of herd after the index was loaded.
+                    ClusterSummary clusterSummary = index.clusters.get(clusterName.toUpperCase());
+                    if (clusterSummary != null && clusterSummary.getStatus() != null && isSteadyEmrClusterState(clusterSummary.getStatus().getState()))
                     {
-                        return clusterInstance;
+                        Cluster cluster = getEmrClusterById(clusterSummary.getId(), awsParams);
+                        if (cluster != null && cluster.getStatus() != null && isSteadyEmrClusterState(cluster.getStatus().getState()))
+                        {
+                            return new ClusterSummary().withId(cluster.getId()).withName(cluster.getName()).withStatus(cluster.getStatus())
+                                .withNormalizedInstanceHours(cluster.getNormalizedInstanceHours());
+                        }
+
+                        index.clusters.remove(clusterName.toUpperCase(), clusterSummary);
                     }
+
+                    // The index is fresh, so stop listing the clusters once the cluster is found.
+                    return listActiveEmrClusters(awsParams, clusterName).get(clusterName.toUpperCase());
                 }
-                markerForListClusters = clusterResult.getMarker();
+
+                // Reload the index by listing all the active clusters.
+                long loadedOn = System.currentTimeMillis();
+                Map<String, ClusterSummary> clusters = listActiveEmrClusters(awsParams, null);
+                activeEmrClusterIndex = new ActiveEmrClusterIndex(loadedOn, clusters);
+
+                return clusters.get(clusterName.toUpperCase());
             }
-            while (markerForListClusters != null);
+
+            // Without the index, stop listing the clusters once the cluster is found.
+            return listActiveEmrClusters(awsParams, clusterName).get(clusterName.toUpperCase());
         }
 
         return null;
@@ -354,6 +385,72 @@ public class EmrDaoImpl implements EmrDao
         return  awsClientFactory.getEmrClient(awsParamsDto);
     }
 
+    /**
+     * Lists the active EMR clusters that are in BOOTSTRAPPING/RUNNING/STARTING/WAITING states.
+     *
+     * @param awsParams AWS related parameters for access/secret keys and proxy details.
+     * @param clusterName the optional cluster name to stop listing the clusters at once a cluster with this name is found
+     *
+     * @return the map of upper-cased cluster names to the first cluster listed with each name
+     */
+    private Map<String, ClusterSummary> listActiveEmrClusters(AwsParamsDto awsParams, String clusterName)
+    {
+        Map<String, ClusterSummary> clusters = new ConcurrentHashMap<>();
+
+        /**
+         * Call AWSOperations for ListClusters API. Need to list all the active clusters that are in
+         * BOOTSTRAPPING/RUNNING/STARTING/WAITING states
+         */
+        ListClustersRequest listClustersRequest = new ListClustersRequest().withClusterStates(getActiveEmrClusterStates());
+
+        /**
+         * ListClusterRequest returns only 50 clusters at a time. However, this returns a marker
+         * that can be used for subsequent calls to listClusters to get all the clusters
+         */
+        String markerForListClusters = listClustersRequest.getMarker();
+
+        // Loop through all the available clusters
+        do
+        {
+            /**
+             * Call AWSOperations for ListClusters API.
+             * Need to include the Marker returned by the previous iteration
+             */
+            ListClustersResult clusterResult = emrOperations.listEmrClusters(getEmrClient(awsParams), listClustersRequest.withMarker(markerForListClusters));
+
+            // Loop through all the active clusters returned by AWS
+            for (ClusterSummary clusterInstance : clusterResult.getClusters())
+            {
+                if (StringUtils.isNotBlank(clusterInstance.getName()))
+                {
+                    clusters.putIfAbsent(clusterInstance.getName().toUpperCase(), clusterInstance);
+
+                    // If the cluster name matches, then stop listing the clusters
+                    if (clusterInstance.getName().equalsIgnoreCase(clusterName))
+                    {
+                        return clusters;
+                    }
+                }
+            }
+            markerForListClusters = clusterResult.getMarker();
+        }
+        while (markerForListClusters != null);
+
+        return clusters;
+    }
+
+    /**
+     * Tells whether an EMR cluster state is RUNNING or WAITING, which are the states an active cluster stays in until it gets terminated.
+     *
+     * @param clusterState the EMR cluster state
+     *
+     * @return true if the cluster state is RUNNING or WAITING, false otherwise
+     */
+    private boolean isSteadyEmrClusterState(String clusterState)
+    {
+        return ClusterState.RUNNING.toString().equalsIgnoreCase(clusterState) || ClusterState.WAITING.toString().equalsIgnoreCase(clusterState);
+    }
+
     private String[] getActiveEmrClusterStates()
     {
         String emrStatesString = configurationHelper.getProperty(ConfigurationValue.EMR_VALID_STATES);
@@ -1006,4 +1103,20 @@ public class EmrDaoImpl implements EmrDao
         }
         return result;
     }
-}
\ No newline at end of file
+
+    /**
+     * An index of the active EMR clusters by upper-cased cluster name.
+     */
+    private static class ActiveEmrClusterIndex
+    {
+        private final long loadedOn;
+
+        private final Map<String, ClusterSummary> clusters;
+
+        ActiveEmrClusterIndex(long loadedOn, Map<String, ClusterSummary> clusters)
+        {
+            this.loadedOn = loadedOn;
+            this.clusters = clusters;
+        }
+    }
+}
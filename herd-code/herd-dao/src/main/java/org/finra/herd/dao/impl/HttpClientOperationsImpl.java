@@ -21,14 +21,29 @@ import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
 
+import org.finra.herd.core.helper.ConfigurationHelper;
 import org.finra.herd.dao.HttpClientOperations;
+import org.finra.herd.model.dto.ConfigurationValue;
 
 /**
- * Real implementation of HTTP client operations.
+ * Real implementation of HTTP client operations. The HTTP clients share a pooled connection manager, so connections are kept alive and reused across
+ * clients. Closing a client releases its connections back to the pool.
  */
-public class HttpClientOperationsImpl implements HttpClientOperations
+public class HttpClientOperationsImpl implements HttpClientOperations, DisposableBean
 {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpClientOperationsImpl.class);
+
+    @Autowired
+    private ConfigurationHelper configurationHelper;
+
+    private PoolingHttpClientConnectionManager connectionManager;
+
     @Override
     public CloseableHttpResponse execute(CloseableHttpClient httpClient, HttpUriRequest request) throws IOException
     {
@@ -38,6 +53,45 @@ public class HttpClientOperationsImpl implements HttpClientOperations
     @Override
     public CloseableHttpClient createHttpClient()
     {
-        return HttpClientBuilder.create().build();
+        HttpClientBuilder httpClientBuilder = HttpClientBuilder.create().setConnectionManager(getConnectionManager()).setConnectionManagerShared(true);
+
+        if (!configurationHelper.getBooleanProperty(ConfigurationValue.HTTP_CLIENT_RESPONSE_COMPRESSION_ENABLED))
+        {
+            httpClientBuilder.disableContentCompression();
+        }
+
+        return httpClientBuilder.build();
+    }
+
+    @Override
+    public synchronized void destroy()
+    {
+        if (connectionManager != null)
+        {
+            connectionManager.shutdown();
+            connectionManager = null;
+        }
+    }
+
+    /**
+     * Gets the connection manager creating it from the current configuration on first use.
+     *
+     * @return the connection manager
+     */
+    private synchronized PoolingHttpClientConnectionManager getConnectionManager()
+    {
+        if (connectionManager == null)
+        {
+            int maxTotal = configurationHelper.getProperty(ConfigurationValue.HTTP_CLIENT_CONNECTION_POOL_MAX_TOTAL, Integer.class);
+            int maxPerRoute = configurationHelper.getProperty(ConfigurationValue.HTTP_CLIENT_CONNECTION_POOL_MAX_PER_ROUTE, Integer.class);
+
+            connectionManager = new PoolingHttpClientConnectionManager();
+            connectionManager.setMaxTotal(maxTotal);
+            connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+
+            LOGGER.info("Created HTTP connection pool. maxTotal={} maxPerRoute={}", maxTotal, maxPerRoute);
+        }
+
+        return connectionManager;
     }
 }
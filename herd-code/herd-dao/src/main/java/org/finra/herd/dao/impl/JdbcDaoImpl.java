@@ -15,6 +15,9 @@
 */
 package org.finra.herd.dao.impl;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
@@ -74,6 +77,82 @@ public class JdbcDaoImpl implements JdbcDao
         });
     }
 
+    /**
+     * Delegates to {@link JdbcOperations#query(JdbcTemplate, String, ResultSetExtractor)} where the {@link ResultSetExtractor} writes the {@link ResultSet}
+     * to the writer in CSV format.
+     */
+    @Override
+    public long queryToCsv(JdbcTemplate jdbcTemplate, String sql, final Writer writer)
+    {
+        return jdbcOperations.query(jdbcTemplate, sql, new ResultSetExtractor<Long>()
+        {
+            @Override
+            public Long extractData(ResultSet resultSet) throws SQLException, DataAccessException
+            {
+                try
+                {
+                    writeCsvLine(writer, getColumnNames(resultSet.getMetaData()));
+
+                    long rowCount = 0;
+                    int columnCount = resultSet.getMetaData().getColumnCount();
+                    List<String> columns = new ArrayList<>(columnCount);
+                    while (resultSet.next())
+                    {
+                        columns.clear();
+                        for (int i = 1; i <= columnCount; i++)
+                        {
+                            columns.add(resultSet.getString(i));
+                        }
+                        writeCsvLine(writer, columns);
+                        rowCount++;
+                    }
+
+                    writer.flush();
+                    return rowCount;
+                }
+                catch (IOException e)
+                {
+                    throw new UncheckedIOException("Failed to write the JDBC query result.", e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Writes a line of CSV values. Values that contain a comma, a double quote or a line break are enclosed in double quotes with double quotes escaped by
+     * doubling them. Null values are written as empty values.
+     * 
+     * @param writer the writer
+     * @param values the values
+     * @throws IOException when there is an error writing to the writer
+     */
+    private void writeCsvLine(Writer writer, List<String> values) throws IOException
+    {
+        for (int i = 0; i < values.size(); i++)
+        {
+            if (i > 0)
+            {
+                writer.write(',');
+            }
+
+            String value = values.get(i);
+            if (value != null)
+            {
+                if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0)
+                {
+                    writer.write('"');
+                    writer.write(value.replace("\"", "\"\""));
+                    writer.write('"');
+                }
+                else
+                {
+                    writer.write(value);
+                }
+            }
+        }
+        writer.write('\n');
+    }
+
     /**
      * Gets the column names from the given {@link ResultSetMetaData}.
      * 
@@ -17,10 +17,12 @@ package org.finra.herd.dao.impl;
 
 import java.util.List;
 
+import javax.persistence.LockModeType;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Root;
 
+import org.hibernate.LockOptions;
 import org.springframework.stereotype.Repository;
 
 import org.finra.herd.dao.JmsMessageDao;
@@ -30,6 +32,11 @@ import org.finra.herd.model.jpa.JmsMessageEntity_;
 @Repository
 public class JmsMessageDaoImpl extends AbstractHerdDao implements JmsMessageDao
 {
+    /**
+     * The JPA query hint that sets the pessimistic lock timeout.
+     */
+    private static final String LOCK_TIMEOUT_HINT = "javax.persistence.lock.timeout";
+
     @Override
     public JmsMessageEntity getOldestJmsMessage()
     {
@@ -52,4 +59,43 @@ public class JmsMessageDaoImpl extends AbstractHerdDao implements JmsMessageDao
         // Return the result.
         return resultList.size() > 0 ? resultList.get(0) : null;
     }
+
+    @Override
+    public List<JmsMessageEntity> getOldestJmsMessages(int maxResults)
+    {
+        // Create the criteria builder and the criteria.
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<JmsMessageEntity> criteria = builder.createQuery(JmsMessageEntity.class);
+
+        // The criteria root is the jms message.
+        Root<JmsMessageEntity> jmsMessageEntity = criteria.from(JmsMessageEntity.class);
+
+        // Add the select clause.
+        criteria.select(jmsMessageEntity);
+
+        // Add the order by clause, since we want to return the oldest JMS messages (messages with the smallest sequence generated ids).
+        criteria.orderBy(builder.asc(jmsMessageEntity.get(JmsMessageEntity_.id)));
+
+        // Select and lock the oldest JMS messages in a single query. The messages already locked by another transaction are skipped instead of waited on, so
+        // concurrent publishers claim disjoint batches of messages.
+        return entityManager.createQuery(criteria).setMaxResults(maxResults).setLockMode(LockModeType.PESSIMISTIC_WRITE)
+            .setHint(LOCK_TIMEOUT_HINT, LockOptions.SKIP_LOCKED).getResultList();
+    }
+
+    @Override
+    public long getJmsMessageCount()
+    {
+        // Create the criteria builder and the criteria.
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> criteria = builder.createQuery(Long.class);
+
+        // The criteria root is the jms message.
+        Root<JmsMessageEntity> jmsMessageEntity = criteria.from(JmsMessageEntity.class);
+
+        // Add the select clause.
+        criteria.select(builder.count(jmsMessageEntity));
+
+        // Execute the query.
+        return entityManager.createQuery(criteria).getSingleResult();
+    }
 }
@@ -0,0 +1,361 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.dao.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException.DeleteError;
+import org.apache.commons.lang3.time.StopWatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A streaming pipeline that groups S3 key versions into multi-object delete batches and hands them to a bounded queue drained by several delete threads.
+ * Since the queue is bounded, the producer blocks while all delete threads are busy, so the memory used does not depend on the total number of keys. The
+ * delete threads are borrowed from an executor shared by all pipelines.
+ * <p/>
+ * The keys that failed to delete are collected instead of stopping at the first failed batch. A batch that failed as a whole (for example, access denied)
+ * stops the pipeline from sending any further delete requests. The producer also stops once every delete thread of the pipeline has died, instead of
+ * waiting for space in the queue forever.
+ */
+class S3BatchDeletePipeline implements AutoCloseable
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(S3BatchDeletePipeline.class);
+
+    /**
+     * The marker put on the queue once per delete thread to let it know there are no more batches.
+     */
+    private static final List<DeleteObjectsRequest.KeyVersion> END_OF_BATCHES = Collections.emptyList();
+
+    /**
+     * The time in milliseconds the producer and the delete threads wait on the queue before they check whether the other side is still there.
+     */
+    private static final long QUEUE_WAIT_MILLIS = 1000;
+
+    private final ExecutorService executorService;
+
+    private final int threadCount;
+
+    private final int batchSize;
+
+    private final Consumer<List<DeleteObjectsRequest.KeyVersion>> batchDeleter;
+
+    private final BlockingQueue<List<DeleteObjectsRequest.KeyVersion>> queue;
+
+    private final CountDownLatch deleteThreadsDone;
+
+    private final List<DeleteError> failedKeyVersions = Collections.synchronizedList(new ArrayList<>());
+
+    private final AtomicReference<RuntimeException> firstFailure = new AtomicReference<>();
+
+    private final AtomicLong deletedKeyCount = new AtomicLong();
+
+    private final StopWatch stopWatch = new StopWatch();
+
+    private volatile boolean aborted;
+
+    private volatile boolean closed;
+
+    private boolean deleteThreadsStarted;
+
+    private List<DeleteObjectsRequest.KeyVersion> currentBatch;
+
+    private long submittedKeyCount;
+
+    /**
+     * Creates a pipeline.
+     *
+     * @param executorService the executor running the delete threads, not used when the deletes run in the thread that submits the key versions
+     * @param threadCount the number of delete threads, a value of 1 or less runs the deletes in the thread that submits the key versions
+     * @param queueCapacity the maximum number of batches waiting for a delete thread
+     * @param batchSize the maximum number of key versions per batch
+     * @param batchDeleter the function that deletes a single batch of key versions
+     */
+    S3BatchDeletePipeline(ExecutorService executorService, int threadCount, int queueCapacity, int batchSize,
+        Consumer<List<DeleteObjectsRequest.KeyVersion>> batchDeleter)
+    {
+        this.executorService = executorService;
+        this.threadCount = threadCount;
+        this.batchSize = batchSize;
+        this.batchDeleter = batchDeleter;
+        this.queue = new ArrayBlockingQueue<>(Math.max(queueCapacity, 1));
+        this.deleteThreadsDone = new CountDownLatch(Math.max(threadCount, 0));
+        this.currentBatch = new ArrayList<>(batchSize);
+        stopWatch.start();
+    }
+
+    /**
+     * Submits key versions for deletion. This method blocks while the queue is full.
+     *
+     * @param keyVersions the key versions to delete
+     *
+     * @return false if the pipeline stopped sending delete requests because of a failed batch, so there is no point in submitting more key versions
+     */
+    boolean submit(List<DeleteObjectsRequest.KeyVersion> keyVersions)
+    {
+        for (DeleteObjectsRequest.KeyVersion keyVersion : keyVersions)
+        {
+            currentBatch.add(keyVersion);
+            submittedKeyCount++;
+
+            if (currentBatch.size() >= batchSize)
+            {
+                enqueue(currentBatch);
+                currentBatch = new ArrayList<>(batchSize);
+            }
+        }
+
+        return !aborted;
+    }
+
+    /**
+     * Sends the remaining key versions and waits for all delete requests to complete.
+     *
+     * @return the first failure, or null if all key versions were deleted
+     */
+    RuntimeException finish()
+    {
+        if (!currentBatch.isEmpty())
+        {
+            enqueue(currentBatch);
+            currentBatch = new ArrayList<>(batchSize);
+        }
+
+        if (deleteThreadsStarted)
+        {
+            try
+            {
+                for (int i = 0; i < threadCount; i++)
+                {
+                    if (!offer(END_OF_BATCHES))
+                    {
+                        break;
+                    }
+                }
+
+                while (!deleteThreadsDone.await(QUEUE_WAIT_MILLIS, TimeUnit.MILLISECONDS))
+                {
+                    // The delete threads that did not start before the executor was shut down never count down.
+                    if (executorService.isTerminated())
+                    {
+                        recordFailure(new IllegalStateException("The S3 delete threads were shut down before the S3 delete requests completed."));
+                        break;
+                    }
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for S3 delete requests to complete.", e);
+            }
+        }
+
+        stopWatch.stop();
+
+        long durationMillis = stopWatch.getTime();
+        LOGGER.info("Completed S3 batch delete. threadCount={} s3KeyCount={} deletedS3KeyCount={} failedS3KeyCount={} durationMillis={} s3KeysPerSecond={}",
+            deleteThreadsStarted ? threadCount : 1, submittedKeyCount, deletedKeyCount.get(), failedKeyVersions.size(), durationMillis,
+            String.format("%.2f", durationMillis > 0 ? submittedKeyCount * 1000.0 / durationMillis : submittedKeyCount));
+
+        return firstFailure.get();
+    }
+
+    /**
+     * Gets the key versions that failed to delete along with the reason.
+     *
+     * @return the list of delete errors
+     */
+    List<DeleteError> getFailedKeyVersions()
+    {
+        return failedKeyVersions;
+    }
+
+    /**
+     * Stops the delete threads without waiting for the queued batches. The delete threads go back to the shared executor once their current batch completes.
+     * This is a no-op once the pipeline has finished.
+     */
+    @Override
+    public void close()
+    {
+        aborted = true;
+        closed = true;
+        queue.clear();
+    }
+
+    /**
+     * Hands a batch to the delete threads, starting them on the first batch.
+     *
+     * @param batch the batch of key versions
+     */
+    private void enqueue(List<DeleteObjectsRequest.KeyVersion> batch)
+    {
+        if (aborted)
+        {
+            return;
+        }
+
+        if (threadCount <= 1)
+        {
+            delete(batch);
+            return;
+        }
+
+        if (!deleteThreadsStarted)
+        {
+            deleteThreadsStarted = true;
+            for (int i = 0; i < threadCount; i++)
+            {
+                executorService.execute(this::drainQueue);
+            }
+        }
+
+        try
+        {
+            if (!offer(batch))
+            {
+                recordFailedBatch(batch, new IllegalStateException("All S3 delete threads stopped before the S3 delete requests completed."));
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to queue an S3 delete request.", e);
+        }
+    }
+
+    /**
+     * Puts a batch on the queue, waiting for space in the queue for as long as a delete thread of this pipeline is still running or waiting to start.
+     *
+     * @param batch the batch of key versions
+     *
+     * @return true if the batch was queued, false if all delete threads stopped
+     * @throws InterruptedException if interrupted while waiting for space in the queue
+     */
+    private boolean offer(List<DeleteObjectsRequest.KeyVersion> batch) throws InterruptedException
+    {
+        while (!queue.offer(batch, QUEUE_WAIT_MILLIS, TimeUnit.MILLISECONDS))
+        {
+            if (deleteThreadsDone.getCount() == 0 || executorService.isTerminated())
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Deletes the batches from the queue until the end of batches marker is reached or the pipeline is closed. A delete thread that dies on an error stops
+     * the pipeline from sending any further delete requests.
+     */
+    private void drainQueue()
+    {
+        List<DeleteObjectsRequest.KeyVersion> batch = null;
+        try
+        {
+            while (!closed && (batch = queue.poll(QUEUE_WAIT_MILLIS, TimeUnit.MILLISECONDS)) != END_OF_BATCHES)
+            {
+                if (batch != null && !aborted)
+                {
+                    delete(batch);
+                }
+                batch = null;
+            }
+        }
+        catch (InterruptedException e)
+        {
+            // The shared executor was shut down.
+            Thread.currentThread().interrupt();
+        }
+        catch (RuntimeException | Error e)
+        {
+            LOGGER.error("S3 delete thread failed.", e);
+            recordFailedBatch(batch != null ? batch : Collections.emptyList(), new IllegalStateException("S3 delete thread failed.", e));
+            throw e;
+        }
+        finally
+        {
+            deleteThreadsDone.countDown();
+        }
+    }
+
+    /**
+     * Deletes a single batch and records the failed key versions.
+     *
+     * @param batch the batch of key versions
+     */
+    private void delete(List<DeleteObjectsRequest.KeyVersion> batch)
+    {
+        try
+        {
+            batchDeleter.accept(batch);
+            deletedKeyCount.addAndGet(batch.size());
+        }
+        catch (MultiObjectDeleteException e)
+        {
+            // Only some of the keys failed to delete, so keep going with the rest of the batches.
+            failedKeyVersions.addAll(e.getErrors());
+            deletedKeyCount.addAndGet(batch.size() - e.getErrors().size());
+            firstFailure.compareAndSet(null, e);
+        }
+        catch (RuntimeException e)
+        {
+            recordFailedBatch(batch, e);
+        }
+    }
+
+    /**
+     * Records all key versions of a batch as failed and stops the pipeline from sending any further delete requests.
+     *
+     * @param batch the batch of key versions
+     * @param failure the failure
+     */
+    private void recordFailedBatch(List<DeleteObjectsRequest.KeyVersion> batch, RuntimeException failure)
+    {
+        for (DeleteObjectsRequest.KeyVersion keyVersion : batch)
+        {
+            DeleteError deleteError = new DeleteError();
+            deleteError.setKey(keyVersion.getKey());
+            deleteError.setVersionId(keyVersion.getVersion());
+            deleteError.setMessage(failure.getMessage());
+            failedKeyVersions.add(deleteError);
+        }
+        recordFailure(failure);
+    }
+
+    /**
+     * Records a failure and stops the pipeline from sending any further delete requests.
+     *
+     * @param failure the failure
+     */
+    private void recordFailure(RuntimeException failure)
+    {
+        firstFailure.compareAndSet(null, failure);
+        aborted = true;
+    }
+}
@@ -21,11 +21,22 @@ import java.io.InputStream;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 import com.amazonaws.AmazonClientException;
 import com.amazonaws.AmazonServiceException;
@@ -79,18 +90,23 @@ import org.apache.commons.lang3.time.StopWatch;
 import org.apache.http.HttpStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.Assert;
 
 import org.finra.herd.core.HerdDateUtils;
+import org.finra.herd.core.helper.ConfigurationHelper;
 import org.finra.herd.dao.RetryPolicyFactory;
+import org.finra.herd.dao.S3ClientRegistry;
 import org.finra.herd.dao.S3Dao;
 import org.finra.herd.dao.S3Operations;
 import org.finra.herd.dao.helper.AwsHelper;
 import org.finra.herd.dao.helper.JavaPropertiesHelper;
 import org.finra.herd.model.ObjectNotFoundException;
 import org.finra.herd.model.api.xml.AwsCredential;
+import org.finra.herd.model.dto.ConfigurationValue;
 import org.finra.herd.model.dto.HerdAWSCredentialsProvider;
 import org.finra.herd.model.dto.S3FileCopyRequestParamsDto;
 import org.finra.herd.model.dto.S3FileTransferRequestParamsDto;
@@ -102,17 +118,21 @@ import org.finra.herd.model.dto.S3FileTransferResultsDto;
 // TODO: Refactor S3 Dao implementation and remove the PMD suppress warning statement below.
 @SuppressWarnings("PMD.TooManyMethods")
 @Repository
-public class S3DaoImpl implements S3Dao
+public class S3DaoImpl implements S3Dao, DisposableBean
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(S3DaoImpl.class);
 
     /**
-     * A {@link AWSCredentialsProvider} which delegates to its wrapped {@link HerdAWSCredentialsProvider}
+     * A {@link AWSCredentialsProvider} which delegates to its wrapped {@link HerdAWSCredentialsProvider}. Since the wrapper lives as long as the pooled S3
+     * client it belongs to, the resolved credentials are cached until their session expiration time. Credentials without an expiration time are resolved on
+     * every call.
      */
     private static class HerdAwsCredentialsProviderWrapper implements AWSCredentialsProvider
     {
         private HerdAWSCredentialsProvider herdAWSCredentialsProvider;
 
+        private volatile CachedCredentials cachedCredentials;
+
         public HerdAwsCredentialsProviderWrapper(HerdAWSCredentialsProvider herdAWSCredentialsProvider)
         {
             this.herdAWSCredentialsProvider = herdAWSCredentialsProvider;
@@ -121,15 +141,42 @@ public class S3DaoImpl implements S3Dao
         @Override
         public void refresh()
         {
-            // No need to implement this. AWS doesn't use this.
+            cachedCredentials = null;
         }
 
         @Override
         public AWSCredentials getCredentials()
         {
+            CachedCredentials currentCredentials = cachedCredentials;
+            if (currentCredentials != null && System.currentTimeMillis() < currentCredentials.expirationTimeMillis)
+            {
+                return currentCredentials.credentials;
+            }
+
             AwsCredential herdAwsCredential = herdAWSCredentialsProvider.getAwsCredential();
-            return new BasicSessionCredentials(herdAwsCredential.getAwsAccessKey(), herdAwsCredential.getAwsSecretKey(),
+            AWSCredentials credentials = new BasicSessionCredentials(herdAwsCredential.getAwsAccessKey(), herdAwsCredential.getAwsSecretKey(),
                 herdAwsCredential.getAwsSessionToken());
+
+            cachedCredentials = herdAwsCredential.getAwsSessionExpirationTime() != null ?
+                new CachedCredentials(credentials, herdAwsCredential.getAwsSessionExpirationTime().toGregorianCalendar().getTimeInMillis()) : null;
+
+            return credentials;
+        }
+    }
+
+    /**
+     * Resolved AWS credentials along with the time they expire at.
+     */
+    private static class CachedCredentials
+    {
+        private final AWSCredentials credentials;
+
+        private final long expirationTimeMillis;
+
+        CachedCredentials(AWSCredentials credentials, long expirationTimeMillis)
+        {
+            this.credentials = credentials;
+            this.expirationTimeMillis = expirationTimeMillis;
         }
     }
 
@@ -143,6 +190,11 @@ public class S3DaoImpl implements S3Dao
 
     private static final long DEFAULT_SLEEP_INTERVAL_MILLIS = 100;
 
+    /**
+     * The number of pages of S3 object summaries a sub-directory listing can get ahead of the consumer before it waits for the consumer.
+     */
+    private static final int LIST_DIRECTORY_SEGMENT_PAGE_CAPACITY = 4;
+
     @Autowired
     private JavaPropertiesHelper javaPropertiesHelper;
 
@@ -151,6 +203,52 @@ public class S3DaoImpl implements S3Dao
     @Autowired
     private RetryPolicyFactory retryPolicyFactory;
 
+    @Autowired
+    private S3ClientRegistry s3ClientRegistry;
+
+    @Autowired
+    private ConfigurationHelper configurationHelper;
+
+    /**
+     * The thread pool shared by all of the sharded S3 directory listings, so the number of sub-directories listed at the same time is bounded across
+     * concurrent requests.
+     */
+    private ThreadPoolExecutor listDirectoryExecutor;
+
+    /**
+     * The thread pool shared by all of the S3 batch delete pipelines, so the number of multi-object delete requests sent at the same time is bounded across
+     * concurrent requests.
+     */
+    private ThreadPoolExecutor deleteExecutor;
+
+    /**
+     * The S3 key batch executor shared by all of the Glacier restore related operations, so the number of restore threads and the S3 request rate are bounded
+     * across concurrent requests.
+     */
+    private S3KeyBatchExecutor restoreExecutor;
+
+    @Override
+    public synchronized void destroy()
+    {
+        if (listDirectoryExecutor != null)
+        {
+            listDirectoryExecutor.shutdownNow();
+            listDirectoryExecutor = null;
+        }
+
+        if (deleteExecutor != null)
+        {
+            deleteExecutor.shutdownNow();
+            deleteExecutor = null;
+        }
+
+        if (restoreExecutor != null)
+        {
+            restoreExecutor.shutdownNow();
+            restoreExecutor = null;
+        }
+    }
+
     @Override
     public ObjectMetadata getObjectMetadata(final S3FileTransferRequestParamsDto params)
     {
@@ -173,8 +271,8 @@ public class S3DaoImpl implements S3Dao
         }
         finally
         {
-            // Shutdown the AmazonS3Client instance to release resources.
-            s3Client.shutdown();
+            // Hand the AmazonS3Client instance back to the registry.
+            s3ClientRegistry.releaseClient(s3Client);
         }
     }
 
@@ -190,7 +288,7 @@ public class S3DaoImpl implements S3Dao
         }
         finally
         {
-            s3Client.shutdown();
+            s3ClientRegistry.releaseClient(s3Client);
         }
     }
 
@@ -239,8 +337,8 @@ public class S3DaoImpl implements S3Dao
         }
         finally
         {
-            // Shutdown the AmazonS3Client instance to release resources.
-            s3Client.shutdown();
+            // Hand the AmazonS3Client instance back to the registry.
+            s3ClientRegistry.releaseClient(s3Client);
         }
     }
 
@@ -261,13 +359,86 @@ public class S3DaoImpl implements S3Dao
 
         try
         {
-            ListObjectsRequest listObjectsRequest = new ListObjectsRequest().withBucketName(params.getS3BucketName()).withPrefix(params.getS3KeyPrefix());
+            listObjects(params, params.getS3KeyPrefix(), null, ignoreZeroByteDirectoryMarkers, s3Client,
+                (objectSummaries, commonPrefixes) -> s3ObjectSummaries.addAll(objectSummaries));
+        }
+        finally
+        {
+            // Hand the AmazonS3Client instance back to the registry.
+            s3ClientRegistry.releaseClient(s3Client);
+        }
+
+        return s3ObjectSummaries;
+    }
+
+    @Override
+    public void listDirectory(final S3FileTransferRequestParamsDto params, boolean ignoreZeroByteDirectoryMarkers,
+        Consumer<List<S3ObjectSummary>> s3ObjectSummariesConsumer)
+    {
+        Assert.isTrue(!isRootKeyPrefix(params.getS3KeyPrefix()), "Listing of S3 objects from root directory is not allowed.");
+
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+
+        int threadCount = configurationHelper.getProperty(ConfigurationValue.S3_LIST_DIRECTORY_THREAD_COUNT, Integer.class);
+        AmazonS3Client s3Client = getAmazonS3(params);
+        AtomicLong s3ObjectCount = new AtomicLong();
+        int subDirectoryCount = 0;
+
+        try
+        {
+            if (threadCount <= 1)
+            {
+                // List the whole S3 key prefix from the calling thread.
+                listObjects(params, params.getS3KeyPrefix(), null, ignoreZeroByteDirectoryMarkers, s3Client, (objectSummaries, commonPrefixes) -> {
+                    s3ObjectCount.addAndGet(objectSummaries.size());
+                    s3ObjectSummariesConsumer.accept(objectSummaries);
+                });
+            }
+            else
+            {
+                subDirectoryCount = listDirectoryInSegments(params, ignoreZeroByteDirectoryMarkers, s3Client, s3ObjectSummaries -> {
+                    s3ObjectCount.addAndGet(s3ObjectSummaries.size());
+                    s3ObjectSummariesConsumer.accept(s3ObjectSummaries);
+                });
+            }
+        }
+        finally
+        {
+            // Hand the AmazonS3Client instance back to the registry.
+            s3ClientRegistry.releaseClient(s3Client);
+        }
+
+        stopWatch.stop();
+
+        LOGGER.info("Listed S3 directory. s3BucketName=\"{}\" s3KeyPrefix=\"{}\" threadCount={} subDirectoryCount={} s3ObjectCount={} durationMillis={}",
+            params.getS3BucketName(), params.getS3KeyPrefix(), Math.max(threadCount, 1), subDirectoryCount, s3ObjectCount.get(), stopWatch.getTime());
+    }
+
+    /**
+     * Lists the S3 objects with the specified prefix one page at a time and passes each page to the specified page handler.
+     *
+     * @param params the S3 file transfer request parameters
+     * @param s3KeyPrefix the S3 key prefix to list
+     * @param delimiter the optional delimiter used to group the keys below the prefix into common prefixes
+     * @param ignoreZeroByteDirectoryMarkers specifies whether to ignore 0 byte objects that represent S3 directories
+     * @param s3Client the S3 client
+     * @param pageHandler the handler for each page of S3 object summaries and common prefixes
+     */
+    private void listObjects(final S3FileTransferRequestParamsDto params, String s3KeyPrefix, String delimiter, boolean ignoreZeroByteDirectoryMarkers,
+        AmazonS3Client s3Client, BiConsumer<List<S3ObjectSummary>, List<String>> pageHandler)
+    {
+        try
+        {
+            ListObjectsRequest listObjectsRequest =
+                new ListObjectsRequest().withBucketName(params.getS3BucketName()).withPrefix(s3KeyPrefix).withDelimiter(delimiter);
             ObjectListing objectListing;
 
             do
             {
                 objectListing = s3Operations.listObjects(listObjectsRequest, s3Client);
 
+                List<S3ObjectSummary> s3ObjectSummaries = new ArrayList<>(objectListing.getObjectSummaries().size());
                 for (S3ObjectSummary objectSummary : objectListing.getObjectSummaries())
                 {
                     // Ignore 0 byte objects that represent S3 directories.
@@ -277,6 +448,8 @@ public class S3DaoImpl implements S3Dao
                     }
                 }
 
+                pageHandler.accept(s3ObjectSummaries, objectListing.getCommonPrefixes());
+
                 listObjectsRequest.setMarker(objectListing.getNextMarker());
             }
             while (objectListing.isTruncated());
@@ -292,16 +465,235 @@ public class S3DaoImpl implements S3Dao
         catch (AmazonClientException e)
         {
             throw new IllegalStateException(String
-                .format("Failed to list keys with prefix \"%s\" from bucket \"%s\". Reason: %s", params.getS3KeyPrefix(), params.getS3BucketName(),
-                    e.getMessage()), e);
+                .format("Failed to list keys with prefix \"%s\" from bucket \"%s\". Reason: %s", s3KeyPrefix, params.getS3BucketName(), e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Lists the S3 objects with the specified prefix sharded by the sub-directories right below the prefix. The objects right below the prefix are listed
+     * from the calling thread, and each sub-directory is listed on the shared thread pool as soon as the listing of the prefix finds it. The pages of S3
+     * object summaries are passed to the consumer from the calling thread in the key order as they arrive. Objects right below the prefix are passed to the
+     * consumer right away unless they follow a sub-directory that is still being listed, so a prefix without sub-directories is streamed page by page
+     * without being sharded.
+     *
+     * @param params the S3 file transfer request parameters
+     * @param ignoreZeroByteDirectoryMarkers specifies whether to ignore 0 byte objects that represent S3 directories
+     * @param s3Client the S3 client
+     * @param s3ObjectSummariesConsumer the consumer of the S3 object summaries
+     *
+     * @return the number of sub-directories that got listed in parallel
+     */
+    private int listDirectoryInSegments(final S3FileTransferRequestParamsDto params, boolean ignoreZeroByteDirectoryMarkers, AmazonS3Client s3Client,
+        Consumer<List<S3ObjectSummary>> s3ObjectSummariesConsumer)
+    {
+        ThreadPoolExecutor executor = getListDirectoryExecutor();
+
+        // The listing segments that can not be passed to the consumer yet, in the key order.
+        List<S3ListingSegment> segments = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
+
+        try
+        {
+            listObjects(params, params.getS3KeyPrefix(), "/", ignoreZeroByteDirectoryMarkers, s3Client, (objectSummaries, commonPrefixes) -> {
+                // Merge the objects and the sub-directories of this page, which are both returned by S3 in the key order.
+                List<S3ObjectSummary> leadingObjectSummaries = new ArrayList<>();
+                int objectIndex = 0;
+                int subDirectoryIndex = 0;
+                while (objectIndex < objectSummaries.size() || subDirectoryIndex < commonPrefixes.size())
+                {
+                    if (subDirectoryIndex >= commonPrefixes.size() || (objectIndex < objectSummaries.size() &&
+                        objectSummaries.get(objectIndex).getKey().compareTo(commonPrefixes.get(subDirectoryIndex)) < 0))
+                    {
+                        S3ObjectSummary s3ObjectSummary = objectSummaries.get(objectIndex++);
+                        if (segments.isEmpty())
+                        {
+                            // No sub-directory precedes the object, so it can be passed to the consumer along with this page.
+                            leadingObjectSummaries.add(s3ObjectSummary);
+                        }
+                        else
+                        {
+                            // Hold on to the object until the sub-directories before it are passed to the consumer.
+                            S3ListingSegment lastSegment = segments.get(segments.size() - 1);
+                            if (!lastSegment.isTopLevel())
+                            {
+                                lastSegment = new S3ListingSegment(Integer.MAX_VALUE, true);
+                                segments.add(lastSegment);
+                            }
+                            lastSegment.addTopLevelObjectSummary(s3ObjectSummary);
+                        }
+                    }
+                    else
+                    {
+                        // Start listing the sub-directory on the shared thread pool.
+                        String subDirectoryPrefix = commonPrefixes.get(subDirectoryIndex++);
+                        S3ListingSegment segment = new S3ListingSegment(LIST_DIRECTORY_SEGMENT_PAGE_CAPACITY, false);
+                        segments.add(segment);
+                        futures.add(executor.submit(() -> segment.list(() -> listObjects(params, subDirectoryPrefix, null, ignoreZeroByteDirectoryMarkers,
+                            s3Client, (subDirectoryObjectSummaries, subDirectoryCommonPrefixes) -> segment.putPage(subDirectoryObjectSummaries)))));
+                    }
+                }
+
+                if (!leadingObjectSummaries.isEmpty())
+                {
+                    s3ObjectSummariesConsumer.accept(leadingObjectSummaries);
+                }
+            });
+
+            // Pass the remaining segments to the consumer in the key order, streaming each sub-directory listing as its pages arrive.
+            for (S3ListingSegment segment : segments)
+            {
+                segment.drainTo(s3ObjectSummariesConsumer);
+            }
         }
         finally
         {
-            // Shutdown the AmazonS3Client instance to release resources.
-            s3Client.shutdown();
+            // Stop the sub-directory listings that are still running, e.g. when the consumer or one of the listings failed.
+            futures.forEach(future -> future.cancel(true));
         }
 
-        return s3ObjectSummaries;
+        return futures.size();
+    }
+
+    /**
+     * Gets the thread pool used to list the sub-directories of S3 directories, creating it from the current configuration on first use.
+     *
+     * @return the thread pool
+     */
+    private synchronized ThreadPoolExecutor getListDirectoryExecutor()
+    {
+        if (listDirectoryExecutor == null)
+        {
+            int threadCount = Math.max(configurationHelper.getProperty(ConfigurationValue.S3_LIST_DIRECTORY_THREAD_COUNT, Integer.class), 1);
+
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("s3ListDirectory-");
+            threadFactory.setDaemon(true);
+
+            // The tasks are started in the order they are submitted, so the sub-directory a consumer waits on is always started before the sub-directories
+            // that follow it, and a listing that waits for its consumer to catch up can not keep the consumer's current sub-directory from running.
+            listDirectoryExecutor = new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), threadFactory);
+
+            LOGGER.info("Created S3 list directory thread pool. threadCount={}", threadCount);
+        }
+
+        return listDirectoryExecutor;
+    }
+
+    /**
+     * A segment of a sharded S3 directory listing. A segment either holds the objects right below the listed prefix that follow a sub-directory, or the
+     * pages of a sub-directory listing that are handed over from the listing thread to the consumer thread.
+     */
+    private static class S3ListingSegment
+    {
+        /**
+         * The page that marks the end of the segment.
+         */
+        private static final List<S3ObjectSummary> END_OF_SEGMENT = Collections.unmodifiableList(new ArrayList<>());
+
+        private final BlockingQueue<List<S3ObjectSummary>> pages;
+
+        private final boolean topLevel;
+
+        private List<S3ObjectSummary> topLevelObjectSummaries;
+
+        private volatile RuntimeException failure;
+
+        private S3ListingSegment(int pageCapacity, boolean topLevel)
+        {
+            this.pages = new LinkedBlockingQueue<>(pageCapacity);
+            this.topLevel = topLevel;
+        }
+
+        private boolean isTopLevel()
+        {
+            return topLevel;
+        }
+
+        /**
+         * Adds an object right below the listed prefix to this segment. Only called from the consumer thread.
+         *
+         * @param s3ObjectSummary the S3 object summary
+         */
+        private void addTopLevelObjectSummary(S3ObjectSummary s3ObjectSummary)
+        {
+            if (topLevelObjectSummaries == null)
+            {
+                topLevelObjectSummaries = new ArrayList<>();
+            }
+            topLevelObjectSummaries.add(s3ObjectSummary);
+        }
+
+        /**
+         * Runs the sub-directory listing of this segment on the listing thread and marks the end of the segment once the listing completes or fails.
+         *
+         * @param listing the sub-directory listing
+         */
+        private void list(Runnable listing)
+        {
+            try
+            {
+                listing.run();
+                putPage(END_OF_SEGMENT);
+            }
+            catch (RuntimeException e)
+            {
+                // Drop the pages the consumer has not taken yet, so there is room to mark the end of the segment. The consumer fails once it gets to it.
+                failure = e;
+                pages.clear();
+                pages.offer(END_OF_SEGMENT);
+            }
+        }
+
+        /**
+         * Hands a page of S3 object summaries over to the consumer thread, waiting while the consumer is too far behind.
+         *
+         * @param page the page of S3 object summaries
+         */
+        private void putPage(List<S3ObjectSummary> page)
+        {
+            try
+            {
+                pages.put(page);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while listing S3 directory.", e);
+            }
+        }
+
+        /**
+         * Passes all of the S3 object summaries of this segment to the consumer, waiting for the pages of a sub-directory listing as they arrive. A failed
+         * sub-directory listing rethrows its exception in the calling thread.
+         *
+         * @param s3ObjectSummariesConsumer the consumer of the S3 object summaries
+         */
+        private void drainTo(Consumer<List<S3ObjectSummary>> s3ObjectSummariesConsumer)
+        {
+            if (topLevel)
+            {
+                s3ObjectSummariesConsumer.accept(topLevelObjectSummaries);
+                return;
+            }
+
+            try
+            {
+                List<S3ObjectSummary> page;
+                while ((page = pages.take()) != END_OF_SEGMENT)
+                {
+                    s3ObjectSummariesConsumer.accept(page);
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while listing S3 directory.", e);
+            }
+
+            if (failure != null)
+            {
+                throw failure;
+            }
+        }
     }
 
     @Override
@@ -312,6 +704,32 @@ public class S3DaoImpl implements S3Dao
         AmazonS3Client s3Client = getAmazonS3(params);
         List<DeleteObjectsRequest.KeyVersion> keyVersions = new ArrayList<>();
 
+        try
+        {
+            listVersions(params, s3Client, page -> {
+                keyVersions.addAll(page);
+                return true;
+            });
+        }
+        finally
+        {
+            // Hand the AmazonS3Client instance back to the registry.
+            s3ClientRegistry.releaseClient(s3Client);
+        }
+
+        return keyVersions;
+    }
+
+    /**
+     * Lists the keys/key versions with the specified prefix one page at a time and passes each page to the specified page handler.
+     *
+     * @param params the S3 file transfer request parameters
+     * @param s3Client the S3 client
+     * @param pageHandler the handler for each page of key versions, that returns false to stop the listing
+     */
+    private void listVersions(final S3FileTransferRequestParamsDto params, AmazonS3Client s3Client,
+        Predicate<List<DeleteObjectsRequest.KeyVersion>> pageHandler)
+    {
         try
         {
             ListVersionsRequest listVersionsRequest = new ListVersionsRequest().withBucketName(params.getS3BucketName()).withPrefix(params.getS3KeyPrefix());
@@ -321,11 +739,17 @@ public class S3DaoImpl implements S3Dao
             {
                 versionListing = s3Operations.listVersions(listVersionsRequest, s3Client);
 
+                List<DeleteObjectsRequest.KeyVersion> keyVersions = new ArrayList<>(versionListing.getVersionSummaries().size());
                 for (S3VersionSummary versionSummary : versionListing.getVersionSummaries())
                 {
                     keyVersions.add(new DeleteObjectsRequest.KeyVersion(versionSummary.getKey(), versionSummary.getVersionId()));
                 }
 
+                if (!pageHandler.test(keyVersions))
+                {
+                    break;
+                }
+
                 listVersionsRequest.setKeyMarker(versionListing.getNextKeyMarker());
                 listVersionsRequest.setVersionIdMarker(versionListing.getNextVersionIdMarker());
             }
@@ -345,13 +769,6 @@ public class S3DaoImpl implements S3Dao
                 .format("Failed to list keys/key versions with prefix \"%s\" from bucket \"%s\". Reason: %s", params.getS3KeyPrefix(), params.getS3BucketName(),
                     e.getMessage()), e);
         }
-        finally
-        {
-            // Shutdown the AmazonS3Client instance to release resources.
-            s3Client.shutdown();
-        }
-
-        return keyVersions;
     }
 
     @Override
@@ -517,35 +934,43 @@ public class S3DaoImpl implements S3Dao
 
         if (!CollectionUtils.isEmpty(params.getFiles()))
         {
-            // Initialize a key value her for the error message in the catch block.
-            String key = params.getFiles().get(0).getPath().replaceAll("\\\\", "/");
+            List<String> keys = getS3Keys(params.getFiles());
+
+            // Initialize a key value here for the error message in the catch block.
+            String key = keys.get(0);
 
             try
             {
                 // Create an S3 client.
                 AmazonS3Client s3Client = getAmazonS3(params);
 
-                // Create a restore object request.
-                RestoreObjectRequest requestRestore = new RestoreObjectRequest(params.getS3BucketName(), null, expirationInDays);
-
                 try
                 {
-                    for (File file : params.getFiles())
-                    {
-                        key = file.getPath().replaceAll("\\\\", "/");
-                        ObjectMetadata objectMetadata = s3Operations.getObjectMetadata(params.getS3BucketName(), key, s3Client);
+                    S3KeyBatchExecutor executor = getRestoreExecutor();
+                    S3KeyBatchExecutor.S3KeyBatchResults results = executor.execute("restoreObjects", keys, s3Key -> {
+                        executor.acquireRequestPermit();
+                        ObjectMetadata objectMetadata = s3Operations.getObjectMetadata(params.getS3BucketName(), s3Key, s3Client);
 
                         // Request a restore for objects that are not already being restored.
                         if (BooleanUtils.isNotTrue(objectMetadata.getOngoingRestore()))
                         {
-                            requestRestore.setKey(key);
-                            s3Operations.restoreObject(requestRestore, s3Client);
+                            executor.acquireRequestPermit();
+                            s3Operations.restoreObject(new RestoreObjectRequest(params.getS3BucketName(), s3Key, expirationInDays), s3Client);
                         }
+                    });
+
+                    // Report the first failed key in the order the files were specified.
+                    Map.Entry<String, Exception> failure = getFirstFailure(results, "restoreObjects", params.getS3BucketName());
+                    if (failure != null)
+                    {
+                        key = failure.getKey();
+                        throw failure.getValue();
                     }
                 }
                 finally
                 {
-                    s3Client.shutdown();
+                    // Hand the AmazonS3Client instance back to the registry.
+                    s3ClientRegistry.releaseClient(s3Client);
                 }
             }
             catch (Exception e)
@@ -565,8 +990,10 @@ public class S3DaoImpl implements S3Dao
 
         if (!CollectionUtils.isEmpty(params.getFiles()))
         {
-            // Initialize a key value her for the error message in the catch block.
-            String key = params.getFiles().get(0).getPath().replaceAll("\\\\", "/");
+            List<String> keys = getS3Keys(params.getFiles());
+
+            // Initialize a key value here for the error message in the catch block.
+            String key = keys.get(0);
 
             try
             {
@@ -575,23 +1002,37 @@ public class S3DaoImpl implements S3Dao
 
                 try
                 {
-                    for (File file : params.getFiles())
-                    {
-                        key = file.getPath().replaceAll("\\\\", "/");
-                        ObjectMetadata objectMetadata = s3Operations.getObjectMetadata(params.getS3BucketName(), key, s3Client);
+                    S3KeyBatchExecutor executor = getRestoreExecutor();
+                    // Stop at the first object that is not restored yet, since the whole validation fails anyway.
+                    S3KeyBatchExecutor.S3KeyBatchResults results = executor.execute("validateGlacierS3FilesRestored", keys, true, s3Key -> {
+                        executor.acquireRequestPermit();
+                        ObjectMetadata objectMetadata = s3Operations.getObjectMetadata(params.getS3BucketName(), s3Key, s3Client);
 
                         // Fail if a not already restored object is detected.
                         if (BooleanUtils.isNotFalse(objectMetadata.getOngoingRestore()))
                         {
                             throw new IllegalArgumentException(String.format(
                                 "Archived Glacier S3 file \"%s\" is not restored. StorageClass {%s}, OngoingRestore flag {%s}, Glacier S3 bucket name {%s}",
-                                key, objectMetadata.getStorageClass(), objectMetadata.getOngoingRestore(), params.getS3BucketName()));
+                                s3Key, objectMetadata.getStorageClass(), objectMetadata.getOngoingRestore(), params.getS3BucketName()));
                         }
+                    });
+
+                    // Report the first failed key in the order the files were specified.
+                    Map.Entry<String, Exception> failure = getFirstFailure(results, "validateGlacierS3FilesRestored", params.getS3BucketName());
+                    if (failure != null)
+                    {
+                        key = failure.getKey();
+                        if (failure.getValue() instanceof RuntimeException)
+                        {
+                            throw (RuntimeException) failure.getValue();
+                        }
+                        throw new IllegalStateException(failure.getValue());
                     }
                 }
                 finally
                 {
-                    s3Client.shutdown();
+                    // Hand the AmazonS3Client instance back to the registry.
+                    s3ClientRegistry.releaseClient(s3Client);
                 }
             }
             catch (AmazonServiceException e)
@@ -630,7 +1071,7 @@ public class S3DaoImpl implements S3Dao
                 }
                 finally
                 {
-                    s3Client.shutdown();
+                    s3ClientRegistry.releaseClient(s3Client);
                 }
             }
         }
@@ -650,27 +1091,27 @@ public class S3DaoImpl implements S3Dao
 
         try
         {
-            // List S3 versions.
-            List<DeleteObjectsRequest.KeyVersion> keyVersions = listVersions(params);
-            LOGGER.info("Found keys/key versions in S3 for deletion. s3KeyCount={} s3KeyPrefix=\"{}\" s3BucketName=\"{}\"", keyVersions.size(),
-                params.getS3KeyPrefix(), params.getS3BucketName());
+            // Create an S3 client.
+            AmazonS3Client s3Client = getAmazonS3(params);
 
-            // In order to avoid a MalformedXML AWS exception, we send delete request only when we have any key versions to delete.
-            if (!keyVersions.isEmpty())
+            try (S3BatchDeletePipeline pipeline = createBatchDeletePipeline(s3Client, params.getS3BucketName()))
             {
-                // Create an S3 client.
-                AmazonS3Client s3Client = getAmazonS3(params);
+                // Stream the listed S3 versions to the delete threads one page at a time, so the key versions are never all held in memory.
+                // Delete requests are sent only for non-empty batches in order to avoid a MalformedXML AWS exception.
+                listVersions(params, s3Client, pipeline::submit);
 
-                try
-                {
-                    // Delete the key versions.
-                    deleteKeyVersions(s3Client, params.getS3BucketName(), keyVersions);
-                }
-                finally
+                // Wait for the delete requests to complete and report the first failure.
+                RuntimeException failure = pipeline.finish();
+                if (failure != null)
                 {
-                    s3Client.shutdown();
+                    throw failure;
                 }
             }
+            finally
+            {
+                // Hand the AmazonS3Client instance back to the registry.
+                s3ClientRegistry.releaseClient(s3Client);
+            }
         }
         catch (AmazonClientException e)
         {
@@ -681,40 +1122,95 @@ public class S3DaoImpl implements S3Dao
     }
 
     /**
-     * Deletes a list of keys/key versions from the specified S3 bucket.
+     * Deletes a list of keys/key versions from the specified S3 bucket. The multi-object delete requests are sent in parallel and all batches are attempted
+     * even if some of the keys fail to delete.
      *
      * @param s3Client the S3 client
      * @param s3BucketName the S3 bucket name
      * @param keyVersions the list of S3 keys/key versions
      */
     private void deleteKeyVersions(AmazonS3Client s3Client, String s3BucketName, List<DeleteObjectsRequest.KeyVersion> keyVersions)
+    {
+        try (S3BatchDeletePipeline pipeline = createBatchDeletePipeline(s3Client, s3BucketName))
+        {
+            pipeline.submit(keyVersions);
+
+            RuntimeException failure = pipeline.finish();
+            if (failure != null)
+            {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Creates a batch delete pipeline that sends multi-object delete requests to the specified S3 bucket.
+     *
+     * @param s3Client the S3 client
+     * @param s3BucketName the S3 bucket name
+     *
+     * @return the batch delete pipeline
+     */
+    private S3BatchDeletePipeline createBatchDeletePipeline(AmazonS3Client s3Client, String s3BucketName)
+    {
+        int threadCount = configurationHelper.getProperty(ConfigurationValue.S3_DELETE_THREAD_COUNT, Integer.class);
+        return new S3BatchDeletePipeline(threadCount > 1 ? getDeleteExecutor(threadCount) : null, threadCount,
+            configurationHelper.getProperty(ConfigurationValue.S3_DELETE_QUEUE_CAPACITY, Integer.class), MAX_KEYS_PER_DELETE_REQUEST,
+            keysSubList -> deleteKeyVersionBatch(s3Client, s3BucketName, keysSubList));
+    }
+
+    /**
+     * Gets the thread pool used to send multi-object delete requests, creating it on first use. Each batch delete pipeline queues its delete threads on this
+     * pool, so the delete threads of concurrent pipelines wait for each other instead of adding more threads.
+     *
+     * @param threadCount the number of threads of the thread pool when it is created
+     *
+     * @return the thread pool
+     */
+    private synchronized ThreadPoolExecutor getDeleteExecutor(int threadCount)
+    {
+        if (deleteExecutor == null)
+        {
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("s3Delete-");
+            threadFactory.setDaemon(true);
+
+            deleteExecutor = new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), threadFactory);
+
+            LOGGER.info("Created S3 delete thread pool. threadCount={}", threadCount);
+        }
+
+        return deleteExecutor;
+    }
+
+    /**
+     * Deletes a single batch of keys/key versions from the specified S3 bucket using a multi-object delete request.
+     *
+     * @param s3Client the S3 client
+     * @param s3BucketName the S3 bucket name
+     * @param keysSubList the list of up to 1000 S3 keys/key versions
+     */
+    private void deleteKeyVersionBatch(AmazonS3Client s3Client, String s3BucketName, List<DeleteObjectsRequest.KeyVersion> keysSubList)
     {
         // Create a request to delete multiple objects in the specified bucket.
         DeleteObjectsRequest multiObjectDeleteRequest = new DeleteObjectsRequest(s3BucketName);
+        multiObjectDeleteRequest.setKeys(keysSubList);
 
-        // The Multi-Object Delete request can contain a list of up to 1000 keys.
-        for (int i = 0; i < keyVersions.size() / MAX_KEYS_PER_DELETE_REQUEST + 1; i++)
+        try
         {
-            List<DeleteObjectsRequest.KeyVersion> keysSubList =
-                keyVersions.subList(i * MAX_KEYS_PER_DELETE_REQUEST, Math.min(keyVersions.size(), (i + 1) * MAX_KEYS_PER_DELETE_REQUEST));
-            multiObjectDeleteRequest.setKeys(keysSubList);
-            try
-            {
-                s3Operations.deleteObjects(multiObjectDeleteRequest, s3Client);
-            }
-            catch (MultiObjectDeleteException multiObjectDeleteException)
-            {
-                logMultiObjectDeleteException(multiObjectDeleteException);
-                throw multiObjectDeleteException;
-            }
+            s3Operations.deleteObjects(multiObjectDeleteRequest, s3Client);
+        }
+        catch (MultiObjectDeleteException multiObjectDeleteException)
+        {
+            logMultiObjectDeleteException(multiObjectDeleteException);
+            throw multiObjectDeleteException;
+        }
 
-            LOGGER.info("Successfully requested the deletion of the listed below keys/key versions from the S3 bucket. s3KeyCount={} s3BucketName=\"{}\"",
-                keysSubList.size(), s3BucketName);
+        LOGGER.info("Successfully requested the deletion of the listed below keys/key versions from the S3 bucket. s3KeyCount={} s3BucketName=\"{}\"",
+            keysSubList.size(), s3BucketName);
 
-            for (DeleteObjectsRequest.KeyVersion keyVersion : keysSubList)
-            {
-                LOGGER.info("s3Key=\"{}\" s3VersionId=\"{}\"", keyVersion.getKey(), keyVersion.getVersion());
-            }
+        for (DeleteObjectsRequest.KeyVersion keyVersion : keysSubList)
+        {
+            LOGGER.info("s3Key=\"{}\" s3VersionId=\"{}\"", keyVersion.getKey(), keyVersion.getVersion());
         }
     }
 
@@ -851,8 +1347,8 @@ public class S3DaoImpl implements S3Dao
         }
         finally
         {
-            // Shutdown the Amazon S3 client instance to release resources.
-            s3Client.shutdown();
+            // Hand the Amazon S3 client instance back to the registry.
+            s3ClientRegistry.releaseClient(s3Client);
         }
 
         return abortedMultipartUploadsCount;
@@ -909,24 +1405,110 @@ public class S3DaoImpl implements S3Dao
         if (params.getMaxThreads() == null)
         {
             // Create a transfer manager that will internally use an appropriate number of threads.
-            return new TransferManager(getAmazonS3(params));
+            return new TransferManager(createAmazonS3(params));
         }
         else
         {
             // Create a transfer manager with our own executor configured with the specified total threads.
             LOGGER.info("Creating a transfer manager. fixedThreadPoolSize={}", params.getMaxThreads());
-            return new TransferManager(getAmazonS3(params), Executors.newFixedThreadPool(params.getMaxThreads()));
+            return new TransferManager(createAmazonS3(params), Executors.newFixedThreadPool(params.getMaxThreads()));
         }
     }
 
     /**
-     * Gets a new S3 client based on the specified parameters. The HTTP proxy information will be added if the host and port are specified in the parameters.
+     * Gets the S3 keys for the specified list of files.
+     *
+     * @param files the list of files
+     *
+     * @return the list of S3 keys in the same order as the files
+     */
+    private List<String> getS3Keys(List<File> files)
+    {
+        List<String> keys = new ArrayList<>(files.size());
+        for (File file : files)
+        {
+            keys.add(file.getPath().replaceAll("\\\\", "/"));
+        }
+        return keys;
+    }
+
+    /**
+     * Gets the S3 key batch executor shared by the Glacier restore related operations, creating it on first use. The executor is replaced when the restore
+     * thread count or request rate configuration changes, and the calls still running on the previous executor complete on its threads.
+     *
+     * @return the S3 key batch executor
+     */
+    private synchronized S3KeyBatchExecutor getRestoreExecutor()
+    {
+        int threadCount = Math.max(configurationHelper.getProperty(ConfigurationValue.S3_RESTORE_THREAD_COUNT, Integer.class), 1);
+        int maxRequestsPerSecond = configurationHelper.getProperty(ConfigurationValue.S3_RESTORE_MAX_REQUESTS_PER_SECOND, Integer.class);
+
+        if (restoreExecutor == null || restoreExecutor.getThreadCount() != threadCount || restoreExecutor.getMaxRequestsPerSecond() != maxRequestsPerSecond)
+        {
+            if (restoreExecutor != null)
+            {
+                restoreExecutor.shutdown();
+            }
+
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("s3Restore-");
+            threadFactory.setDaemon(true);
+
+            restoreExecutor = new S3KeyBatchExecutor(
+                new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), threadFactory), threadCount,
+                maxRequestsPerSecond);
+
+            LOGGER.info("Created S3 restore thread pool. threadCount={} maxRequestsPerSecond={}", threadCount, maxRequestsPerSecond);
+        }
+
+        return restoreExecutor;
+    }
+
+    /**
+     * Logs a summary of the failures of an S3 key batch execution and returns the first one.
+     *
+     * @param results the S3 key batch execution results
+     * @param operationName the name of the operation
+     * @param bucketName the S3 bucket name
+     *
+     * @return the first failure in the order the keys were specified, or null if all keys succeeded
+     */
+    private Map.Entry<String, Exception> getFirstFailure(S3KeyBatchExecutor.S3KeyBatchResults results, String operationName, String bucketName)
+    {
+        if (results.getFailures().isEmpty())
+        {
+            return null;
+        }
+
+        Map.Entry<String, Exception> failure = results.getFailures().entrySet().iterator().next();
+
+        LOGGER.warn("S3 operation failed. operation=\"{}\" s3BucketName=\"{}\" failedS3KeyCount={} s3KeyCount={} firstFailedS3Key=\"{}\" reason=\"{}\"",
+            operationName, bucketName, results.getFailures().size(), results.getS3KeyCount(), failure.getKey(), failure.getValue().getMessage());
+
+        return failure;
+    }
+
+    /**
+     * Gets an S3 client for the specified parameters from the S3 client registry. The client must be handed back to the registry once it is no longer needed
+     * instead of being shut down.
      *
      * @param params the parameters.
      *
      * @return the Amazon S3 client.
      */
     private AmazonS3Client getAmazonS3(S3FileTransferRequestParamsDto params)
+    {
+        return s3ClientRegistry.acquireClient(params, this::createAmazonS3);
+    }
+
+    /**
+     * Creates a new S3 client based on the specified parameters. The HTTP proxy information will be added if the host and port are specified in the
+     * parameters.
+     *
+     * @param params the parameters.
+     *
+     * @return the Amazon S3 client.
+     */
+    private AmazonS3Client createAmazonS3(S3FileTransferRequestParamsDto params)
     {
         AmazonS3Client amazonS3Client;
 
@@ -1177,7 +1759,7 @@ public class S3DaoImpl implements S3Dao
         }
         finally
         {
-            s3Client.shutdown();
+            s3ClientRegistry.releaseClient(s3Client);
         }
     }
 
@@ -1193,7 +1775,7 @@ public class S3DaoImpl implements S3Dao
         }
         finally
         {
-            s3.shutdown();
+            s3ClientRegistry.releaseClient(s3);
         }
     }
 
@@ -0,0 +1,310 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.dao.impl;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.time.StopWatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes an S3 operation for each key in a list of S3 keys using a bounded number of threads and an optional cap on the number of S3 requests per second.
+ * Failures are collected per key, and the execution either continues with the remaining keys or stops once a key failed.
+ * <p/>
+ * A single executor is meant to be shared by concurrent callers. The keys of all callers are processed on the same thread pool and the request rate cap
+ * applies to the requests of all callers together.
+ */
+class S3KeyBatchExecutor
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(S3KeyBatchExecutor.class);
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * The time in milliseconds a caller waits for its keys before it checks whether the thread pool was terminated.
+     */
+    private static final long WAIT_MILLIS = 1000;
+
+    private final ExecutorService executorService;
+
+    private final int threadCount;
+
+    private final int maxRequestsPerSecond;
+
+    private final long requestIntervalNanos;
+
+    private long nextRequestNanos = System.nanoTime();
+
+    /**
+     * Creates an executor.
+     *
+     * @param executorService the thread pool processing the keys, shared by all callers
+     * @param threadCount the maximum number of keys of a single call processed concurrently, values less than 1 are treated as 1
+     * @param maxRequestsPerSecond the maximum number of S3 requests per second across all threads and callers, values less than 1 disable the request rate
+     * cap
+     */
+    S3KeyBatchExecutor(ExecutorService executorService, int threadCount, int maxRequestsPerSecond)
+    {
+        this.executorService = executorService;
+        this.threadCount = Math.max(threadCount, 1);
+        this.maxRequestsPerSecond = maxRequestsPerSecond;
+        this.requestIntervalNanos = maxRequestsPerSecond > 0 ? NANOS_PER_SECOND / maxRequestsPerSecond : 0;
+    }
+
+    int getThreadCount()
+    {
+        return threadCount;
+    }
+
+    int getMaxRequestsPerSecond()
+    {
+        return maxRequestsPerSecond;
+    }
+
+    /**
+     * Shuts the thread pool down. The keys already handed to the thread pool are still processed.
+     */
+    void shutdown()
+    {
+        executorService.shutdown();
+    }
+
+    /**
+     * Shuts the thread pool down, interrupting the threads processing keys.
+     */
+    void shutdownNow()
+    {
+        executorService.shutdownNow();
+    }
+
+    /**
+     * Runs the specified operation for each of the specified S3 keys. This method returns once all keys are processed.
+     *
+     * @param operationName the name of the operation used for logging
+     * @param s3Keys the list of S3 keys
+     * @param operation the operation to run for each S3 key
+     *
+     * @return the execution results
+     */
+    S3KeyBatchResults execute(String operationName, List<String> s3Keys, S3KeyOperation operation)
+    {
+        return execute(operationName, s3Keys, false, operation);
+    }
+
+    /**
+     * Runs the specified operation for each of the specified S3 keys. This method returns once all keys are processed, or once the keys already started
+     * are processed after a key failed when stopping on failure. Keys are started in the order of the list, so the first failed key in that order is always
+     * reported even when stopping on failure.
+     *
+     * @param operationName the name of the operation used for logging
+     * @param s3Keys the list of S3 keys
+     * @param stopOnFailure specifies whether to stop starting new keys once a key failed
+     * @param operation the operation to run for each S3 key
+     *
+     * @return the execution results
+     */
+    S3KeyBatchResults execute(String operationName, List<String> s3Keys, boolean stopOnFailure, S3KeyOperation operation)
+    {
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+
+        // Failures are keyed by the index of the S3 key, so they can be reported in the order of the original list.
+        Map<Integer, Exception> failuresByIndex = new ConcurrentHashMap<>();
+        AtomicInteger nextIndex = new AtomicInteger();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Runnable worker = () -> {
+            int index;
+            while (!cancelled.get() && !(stopOnFailure && !failuresByIndex.isEmpty()) && (index = nextIndex.getAndIncrement()) < s3Keys.size())
+            {
+                try
+                {
+                    operation.execute(s3Keys.get(index));
+                }
+                catch (Exception e)
+                {
+                    failuresByIndex.put(index, e);
+                }
+            }
+        };
+
+        int poolSize = Math.min(threadCount, s3Keys.size());
+        if (poolSize <= 1)
+        {
+            // Run in the calling thread when there is nothing to parallelize.
+            worker.run();
+        }
+        else
+        {
+            CountDownLatch workersDone = new CountDownLatch(poolSize);
+            Runnable countingWorker = () -> {
+                try
+                {
+                    worker.run();
+                }
+                finally
+                {
+                    workersDone.countDown();
+                }
+            };
+
+            try
+            {
+                for (int i = 0; i < poolSize; i++)
+                {
+                    try
+                    {
+                        executorService.execute(countingWorker);
+                    }
+                    catch (RejectedExecutionException e)
+                    {
+                        // The shared thread pool was shut down, so process the keys in the calling thread.
+                        countingWorker.run();
+                    }
+                }
+
+                while (!workersDone.await(WAIT_MILLIS, TimeUnit.MILLISECONDS))
+                {
+                    // The workers dropped by a shutdown of the thread pool never count down.
+                    if (executorService.isTerminated())
+                    {
+                        throw new IllegalStateException(String.format("The thread pool was shut down while executing \"%s\" S3 operation.", operationName));
+                    }
+                }
+            }
+            catch (InterruptedException e)
+            {
+                cancelled.set(true);
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(String.format("Interrupted while executing \"%s\" S3 operation.", operationName), e);
+            }
+        }
+
+        stopWatch.stop();
+
+        Map<String, Exception> failures = new LinkedHashMap<>();
+        failuresByIndex.keySet().stream().sorted().forEach(index -> failures.putIfAbsent(s3Keys.get(index), failuresByIndex.get(index)));
+
+        S3KeyBatchResults results = new S3KeyBatchResults(s3Keys.size(), failures, stopWatch.getTime());
+
+        LOGGER.info("Completed S3 key batch operation. operation=\"{}\" threadCount={} s3KeyCount={} failedS3KeyCount={} durationMillis={} " +
+            "s3KeysPerSecond={}", operationName, poolSize, results.getS3KeyCount(), failures.size(), results.getDurationMillis(),
+            String.format("%.2f", results.getS3KeysPerSecond()));
+
+        return results;
+    }
+
+    /**
+     * Blocks the calling thread until the next S3 request is allowed by the request rate cap. Operations call this right before each S3 request they issue.
+     */
+    void acquireRequestPermit()
+    {
+        if (requestIntervalNanos > 0)
+        {
+            long waitNanos;
+            synchronized (this)
+            {
+                long now = System.nanoTime();
+                nextRequestNanos = Math.max(nextRequestNanos, now);
+                waitNanos = nextRequestNanos - now;
+                nextRequestNanos += requestIntervalNanos;
+            }
+
+            if (waitNanos > 0)
+            {
+                try
+                {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for an S3 request permit.", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * An operation executed for a single S3 key.
+     */
+    @FunctionalInterface
+    interface S3KeyOperation
+    {
+        /**
+         * Executes the operation for the specified S3 key.
+         *
+         * @param s3Key the S3 key
+         *
+         * @throws Exception if the operation failed for this key
+         */
+        void execute(String s3Key) throws Exception;
+    }
+
+    /**
+     * The results of an S3 key batch execution.
+     */
+    static class S3KeyBatchResults
+    {
+        private final int s3KeyCount;
+
+        private final Map<String, Exception> failures;
+
+        private final long durationMillis;
+
+        S3KeyBatchResults(int s3KeyCount, Map<String, Exception> failures, long durationMillis)
+        {
+            this.s3KeyCount = s3KeyCount;
+            this.failures = Collections.unmodifiableMap(failures);
+            this.durationMillis = durationMillis;
+        }
+
+        int getS3KeyCount()
+        {
+            return s3KeyCount;
+        }
+
+        /**
+         * Gets the failures keyed by S3 key, in the order the keys were specified.
+         *
+         * @return the failures
+         */
+        Map<String, Exception> getFailures()
+        {
+            return failures;
+        }
+
+        long getDurationMillis()
+        {
+            return durationMillis;
+        }
+
+        double getS3KeysPerSecond()
+        {
+            return durationMillis > 0 ? s3KeyCount * 1000.0 / durationMillis : s3KeyCount;
+        }
+    }
+}
@@ -15,6 +15,8 @@
 */
 package org.finra.herd.dao.impl;
 
+import java.util.List;
+
 import com.amazonaws.ClientConfiguration;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -38,6 +40,26 @@ public class SqsDaoImpl implements SqsDao
      */
     @Override
     public void sendSqsTextMessage(AwsParamsDto awsParamsDto, String queueName, String messageText)
+    {
+        // Send the message.
+        sqsOperations.sendSqsTextMessage(getClientConfiguration(awsParamsDto), queueName, messageText);
+    }
+
+    @Override
+    public List<Integer> sendSqsTextMessages(AwsParamsDto awsParamsDto, String queueName, List<String> messageTexts)
+    {
+        // Send the messages.
+        return sqsOperations.sendSqsTextMessages(getClientConfiguration(awsParamsDto), queueName, messageTexts);
+    }
+
+    /**
+     * Creates the client configuration based on the specified proxy configuration.
+     *
+     * @param awsParamsDto the AWS related parameters
+     *
+     * @return the client configuration
+     */
+    private ClientConfiguration getClientConfiguration(AwsParamsDto awsParamsDto)
     {
         // Create the connection factory based on the specified proxy configuration.
         ClientConfiguration clientConfiguration = new ClientConfiguration();
@@ -52,7 +74,6 @@ public class SqsDaoImpl implements SqsDao
             clientConfiguration.setProxyPort(awsParamsDto.getHttpProxyPort());
         }
 
-        // Send the message.
-        sqsOperations.sendSqsTextMessage(clientConfiguration, queueName, messageText);
+        return clientConfiguration;
     }
 }
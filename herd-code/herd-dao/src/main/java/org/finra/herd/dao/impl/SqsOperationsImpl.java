@@ -15,15 +15,39 @@
 */
 package org.finra.herd.dao.impl;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.amazonaws.AmazonClientException;
 import com.amazonaws.ClientConfiguration;
 import com.amazonaws.services.sqs.AmazonSQSClient;
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
 import com.amazonaws.services.sqs.model.GetQueueUrlResult;
 import com.amazonaws.services.sqs.model.QueueDoesNotExistException;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequest;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.SendMessageBatchResult;
+import com.amazonaws.services.sqs.model.SendMessageBatchResultEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import org.finra.herd.dao.SqsOperations;
 
 public class SqsOperationsImpl implements SqsOperations
 {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SqsOperationsImpl.class);
+
+    /**
+     * The maximum number of messages in a single SQS batch request.
+     */
+    private static final int MAX_BATCH_MESSAGE_COUNT = 10;
+
+    /**
+     * The maximum total size in bytes of the messages in a single SQS batch request.
+     */
+    private static final int MAX_BATCH_PAYLOAD_BYTES = 256 * 1024;
+
     @Override
     public void sendSqsTextMessage(ClientConfiguration clientConfiguration, String queueName, String messageText)
     {
@@ -38,4 +62,86 @@ public class SqsOperationsImpl implements SqsOperations
             throw new IllegalStateException(String.format("AWS SQS queue with \"%s\" name not found.", queueName), ex);
         }
     }
+
+    @Override
+    public List<Integer> sendSqsTextMessages(ClientConfiguration clientConfiguration, String queueName, List<String> messageTexts)
+    {
+        List<Integer> sentMessageIndexes = new ArrayList<>();
+
+        try
+        {
+            AmazonSQSClient amazonSQSClient = new AmazonSQSClient(clientConfiguration);
+            String queueUrl = amazonSQSClient.getQueueUrl(queueName).getQueueUrl();
+
+            int index = 0;
+            while (index < messageTexts.size())
+            {
+                // Build the next batch limited by both the number of messages and the total message size. The entry ids are the message indexes.
+                List<SendMessageBatchRequestEntry> entries = new ArrayList<>();
+                int payloadBytes = 0;
+                while (index < messageTexts.size() && entries.size() < MAX_BATCH_MESSAGE_COUNT)
+                {
+                    int messageBytes = messageTexts.get(index).getBytes(StandardCharsets.UTF_8).length;
+                    if (!entries.isEmpty() && payloadBytes + messageBytes > MAX_BATCH_PAYLOAD_BYTES)
+                    {
+                        break;
+                    }
+                    entries.add(new SendMessageBatchRequestEntry(String.valueOf(index), messageTexts.get(index)));
+                    payloadBytes += messageBytes;
+                    index++;
+                }
+
+                SendMessageBatchResult sendMessageBatchResult;
+                try
+                {
+                    sendMessageBatchResult = amazonSQSClient.sendMessageBatch(new SendMessageBatchRequest(queueUrl, entries));
+                }
+                catch (AmazonClientException e)
+                {
+                    // Report the messages sent so far, so they do not get sent again. Otherwise, there is nothing to report.
+                    if (sentMessageIndexes.isEmpty())
+                    {
+                        throw e;
+                    }
+                    LOGGER.warn("Failed to send a batch of SQS messages. queueName=\"{}\" sentMessageCount={} unsentMessageCount={}", queueName,
+                        sentMessageIndexes.size(), messageTexts.size() - sentMessageIndexes.size(), e);
+                    break;
+                }
+
+                // Find the lowest index of a message in this batch that failed to be sent.
+                int lowestFailedMessageIndex = Integer.MAX_VALUE;
+                for (BatchResultErrorEntry errorEntry : sendMessageBatchResult.getFailed())
+                {
+                    LOGGER.warn("Failed to send an SQS message. queueName=\"{}\" messageIndex={} senderFault={} errorCode=\"{}\" errorMessage=\"{}\"",
+                        queueName, errorEntry.getId(), errorEntry.getSenderFault(), errorEntry.getCode(), errorEntry.getMessage());
+                    lowestFailedMessageIndex = Math.min(lowestFailedMessageIndex, Integer.parseInt(errorEntry.getId()));
+                }
+
+                // Only report the messages that precede the first failed message, so the reported messages are always the leading messages of the list.
+                // The messages that follow a failed message get sent again along with it, even if they were sent successfully in this batch.
+                for (SendMessageBatchResultEntry resultEntry : sendMessageBatchResult.getSuccessful())
+                {
+                    int messageIndex = Integer.parseInt(resultEntry.getId());
+                    if (messageIndex < lowestFailedMessageIndex)
+                    {
+                        sentMessageIndexes.add(messageIndex);
+                    }
+                }
+
+                // Do not send any more batches once a message fails to be sent, so the messages stay in order.
+                if (lowestFailedMessageIndex != Integer.MAX_VALUE)
+                {
+                    break;
+                }
+            }
+        }
+        catch (QueueDoesNotExistException ex)
+        {
+            throw new IllegalStateException(String.format("AWS SQS queue with \"%s\" name not found.", queueName), ex);
+        }
+
+        // The successful entries of a batch are not necessarily reported in the order they were sent.
+        sentMessageIndexes.sort(null);
+        return sentMessageIndexes;
+    }
 }
@@ -24,6 +24,7 @@ import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.Join;
 import javax.persistence.criteria.Order;
+import javax.persistence.criteria.ParameterExpression;
 import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
@@ -151,34 +152,38 @@ public class StorageFileDaoImpl extends AbstractHerdDao implements StorageFileDa
         Join<StorageFileEntity, StorageUnitEntity> storageUnitEntity = storageFileEntity.join(StorageFileEntity_.storageUnit);
 
         // Get the columns.
+        Path<Integer> storageFileIdColumn = storageFileEntity.get(StorageFileEntity_.id);
         Path<Integer> storageUnitIdColumn = storageUnitEntity.get(StorageUnitEntity_.id);
         Path<String> storageFilePathColumn = storageFileEntity.get(StorageFileEntity_.path);
 
-        // Create the standard restrictions (i.e. the standard where clauses).
-        Predicate queryRestriction = getPredicateForInClause(builder, storageUnitEntity, storageUnitEntities);
+        // Create the standard restrictions (i.e. the standard where clauses). The storage file id restriction lets each page seek past the last storage
+        // file of the previous page, instead of skipping over all of the previous pages as an offset would.
+        ParameterExpression<Integer> lastStorageFileIdParameter = builder.parameter(Integer.class);
+        Predicate queryRestriction = builder.and(getPredicateForInClause(builder, storageUnitEntity, storageUnitEntities),
+            builder.greaterThan(storageFileIdColumn, lastStorageFileIdParameter));
 
         // Add the select clause.
-        criteria.multiselect(storageUnitIdColumn, storageFilePathColumn);
+        criteria.multiselect(storageFileIdColumn, storageUnitIdColumn, storageFilePathColumn);
 
         // Add the where clause.
         criteria.where(queryRestriction);
 
-        // Execute the query using pagination and populate the result map.
-        int startPosition = 0;
+        // Order the results by storage file id, so the pages are stable.
+        criteria.orderBy(builder.asc(storageFileIdColumn));
+
+        // Execute the query one page at a time.
+        Integer lastStorageFileId = Integer.MIN_VALUE;
         while (true)
         {
             // Run the query to get a list of tuples back.
-            List<Tuple> tuples = entityManager.createQuery(criteria).setFirstResult(startPosition).setMaxResults(paginationSize).getResultList();
+            List<Tuple> tuples =
+                entityManager.createQuery(criteria).setParameter(lastStorageFileIdParameter, lastStorageFileId).setMaxResults(paginationSize).getResultList();
 
             // Populate the result map from the returned tuples (i.e. 1 tuple for each row).
             for (Tuple tuple : tuples)
             {
-                // Extract the tuple values.
-                Integer storageUnitId = tuple.get(storageUnitIdColumn);
-                String storageFilePath = tuple.get(storageFilePathColumn);
-
-                // Update the result map.
-                result.put(storageUnitId, storageFilePath);
+                result.put(tuple.get(storageUnitIdColumn), tuple.get(storageFilePathColumn));
+                lastStorageFileId = tuple.get(storageFileIdColumn);
             }
 
             // Break out of the while loop if we got less results than the pagination size.
@@ -186,11 +191,34 @@ public class StorageFileDaoImpl extends AbstractHerdDao implements StorageFileDa
             {
                 break;
             }
-
-            // Increment the start position.
-            startPosition += paginationSize;
         }
 
         return result;
     }
+
+    @Override
+    public void saveStorageFiles(List<StorageFileEntity> storageFileEntities)
+    {
+        // Retrieve the number of storage files to save before each flush.
+        int flushSize = Math.max(configurationHelper.getProperty(ConfigurationValue.STORAGE_FILE_REGISTRATION_FLUSH_SIZE, Integer.class), 1);
+
+        for (int fromIndex = 0; fromIndex < storageFileEntities.size(); fromIndex += flushSize)
+        {
+            List<StorageFileEntity> storageFileEntitiesChunk =
+                storageFileEntities.subList(fromIndex, Math.min(fromIndex + flushSize, storageFileEntities.size()));
+
+            // Persist the storage files. The identifiers are assigned from the sequence on persist, so the inserts can be batched on flush.
+            for (StorageFileEntity storageFileEntity : storageFileEntitiesChunk)
+            {
+                save(storageFileEntity);
+            }
+
+            // Flush the inserts and remove the flushed storage files from the persistence context.
+            entityManager.flush();
+            for (StorageFileEntity storageFileEntity : storageFileEntitiesChunk)
+            {
+                entityManager.detach(storageFileEntity);
+            }
+        }
+    }
 }
@@ -15,6 +15,9 @@
 */
 package org.finra.herd.dao.impl;
 
+import java.util.List;
+
+import javax.persistence.LockModeType;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Join;
@@ -29,6 +32,8 @@ import org.finra.herd.model.jpa.NamespaceEntity;
 import org.finra.herd.model.jpa.NamespaceEntity_;
 import org.finra.herd.model.jpa.StoragePolicyEntity;
 import org.finra.herd.model.jpa.StoragePolicyEntity_;
+import org.finra.herd.model.jpa.StoragePolicySelectionWatermarkEntity;
+import org.finra.herd.model.jpa.StoragePolicySelectionWatermarkEntity_;
 
 @Repository
 public class StoragePolicyDaoImpl extends AbstractHerdDao implements StoragePolicyDao
@@ -75,4 +80,33 @@ public class StoragePolicyDaoImpl extends AbstractHerdDao implements StoragePoli
             "Found more than one storage policy with with parameters {namespace=\"%s\", storagePolicyName=\"%s\", storagePolicyVersion=\"%d\"}.", key
                 .getNamespace(), key.getStoragePolicyName(), storagePolicyVersion));
     }
+
+    @Override
+    public void resetStoragePolicySelectionWatermarks(int storagePolicyPriorityLevelNumber)
+    {
+        // Create the criteria builder and the criteria.
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<StoragePolicySelectionWatermarkEntity> criteria = builder.createQuery(StoragePolicySelectionWatermarkEntity.class);
+
+        // The criteria root is the storage policy selection watermark entity.
+        Root<StoragePolicySelectionWatermarkEntity> storagePolicySelectionWatermarkEntity = criteria.from(StoragePolicySelectionWatermarkEntity.class);
+
+        // Select the watermarks of the specified and all lower priority levels.
+        Predicate queryRestriction = builder
+            .greaterThanOrEqualTo(storagePolicySelectionWatermarkEntity.get(StoragePolicySelectionWatermarkEntity_.storagePolicyPriorityLevelNumber),
+                storagePolicyPriorityLevelNumber);
+
+        criteria.select(storagePolicySelectionWatermarkEntity).where(queryRestriction);
+
+        // Lock the watermarks, so a storage policy selection running concurrently does not overwrite the reset with its own progress.
+        List<StoragePolicySelectionWatermarkEntity> storagePolicySelectionWatermarkEntities =
+            entityManager.createQuery(criteria).setLockMode(LockModeType.PESSIMISTIC_WRITE).getResultList();
+
+        for (StoragePolicySelectionWatermarkEntity watermarkEntity : storagePolicySelectionWatermarkEntities)
+        {
+            watermarkEntity.setBusinessObjectDataId(null);
+            watermarkEntity.setBusinessObjectDataCreatedOn(null);
+            save(watermarkEntity);
+        }
+    }
 }
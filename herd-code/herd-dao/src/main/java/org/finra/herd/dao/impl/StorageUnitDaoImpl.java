@@ -16,23 +16,35 @@
 package org.finra.herd.dao.impl;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import javax.persistence.EntityManager;
 import javax.persistence.Tuple;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.From;
 import javax.persistence.criteria.Join;
 import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import javax.persistence.criteria.Subquery;
 import javax.persistence.metamodel.SingularAttribute;
 
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import org.finra.herd.dao.StorageUnitDao;
+import org.finra.herd.dao.helper.ReadOnlyQueryExecutor;
 import org.finra.herd.model.api.xml.BusinessObjectFormatKey;
+import org.finra.herd.model.dto.PartitionFilterCrossProduct;
 import org.finra.herd.model.jpa.BusinessObjectDataEntity;
 import org.finra.herd.model.jpa.BusinessObjectDataEntity_;
 import org.finra.herd.model.jpa.BusinessObjectDataStatusEntity;
@@ -52,6 +64,9 @@ import org.finra.herd.model.jpa.StorageUnitStatusEntity_;
 @Repository
 public class StorageUnitDaoImpl extends AbstractHerdDao implements StorageUnitDao
 {
+    @Autowired
+    private ReadOnlyQueryExecutor readOnlyQueryExecutor;
+
     @Override
     public List<StorageUnitEntity> getGlacierStorageUnitsToRestore(int maxResult)
     {
@@ -196,28 +211,272 @@ public class StorageUnitDaoImpl extends AbstractHerdDao implements StorageUnitDa
         List<List<String>> partitionFilters, Integer businessObjectDataVersion, String businessObjectDataStatus, List<String> storageNames,
         String storagePlatformType, String excludedStoragePlatformType, boolean selectOnlyAvailableStorageUnits)
     {
+        return getStorageUnitsByPartitionFiltersAndStorages(businessObjectFormatKey, partitionFilters, businessObjectDataVersion, businessObjectDataStatus,
+            storageNames, storagePlatformType, excludedStoragePlatformType, selectOnlyAvailableStorageUnits, false);
+    }
+
+    @Override
+    public List<StorageUnitEntity> getStorageUnitsByPartitionFiltersAndStorages(BusinessObjectFormatKey businessObjectFormatKey,
+        List<List<String>> partitionFilters, Integer businessObjectDataVersion, String businessObjectDataStatus, List<String> storageNames,
+        String storagePlatformType, String excludedStoragePlatformType, boolean selectOnlyAvailableStorageUnits, boolean partitionFiltersRegistered)
+    {
+        // When the partition filters do not fit in a single query, skip the ones that can not match any storage unit, since they specify a partition value
+        // that is not registered for this business object format.
+        List<List<String>> partitionFiltersToSelect = partitionFilters;
+        if (!partitionFiltersRegistered && partitionFilters.size() > MAX_PARTITION_FILTERS_PER_REQUEST)
+        {
+            partitionFiltersToSelect = partitionFilters instanceof PartitionFilterCrossProduct ?
+                getPartitionFilterCrossProductWithRegisteredPartitionValues(businessObjectFormatKey, (PartitionFilterCrossProduct) partitionFilters) :
+                getPartitionFiltersWithRegisteredPartitionValues(businessObjectFormatKey, partitionFilters);
+        }
+
+        // Split the partition filters into chunks, so each query has a bounded number of partition filters.
+        List<List<List<String>>> partitionFilterChunks = new ArrayList<>();
+        for (int i = 0; i < partitionFiltersToSelect.size(); i += MAX_PARTITION_FILTERS_PER_REQUEST)
+        {
+            partitionFilterChunks
+                .add(partitionFiltersToSelect.subList(i, Math.min(i + MAX_PARTITION_FILTERS_PER_REQUEST, partitionFiltersToSelect.size())));
+        }
+
         List<StorageUnitEntity> resultStorageUnitEntities = new ArrayList<>();
 
-        // Loop through each chunk of partition filters until we have reached the end of the list.
-        for (int i = 0; i < partitionFilters.size(); i += MAX_PARTITION_FILTERS_PER_REQUEST)
+        if (partitionFilterChunks.size() > 1 && readOnlyQueryExecutor.isConcurrentExecutionAllowed())
+        {
+            // Select the storage unit IDs for each chunk of partition filters concurrently. Most queries run in their own entity managers, so they only
+            // return the IDs and the storage units are loaded by the entity manager of the calling thread.
+            List<Function<EntityManager, List<Integer>>> queries = new ArrayList<>();
+            for (List<List<String>> partitionFilterChunk : partitionFilterChunks)
+            {
+                queries.add(queryEntityManager -> getStorageUnitTuplesByPartitionFiltersAndStorages(queryEntityManager, businessObjectFormatKey,
+                    partitionFilterChunk, businessObjectDataVersion, businessObjectDataStatus, storageNames, storagePlatformType, excludedStoragePlatformType,
+                    selectOnlyAvailableStorageUnits, true).stream().map(tuple -> tuple.get(0, Integer.class)).collect(Collectors.toList()));
+            }
+
+            List<Integer> storageUnitIds = new ArrayList<>();
+            readOnlyQueryExecutor.executeAll(entityManager, queries).forEach(storageUnitIds::addAll);
+
+            // Keep the order of the chunks, which is the order in which the chunks would be selected one after another.
+            Map<Integer, StorageUnitEntity> storageUnitEntitiesById = getStorageUnitsByIds(storageUnitIds);
+            for (Integer storageUnitId : storageUnitIds)
+            {
+                resultStorageUnitEntities.add(storageUnitEntitiesById.get(storageUnitId));
+            }
+        }
+        else
         {
-            // Get a sub-list for the current chunk of partition filters.
-            List<StorageUnitEntity> storageUnitEntitiesSubset =
-                getStorageUnitsByPartitionFiltersAndStorages(businessObjectFormatKey, partitionFilters, businessObjectDataVersion, businessObjectDataStatus,
-                    storageNames, storagePlatformType, excludedStoragePlatformType, selectOnlyAvailableStorageUnits, i,
-                    (i + MAX_PARTITION_FILTERS_PER_REQUEST) > partitionFilters.size() ? partitionFilters.size() - i : MAX_PARTITION_FILTERS_PER_REQUEST);
-
-            // Add the sub-list to the result.
-            resultStorageUnitEntities.addAll(storageUnitEntitiesSubset);
+            // Loop through each chunk of partition filters until we have reached the end of the list.
+            for (List<List<String>> partitionFilterChunk : partitionFilterChunks)
+            {
+                // Get the storage units for the current chunk of partition filters and add them to the result.
+                for (Tuple tuple : getStorageUnitTuplesByPartitionFiltersAndStorages(entityManager, businessObjectFormatKey, partitionFilterChunk,
+                    businessObjectDataVersion, businessObjectDataStatus, storageNames, storagePlatformType, excludedStoragePlatformType,
+                    selectOnlyAvailableStorageUnits, false))
+                {
+                    resultStorageUnitEntities.add(tuple.get(0, StorageUnitEntity.class));
+                }
+            }
         }
 
         return resultStorageUnitEntities;
     }
 
     /**
-     * Retrieves a list of storage unit entities per specified parameters. This method processes a sublist of partition filters specified by
-     * partitionFilterSubListFromIndex and partitionFilterSubListSize parameters.
+     * Gets the Cartesian product of the partition values registered for the specified business object format out of the partition values of each partition
+     * column of the specified Cartesian product. The registered partition values are selected once per partition level, regardless of the business object
+     * data version, status and storage, so the partition filters that are skipped are the ones that can not match any storage unit.
+     *
+     * @param businessObjectFormatKey the business object format key (case-insensitive). If a business object format version isn't specified, the partition
+     * values registered for any format version are used
+     * @param partitionFilters the Cartesian product of the partition values of each partition column
+     *
+     * @return the Cartesian product of the registered partition values of each partition column in the order of the specified partition values, or the
+     * specified Cartesian product itself when none of the partition values can be skipped
+     */
+    private List<List<String>> getPartitionFilterCrossProductWithRegisteredPartitionValues(BusinessObjectFormatKey businessObjectFormatKey,
+        PartitionFilterCrossProduct partitionFilters)
+    {
+        boolean unregisteredPartitionValuesFound = false;
+        List<List<String>> registeredPartitionValuesByColumn = new ArrayList<>();
+        for (int partitionLevel = 0; partitionLevel < partitionFilters.getPartitionValuesByColumn().size(); partitionLevel++)
+        {
+            List<String> partitionValues = partitionFilters.getPartitionValuesByColumn().get(partitionLevel);
+
+            // Partition values that are not specified for a partition level match any registered partition value.
+            List<String> specifiedPartitionValues = partitionValues.stream().filter(StringUtils::isNotBlank).distinct().collect(Collectors.toList());
+            if (specifiedPartitionValues.isEmpty())
+            {
+                registeredPartitionValuesByColumn.add(partitionValues);
+                continue;
+            }
+
+            Set<String> registeredPartitionValues =
+                new HashSet<>(getRegisteredPartitionValues(businessObjectFormatKey, partitionLevel, specifiedPartitionValues));
+            List<String> resultPartitionValues =
+                partitionValues.stream().filter(partitionValue -> StringUtils.isBlank(partitionValue) || registeredPartitionValues.contains(partitionValue))
+                    .collect(Collectors.toList());
+            unregisteredPartitionValuesFound |= resultPartitionValues.size() < partitionValues.size();
+            registeredPartitionValuesByColumn.add(resultPartitionValues);
+        }
+
+        return unregisteredPartitionValuesFound ? new PartitionFilterCrossProduct(registeredPartitionValuesByColumn) : partitionFilters;
+    }
+
+    /**
+     * Gets the partition filters that only specify partition values registered for the specified business object format. The registered partition values are
+     * selected once per partition level, regardless of the business object data version, status and storage, so the partition filters that are skipped are
+     * the ones that can not match any storage unit.
+     *
+     * @param businessObjectFormatKey the business object format key (case-insensitive). If a business object format version isn't specified, the partition
+     * values registered for any format version are used
+     * @param partitionFilters the list of partition filters
+     *
+     * @return the partition filters that only specify registered partition values in the order of the specified partition filters, or the specified list
+     * itself when none of the partition filters can be skipped
+     */
+    private List<List<String>> getPartitionFiltersWithRegisteredPartitionValues(BusinessObjectFormatKey businessObjectFormatKey,
+        List<List<String>> partitionFilters)
+    {
+        // Collect the partition values specified for each partition level.
+        List<Set<String>> partitionValues = new ArrayList<>();
+        for (int partitionLevel = 0; partitionLevel < BusinessObjectDataEntity.MAX_SUBPARTITIONS + 1; partitionLevel++)
+        {
+            partitionValues.add(new HashSet<>());
+        }
+        for (List<String> partitionFilter : partitionFilters)
+        {
+            for (int partitionLevel = 0; partitionLevel < BusinessObjectDataEntity.MAX_SUBPARTITIONS + 1; partitionLevel++)
+            {
+                if (StringUtils.isNotBlank(partitionFilter.get(partitionLevel)))
+                {
+                    partitionValues.get(partitionLevel).add(partitionFilter.get(partitionLevel));
+                }
+            }
+        }
+
+        // Narrow down the partition values of each partition level to the registered ones.
+        boolean unregisteredPartitionValuesFound = false;
+        for (int partitionLevel = 0; partitionLevel < BusinessObjectDataEntity.MAX_SUBPARTITIONS + 1; partitionLevel++)
+        {
+            if (!partitionValues.get(partitionLevel).isEmpty())
+            {
+                Set<String> registeredPartitionValues =
+                    new HashSet<>(getRegisteredPartitionValues(businessObjectFormatKey, partitionLevel, new ArrayList<>(partitionValues.get(partitionLevel))));
+                unregisteredPartitionValuesFound |= registeredPartitionValues.size() < partitionValues.get(partitionLevel).size();
+                partitionValues.set(partitionLevel, registeredPartitionValues);
+            }
+        }
+
+        if (!unregisteredPartitionValuesFound)
+        {
+            return partitionFilters;
+        }
+
+        List<List<String>> resultPartitionFilters = new ArrayList<>();
+        for (List<String> partitionFilter : partitionFilters)
+        {
+            boolean registered = true;
+            for (int partitionLevel = 0; registered && partitionLevel < BusinessObjectDataEntity.MAX_SUBPARTITIONS + 1; partitionLevel++)
+            {
+                String partitionValue = partitionFilter.get(partitionLevel);
+                registered = StringUtils.isBlank(partitionValue) || partitionValues.get(partitionLevel).contains(partitionValue);
+            }
+
+            if (registered)
+            {
+                resultPartitionFilters.add(partitionFilter);
+            }
+        }
+
+        return resultPartitionFilters;
+    }
+
+    /**
+     * Selects the distinct partition values registered for the specified business object format at the specified partition level out of the specified
+     * partition values.
+     *
+     * @param businessObjectFormatKey the business object format key (case-insensitive). If a business object format version isn't specified, the partition
+     * values registered for any format version are selected
+     * @param partitionLevel the partition level, where zero stands for the primary partition
+     * @param partitionValues the list of partition values
+     *
+     * @return the list of registered partition values
+     */
+    private List<String> getRegisteredPartitionValues(BusinessObjectFormatKey businessObjectFormatKey, int partitionLevel, List<String> partitionValues)
+    {
+        // Create the criteria builder and the criteria.
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<String> criteria = builder.createQuery(String.class);
+
+        // The criteria root is the business object data.
+        Root<BusinessObjectDataEntity> businessObjectDataEntity = criteria.from(BusinessObjectDataEntity.class);
+
+        // Join to the other tables we can filter on.
+        Join<BusinessObjectDataEntity, BusinessObjectFormatEntity> businessObjectFormatEntity =
+            businessObjectDataEntity.join(BusinessObjectDataEntity_.businessObjectFormat);
+        Join<BusinessObjectFormatEntity, FileTypeEntity> fileTypeEntity = businessObjectFormatEntity.join(BusinessObjectFormatEntity_.fileType);
+        Join<BusinessObjectFormatEntity, BusinessObjectDefinitionEntity> businessObjectDefinitionEntity =
+            businessObjectFormatEntity.join(BusinessObjectFormatEntity_.businessObjectDefinition);
+
+        // Create the standard restrictions (i.e. the standard where clauses).
+        Path<String> partitionValue = businessObjectDataEntity.get(BUSINESS_OBJECT_DATA_PARTITIONS.get(partitionLevel));
+        Predicate queryRestriction =
+            getQueryRestriction(builder, businessObjectFormatEntity, fileTypeEntity, businessObjectDefinitionEntity, businessObjectFormatKey, false);
+        queryRestriction = builder.and(queryRestriction, getPredicateForInClause(builder, partitionValue, partitionValues));
+
+        // Add the clauses for the query.
+        criteria.select(partitionValue).distinct(true).where(queryRestriction);
+
+        // Execute the query and return the results.
+        return entityManager.createQuery(criteria).getResultList();
+    }
+
+    /**
+     * Loads storage unit entities by their IDs along with their relative entities.
+     *
+     * @param storageUnitIds the list of storage unit IDs, maybe containing duplicates
      *
+     * @return the map of storage unit IDs to storage unit entities
+     */
+    private Map<Integer, StorageUnitEntity> getStorageUnitsByIds(List<Integer> storageUnitIds)
+    {
+        Map<Integer, StorageUnitEntity> storageUnitEntitiesById = new HashMap<>();
+
+        List<Integer> distinctStorageUnitIds = storageUnitIds.stream().distinct().collect(Collectors.toList());
+        if (!distinctStorageUnitIds.isEmpty())
+        {
+            // Create the criteria builder and the criteria.
+            CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+            CriteriaQuery<Tuple> criteria = builder.createTupleQuery();
+
+            // The criteria root is the storage unit.
+            Root<StorageUnitEntity> storageUnitEntity = criteria.from(StorageUnitEntity.class);
+
+            // Join to the same tables as the partition filter query, so the relative entities are fetched along with the storage units.
+            Join<StorageUnitEntity, BusinessObjectDataEntity> businessObjectDataEntity = storageUnitEntity.join(StorageUnitEntity_.businessObjectData);
+            Join<StorageUnitEntity, StorageEntity> storageEntity = storageUnitEntity.join(StorageUnitEntity_.storage);
+            Join<StorageEntity, StoragePlatformEntity> storagePlatformEntity = storageEntity.join(StorageEntity_.storagePlatform);
+            Join<BusinessObjectDataEntity, BusinessObjectFormatEntity> businessObjectFormatEntity =
+                businessObjectDataEntity.join(BusinessObjectDataEntity_.businessObjectFormat);
+            Join<StorageUnitEntity, StorageUnitStatusEntity> storageUnitStatusEntity = storageUnitEntity.join(StorageUnitEntity_.status);
+
+            criteria.multiselect(storageUnitEntity, storageUnitStatusEntity, storageEntity, storagePlatformEntity, businessObjectDataEntity,
+                businessObjectFormatEntity).where(getPredicateForInClause(builder, storageUnitEntity.get(StorageUnitEntity_.id), distinctStorageUnitIds));
+
+            for (Tuple tuple : entityManager.createQuery(criteria).getResultList())
+            {
+                StorageUnitEntity storageUnit = tuple.get(storageUnitEntity);
+                storageUnitEntitiesById.put(storageUnit.getId(), storageUnit);
+            }
+        }
+
+        return storageUnitEntitiesById;
+    }
+
+    /**
+     * Retrieves a list of storage unit tuples per specified parameters for a chunk of partition filters. The first element of each tuple is either the storage
+     * unit entity or the storage unit ID.
+     *
+     * @param queryEntityManager the entity manager used to run the query
      * @param businessObjectFormatKey the business object format key (case-insensitive). If a business object format version isn't specified, the latest
      * available format version for each partition value will be used
      * @param partitionFilters the list of partition filter to be used to select business object data instances. Each partition filter contains a list of
@@ -232,19 +491,17 @@ public class StorageUnitDaoImpl extends AbstractHerdDao implements StorageUnitDa
      * @param storagePlatformType the optional storage platform type, e.g. S3 for Hive DDL. It is ignored when the list of storages is not empty
      * @param excludedStoragePlatformType the optional storage platform type to be excluded from search. It is ignored when the list of storages is not empty or
      * the storage platform type is specified
-     * @param partitionFilterSubListFromIndex the index of the first element in the partition filter sublist
-     * @param partitionFilterSubListSize the size of the partition filter sublist
      * @param selectOnlyAvailableStorageUnits specifies if only available storage units will be selected or any storage units regardless of their status
+     * @param selectOnlyStorageUnitIds specifies if only storage unit IDs will be selected instead of storage unit entities along with their relative entities
      *
-     * @return the list of storage unit entities sorted by partition values
+     * @return the list of storage unit tuples sorted by partition values
      */
-    private List<StorageUnitEntity> getStorageUnitsByPartitionFiltersAndStorages(BusinessObjectFormatKey businessObjectFormatKey,
+    private List<Tuple> getStorageUnitTuplesByPartitionFiltersAndStorages(EntityManager queryEntityManager, BusinessObjectFormatKey businessObjectFormatKey,
         List<List<String>> partitionFilters, Integer businessObjectDataVersion, String businessObjectDataStatus, List<String> storageNames,
-        String storagePlatformType, String excludedStoragePlatformType, boolean selectOnlyAvailableStorageUnits, int partitionFilterSubListFromIndex,
-        int partitionFilterSubListSize)
+        String storagePlatformType, String excludedStoragePlatformType, boolean selectOnlyAvailableStorageUnits, boolean selectOnlyStorageUnitIds)
     {
         // Create the criteria builder and the criteria.
-        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaBuilder builder = queryEntityManager.getCriteriaBuilder();
         CriteriaQuery<Tuple> criteria = builder.createTupleQuery();
 
         // The criteria root is the storage unit.
@@ -282,8 +539,7 @@ public class StorageUnitDaoImpl extends AbstractHerdDao implements StorageUnitDa
         }
 
         // Add restriction as per specified primary and/or sub-partition values.
-        mainQueryRestriction = builder.and(mainQueryRestriction, getQueryRestrictionOnPartitionValues(builder, businessObjectDataEntity,
-            partitionFilters.subList(partitionFilterSubListFromIndex, partitionFilterSubListFromIndex + partitionFilterSubListSize)));
+        mainQueryRestriction = builder.and(mainQueryRestriction, getQueryRestrictionOnPartitionValues(builder, businessObjectDataEntity, partitionFilters));
 
         // If a data version was specified, use it. Otherwise, use the latest one as per specified business object data status.
         if (businessObjectDataVersion != null)
@@ -326,21 +582,19 @@ public class StorageUnitDaoImpl extends AbstractHerdDao implements StorageUnitDa
         // Please note that we use multiselect here in order to eliminate the Hibernate N+1 SELECT's problem,
         // happening when we select storage unit entities and access their relative business object data entities.
         // This is an alternative approach, since adding @Fetch(FetchMode.JOIN) failed to address the issue.
-        criteria
-            .multiselect(storageUnitEntity, storageUnitStatusEntity, storageEntity, storagePlatformEntity, businessObjectDataEntity, businessObjectFormatEntity)
-            .where(mainQueryRestriction).orderBy(orderBy);
-
-        // Run the query to get a list of tuples back.
-        List<Tuple> tuples = entityManager.createQuery(criteria).getResultList();
-
-        // Build a list of storage unit entities to return.
-        List<StorageUnitEntity> storageUnitEntities = new ArrayList<>();
-        for (Tuple tuple : tuples)
+        if (selectOnlyStorageUnitIds)
         {
-            storageUnitEntities.add(tuple.get(storageUnitEntity));
+            criteria.multiselect(storageUnitEntity.get(StorageUnitEntity_.id));
         }
+        else
+        {
+            criteria.multiselect(storageUnitEntity, storageUnitStatusEntity, storageEntity, storagePlatformEntity, businessObjectDataEntity,
+                businessObjectFormatEntity);
+        }
+        criteria.where(mainQueryRestriction).orderBy(orderBy);
 
-        return storageUnitEntities;
+        // Run the query to get a list of tuples back.
+        return queryEntityManager.createQuery(criteria).getResultList();
     }
 
     /**
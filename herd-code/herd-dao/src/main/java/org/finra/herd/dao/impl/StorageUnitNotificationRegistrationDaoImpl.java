@@ -252,4 +252,37 @@ public class StorageUnitNotificationRegistrationDaoImpl extends AbstractNotifica
         // Execute the query and return the results.
         return entityManager.createQuery(criteria).getResultList();
     }
+
+    @Override
+    public List<StorageUnitNotificationRegistrationEntity> getStorageUnitNotificationRegistrationsByStatus(String notificationRegistrationStatus)
+    {
+        // Create the criteria builder and the criteria.
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<StorageUnitNotificationRegistrationEntity> criteria = builder.createQuery(StorageUnitNotificationRegistrationEntity.class);
+
+        // The criteria root is the storage unit notification registration entity.
+        Root<StorageUnitNotificationRegistrationEntity> notificationRegistrationEntityRoot = criteria.from(StorageUnitNotificationRegistrationEntity.class);
+
+        // Join to the other tables we can filter on.
+        Join<StorageUnitNotificationRegistrationEntity, NotificationRegistrationStatusEntity> notificationRegistrationStatusEntityJoin =
+            notificationRegistrationEntityRoot.join(StorageUnitNotificationRegistrationEntity_.notificationRegistrationStatus);
+
+        // Create the standard restrictions (i.e. the standard where clauses).
+        Predicate queryRestriction = builder.equal(builder.upper(notificationRegistrationStatusEntityJoin.get(NotificationRegistrationStatusEntity_.code)),
+            notificationRegistrationStatus.toUpperCase());
+
+        // Fetch the associations along with the notification registrations, so reading them does not run a query per notification registration.
+        notificationRegistrationEntityRoot.fetch(StorageUnitNotificationRegistrationEntity_.notificationEventType);
+        notificationRegistrationEntityRoot.fetch(StorageUnitNotificationRegistrationEntity_.businessObjectDefinition, JoinType.LEFT)
+            .fetch(BusinessObjectDefinitionEntity_.namespace, JoinType.LEFT);
+        notificationRegistrationEntityRoot.fetch(StorageUnitNotificationRegistrationEntity_.fileType, JoinType.LEFT);
+        notificationRegistrationEntityRoot.fetch(StorageUnitNotificationRegistrationEntity_.storage);
+        notificationRegistrationEntityRoot.fetch(StorageUnitNotificationRegistrationEntity_.newStorageUnitStatus, JoinType.LEFT);
+        notificationRegistrationEntityRoot.fetch(StorageUnitNotificationRegistrationEntity_.oldStorageUnitStatus, JoinType.LEFT);
+
+        criteria.select(notificationRegistrationEntityRoot).where(queryRestriction);
+
+        // Execute the query and return the results.
+        return entityManager.createQuery(criteria).getResultList();
+    }
 }
@@ -229,6 +229,8 @@ public abstract class AbstractDaoTest extends AbstractCoreTest
 
     public static final String HTTP_PROXY_HOST = "UT_ProxyHost" + RANDOM_SUFFIX;
 
+    public static final String HTTP_PROXY_HOST_2 = "UT_ProxyHost_2" + RANDOM_SUFFIX;
+
     public static final Integer HTTP_PROXY_PORT = (int) (Math.random() * Integer.MAX_VALUE);
 
     public static final Integer INITIAL_DATA_VERSION = 0;
@@ -24,6 +24,7 @@ import static org.junit.Assert.fail;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,17 +33,20 @@ import org.apache.commons.collections4.IterableUtils;
 import org.junit.Test;
 import org.springframework.util.Assert;
 
-import org.finra.herd.dao.impl.AbstractHerdDao;
+import org.finra.herd.core.HerdDateUtils;
 import org.finra.herd.model.api.xml.BusinessObjectData;
 import org.finra.herd.model.api.xml.BusinessObjectDataKey;
 import org.finra.herd.model.api.xml.BusinessObjectDataSearchFilter;
 import org.finra.herd.model.api.xml.BusinessObjectDataSearchKey;
+import org.finra.herd.model.api.xml.BusinessObjectDataSearchResult;
 import org.finra.herd.model.api.xml.BusinessObjectFormatKey;
 import org.finra.herd.model.api.xml.PartitionValueFilter;
 import org.finra.herd.model.api.xml.PartitionValueRange;
 import org.finra.herd.model.api.xml.SchemaColumn;
 import org.finra.herd.model.api.xml.StoragePolicyKey;
+import org.finra.herd.model.dto.ConfigurationValue;
 import org.finra.herd.model.dto.StoragePolicyPriorityLevel;
+import org.finra.herd.model.dto.StoragePolicySelectionCandidate;
 import org.finra.herd.model.jpa.BusinessObjectDataEntity;
 import org.finra.herd.model.jpa.BusinessObjectDataStatusEntity;
 import org.finra.herd.model.jpa.BusinessObjectDefinitionEntity;
@@ -567,7 +571,7 @@ public class BusinessObjectDataDaoTest extends AbstractDaoTest
 
         // Build a list of partition values, large enough to cause executing the select queries in chunks.
         List<String> partitionValues = new ArrayList<>();
-        for (int i = 0; i < AbstractHerdDao.MAX_PARTITION_FILTERS_PER_REQUEST; i++)
+        for (int i = 0; i < StorageUnitDao.MAX_PARTITION_FILTERS_PER_REQUEST; i++)
         {
             partitionValues.add(String.format("%s-%s", PARTITION_VALUE, i));
         }
@@ -763,13 +767,16 @@ public class BusinessObjectDataDaoTest extends AbstractDaoTest
     }
 
     @Test
-    public void testBusinessObjectDataEntitiesMatchingStoragePolicies()
+    public void testGetStoragePolicySelectionCandidatesStoragePolicyPriorityLevels()
     {
         // Create and persist a storage unit in the storage policy filter storage.
         StorageUnitEntity storageUnitEntity = storageUnitDaoTestHelper
             .createStorageUnitEntity(STORAGE_NAME, BDEF_NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, FORMAT_VERSION, PARTITION_VALUE,
                 SUBPARTITION_VALUES, DATA_VERSION, LATEST_VERSION_FLAG_SET, BDATA_STATUS, STORAGE_UNIT_STATUS, NO_STORAGE_DIRECTORY_PATH);
 
+        // Apply the offset in days to business object data "created on" value.
+        businessObjectDataDaoTestHelper.ageBusinessObjectData(storageUnitEntity.getBusinessObjectData(), BDATA_AGE_IN_DAYS + 1);
+
         // For all possible storage policy priority levels, create and persist a storage policy entity matching to the business object data.
         Map<StoragePolicyPriorityLevel, StoragePolicyEntity> input = new LinkedHashMap<>();
 
@@ -804,18 +811,21 @@ public class BusinessObjectDataDaoTest extends AbstractDaoTest
             StoragePolicyEntity storagePolicyEntity = entry.getValue();
 
             // Retrieve the match.
-            Map<BusinessObjectDataEntity, StoragePolicyEntity> result = businessObjectDataDao
-                .getBusinessObjectDataEntitiesMatchingStoragePolicies(storagePolicyPriorityLevel, Arrays.asList(BDATA_STATUS), 0, MAX_RESULT);
+            List<StoragePolicySelectionCandidate> result = businessObjectDataDao
+                .getStoragePolicySelectionCandidates(storagePolicyPriorityLevel, new ArrayList<>(), Arrays.asList(BDATA_STATUS),
+                    herdDao.getCurrentTimestamp(), null, MAX_RESULT);
 
             // Validate the results.
             assertEquals(1, result.size());
-            assertTrue(result.containsKey(storageUnitEntity.getBusinessObjectData()));
-            assertEquals(storagePolicyEntity, result.get(storageUnitEntity.getBusinessObjectData()));
+            assertEquals(storageUnitEntity.getBusinessObjectData().getId(), result.get(0).getBusinessObjectDataId());
+            assertEquals(new BusinessObjectDataKey(BDEF_NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, FORMAT_VERSION, PARTITION_VALUE,
+                SUBPARTITION_VALUES, DATA_VERSION), result.get(0).getBusinessObjectDataKey());
+            assertEquals(storagePolicyEntity.getId(), result.get(0).getStoragePolicyId());
         }
     }
 
     @Test
-    public void testBusinessObjectDataEntitiesMatchingStoragePoliciesTestingStartPositionAndMaxResult()
+    public void testGetStoragePolicySelectionCandidatesTestingStartAfterAndMaxResult()
     {
         // Create and persist a storage policy entity.
         StoragePolicyEntity storagePolicyEntity = storagePolicyDaoTestHelper
@@ -840,33 +850,103 @@ public class BusinessObjectDataDaoTest extends AbstractDaoTest
         businessObjectDataDaoTestHelper.ageBusinessObjectData(storageUnitEntity2.getBusinessObjectData(), BDATA_AGE_IN_DAYS + 2);
 
         // Try to retrieve both business object data instances as matching to the storage policy, but with max result limit set to 1.
-        Map<BusinessObjectDataEntity, StoragePolicyEntity> result = businessObjectDataDao
-            .getBusinessObjectDataEntitiesMatchingStoragePolicies(new StoragePolicyPriorityLevel(false, false, false), Arrays.asList(BDATA_STATUS), 0, 1);
+        Timestamp currentTimestamp = herdDao.getCurrentTimestamp();
+        List<StoragePolicySelectionCandidate> result = businessObjectDataDao
+            .getStoragePolicySelectionCandidates(new StoragePolicyPriorityLevel(false, false, false), new ArrayList<>(), Arrays.asList(BDATA_STATUS),
+                currentTimestamp, null, 1);
 
         // Validate the results. Only the oldest business object data should get selected.
         assertEquals(1, result.size());
-        assertTrue(result.containsKey(storageUnitEntity2.getBusinessObjectData()));
-        assertEquals(storagePolicyEntity, result.get(storageUnitEntity2.getBusinessObjectData()));
+        assertEquals(storageUnitEntity2.getBusinessObjectData().getId(), result.get(0).getBusinessObjectDataId());
+        assertEquals(storagePolicyEntity.getId(), result.get(0).getStoragePolicyId());
 
         // Try to retrieve the second business object data instance matching to the storage policy
-        // by specifying the relative start position and max result limit set.
+        // by resuming after the first candidate with max result limit set.
         result = businessObjectDataDao
-            .getBusinessObjectDataEntitiesMatchingStoragePolicies(new StoragePolicyPriorityLevel(false, false, false), Arrays.asList(BDATA_STATUS), 1, 1);
+            .getStoragePolicySelectionCandidates(new StoragePolicyPriorityLevel(false, false, false), new ArrayList<>(), Arrays.asList(BDATA_STATUS),
+                currentTimestamp, result.get(0), 1);
 
         // Validate the results. Now, the second oldest business object data should get selected.
         assertEquals(1, result.size());
-        assertTrue(result.containsKey(storageUnitEntity1.getBusinessObjectData()));
-        assertEquals(storagePolicyEntity, result.get(storageUnitEntity1.getBusinessObjectData()));
+        assertEquals(storageUnitEntity1.getBusinessObjectData().getId(), result.get(0).getBusinessObjectDataId());
+        assertEquals(storagePolicyEntity.getId(), result.get(0).getStoragePolicyId());
+    }
+
+    @Test
+    public void testGetStoragePolicySelectionCandidates()
+    {
+        // Create and persist a storage policy entity with a filter that has business object definition, usage, and file type specified.
+        StoragePolicyEntity storagePolicyEntity = storagePolicyDaoTestHelper
+            .createStoragePolicyEntity(new StoragePolicyKey(STORAGE_POLICY_NAMESPACE_CD, STORAGE_POLICY_NAME),
+                StoragePolicyRuleTypeEntity.DAYS_SINCE_BDATA_REGISTERED, BDATA_AGE_IN_DAYS, BDEF_NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE,
+                STORAGE_NAME, STORAGE_NAME_2, StoragePolicyStatusEntity.ENABLED, INITIAL_VERSION, LATEST_VERSION_FLAG_SET);
+
+        // Create and persist three storage units in the storage policy filter storage. The business object data are old enough for the storage policy,
+        // except for the last one. The second business object data is the oldest one.
+        List<BusinessObjectDataEntity> businessObjectDataEntities = new ArrayList<>();
+        List<String> partitionValues = Arrays.asList(PARTITION_VALUE, PARTITION_VALUE_2, PARTITION_VALUE_3);
+        List<Integer> ageInDays = Arrays.asList(BDATA_AGE_IN_DAYS + 1, BDATA_AGE_IN_DAYS + 2, BDATA_AGE_IN_DAYS - 1);
+        for (int i = 0; i < partitionValues.size(); i++)
+        {
+            StorageUnitEntity storageUnitEntity = storageUnitDaoTestHelper
+                .createStorageUnitEntity(STORAGE_NAME, BDEF_NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, FORMAT_VERSION,
+                    partitionValues.get(i), SUBPARTITION_VALUES, DATA_VERSION, LATEST_VERSION_FLAG_SET, BDATA_STATUS, STORAGE_UNIT_STATUS,
+                    NO_STORAGE_DIRECTORY_PATH);
+            businessObjectDataDaoTestHelper.ageBusinessObjectData(storageUnitEntity.getBusinessObjectData(), ageInDays.get(i));
+            businessObjectDataEntities.add(storageUnitEntity.getBusinessObjectData());
+        }
+
+        StoragePolicyPriorityLevel storagePolicyPriorityLevel = new StoragePolicyPriorityLevel(false, false, false);
+        Timestamp currentTimestamp = herdDao.getCurrentTimestamp();
+
+        // Retrieve the candidates. Only the business object data old enough for the storage policy should get selected, starting with the oldest one.
+        List<StoragePolicySelectionCandidate> result = businessObjectDataDao
+            .getStoragePolicySelectionCandidates(storagePolicyPriorityLevel, new ArrayList<>(), Arrays.asList(BDATA_STATUS), currentTimestamp, null,
+                MAX_RESULT);
+        assertEquals(2, result.size());
+        assertEquals(businessObjectDataEntities.get(1).getId(), result.get(0).getBusinessObjectDataId());
+        assertEquals(businessObjectDataEntities.get(1).getCreatedOn(), result.get(0).getBusinessObjectDataCreatedOn());
+        assertEquals(storagePolicyEntity.getId(), result.get(0).getStoragePolicyId());
+        assertEquals(businessObjectDataEntities.get(0).getId(), result.get(1).getBusinessObjectDataId());
+
+        // Resume after the first candidate with max result limit set to 1.
+        List<StoragePolicySelectionCandidate> resumedResult = businessObjectDataDao
+            .getStoragePolicySelectionCandidates(storagePolicyPriorityLevel, new ArrayList<>(), Arrays.asList(BDATA_STATUS), currentTimestamp, result.get(0),
+                1);
+        assertEquals(1, resumedResult.size());
+        assertEquals(businessObjectDataEntities.get(0).getId(), resumedResult.get(0).getBusinessObjectDataId());
+
+        // Resume after the last candidate.
+        assertTrue(businessObjectDataDao
+            .getStoragePolicySelectionCandidates(storagePolicyPriorityLevel, new ArrayList<>(), Arrays.asList(BDATA_STATUS), currentTimestamp, result.get(1),
+                MAX_RESULT).isEmpty());
+
+        // Create a storage policy with a filter that has no fields specified and retrieve the candidates for its storage policy priority level. None of the
+        // business object data should get selected, since all of them match the storage policy with a higher priority level, even if not old enough for it.
+        storagePolicyDaoTestHelper.createStoragePolicyEntity(new StoragePolicyKey(STORAGE_POLICY_NAMESPACE_CD_2, STORAGE_POLICY_NAME_2),
+            StoragePolicyRuleTypeEntity.DAYS_SINCE_BDATA_REGISTERED, BDATA_AGE_IN_DAYS - 2, NO_BDEF_NAMESPACE, NO_BDEF_NAME, NO_FORMAT_USAGE_CODE,
+            NO_FORMAT_FILE_TYPE_CODE, STORAGE_NAME, STORAGE_NAME_2, StoragePolicyStatusEntity.ENABLED, INITIAL_VERSION, LATEST_VERSION_FLAG_SET);
+        assertTrue(businessObjectDataDao
+            .getStoragePolicySelectionCandidates(new StoragePolicyPriorityLevel(true, true, true), Arrays.asList(storagePolicyPriorityLevel),
+                Arrays.asList(BDATA_STATUS), currentTimestamp, null, MAX_RESULT).isEmpty());
+
+        // Without the higher storage policy priority level, all three business object data should get selected.
+        assertEquals(3, businessObjectDataDao
+            .getStoragePolicySelectionCandidates(new StoragePolicyPriorityLevel(true, true, true), new ArrayList<>(), Arrays.asList(BDATA_STATUS),
+                currentTimestamp, null, MAX_RESULT).size());
     }
 
     @Test
-    public void testBusinessObjectDataEntitiesMatchingStoragePoliciesMultipleStoragePoliciesMatchBusinessObjectData()
+    public void testGetStoragePolicySelectionCandidatesMultipleStoragePoliciesMatchBusinessObjectData()
     {
         // Create and persist a storage unit in the storage policy filter storage.
         StorageUnitEntity storageUnitEntity = storageUnitDaoTestHelper
             .createStorageUnitEntity(STORAGE_NAME, BDEF_NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, FORMAT_VERSION, PARTITION_VALUE,
                 SUBPARTITION_VALUES, DATA_VERSION, LATEST_VERSION_FLAG_SET, BDATA_STATUS, STORAGE_UNIT_STATUS, NO_STORAGE_DIRECTORY_PATH);
 
+        // Apply the offset in days to business object data "created on" value.
+        businessObjectDataDaoTestHelper.ageBusinessObjectData(storageUnitEntity.getBusinessObjectData(), BDATA_AGE_IN_DAYS + 1);
+
         // Create and persist two storage policy entities with identical storage policy filters.
         storagePolicyDaoTestHelper.createStoragePolicyEntity(new StoragePolicyKey(STORAGE_POLICY_NAMESPACE_CD, STORAGE_POLICY_NAME),
             StoragePolicyRuleTypeEntity.DAYS_SINCE_BDATA_REGISTERED, BDATA_AGE_IN_DAYS, BDEF_NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE,
@@ -876,17 +956,17 @@ public class BusinessObjectDataDaoTest extends AbstractDaoTest
             STORAGE_NAME, STORAGE_NAME_2, StoragePolicyStatusEntity.ENABLED, INITIAL_VERSION, LATEST_VERSION_FLAG_SET);
 
         // Retrieve business object data matching storage policy.
-        Map<BusinessObjectDataEntity, StoragePolicyEntity> result = businessObjectDataDao
-            .getBusinessObjectDataEntitiesMatchingStoragePolicies(new StoragePolicyPriorityLevel(false, false, false), Arrays.asList(BDATA_STATUS), 0,
-                MAX_RESULT);
+        List<StoragePolicySelectionCandidate> result = businessObjectDataDao
+            .getStoragePolicySelectionCandidates(new StoragePolicyPriorityLevel(false, false, false), new ArrayList<>(), Arrays.asList(BDATA_STATUS),
+                herdDao.getCurrentTimestamp(), null, MAX_RESULT);
 
         // Validate the results. Only a single match should get returned.
         assertEquals(1, result.size());
-        assertTrue(result.containsKey(storageUnitEntity.getBusinessObjectData()));
+        assertEquals(storageUnitEntity.getBusinessObjectData().getId(), result.get(0).getBusinessObjectDataId());
     }
 
     @Test
-    public void testBusinessObjectDataEntitiesMatchingStoragePoliciesInvalidSourceStorage()
+    public void testGetStoragePolicySelectionCandidatesInvalidSourceStorage()
     {
         // Create and persist a storage policy entity.
         storagePolicyDaoTestHelper.createStoragePolicyEntity(new StoragePolicyKey(STORAGE_POLICY_NAMESPACE_CD, STORAGE_POLICY_NAME),
@@ -899,16 +979,16 @@ public class BusinessObjectDataDaoTest extends AbstractDaoTest
                 SUBPARTITION_VALUES, DATA_VERSION, LATEST_VERSION_FLAG_SET, BDATA_STATUS, STORAGE_UNIT_STATUS, NO_STORAGE_DIRECTORY_PATH);
 
         // Try to retrieve the business object data matching to the storage policy.
-        Map<BusinessObjectDataEntity, StoragePolicyEntity> result = businessObjectDataDao
-            .getBusinessObjectDataEntitiesMatchingStoragePolicies(new StoragePolicyPriorityLevel(false, false, false), Arrays.asList(BDATA_STATUS), 0,
-                MAX_RESULT);
+        List<StoragePolicySelectionCandidate> result = businessObjectDataDao
+            .getStoragePolicySelectionCandidates(new StoragePolicyPriorityLevel(false, false, false), new ArrayList<>(), Arrays.asList(BDATA_STATUS),
+                HerdDateUtils.addDays(herdDao.getCurrentTimestamp(), BDATA_AGE_IN_DAYS + 1), null, MAX_RESULT);
 
         // Validate the results.
         assertEquals(0, result.size());
     }
 
     @Test
-    public void testBusinessObjectDataEntitiesMatchingStoragePoliciesNoStoragePolicyLatestVersion()
+    public void testGetStoragePolicySelectionCandidatesNoStoragePolicyLatestVersion()
     {
         // Create and persist an enabled storage policy entity that has no latest version flag set.
         storagePolicyDaoTestHelper.createStoragePolicyEntity(new StoragePolicyKey(STORAGE_POLICY_NAMESPACE_CD, STORAGE_POLICY_NAME),
@@ -921,16 +1001,16 @@ public class BusinessObjectDataDaoTest extends AbstractDaoTest
                 SUBPARTITION_VALUES, DATA_VERSION, LATEST_VERSION_FLAG_SET, BDATA_STATUS, STORAGE_UNIT_STATUS, NO_STORAGE_DIRECTORY_PATH);
 
         // Try to retrieve the business object data matching to the storage policy.
-        Map<BusinessObjectDataEntity, StoragePolicyEntity> result = businessObjectDataDao
-            .getBusinessObjectDataEntitiesMatchingStoragePolicies(new StoragePolicyPriorityLevel(false, false, false), Arrays.asList(BDATA_STATUS), 0,
-                MAX_RESULT);
+        List<StoragePolicySelectionCandidate> result = businessObjectDataDao
+            .getStoragePolicySelectionCandidates(new StoragePolicyPriorityLevel(false, false, false), new ArrayList<>(), Arrays.asList(BDATA_STATUS),
+                HerdDateUtils.addDays(herdDao.getCurrentTimestamp(), BDATA_AGE_IN_DAYS + 1), null, MAX_RESULT);
 
         // Validate the results.
         assertEquals(0, result.size());
     }
 
     @Test
-    public void testBusinessObjectDataEntitiesMatchingStoragePoliciesInvalidStoragePolicyStatus()
+    public void testGetStoragePolicySelectionCandidatesInvalidStoragePolicyStatus()
     {
         // Create and persist a disabled storage policy entity.
         storagePolicyDaoTestHelper.createStoragePolicyEntity(new StoragePolicyKey(STORAGE_POLICY_NAMESPACE_CD, STORAGE_POLICY_NAME),
@@ -943,16 +1023,16 @@ public class BusinessObjectDataDaoTest extends AbstractDaoTest
                 SUBPARTITION_VALUES, DATA_VERSION, LATEST_VERSION_FLAG_SET, BDATA_STATUS, STORAGE_UNIT_STATUS, NO_STORAGE_DIRECTORY_PATH);
 
         // Try to retrieve the business object data matching to the storage policy.
-        Map<BusinessObjectDataEntity, StoragePolicyEntity> result = businessObjectDataDao
-            .getBusinessObjectDataEntitiesMatchingStoragePolicies(new StoragePolicyPriorityLevel(false, false, false), Arrays.asList(BDATA_STATUS), 0,
-                MAX_RESULT);
+        List<StoragePolicySelectionCandidate> result = businessObjectDataDao
+            .getStoragePolicySelectionCandidates(new StoragePolicyPriorityLevel(false, false, false), new ArrayList<>(), Arrays.asList(BDATA_STATUS),
+                HerdDateUtils.addDays(herdDao.getCurrentTimestamp(), BDATA_AGE_IN_DAYS + 1), null, MAX_RESULT);
 
         // Validate the results.
         assertEquals(0, result.size());
     }
 
     @Test
-    public void testBusinessObjectDataEntitiesMatchingStoragePoliciesInvalidBusinessObjectDataStatus()
+    public void testGetStoragePolicySelectionCandidatesInvalidBusinessObjectDataStatus()
     {
         // Create and persist a storage policy entity.
         storagePolicyDaoTestHelper.createStoragePolicyEntity(new StoragePolicyKey(STORAGE_POLICY_NAMESPACE_CD, STORAGE_POLICY_NAME),
@@ -965,16 +1045,16 @@ public class BusinessObjectDataDaoTest extends AbstractDaoTest
                 SUBPARTITION_VALUES, DATA_VERSION, LATEST_VERSION_FLAG_SET, BDATA_STATUS_2, STORAGE_UNIT_STATUS, NO_STORAGE_DIRECTORY_PATH);
 
         // Try to retrieve the business object data matching to the storage policy.
-        Map<BusinessObjectDataEntity, StoragePolicyEntity> result = businessObjectDataDao
-            .getBusinessObjectDataEntitiesMatchingStoragePolicies(new StoragePolicyPriorityLevel(false, false, false), Arrays.asList(BDATA_STATUS), 0,
-                MAX_RESULT);
+        List<StoragePolicySelectionCandidate> result = businessObjectDataDao
+            .getStoragePolicySelectionCandidates(new StoragePolicyPriorityLevel(false, false, false), new ArrayList<>(), Arrays.asList(BDATA_STATUS),
+                HerdDateUtils.addDays(herdDao.getCurrentTimestamp(), BDATA_AGE_IN_DAYS + 1), null, MAX_RESULT);
 
         // Validate the results.
         assertEquals(0, result.size());
     }
 
     @Test
-    public void testBusinessObjectDataEntitiesMatchingStoragePoliciesDestinationStorageUnitAlreadyExists()
+    public void testGetStoragePolicySelectionCandidatesDestinationStorageUnitAlreadyExists()
     {
         // Create and persist a storage policy entity.
         storagePolicyDaoTestHelper.createStoragePolicyEntity(new StoragePolicyKey(STORAGE_POLICY_NAMESPACE_CD, STORAGE_POLICY_NAME),
@@ -992,9 +1072,9 @@ public class BusinessObjectDataDaoTest extends AbstractDaoTest
                 SUBPARTITION_VALUES, DATA_VERSION, LATEST_VERSION_FLAG_SET, BDATA_STATUS, STORAGE_UNIT_STATUS, NO_STORAGE_DIRECTORY_PATH);
 
         // Try to retrieve the business object data matching to the storage policy.
-        Map<BusinessObjectDataEntity, StoragePolicyEntity> result = businessObjectDataDao
-            .getBusinessObjectDataEntitiesMatchingStoragePolicies(new StoragePolicyPriorityLevel(false, false, false), Arrays.asList(BDATA_STATUS), 0,
-                MAX_RESULT);
+        List<StoragePolicySelectionCandidate> result = businessObjectDataDao
+            .getStoragePolicySelectionCandidates(new StoragePolicyPriorityLevel(false, false, false), new ArrayList<>(), Arrays.asList(BDATA_STATUS),
+                HerdDateUtils.addDays(herdDao.getCurrentTimestamp(), BDATA_AGE_IN_DAYS + 1), null, MAX_RESULT);
 
         // Validate the results.
         assertEquals(0, result.size());
@@ -1184,6 +1264,92 @@ public class BusinessObjectDataDaoTest extends AbstractDaoTest
         result.get(0).getSubPartitionValues().containsAll(subpartitionList);
     }
 
+    @Test
+    public void testBusinessObjectDataSearchPaged() throws Exception
+    {
+        // Create business object data with mixed case sub-partition values, missing sub-partition values and duplicate alternate keys.
+        businessObjectDataDaoTestHelper
+            .createBusinessObjectDataEntity(NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, FORMAT_VERSION, "2016-01-01", null, DATA_VERSION,
+                true, "VALID");
+        businessObjectDataDaoTestHelper
+            .createBusinessObjectDataEntity(NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, FORMAT_VERSION, "2016-01-02", null, DATA_VERSION,
+                true, "VALID");
+        businessObjectDataDaoTestHelper
+            .createBusinessObjectDataEntity(NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, FORMAT_VERSION, "2016-01-02", null, DATA_VERSION,
+                true, "INVALID");
+        businessObjectDataDaoTestHelper
+            .createBusinessObjectDataEntity(NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, FORMAT_VERSION, "2016-01-02",
+                Arrays.asList("a", "B", "c", "D"), DATA_VERSION, true, "VALID");
+        businessObjectDataDaoTestHelper
+            .createBusinessObjectDataEntity(NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, FORMAT_VERSION_2, "2016-01-01", null, DATA_VERSION,
+                true, "VALID");
+        businessObjectDataDaoTestHelper
+            .createBusinessObjectDataEntity(NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE_2, FORMAT_FILE_TYPE_CODE, FORMAT_VERSION, "2016-01-01", null, DATA_VERSION,
+                true, "VALID");
+
+        BusinessObjectDataSearchKey key = new BusinessObjectDataSearchKey();
+        key.setNamespace(NAMESPACE.toLowerCase());
+        key.setBusinessObjectDefinitionName(BDEF_NAME.toLowerCase());
+        List<BusinessObjectDataSearchFilter> filters = Arrays.asList(new BusinessObjectDataSearchFilter(Arrays.asList(key)));
+
+        // Get all the results in a single page.
+        List<BusinessObjectData> expectedResults = businessObjectDataDao.searchBusinessObjectData(filters);
+        assertEquals(6, expectedResults.size());
+
+        // Validate that the business object data without sub-partition values is sorted before the one with sub-partition values.
+        List<List<String>> subPartitionValues = new ArrayList<>();
+        for (BusinessObjectData businessObjectData : expectedResults)
+        {
+            if ("2016-01-02".equals(businessObjectData.getPartitionValue()))
+            {
+                subPartitionValues.add(businessObjectData.getSubPartitionValues());
+            }
+        }
+        assertEquals(Arrays.asList(null, null, Arrays.asList("a", "B", "c", "D")), subPartitionValues);
+
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.BUSINESS_OBJECT_DATA_SEARCH_MAX_RESULTS_PER_PAGE.getKey(), 4);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            // Validate that the pages hold the same results in the same order.
+            BusinessObjectDataSearchResult firstPage = businessObjectDataDao.searchBusinessObjectData(filters, null);
+            assertEquals(expectedResults.subList(0, 4), firstPage.getBusinessObjectDataElements());
+            assertNotNull(firstPage.getNextPageToken());
+
+            BusinessObjectDataSearchResult secondPage = businessObjectDataDao.searchBusinessObjectData(filters, firstPage.getNextPageToken());
+            assertEquals(expectedResults.subList(4, 6), secondPage.getBusinessObjectDataElements());
+            assertNull(secondPage.getNextPageToken());
+        }
+        finally
+        {
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    @Test
+    public void testBusinessObjectDataSearchInvalidPageToken()
+    {
+        BusinessObjectDataSearchKey key = new BusinessObjectDataSearchKey();
+        key.setNamespace(NAMESPACE);
+        key.setBusinessObjectDefinitionName(BDEF_NAME);
+        List<BusinessObjectDataSearchFilter> filters = Arrays.asList(new BusinessObjectDataSearchFilter(Arrays.asList(key)));
+
+        for (String pageToken : Arrays.asList("I_DO_NOT_EXIST", "WyJJX0RPX05PVF9FWElTVCJd"))
+        {
+            try
+            {
+                businessObjectDataDao.searchBusinessObjectData(filters, pageToken);
+                fail("Should throw an IllegalArgumentException when page token is not valid.");
+            }
+            catch (IllegalArgumentException e)
+            {
+                assertEquals(String.format("Invalid page token \"%s\".", pageToken), e.getMessage());
+            }
+        }
+    }
+
     @Test
     public void testBusinessObjectDataSearchWithPartitionValueFilters()
     {
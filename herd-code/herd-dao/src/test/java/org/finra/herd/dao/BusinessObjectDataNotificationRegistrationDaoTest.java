@@ -16,6 +16,7 @@
 package org.finra.herd.dao;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -152,6 +153,28 @@ public class BusinessObjectDataNotificationRegistrationDaoTest extends AbstractD
         assertEquals(Arrays.asList(businessObjectDataNotificationRegistrationEntity), result);
     }
 
+    @Test
+    public void testGetBusinessObjectDataNotificationRegistrationsByStatus()
+    {
+        // Create and persist an enabled and a disabled business object data notification registration entities.
+        BusinessObjectDataNotificationRegistrationEntity enabledNotificationRegistrationEntity = notificationRegistrationDaoTestHelper
+            .createBusinessObjectDataNotificationRegistrationEntity(new NotificationRegistrationKey(NAMESPACE, NOTIFICATION_NAME), NOTIFICATION_EVENT_TYPE,
+                BDEF_NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, FORMAT_VERSION, STORAGE_NAME, BDATA_STATUS, BDATA_STATUS_2,
+                notificationRegistrationDaoTestHelper.getTestJobActions(), NotificationRegistrationStatusEntity.ENABLED);
+        BusinessObjectDataNotificationRegistrationEntity disabledNotificationRegistrationEntity = notificationRegistrationDaoTestHelper
+            .createBusinessObjectDataNotificationRegistrationEntity(new NotificationRegistrationKey(NAMESPACE, NOTIFICATION_NAME_2), NOTIFICATION_EVENT_TYPE,
+                BDEF_NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, FORMAT_VERSION, STORAGE_NAME, BDATA_STATUS, BDATA_STATUS_2,
+                notificationRegistrationDaoTestHelper.getTestJobActions(), NotificationRegistrationStatusEntity.DISABLED);
+
+        // Retrieve the enabled business object data notification registrations using a lower case status.
+        List<BusinessObjectDataNotificationRegistrationEntity> result = businessObjectDataNotificationRegistrationDao
+            .getBusinessObjectDataNotificationRegistrationsByStatus(NotificationRegistrationStatusEntity.ENABLED.toLowerCase());
+
+        // Validate the results.
+        assertTrue(result.contains(enabledNotificationRegistrationEntity));
+        assertFalse(result.contains(disabledNotificationRegistrationEntity));
+    }
+
     @Test
     public void testGetBusinessObjectDataNotificationRegistrationsInvalidInputs()
     {
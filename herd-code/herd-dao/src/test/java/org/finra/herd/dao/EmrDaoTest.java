@@ -23,6 +23,8 @@ import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -75,6 +77,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import org.finra.herd.dao.helper.HerdStringHelper;
+import org.finra.herd.dao.impl.MockAwsOperationsHelper;
 import org.finra.herd.model.api.xml.ConfigurationFile;
 import org.finra.herd.model.api.xml.ConfigurationFiles;
 import org.finra.herd.model.api.xml.EmrClusterDefinition;
@@ -122,6 +125,7 @@ public class EmrDaoTest extends AbstractDaoTest
         originalEc2Dao = (Ec2Dao) ReflectionTestUtils.getField(emrDao, "ec2Dao");
         ReflectionTestUtils.setField(emrDao, "emrOperations", mockEmrOperations);
         ReflectionTestUtils.setField(emrDao, "ec2Dao", mockEc2Dao);
+        ReflectionTestUtils.setField(emrDao, "activeEmrClusterIndex", null);
     }
 
     /**
@@ -132,6 +136,7 @@ public class EmrDaoTest extends AbstractDaoTest
     {
         ReflectionTestUtils.setField(emrDao, "emrOperations", originalEmrOperations);
         ReflectionTestUtils.setField(emrDao, "ec2Dao", originalEc2Dao);
+        ReflectionTestUtils.setField(emrDao, "activeEmrClusterIndex", null);
     }
 
     @Test
@@ -916,6 +921,79 @@ public class EmrDaoTest extends AbstractDaoTest
         assertNull(emrDao.getActiveEmrClusterByName(clusterName, new AwsParamsDto()));
     }
 
+    @Test
+    public void getActiveEmrClusterByNameAssertServedFromIndexUntilTerminated() throws Exception
+    {
+        EmrOperations spyEmrOperations = spy(originalEmrOperations);
+        ReflectionTestUtils.setField(emrDao, "emrOperations", spyEmrOperations);
+
+        String clusterName = "clusterName" + UUID.randomUUID();
+        String clusterId = emrDao.createEmrCluster(clusterName, createWaitingEmrClusterDefinition(), new AwsParamsDto());
+
+        // The first lookup lists the active clusters, which takes two pages with the mock EMR operations.
+        ClusterSummary result = emrDao.getActiveEmrClusterByName(clusterName, new AwsParamsDto());
+        assertNotNull(result);
+        assertEquals(clusterId, result.getId());
+        verify(spyEmrOperations, times(2)).listEmrClusters(any(), any());
+
+        // The next lookups are served from the index regardless of the case of the cluster name.
+        assertEquals(clusterId, emrDao.getActiveEmrClusterByName(clusterName.toUpperCase(), new AwsParamsDto()).getId());
+        assertEquals(clusterId, emrDao.getActiveEmrClusterByName(clusterName, new AwsParamsDto()).getId());
+        verify(spyEmrOperations, times(2)).listEmrClusters(any(), any());
+
+        // Once the cluster is terminated, the lookup lists the active clusters again and does not find it.
+        emrDao.terminateEmrCluster(clusterId, false, new AwsParamsDto());
+        assertNull(emrDao.getActiveEmrClusterByName(clusterName, new AwsParamsDto()));
+        verify(spyEmrOperations, times(4)).listEmrClusters(any(), any());
+    }
+
+    @Test
+    public void getActiveEmrClusterByNameAssertIndexedClusterStateConfirmed() throws Exception
+    {
+        EmrOperations spyEmrOperations = spy(originalEmrOperations);
+        ReflectionTestUtils.setField(emrDao, "emrOperations", spyEmrOperations);
+
+        String clusterName = "clusterName" + UUID.randomUUID();
+        String clusterId = emrDao.createEmrCluster(clusterName, createWaitingEmrClusterDefinition(), new AwsParamsDto());
+
+        // Load the index.
+        assertEquals(clusterId, emrDao.getActiveEmrClusterByName(clusterName, new AwsParamsDto()).getId());
+        verify(spyEmrOperations, times(2)).listEmrClusters(any(), any());
+
+        // Terminate the cluster outside of herd and validate that the indexed cluster is not returned once its state is described.
+        spyEmrOperations.terminateEmrCluster(null, clusterId, false);
+        assertNull(emrDao.getActiveEmrClusterByName(clusterName, new AwsParamsDto()));
+        verify(spyEmrOperations).describeClusterRequest(any(), any());
+        verify(spyEmrOperations, times(4)).listEmrClusters(any(), any());
+    }
+
+    @Test
+    public void getActiveEmrClusterByNameAssertIndexDisabled() throws Exception
+    {
+        EmrOperations spyEmrOperations = spy(originalEmrOperations);
+        ReflectionTestUtils.setField(emrDao, "emrOperations", spyEmrOperations);
+
+        String clusterName = "clusterName" + UUID.randomUUID();
+        String clusterId = emrDao.createEmrCluster(clusterName, createWaitingEmrClusterDefinition(), new AwsParamsDto());
+
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.EMR_ACTIVE_CLUSTER_INDEX_TIME_TO_LIVE_SECONDS.getKey(), 0);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            // Each lookup lists the active clusters.
+            assertEquals(clusterId, emrDao.getActiveEmrClusterByName(clusterName, new AwsParamsDto()).getId());
+            assertEquals(clusterId, emrDao.getActiveEmrClusterByName(clusterName, new AwsParamsDto()).getId());
+            verify(spyEmrOperations, times(4)).listEmrClusters(any(), any());
+        }
+        finally
+        {
+            restorePropertySourceInEnvironment();
+            emrDao.terminateEmrCluster(clusterId, false, new AwsParamsDto());
+        }
+    }
+
     @Test
     public void getClusterActiveStepAssertCallListStepsAndReturnStepSummary() throws Exception
     {
@@ -1049,4 +1127,20 @@ public class EmrDaoTest extends AbstractDaoTest
             return false;
         }
     }
+
+    /**
+     * Creates an EMR cluster definition that makes the mock EMR operations create a cluster in WAITING state.
+     *
+     * @return the EMR cluster definition
+     */
+    private EmrClusterDefinition createWaitingEmrClusterDefinition()
+    {
+        EmrClusterDefinition emrClusterDefinition = new EmrClusterDefinition();
+        InstanceDefinitions instanceDefinitions = new InstanceDefinitions();
+        instanceDefinitions.setMasterInstances(new MasterInstanceDefinition(10, "masterInstanceType", null, null, null));
+        instanceDefinitions.setCoreInstances(new InstanceDefinition(20, "coreInstanceType", null, null, null));
+        emrClusterDefinition.setInstanceDefinitions(instanceDefinitions);
+        emrClusterDefinition.setAmiVersion(MockAwsOperationsHelper.AMAZON_CLUSTER_STATUS_WAITING);
+        return emrClusterDefinition;
+    }
 }
@@ -15,6 +15,7 @@
 */
 package org.finra.herd.dao;
 
+import java.io.StringWriter;
 import java.util.Arrays;
 
 import org.finra.herd.dao.impl.MockJdbcOperations;
@@ -78,4 +79,26 @@ public class JdbcDaoTest extends AbstractDaoTest
         Assert.assertNotNull("resultSet rows", resultSet.getRows());
         Assert.assertEquals("resultSet rows size", 2, resultSet.getRows().size());
     }
+
+    @Test
+    public void testQueryToCsv()
+    {
+        StringWriter writer = new StringWriter();
+
+        long rowCount = jdbcDao.queryToCsv(null, MockJdbcOperations.CASE_1_SQL, writer);
+
+        Assert.assertEquals("rowCount", 2, rowCount);
+        Assert.assertEquals("csv", "COL1,COL2,COL3\nA,B,C\nD,E,F\n", writer.toString());
+    }
+
+    @Test
+    public void testQueryToCsvEscapesValues()
+    {
+        StringWriter writer = new StringWriter();
+
+        long rowCount = jdbcDao.queryToCsv(null, MockJdbcOperations.CASE_4_SQL, writer);
+
+        Assert.assertEquals("rowCount", 1, rowCount);
+        Assert.assertEquals("csv", "COL1,COL2,COL3\n\"A,1\",\"B \"\"2\"\"\",\n", writer.toString());
+    }
 }
@@ -18,6 +18,7 @@ package org.finra.herd.dao;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
 import java.util.List;
@@ -52,4 +53,45 @@ public class JmsMessageDaoTest extends AbstractDaoTest
         // Validate the results.
         assertNull(oldestJmsMessageEntity);
     }
+
+    @Test
+    public void testGetOldestJmsMessages() throws Exception
+    {
+        // Prepare database entries required for testing.
+        List<JmsMessageEntity> jmsMessageEntities = Arrays.asList(jmsMessageDaoTestHelper.createJmsMessageEntity(JMS_QUEUE_NAME, MESSAGE_TEXT),
+            jmsMessageDaoTestHelper.createJmsMessageEntity(JMS_QUEUE_NAME_2, MESSAGE_TEXT_2),
+            jmsMessageDaoTestHelper.createJmsMessageEntity(JMS_QUEUE_NAME, MESSAGE_TEXT_2));
+
+        // Retrieve the two oldest JMS messages.
+        List<JmsMessageEntity> oldestJmsMessageEntities = jmsMessageDao.getOldestJmsMessages(2);
+
+        // Validate the results.
+        assertEquals(2, oldestJmsMessageEntities.size());
+        assertEquals(jmsMessageEntities.get(0).getId(), oldestJmsMessageEntities.get(0).getId());
+        assertEquals(jmsMessageEntities.get(1).getId(), oldestJmsMessageEntities.get(1).getId());
+
+        // Retrieve more JMS messages than there are in the queue.
+        assertEquals(3, jmsMessageDao.getOldestJmsMessages(10).size());
+    }
+
+    @Test
+    public void testGetOldestJmsMessagesQueueIsEmpty() throws Exception
+    {
+        // Try to retrieve the oldest JMS messages from an empty queue table.
+        assertTrue(jmsMessageDao.getOldestJmsMessages(10).isEmpty());
+    }
+
+    @Test
+    public void testGetJmsMessageCount() throws Exception
+    {
+        // Validate that the queue table is empty.
+        assertEquals(0, jmsMessageDao.getJmsMessageCount());
+
+        // Prepare database entries required for testing.
+        jmsMessageDaoTestHelper.createJmsMessageEntity(JMS_QUEUE_NAME, MESSAGE_TEXT);
+        jmsMessageDaoTestHelper.createJmsMessageEntity(JMS_QUEUE_NAME_2, MESSAGE_TEXT_2);
+
+        // Validate the results.
+        assertEquals(2, jmsMessageDao.getJmsMessageCount());
+    }
 }
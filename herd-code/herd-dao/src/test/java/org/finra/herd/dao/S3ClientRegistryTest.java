@@ -0,0 +1,257 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import com.amazonaws.services.s3.AmazonS3Client;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.finra.herd.dao.impl.MockStsOperationsImpl;
+import org.finra.herd.model.api.xml.AwsCredential;
+import org.finra.herd.model.dto.ConfigurationValue;
+import org.finra.herd.model.dto.HerdAWSCredentialsProvider;
+import org.finra.herd.model.dto.S3FileTransferRequestParamsDto;
+
+/**
+ * This class tests functionality within the S3 client registry.
+ */
+public class S3ClientRegistryTest extends AbstractDaoTest
+{
+    private static final Function<S3FileTransferRequestParamsDto, AmazonS3Client> CLIENT_FACTORY = params -> new AmazonS3Client();
+
+    @Autowired
+    private S3ClientRegistry s3ClientRegistry;
+
+    @Before
+    public void clearRegistry()
+    {
+        s3ClientRegistry.clear();
+    }
+
+    @After
+    public void cleanRegistry()
+    {
+        s3ClientRegistry.clear();
+    }
+
+    @Test
+    public void testAcquireClientCachingHit()
+    {
+        long hitCount = s3ClientRegistry.getHitCount();
+        long missCount = s3ClientRegistry.getMissCount();
+
+        AmazonS3Client s3Client = s3ClientRegistry.acquireClient(getS3FileTransferRequestParamsDto(HTTP_PROXY_HOST, HTTP_PROXY_PORT), CLIENT_FACTORY);
+        s3ClientRegistry.releaseClient(s3Client);
+
+        AmazonS3Client s3Client2 = s3ClientRegistry.acquireClient(getS3FileTransferRequestParamsDto(HTTP_PROXY_HOST, HTTP_PROXY_PORT), CLIENT_FACTORY);
+        s3ClientRegistry.releaseClient(s3Client2);
+
+        assertSame(s3Client, s3Client2);
+        assertEquals(hitCount + 1, s3ClientRegistry.getHitCount());
+        assertEquals(missCount + 1, s3ClientRegistry.getMissCount());
+        assertEquals(1, s3ClientRegistry.getSize());
+    }
+
+    @Test
+    public void testAcquireClientCachingMiss()
+    {
+        long missCount = s3ClientRegistry.getMissCount();
+
+        AmazonS3Client s3Client = s3ClientRegistry.acquireClient(getS3FileTransferRequestParamsDto(HTTP_PROXY_HOST, HTTP_PROXY_PORT), CLIENT_FACTORY);
+        s3ClientRegistry.releaseClient(s3Client);
+
+        AmazonS3Client s3Client2 = s3ClientRegistry.acquireClient(getS3FileTransferRequestParamsDto(HTTP_PROXY_HOST_2, HTTP_PROXY_PORT), CLIENT_FACTORY);
+        s3ClientRegistry.releaseClient(s3Client2);
+
+        assertNotSame(s3Client, s3Client2);
+        assertEquals(missCount + 2, s3ClientRegistry.getMissCount());
+        assertEquals(2, s3ClientRegistry.getSize());
+    }
+
+    @Test
+    public void testAcquireClientCachingClear()
+    {
+        AmazonS3Client s3Client = s3ClientRegistry.acquireClient(getS3FileTransferRequestParamsDto(HTTP_PROXY_HOST, HTTP_PROXY_PORT), CLIENT_FACTORY);
+        s3ClientRegistry.releaseClient(s3Client);
+
+        // Clear the registry and retrieve the client again.
+        s3ClientRegistry.clear();
+
+        AmazonS3Client s3Client2 = s3ClientRegistry.acquireClient(getS3FileTransferRequestParamsDto(HTTP_PROXY_HOST, HTTP_PROXY_PORT), CLIENT_FACTORY);
+        s3ClientRegistry.releaseClient(s3Client2);
+
+        assertNotSame(s3Client, s3Client2);
+    }
+
+    @Test
+    public void testAcquireClientMaxSizeEvictsLeastRecentlyUsedClient() throws Exception
+    {
+        // Override configuration to only allow a single pooled client.
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.S3_CLIENT_REGISTRY_MAX_SIZE.getKey(), 1);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            long evictionCount = s3ClientRegistry.getEvictionCount();
+
+            AmazonS3Client s3Client = s3ClientRegistry.acquireClient(getS3FileTransferRequestParamsDto(HTTP_PROXY_HOST, HTTP_PROXY_PORT), CLIENT_FACTORY);
+            s3ClientRegistry.releaseClient(s3Client);
+
+            AmazonS3Client s3Client2 = s3ClientRegistry.acquireClient(getS3FileTransferRequestParamsDto(HTTP_PROXY_HOST_2, HTTP_PROXY_PORT), CLIENT_FACTORY);
+            s3ClientRegistry.releaseClient(s3Client2);
+
+            assertEquals(evictionCount + 1, s3ClientRegistry.getEvictionCount());
+            assertEquals(1, s3ClientRegistry.getSize());
+        }
+        finally
+        {
+            // Restore the property sources so we don't affect other tests.
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    @Test
+    public void testAcquireClientMaxSizeAllClientsLeased() throws Exception
+    {
+        // Override configuration to only allow a single pooled client.
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.S3_CLIENT_REGISTRY_MAX_SIZE.getKey(), 1);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            long evictionCount = s3ClientRegistry.getEvictionCount();
+
+            // Keep the first client leased, so it can not be evicted to make room for the second one.
+            AmazonS3Client s3Client = s3ClientRegistry.acquireClient(getS3FileTransferRequestParamsDto(HTTP_PROXY_HOST, HTTP_PROXY_PORT), CLIENT_FACTORY);
+            AmazonS3Client s3Client2 = s3ClientRegistry.acquireClient(getS3FileTransferRequestParamsDto(HTTP_PROXY_HOST_2, HTTP_PROXY_PORT), CLIENT_FACTORY);
+            s3ClientRegistry.releaseClient(s3Client2);
+            s3ClientRegistry.releaseClient(s3Client);
+
+            assertEquals(evictionCount, s3ClientRegistry.getEvictionCount());
+            assertEquals(1, s3ClientRegistry.getSize());
+
+            // The first client is still pooled.
+            AmazonS3Client s3Client3 = s3ClientRegistry.acquireClient(getS3FileTransferRequestParamsDto(HTTP_PROXY_HOST, HTTP_PROXY_PORT), CLIENT_FACTORY);
+            s3ClientRegistry.releaseClient(s3Client3);
+            assertSame(s3Client, s3Client3);
+        }
+        finally
+        {
+            // Restore the property sources so we don't affect other tests.
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    @Test
+    public void testAcquireClientRegistryDisabled() throws Exception
+    {
+        // Override configuration to disable client pooling.
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.S3_CLIENT_REGISTRY_MAX_SIZE.getKey(), 0);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            AmazonS3Client s3Client = s3ClientRegistry.acquireClient(getS3FileTransferRequestParamsDto(HTTP_PROXY_HOST, HTTP_PROXY_PORT), CLIENT_FACTORY);
+            s3ClientRegistry.releaseClient(s3Client);
+
+            AmazonS3Client s3Client2 = s3ClientRegistry.acquireClient(getS3FileTransferRequestParamsDto(HTTP_PROXY_HOST, HTTP_PROXY_PORT), CLIENT_FACTORY);
+            s3ClientRegistry.releaseClient(s3Client2);
+
+            assertNotSame(s3Client, s3Client2);
+            assertEquals(0, s3ClientRegistry.getSize());
+        }
+        finally
+        {
+            // Restore the property sources so we don't affect other tests.
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    @Test
+    public void testAcquireClientAdditionalAwsCredentialsProviders()
+    {
+        AtomicInteger getAwsCredentialCallCount = new AtomicInteger();
+        HerdAWSCredentialsProvider herdAWSCredentialsProvider = () ->
+        {
+            getAwsCredentialCallCount.incrementAndGet();
+            return new AwsCredential(MockStsOperationsImpl.MOCK_AWS_ASSUMED_ROLE_ACCESS_KEY, MockStsOperationsImpl.MOCK_AWS_ASSUMED_ROLE_SECRET_KEY,
+                MockStsOperationsImpl.MOCK_AWS_ASSUMED_ROLE_SESSION_TOKEN, null);
+        };
+
+        // Requests reusing the same provider instance share a client.
+        S3FileTransferRequestParamsDto params = getS3FileTransferRequestParamsDto(HTTP_PROXY_HOST, HTTP_PROXY_PORT);
+        params.getAdditionalAwsCredentialsProviders().add(herdAWSCredentialsProvider);
+        AmazonS3Client s3Client = s3ClientRegistry.acquireClient(params, CLIENT_FACTORY);
+        s3ClientRegistry.releaseClient(s3Client);
+
+        S3FileTransferRequestParamsDto params2 = getS3FileTransferRequestParamsDto(HTTP_PROXY_HOST, HTTP_PROXY_PORT);
+        params2.getAdditionalAwsCredentialsProviders().add(herdAWSCredentialsProvider);
+        AmazonS3Client s3Client2 = s3ClientRegistry.acquireClient(params2, CLIENT_FACTORY);
+        s3ClientRegistry.releaseClient(s3Client2);
+
+        // A different provider instance gets its own client, even if it hands out the same credentials.
+        S3FileTransferRequestParamsDto params3 = getS3FileTransferRequestParamsDto(HTTP_PROXY_HOST, HTTP_PROXY_PORT);
+        params3.getAdditionalAwsCredentialsProviders().add(() -> new AwsCredential(MockStsOperationsImpl.MOCK_AWS_ASSUMED_ROLE_ACCESS_KEY,
+            MockStsOperationsImpl.MOCK_AWS_ASSUMED_ROLE_SECRET_KEY, MockStsOperationsImpl.MOCK_AWS_ASSUMED_ROLE_SESSION_TOKEN, null));
+        AmazonS3Client s3Client3 = s3ClientRegistry.acquireClient(params3, CLIENT_FACTORY);
+        s3ClientRegistry.releaseClient(s3Client3);
+
+        assertSame(s3Client, s3Client2);
+        assertNotSame(s3Client, s3Client3);
+        assertEquals(2, s3ClientRegistry.getSize());
+
+        // Leasing a client never resolves the credentials.
+        assertEquals(0, getAwsCredentialCallCount.get());
+    }
+
+    @Test
+    public void testS3DaoReusesPooledClient()
+    {
+        S3FileTransferRequestParamsDto params = getS3FileTransferRequestParamsDto(null, null);
+
+        long hitCount = s3ClientRegistry.getHitCount();
+        long missCount = s3ClientRegistry.getMissCount();
+
+        assertNull(s3Dao.getObjectMetadata(params));
+        assertNull(s3Dao.getObjectMetadata(params));
+
+        // Only the first call creates a new client.
+        assertEquals(missCount + 1, s3ClientRegistry.getMissCount());
+        assertEquals(hitCount + 1, s3ClientRegistry.getHitCount());
+        assertEquals(1, s3ClientRegistry.getSize());
+    }
+
+    private S3FileTransferRequestParamsDto getS3FileTransferRequestParamsDto(String httpProxyHost, Integer httpProxyPort)
+    {
+        return S3FileTransferRequestParamsDto.builder().s3BucketName(S3_BUCKET_NAME).s3KeyPrefix(TEST_S3_KEY_PREFIX + "/I_DO_NOT_EXIST")
+            .httpProxyHost(httpProxyHost).httpProxyPort(httpProxyPort).build();
+    }
+}
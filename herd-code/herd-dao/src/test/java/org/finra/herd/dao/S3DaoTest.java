@@ -21,6 +21,7 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.argThat;
+import static org.mockito.Mockito.atMost;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -38,8 +39,16 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.amazonaws.AmazonClientException;
 import com.amazonaws.AmazonServiceException;
@@ -90,12 +99,14 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import org.finra.herd.core.HerdDateUtils;
 import org.finra.herd.core.helper.LogLevel;
 import org.finra.herd.dao.helper.JavaPropertiesHelper;
 import org.finra.herd.dao.impl.MockS3OperationsImpl;
 import org.finra.herd.dao.impl.S3DaoImpl;
 import org.finra.herd.model.ObjectNotFoundException;
 import org.finra.herd.model.api.xml.AwsCredential;
+import org.finra.herd.model.dto.ConfigurationValue;
 import org.finra.herd.model.dto.HerdAWSCredentialsProvider;
 import org.finra.herd.model.dto.S3FileCopyRequestParamsDto;
 import org.finra.herd.model.dto.S3FileTransferRequestParamsDto;
@@ -388,6 +399,168 @@ public class S3DaoTest extends AbstractDaoTest
         assertTrue(objectMetadata.getOngoingRestore());
     }
 
+    @Test
+    public void testRestoreObjectsMultipleFilesWithFailures() throws Exception
+    {
+        // Put Glacier storage class files in S3. Two of the files trigger an Amazon service exception when we request to restore them.
+        List<String> testKeys = new ArrayList<>();
+        for (int i = 0; i < 20; i++)
+        {
+            testKeys.add(i == 10 || i == 15 ? String.format("%s/%d/%s", TEST_S3_KEY_PREFIX, i, MockS3OperationsImpl.MOCK_S3_FILE_NAME_SERVICE_EXCEPTION) :
+                String.format("%s/%d/%s", TEST_S3_KEY_PREFIX, i, LOCAL_FILE));
+        }
+        List<File> files = new ArrayList<>();
+        for (String testKey : testKeys)
+        {
+            ObjectMetadata metadata = new ObjectMetadata();
+            metadata.setHeader(Headers.STORAGE_CLASS, StorageClass.Glacier);
+            metadata.setOngoingRestore(false);
+            s3Operations
+                .putObject(new PutObjectRequest(storageDaoTestHelper.getS3ManagedBucketName(), testKey, new ByteArrayInputStream(new byte[1]), metadata),
+                    null);
+            files.add(new File(testKey));
+        }
+
+        // Override configuration to process the files using several threads.
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.S3_RESTORE_THREAD_COUNT.getKey(), 4);
+        overrideMap.put(ConfigurationValue.S3_RESTORE_MAX_REQUESTS_PER_SECOND.getKey(), 0);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        // Try to initiate a restore request for all files.
+        try
+        {
+            S3FileTransferRequestParamsDto params = new S3FileTransferRequestParamsDto();
+            params.setS3BucketName(storageDaoTestHelper.getS3ManagedBucketName());
+            params.setFiles(files);
+            s3Dao.restoreObjects(params, S3_RESTORE_OBJECT_EXPIRATION_IN_DAYS);
+            fail("Should throw an IllegalStateException when an S3 restore object operation fails.");
+        }
+        catch (IllegalStateException e)
+        {
+            // The first failed key in the order of the files is reported.
+            assertEquals(String.format("Failed to initiate a restore request for \"%s\" key in \"%s\" bucket. " +
+                "Reason: InternalError (Service: null; Status Code: 0; Error Code: null; Request ID: null)", testKeys.get(10),
+                storageDaoTestHelper.getS3ManagedBucketName()), e.getMessage());
+        }
+        finally
+        {
+            // Restore the property sources so we don't affect other tests.
+            restorePropertySourceInEnvironment();
+        }
+
+        // Validate that the failed keys did not prevent restore requests for the rest of the files.
+        for (int i = 0; i < testKeys.size(); i++)
+        {
+            if (i != 10 && i != 15)
+            {
+                ObjectMetadata objectMetadata = s3Operations.getObjectMetadata(storageDaoTestHelper.getS3ManagedBucketName(), testKeys.get(i), null);
+                assertTrue(objectMetadata.getOngoingRestore());
+            }
+        }
+    }
+
+    @Test
+    public void testRestoreObjectsMaxRequestsPerSecond() throws Exception
+    {
+        // Put Glacier storage class files in S3.
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+        {
+            String testKey = String.format("%s/%d/%s", TEST_S3_KEY_PREFIX, i, LOCAL_FILE);
+            ObjectMetadata metadata = new ObjectMetadata();
+            metadata.setHeader(Headers.STORAGE_CLASS, StorageClass.Glacier);
+            metadata.setOngoingRestore(false);
+            s3Operations
+                .putObject(new PutObjectRequest(storageDaoTestHelper.getS3ManagedBucketName(), testKey, new ByteArrayInputStream(new byte[1]), metadata),
+                    null);
+            files.add(new File(testKey));
+        }
+
+        // Override configuration to cap the request rate at 100 requests per second.
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.S3_RESTORE_THREAD_COUNT.getKey(), 4);
+        overrideMap.put(ConfigurationValue.S3_RESTORE_MAX_REQUESTS_PER_SECOND.getKey(), 100);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            S3FileTransferRequestParamsDto params = new S3FileTransferRequestParamsDto();
+            params.setS3BucketName(storageDaoTestHelper.getS3ManagedBucketName());
+            params.setFiles(files);
+
+            long startTime = System.currentTimeMillis();
+            s3Dao.restoreObjects(params, S3_RESTORE_OBJECT_EXPIRATION_IN_DAYS);
+
+            // Two S3 requests are issued per file, so 20 requests spaced 10 milliseconds apart take at least 190 milliseconds.
+            assertTrue(System.currentTimeMillis() - startTime >= 190);
+        }
+        finally
+        {
+            // Restore the property sources so we don't affect other tests.
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    @Test
+    public void testRestoreObjectsMaxRequestsPerSecondConcurrentCalls() throws Exception
+    {
+        // Put Glacier storage class files in S3 for two concurrent calls.
+        List<List<File>> callFiles = new ArrayList<>();
+        for (int call = 0; call < 2; call++)
+        {
+            List<File> files = new ArrayList<>();
+            for (int i = 0; i < 5; i++)
+            {
+                String testKey = String.format("%s/%d/%d/%s", TEST_S3_KEY_PREFIX, call, i, LOCAL_FILE);
+                ObjectMetadata metadata = new ObjectMetadata();
+                metadata.setHeader(Headers.STORAGE_CLASS, StorageClass.Glacier);
+                metadata.setOngoingRestore(false);
+                s3Operations.putObject(
+                    new PutObjectRequest(storageDaoTestHelper.getS3ManagedBucketName(), testKey, new ByteArrayInputStream(new byte[1]), metadata), null);
+                files.add(new File(testKey));
+            }
+            callFiles.add(files);
+        }
+
+        // Override configuration to cap the request rate at 20 requests per second.
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.S3_RESTORE_THREAD_COUNT.getKey(), 4);
+        overrideMap.put(ConfigurationValue.S3_RESTORE_MAX_REQUESTS_PER_SECOND.getKey(), 20);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        ExecutorService callerExecutorService = Executors.newFixedThreadPool(callFiles.size());
+        try
+        {
+            long startTime = System.currentTimeMillis();
+
+            // Restore the files of both calls at the same time.
+            List<Future<?>> futures = new ArrayList<>();
+            for (List<File> files : callFiles)
+            {
+                S3FileTransferRequestParamsDto params = new S3FileTransferRequestParamsDto();
+                params.setS3BucketName(storageDaoTestHelper.getS3ManagedBucketName());
+                params.setFiles(files);
+                futures.add(callerExecutorService.submit(() -> s3Dao.restoreObjects(params, S3_RESTORE_OBJECT_EXPIRATION_IN_DAYS)));
+            }
+            for (Future<?> future : futures)
+            {
+                future.get();
+            }
+
+            // Two S3 requests are issued per file, so the 20 requests of both calls spaced 50 milliseconds apart take at least 950 milliseconds. Each call
+            // would complete in 450 milliseconds if it had a request rate cap of its own.
+            assertTrue(System.currentTimeMillis() - startTime >= 950);
+        }
+        finally
+        {
+            callerExecutorService.shutdownNow();
+
+            // Restore the property sources so we don't affect other tests.
+            restorePropertySourceInEnvironment();
+        }
+    }
+
     @Test
     public void testValidateGlacierS3FilesRestored()
     {
@@ -501,6 +674,60 @@ public class S3DaoTest extends AbstractDaoTest
         }
     }
 
+    @Test
+    public void testValidateGlacierS3FilesRestoredMultipleFiles() throws Exception
+    {
+        // Put already restored Glacier storage class files in S3, except for the last two files that are still being restored.
+        List<String> testKeys = new ArrayList<>();
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < 20; i++)
+        {
+            String testKey = String.format("%s/%d/%s", TEST_S3_KEY_PREFIX, i, LOCAL_FILE);
+            ObjectMetadata metadata = new ObjectMetadata();
+            metadata.setHeader(Headers.STORAGE_CLASS, StorageClass.Glacier);
+            metadata.setOngoingRestore(i >= 18);
+            s3Operations
+                .putObject(new PutObjectRequest(storageDaoTestHelper.getS3ManagedBucketName(), testKey, new ByteArrayInputStream(new byte[1]), metadata),
+                    null);
+            testKeys.add(testKey);
+            files.add(new File(testKey));
+        }
+
+        // Override configuration to process the files using several threads.
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.S3_RESTORE_THREAD_COUNT.getKey(), 4);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            // Validate the already restored files.
+            S3FileTransferRequestParamsDto params = new S3FileTransferRequestParamsDto();
+            params.setS3BucketName(storageDaoTestHelper.getS3ManagedBucketName());
+            params.setFiles(files.subList(0, 18));
+            s3Dao.validateGlacierS3FilesRestored(params);
+
+            // Try to validate all files.
+            params.setFiles(files);
+            try
+            {
+                s3Dao.validateGlacierS3FilesRestored(params);
+                fail("Should throw an IllegalArgumentException when Glacier S3 file is not restored.");
+            }
+            catch (IllegalArgumentException e)
+            {
+                // The first not restored key in the order of the files is reported.
+                assertEquals(String
+                    .format("Archived Glacier S3 file \"%s\" is not restored. StorageClass {GLACIER}, OngoingRestore flag {true}, Glacier S3 bucket name {%s}",
+                        testKeys.get(18), storageDaoTestHelper.getS3ManagedBucketName()), e.getMessage());
+            }
+        }
+        finally
+        {
+            // Restore the property sources so we don't affect other tests.
+            restorePropertySourceInEnvironment();
+        }
+    }
+
     /**
      * Test "access denied" scenario for the getObjectMetadata S3Dao operation.
      */
@@ -1270,6 +1497,128 @@ public class S3DaoTest extends AbstractDaoTest
         }
     }
 
+    @Test
+    public void testListDirectoryParallelShards()
+    {
+        // Put S3 objects both right below the S3 key prefix and in nested sub-directories, including a zero byte directory marker.
+        String s3KeyPrefix = TEST_S3_KEY_PREFIX + "/";
+        List<String> expectedS3Keys = new ArrayList<>();
+        for (String relativeS3Key : Arrays.asList("a.txt", "b/1.txt", "b/2.txt", "b0.txt", "c/d/3.txt", "c/e/4.txt", "f.txt"))
+        {
+            expectedS3Keys.add(s3KeyPrefix + relativeS3Key);
+        }
+        for (String s3Key : expectedS3Keys)
+        {
+            s3Operations.putObject(new PutObjectRequest(storageDaoTestHelper.getS3ManagedBucketName(), s3Key, new ByteArrayInputStream(new byte[1]), null),
+                null);
+        }
+        s3Operations.putObject(
+            new PutObjectRequest(storageDaoTestHelper.getS3ManagedBucketName(), s3KeyPrefix + "c/", new ByteArrayInputStream(new byte[0]), null), null);
+
+        S3FileTransferRequestParamsDto params = s3DaoTestHelper.getTestS3FileTransferRequestParamsDto();
+        params.setS3BucketName(storageDaoTestHelper.getS3ManagedBucketName());
+        params.setS3KeyPrefix(s3KeyPrefix);
+
+        // List the S3 directory using several threads and using the calling thread only.
+        for (int threadCount : Arrays.asList(4, 1))
+        {
+            Map<String, Object> overrideMap = new HashMap<>();
+            overrideMap.put(ConfigurationValue.S3_LIST_DIRECTORY_THREAD_COUNT.getKey(), threadCount);
+            modifyPropertySourceInEnvironment(overrideMap);
+
+            List<String> actualS3Keys = new ArrayList<>();
+            try
+            {
+                s3Dao.listDirectory(params, true,
+                    s3ObjectSummaries -> s3ObjectSummaries.forEach(s3ObjectSummary -> actualS3Keys.add(s3ObjectSummary.getKey())));
+            }
+            finally
+            {
+                // Restore the property sources so we don't affect other tests.
+                restorePropertySourceInEnvironment();
+            }
+
+            // The parallel listing returns the S3 objects in the key order, while the serial listing returns the same S3 objects as the list command.
+            if (threadCount > 1)
+            {
+                assertEquals(expectedS3Keys, actualS3Keys);
+            }
+            else
+            {
+                assertEquals(new HashSet<>(expectedS3Keys), new HashSet<>(actualS3Keys));
+                assertEquals(expectedS3Keys.size(), actualS3Keys.size());
+            }
+        }
+    }
+
+    @Test
+    public void testListDirectoryParallelShardsConsumerFailure()
+    {
+        // Put S3 objects in several sub-directories.
+        String s3KeyPrefix = TEST_S3_KEY_PREFIX + "/";
+        for (String relativeS3Key : Arrays.asList("a/1.txt", "b/2.txt", "c/3.txt", "d/4.txt"))
+        {
+            s3Operations.putObject(
+                new PutObjectRequest(storageDaoTestHelper.getS3ManagedBucketName(), s3KeyPrefix + relativeS3Key, new ByteArrayInputStream(new byte[1]), null),
+                null);
+        }
+
+        S3FileTransferRequestParamsDto params = s3DaoTestHelper.getTestS3FileTransferRequestParamsDto();
+        params.setS3BucketName(storageDaoTestHelper.getS3ManagedBucketName());
+        params.setS3KeyPrefix(s3KeyPrefix);
+
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.S3_LIST_DIRECTORY_THREAD_COUNT.getKey(), 2);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            // Validate that a consumer failure is thrown back to the caller and stops the remaining sub-directory listings.
+            List<String> actualS3Keys = new ArrayList<>();
+            try
+            {
+                s3Dao.listDirectory(params, true, s3ObjectSummaries -> {
+                    s3ObjectSummaries.forEach(s3ObjectSummary -> actualS3Keys.add(s3ObjectSummary.getKey()));
+                    throw new IllegalStateException(MESSAGE_TEXT);
+                });
+                fail("Should throw an IllegalStateException when the consumer fails.");
+            }
+            catch (IllegalStateException e)
+            {
+                assertEquals(MESSAGE_TEXT, e.getMessage());
+            }
+            assertEquals(Arrays.asList(s3KeyPrefix + "a/1.txt"), actualS3Keys);
+
+            // Validate that the shared thread pool is still usable by the next listing.
+            actualS3Keys.clear();
+            s3Dao.listDirectory(params, true, s3ObjectSummaries -> s3ObjectSummaries.forEach(s3ObjectSummary -> actualS3Keys.add(s3ObjectSummary.getKey())));
+            assertEquals(Arrays.asList(s3KeyPrefix + "a/1.txt", s3KeyPrefix + "b/2.txt", s3KeyPrefix + "c/3.txt", s3KeyPrefix + "d/4.txt"), actualS3Keys);
+        }
+        finally
+        {
+            // Restore the property sources so we don't affect other tests.
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    @Test
+    public void testListDirectoryParallelShardsNoSuchBucket()
+    {
+        S3FileTransferRequestParamsDto s3FileTransferRequestParamsDto = new S3FileTransferRequestParamsDto();
+        s3FileTransferRequestParamsDto.setS3BucketName(MockS3OperationsImpl.MOCK_S3_BUCKET_NAME_NO_SUCH_BUCKET_EXCEPTION);
+        s3FileTransferRequestParamsDto.setS3KeyPrefix(TEST_S3_KEY_PREFIX);
+
+        try
+        {
+            s3Dao.listDirectory(s3FileTransferRequestParamsDto, true, s3ObjectSummaries -> fail("Should not list any S3 objects."));
+            fail("Should throw an IllegalArgumentException when the S3 bucket does not exist.");
+        }
+        catch (IllegalArgumentException e)
+        {
+            assertEquals("The specified bucket '" + MockS3OperationsImpl.MOCK_S3_BUCKET_NAME_NO_SUCH_BUCKET_EXCEPTION + "' does not exist.", e.getMessage());
+        }
+    }
+
     @Test
     public void testListVersionsRootKeyPrefix()
     {
@@ -1930,6 +2279,186 @@ public class S3DaoTest extends AbstractDaoTest
         }
     }
 
+    @Test
+    public void testDeleteDirectoryMultipleBatches() throws Exception
+    {
+        // Put more keys than fit into two multi-object delete requests under the test prefix.
+        String s3KeyPrefix = TEST_S3_KEY_PREFIX + "/";
+        for (int i = 0; i < 2500; i++)
+        {
+            s3Operations.putObject(new PutObjectRequest(storageDaoTestHelper.getS3ManagedBucketName(), String.format("%s%d/%s", s3KeyPrefix, i, LOCAL_FILE),
+                new ByteArrayInputStream(new byte[1]), null), null);
+        }
+
+        S3FileTransferRequestParamsDto s3FileTransferRequestParamsDto = s3DaoTestHelper.getTestS3FileTransferRequestParamsDto();
+        s3FileTransferRequestParamsDto.setS3KeyPrefix(s3KeyPrefix);
+        assertEquals(2500, s3Dao.listVersions(s3FileTransferRequestParamsDto).size());
+
+        // Override configuration to delete the batches using several threads and a queue that holds a single batch.
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.S3_DELETE_THREAD_COUNT.getKey(), 3);
+        overrideMap.put(ConfigurationValue.S3_DELETE_QUEUE_CAPACITY.getKey(), 1);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            s3Dao.deleteDirectory(s3FileTransferRequestParamsDto);
+        }
+        finally
+        {
+            // Restore the property sources so we don't affect other tests.
+            restorePropertySourceInEnvironment();
+        }
+
+        // Validate that S3 directory got deleted.
+        assertEquals(0, s3Dao.listVersions(s3FileTransferRequestParamsDto).size());
+    }
+
+    @Test
+    public void testDeleteDirectoryMultiObjectDeleteExceptionAllBatchesAttempted() throws Exception
+    {
+        S3Operations originalS3Operations = (S3Operations) ReflectionTestUtils.getField(s3Dao, "s3Operations");
+        S3Operations mockS3Operations = mock(S3Operations.class);
+        ReflectionTestUtils.setField(s3Dao, "s3Operations", mockS3Operations);
+
+        // Override configuration to delete the batches using several threads.
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.S3_DELETE_THREAD_COUNT.getKey(), 2);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            S3FileTransferRequestParamsDto s3FileTransferRequestParamsDto = new S3FileTransferRequestParamsDto();
+            s3FileTransferRequestParamsDto.setS3BucketName("s3BucketName");
+            s3FileTransferRequestParamsDto.setS3KeyPrefix("s3KeyPrefix");
+
+            // Return two pages of 1000 key versions each.
+            when(mockS3Operations.listVersions(any(), any())).thenReturn(getVersionListing(1000, true), getVersionListing(1000, false));
+
+            // Fail to delete a single key from one of the batches.
+            DeleteError deleteError = new DeleteError();
+            deleteError.setKey("s3Key");
+            deleteError.setCode("deleteErrorCode");
+            deleteError.setMessage("deleteErrorMessage");
+            MultiObjectDeleteException multiObjectDeleteException = new MultiObjectDeleteException(Arrays.asList(deleteError), new ArrayList<>());
+            when(mockS3Operations.deleteObjects(any(), any())).thenThrow(multiObjectDeleteException).thenReturn(null);
+
+            try
+            {
+                s3Dao.deleteDirectory(s3FileTransferRequestParamsDto);
+                fail();
+            }
+            catch (IllegalStateException e)
+            {
+                assertEquals(multiObjectDeleteException, e.getCause());
+            }
+
+            // Validate that both batches were sent even though one of them failed.
+            verify(mockS3Operations, times(2)).listVersions(any(), any());
+            verify(mockS3Operations, times(2)).deleteObjects(any(), any());
+        }
+        finally
+        {
+            ReflectionTestUtils.setField(s3Dao, "s3Operations", originalS3Operations);
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    @Test
+    public void testDeleteDirectoryDeleteThreadsDied() throws Exception
+    {
+        S3Operations originalS3Operations = (S3Operations) ReflectionTestUtils.getField(s3Dao, "s3Operations");
+        S3Operations mockS3Operations = mock(S3Operations.class);
+        ReflectionTestUtils.setField(s3Dao, "s3Operations", mockS3Operations);
+
+        // Override configuration to delete the batches using several threads and a queue that holds a single batch.
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.S3_DELETE_THREAD_COUNT.getKey(), 2);
+        overrideMap.put(ConfigurationValue.S3_DELETE_QUEUE_CAPACITY.getKey(), 1);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            S3FileTransferRequestParamsDto s3FileTransferRequestParamsDto = new S3FileTransferRequestParamsDto();
+            s3FileTransferRequestParamsDto.setS3BucketName("s3BucketName");
+            s3FileTransferRequestParamsDto.setS3KeyPrefix("s3KeyPrefix");
+
+            // Return five pages of 1000 key versions each.
+            when(mockS3Operations.listVersions(any(), any()))
+                .thenReturn(getVersionListing(1000, true), getVersionListing(1000, true), getVersionListing(1000, true), getVersionListing(1000, true),
+                    getVersionListing(1000, false));
+
+            // Kill every delete thread that sends a delete request.
+            Error error = new Error("testError");
+            when(mockS3Operations.deleteObjects(any(), any())).thenThrow(error);
+
+            // Validate that the delete fails instead of waiting for the dead delete threads forever.
+            try
+            {
+                s3Dao.deleteDirectory(s3FileTransferRequestParamsDto);
+                fail();
+            }
+            catch (IllegalStateException e)
+            {
+                assertEquals("S3 delete thread failed.", e.getMessage());
+                assertEquals(error, e.getCause());
+            }
+
+            // Validate that no more delete requests were sent once the delete threads died.
+            verify(mockS3Operations, atMost(2)).deleteObjects(any(), any());
+        }
+        finally
+        {
+            ReflectionTestUtils.setField(s3Dao, "s3Operations", originalS3Operations);
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    @Test
+    public void testDeleteDirectoryAmazonServiceExceptionStopsListing() throws Exception
+    {
+        S3Operations originalS3Operations = (S3Operations) ReflectionTestUtils.getField(s3Dao, "s3Operations");
+        S3Operations mockS3Operations = mock(S3Operations.class);
+        ReflectionTestUtils.setField(s3Dao, "s3Operations", mockS3Operations);
+
+        // Override configuration to send the delete requests from the calling thread.
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.S3_DELETE_THREAD_COUNT.getKey(), 1);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            S3FileTransferRequestParamsDto s3FileTransferRequestParamsDto = new S3FileTransferRequestParamsDto();
+            s3FileTransferRequestParamsDto.setS3BucketName("s3BucketName");
+            s3FileTransferRequestParamsDto.setS3KeyPrefix("s3KeyPrefix");
+
+            // Return three pages of 1000 key versions each.
+            when(mockS3Operations.listVersions(any(), any()))
+                .thenReturn(getVersionListing(1000, true), getVersionListing(1000, true), getVersionListing(1000, false));
+            when(mockS3Operations.deleteObjects(any(), any())).thenThrow(new AmazonServiceException("testException"));
+
+            try
+            {
+                s3Dao.deleteDirectory(s3FileTransferRequestParamsDto);
+                fail();
+            }
+            catch (IllegalStateException e)
+            {
+                assertEquals("Failed to delete keys/key versions with prefix \"s3KeyPrefix\" from bucket \"s3BucketName\". " +
+                    "Reason: testException (Service: null; Status Code: 0; Error Code: null; Request ID: null)", e.getMessage());
+            }
+
+            // Validate that the listing stopped once the whole batch failed.
+            verify(mockS3Operations, times(1)).listVersions(any(), any());
+            verify(mockS3Operations, times(1)).deleteObjects(any(), any());
+        }
+        finally
+        {
+            ReflectionTestUtils.setField(s3Dao, "s3Operations", originalS3Operations);
+            restorePropertySourceInEnvironment();
+        }
+    }
+
     @Test
     public void testAbortMultipartUploadsAssertAbortOnlyBeforeThreshold()
     {
@@ -2640,7 +3169,7 @@ public class S3DaoTest extends AbstractDaoTest
                         (List<AWSCredentialsProvider>) ReflectionTestUtils.getField(awsCredentialsProviderChain, "credentialsProviders");
                     assertEquals(2, credentialsProviders.size());
 
-                    // refresh() does nothing, but gives code coverage
+                    // refresh() drops any cached credentials, so the credentials below get resolved from the provider
                     credentialsProviders.get(0).refresh();
 
                     /*
@@ -2668,6 +3197,65 @@ public class S3DaoTest extends AbstractDaoTest
         }
     }
 
+    /**
+     * A case where the additional credentials provider hands out credentials with a session expiration time. The credentials should only be resolved once
+     * until they expire.
+     */
+    @Test
+    public void testGetAWSCredentialsProviderAssertAdditionalProviderCredentialsCachedUntilExpiration() throws Exception
+    {
+        S3Operations originalS3Operations = (S3Operations) ReflectionTestUtils.getField(s3Dao, "s3Operations");
+        S3Operations mockS3Operations = mock(S3Operations.class);
+        ReflectionTestUtils.setField(s3Dao, "s3Operations", mockS3Operations);
+
+        try
+        {
+            String awsAccessKey = "awsAccessKey";
+            String awsSecretKey = "awsSecretKey";
+            String awsSessionToken = "awsSessionToken";
+            AtomicInteger getAwsCredentialCallCount = new AtomicInteger();
+
+            S3FileTransferRequestParamsDto s3FileTransferRequestParamsDto = new S3FileTransferRequestParamsDto();
+            s3FileTransferRequestParamsDto.setS3BucketName("s3BucketName");
+            s3FileTransferRequestParamsDto.setS3KeyPrefix("s3KeyPrefix");
+            s3FileTransferRequestParamsDto.setAdditionalAwsCredentialsProviders(Arrays.asList(new HerdAWSCredentialsProvider()
+            {
+                @Override
+                public AwsCredential getAwsCredential()
+                {
+                    getAwsCredentialCallCount.incrementAndGet();
+                    return new AwsCredential(awsAccessKey, awsSecretKey, awsSessionToken,
+                        HerdDateUtils.getXMLGregorianCalendarValue(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1))));
+                }
+            }));
+
+            when(mockS3Operations.putObject(any(), any())).then(new Answer<PutObjectResult>()
+            {
+                @Override
+                public PutObjectResult answer(InvocationOnMock invocation) throws Throwable
+                {
+                    AmazonS3Client amazonS3Client = invocation.getArgumentAt(1, AmazonS3Client.class);
+                    AWSCredentialsProviderChain awsCredentialsProviderChain =
+                        (AWSCredentialsProviderChain) ReflectionTestUtils.getField(amazonS3Client, "awsCredentialsProvider");
+
+                    BasicSessionCredentials basicSessionCredentials = (BasicSessionCredentials) awsCredentialsProviderChain.getCredentials();
+                    assertEquals(awsSessionToken, basicSessionCredentials.getSessionToken());
+                    assertEquals(basicSessionCredentials, awsCredentialsProviderChain.getCredentials());
+
+                    return new PutObjectResult();
+                }
+            });
+
+            s3Dao.createDirectory(s3FileTransferRequestParamsDto);
+
+            assertEquals(1, getAwsCredentialCallCount.get());
+        }
+        finally
+        {
+            ReflectionTestUtils.setField(s3Dao, "s3Operations", originalS3Operations);
+        }
+    }
+
     @Test
     public void testPerformTransferAssertLogWhenStepCountGt300() throws Exception
     {
@@ -2927,4 +3515,26 @@ public class S3DaoTest extends AbstractDaoTest
             removeLoggingAppender(appenderName);
         }
     }
+
+    /**
+     * Creates a version listing with the specified number of key versions.
+     *
+     * @param keyVersionCount the number of key versions
+     * @param truncated specifies whether the listing is truncated
+     *
+     * @return the version listing
+     */
+    private VersionListing getVersionListing(int keyVersionCount, boolean truncated)
+    {
+        VersionListing versionListing = new VersionListing();
+        for (int i = 0; i < keyVersionCount; i++)
+        {
+            S3VersionSummary s3VersionSummary = new S3VersionSummary();
+            s3VersionSummary.setKey("s3Key" + i);
+            s3VersionSummary.setVersionId("s3VersionId" + i);
+            versionListing.getVersionSummaries().add(s3VersionSummary);
+        }
+        versionListing.setTruncated(truncated);
+        return versionListing;
+    }
 }
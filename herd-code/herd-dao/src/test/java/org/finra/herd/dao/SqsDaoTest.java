@@ -15,6 +15,11 @@
 */
 package org.finra.herd.dao;
 
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.Test;
 
 import org.finra.herd.model.dto.AwsParamsDto;
@@ -39,4 +44,17 @@ public class SqsDaoTest extends AbstractDaoTest
         testAwsParamsDto.setHttpProxyPort(null);
         sqsDao.sendSqsTextMessage(testAwsParamsDto, JMS_QUEUE_NAME, MESSAGE_TEXT);
     }
+
+    @Test
+    public void testSendSqsTextMessages() throws Exception
+    {
+        // Send a list of text messages to the specified AWS SQS queue.
+        AwsParamsDto testAwsParamsDto = new AwsParamsDto();
+        testAwsParamsDto.setHttpProxyHost(HTTP_PROXY_HOST);
+        testAwsParamsDto.setHttpProxyPort(HTTP_PROXY_PORT);
+        List<Integer> sentMessageIndexes = sqsDao.sendSqsTextMessages(testAwsParamsDto, JMS_QUEUE_NAME, Arrays.asList(MESSAGE_TEXT, MESSAGE_TEXT_2));
+
+        // Validate that all messages were sent.
+        assertEquals(Arrays.asList(0, 1), sentMessageIndexes);
+    }
 }
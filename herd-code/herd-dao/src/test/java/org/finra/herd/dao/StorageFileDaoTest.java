@@ -16,10 +16,14 @@
 package org.finra.herd.dao;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -193,6 +197,139 @@ public class StorageFileDaoTest extends AbstractDaoTest
         }
     }
 
+    @Test
+    public void testGetStoragePathsByStorageUnitsMultiplePages() throws Exception
+    {
+        // Override configuration, so the storage file paths are read using multiple pages.
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.STORAGE_FILE_PATHS_QUERY_PAGINATION_SIZE.getKey(), 2);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            // Create database entities required for testing.
+            List<StorageUnitEntity> storageUnitEntities = Arrays.asList(storageUnitDaoTestHelper
+                .createStorageUnitEntity(STORAGE_NAME, NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, INITIAL_FORMAT_VERSION, PARTITION_VALUE,
+                    SUBPARTITION_VALUES, INITIAL_DATA_VERSION, true, BDATA_STATUS, STORAGE_UNIT_STATUS, NO_STORAGE_DIRECTORY_PATH), storageUnitDaoTestHelper
+                .createStorageUnitEntity(STORAGE_NAME, NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, INITIAL_FORMAT_VERSION,
+                    PARTITION_VALUE_2, SUBPARTITION_VALUES, INITIAL_DATA_VERSION, true, BDATA_STATUS, STORAGE_UNIT_STATUS, NO_STORAGE_DIRECTORY_PATH));
+            for (String file : LOCAL_FILES)
+            {
+                for (StorageUnitEntity storageUnitEntity : storageUnitEntities)
+                {
+                    storageFileDaoTestHelper.createStorageFileEntity(storageUnitEntity, file, FILE_SIZE_1_KB, ROW_COUNT_1000);
+                }
+            }
+
+            // Retrieve storage file paths by storage units.
+            MultiValuedMap<Integer, String> result = storageFileDao.getStorageFilePathsByStorageUnits(storageUnitEntities);
+
+            // Validate that all storage file paths are returned exactly once and in the order they were registered.
+            for (StorageUnitEntity storageUnitEntity : storageUnitEntities)
+            {
+                assertEquals(LOCAL_FILES, result.get(storageUnitEntity.getId()));
+            }
+        }
+        finally
+        {
+            // Restore the property sources so we don't affect other tests.
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    @Test
+    public void testGetStoragePathsByStorageUnitsLastPageFull() throws Exception
+    {
+        // Override configuration, so the last page of storage file paths is full and is followed by an empty page.
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.STORAGE_FILE_PATHS_QUERY_PAGINATION_SIZE.getKey(), LOCAL_FILES.size());
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            // Create database entities required for testing.
+            StorageUnitEntity storageUnitEntity = storageUnitDaoTestHelper
+                .createStorageUnitEntity(STORAGE_NAME, NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, INITIAL_FORMAT_VERSION, PARTITION_VALUE,
+                    SUBPARTITION_VALUES, INITIAL_DATA_VERSION, true, BDATA_STATUS, STORAGE_UNIT_STATUS, NO_STORAGE_DIRECTORY_PATH);
+            for (String file : LOCAL_FILES)
+            {
+                storageFileDaoTestHelper.createStorageFileEntity(storageUnitEntity, file, FILE_SIZE_1_KB, ROW_COUNT_1000);
+            }
+
+            // Retrieve storage file paths by storage units.
+            MultiValuedMap<Integer, String> result = storageFileDao.getStorageFilePathsByStorageUnits(Arrays.asList(storageUnitEntity));
+
+            // Validate the results.
+            assertEquals(LOCAL_FILES, result.get(storageUnitEntity.getId()));
+        }
+        finally
+        {
+            // Restore the property sources so we don't affect other tests.
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    @Test
+    public void testSaveStorageFiles() throws Exception
+    {
+        // Override configuration, so the storage files are flushed in multiple chunks.
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.STORAGE_FILE_REGISTRATION_FLUSH_SIZE.getKey(), 2);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            // Create database entities required for testing.
+            StorageUnitEntity storageUnitEntity = storageUnitDaoTestHelper
+                .createStorageUnitEntity(STORAGE_NAME, NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, INITIAL_FORMAT_VERSION, PARTITION_VALUE,
+                    SUBPARTITION_VALUES, INITIAL_DATA_VERSION, true, BDATA_STATUS, STORAGE_UNIT_STATUS, NO_STORAGE_DIRECTORY_PATH);
+
+            // Save the storage files.
+            List<StorageFileEntity> storageFileEntities = createStorageFileEntities(storageUnitEntity, LOCAL_FILES.size());
+            storageFileDao.saveStorageFiles(storageFileEntities);
+
+            // Validate that the storage files are saved and no longer kept in the persistence context.
+            for (StorageFileEntity storageFileEntity : storageFileEntities)
+            {
+                assertNotNull(storageFileEntity.getId());
+                assertNotNull(storageFileEntity.getCreatedBy());
+                assertFalse(storageFileDao.getEntityManager().contains(storageFileEntity));
+            }
+            assertEquals(Long.valueOf(LOCAL_FILES.size()), storageFileDao.getStorageFileCount(STORAGE_NAME, TEST_S3_KEY_PREFIX));
+        }
+        finally
+        {
+            // Restore the property sources so we don't affect other tests.
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    @Test
+    public void testSaveStorageFilesDetachedEntities()
+    {
+        // Create database entities required for testing.
+        StorageUnitEntity storageUnitEntity = storageUnitDaoTestHelper
+            .createStorageUnitEntity(STORAGE_NAME, NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, INITIAL_FORMAT_VERSION, PARTITION_VALUE,
+                SUBPARTITION_VALUES, INITIAL_DATA_VERSION, true, BDATA_STATUS, STORAGE_UNIT_STATUS, NO_STORAGE_DIRECTORY_PATH);
+
+        // Save the storage files.
+        List<StorageFileEntity> storageFileEntities = createStorageFileEntities(storageUnitEntity, LOCAL_FILES.size());
+        storageFileDao.saveStorageFiles(storageFileEntities);
+
+        // Validate that loading a saved storage file returns a new managed entity with the saved values, instead of the detached entity.
+        for (StorageFileEntity storageFileEntity : storageFileEntities)
+        {
+            StorageFileEntity loadedStorageFileEntity = storageFileDao.findById(StorageFileEntity.class, storageFileEntity.getId());
+            assertNotNull(loadedStorageFileEntity);
+            assertNotSame(storageFileEntity, loadedStorageFileEntity);
+            assertTrue(storageFileDao.getEntityManager().contains(loadedStorageFileEntity));
+            assertEquals(storageFileEntity.getPath(), loadedStorageFileEntity.getPath());
+            assertEquals(storageFileEntity.getFileSizeBytes(), loadedStorageFileEntity.getFileSizeBytes());
+            assertEquals(storageFileEntity.getRowCount(), loadedStorageFileEntity.getRowCount());
+            assertNotNull(loadedStorageFileEntity.getCreatedOn());
+        }
+    }
+
     private void createDatabaseEntitiesForStorageFilesTesting()
     {
         // Create relative database entities.
@@ -204,4 +341,28 @@ public class StorageFileDaoTest extends AbstractDaoTest
             storageFileDaoTestHelper.createStorageFileEntity(storageUnitEntity, file, FILE_SIZE_1_KB, ROW_COUNT_1000);
         }
     }
+
+    /**
+     * Creates a list of new storage file entities that are not yet saved.
+     *
+     * @param storageUnitEntity the storage unit entity
+     * @param count the number of storage file entities to create
+     *
+     * @return the list of storage file entities
+     */
+    private List<StorageFileEntity> createStorageFileEntities(StorageUnitEntity storageUnitEntity, int count)
+    {
+        List<StorageFileEntity> storageFileEntities = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+        {
+            StorageFileEntity storageFileEntity = new StorageFileEntity();
+            storageFileEntity.setStorageUnit(storageUnitEntity);
+            storageFileEntity.setPath(String.format("%s/%d/file%07d", TEST_S3_KEY_PREFIX, storageUnitEntity.getId(), i));
+            storageFileEntity.setFileSizeBytes(FILE_SIZE_1_KB);
+            storageFileEntity.setRowCount(ROW_COUNT_1000);
+            storageFileEntities.add(storageFileEntity);
+        }
+
+        return storageFileEntities;
+    }
 }
@@ -16,19 +16,33 @@
 package org.finra.herd.dao;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import org.finra.herd.dao.config.DaoSpringModuleConfig;
+import org.finra.herd.dao.helper.ReadOnlyQueryExecutor;
 
-import org.finra.herd.dao.impl.AbstractHerdDao;
 import org.finra.herd.model.api.xml.BusinessObjectDataKey;
 import org.finra.herd.model.api.xml.BusinessObjectFormatKey;
+import org.finra.herd.model.dto.ConfigurationValue;
+import org.finra.herd.model.dto.PartitionFilterCrossProduct;
 import org.finra.herd.model.jpa.BusinessObjectDataEntity;
 import org.finra.herd.model.jpa.BusinessObjectDataStatusEntity;
 import org.finra.herd.model.jpa.StoragePlatformEntity;
@@ -37,6 +51,13 @@ import org.finra.herd.model.jpa.StorageUnitStatusEntity;
 
 public class StorageUnitDaoTest extends AbstractDaoTest
 {
+    @Autowired
+    private ReadOnlyQueryExecutor readOnlyQueryExecutor;
+
+    @Autowired
+    @Qualifier(DaoSpringModuleConfig.HERD_TRANSACTION_MANAGER_BEAN_NAME)
+    private PlatformTransactionManager transactionManager;
+
     @Test
     public void testGetGlacierStorageUnitsToRestore()
     {
@@ -186,7 +207,7 @@ public class StorageUnitDaoTest extends AbstractDaoTest
 
         // Build a list of partition values, large enough to cause executing the select queries in chunks.
         List<String> partitionValues = new ArrayList<>();
-        for (int i = 0; i < AbstractHerdDao.MAX_PARTITION_FILTERS_PER_REQUEST; i++)
+        for (int i = 0; i < StorageUnitDao.MAX_PARTITION_FILTERS_PER_REQUEST; i++)
         {
             partitionValues.add(String.format("%s-%s", PARTITION_VALUE, i));
         }
@@ -272,6 +293,153 @@ public class StorageUnitDaoTest extends AbstractDaoTest
         assertTrue(resultStorageUnitEntities8.isEmpty());
     }
 
+    @Test
+    public void testGetStorageUnitsByPartitionFiltersAndStoragesPartitionValuesNotRegistered()
+    {
+        // Create database entities required for testing.
+        List<StorageUnitEntity> expectedMultiStorageAvailableStorageUnits = businessObjectDataAvailabilityTestHelper
+            .createDatabaseEntitiesForBusinessObjectDataAvailabilityTesting(null, new ArrayList<>(), new ArrayList<>(),
+                BusinessObjectDataEntity.FIRST_PARTITION_COLUMN_POSITION, SUBPARTITION_VALUES, ALLOW_DUPLICATE_BUSINESS_OBJECT_DATA, STORAGE_NAMES);
+
+        // Build a list of partition filters, large enough to cause executing the select queries in chunks, where only the last
+        // partition filters specify registered partition values at both partition levels.
+        List<List<String>> partitionFilters = new ArrayList<>();
+        for (int i = 0; i < StorageUnitDao.MAX_PARTITION_FILTERS_PER_REQUEST; i++)
+        {
+            partitionFilters.add(Arrays.asList(String.format("%s-%s", PARTITION_VALUE, i), SUBPARTITION_VALUES.get(0), null, null, null));
+            partitionFilters.add(Arrays.asList(UNSORTED_PARTITION_VALUES.get(0), String.format("%s-%s", SUBPARTITION_VALUES.get(0), i), null, null, null));
+        }
+        for (String partitionValue : UNSORTED_PARTITION_VALUES)
+        {
+            partitionFilters.add(Arrays.asList(partitionValue, SUBPARTITION_VALUES.get(0), null, null, null));
+        }
+
+        // Retrieve "available" storage units per specified parameters.
+        List<StorageUnitEntity> resultStorageUnitEntities = storageUnitDao.getStorageUnitsByPartitionFiltersAndStorages(
+            new BusinessObjectFormatKey(NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, FORMAT_VERSION), partitionFilters, DATA_VERSION, null,
+            STORAGE_NAMES, null, null, SELECT_ONLY_AVAILABLE_STORAGE_UNITS);
+
+        // Validate the results.
+        assertEquals(expectedMultiStorageAvailableStorageUnits, resultStorageUnitEntities);
+    }
+
+    @Test
+    public void testGetStorageUnitsByPartitionFiltersAndStoragesCrossProductPartitionValuesNotRegistered()
+    {
+        // Create database entities required for testing.
+        List<StorageUnitEntity> expectedMultiStorageAvailableStorageUnits = businessObjectDataAvailabilityTestHelper
+            .createDatabaseEntitiesForBusinessObjectDataAvailabilityTesting(null, new ArrayList<>(), new ArrayList<>(),
+                BusinessObjectDataEntity.FIRST_PARTITION_COLUMN_POSITION, SUBPARTITION_VALUES, ALLOW_DUPLICATE_BUSINESS_OBJECT_DATA, STORAGE_NAMES);
+
+        // Build a Cartesian product of partition values, large enough to cause executing the select queries in chunks, where only the partition values
+        // listed last are registered at both partition levels.
+        List<String> partitionValues = new ArrayList<>();
+        for (int i = 0; i < StorageUnitDao.MAX_PARTITION_FILTERS_PER_REQUEST; i++)
+        {
+            partitionValues.add(String.format("%s-%s", PARTITION_VALUE, i));
+        }
+        partitionValues.addAll(UNSORTED_PARTITION_VALUES);
+        List<String> nullPartitionValues = Arrays.asList((String) null);
+        List<List<String>> partitionFilters = new PartitionFilterCrossProduct(
+            Arrays.asList(partitionValues, Arrays.asList(SUBPARTITION_VALUES.get(0), String.format("%s-%s", SUBPARTITION_VALUES.get(0), 0)),
+                nullPartitionValues, nullPartitionValues, nullPartitionValues));
+
+        // Retrieve "available" storage units per specified parameters.
+        List<StorageUnitEntity> resultStorageUnitEntities = storageUnitDao.getStorageUnitsByPartitionFiltersAndStorages(
+            new BusinessObjectFormatKey(NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, FORMAT_VERSION), partitionFilters, DATA_VERSION, null,
+            STORAGE_NAMES, null, null, SELECT_ONLY_AVAILABLE_STORAGE_UNITS);
+
+        // Validate the results.
+        assertEquals(expectedMultiStorageAvailableStorageUnits, resultStorageUnitEntities);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testGetStorageUnitsByPartitionFiltersAndStoragesConcurrentQueries() throws Exception
+    {
+        // The queries running on other threads only see committed data, so use names that no other test uses and delete the test data once done.
+        String namespace = "UT_Namespace_Concurrent" + RANDOM_SUFFIX;
+        String businessObjectDefinitionName = "UT_Bdef_Concurrent" + RANDOM_SUFFIX;
+        String dataProviderName = "UT_DataProvider_Concurrent" + RANDOM_SUFFIX;
+        String fileType = "UT_FileType_Concurrent" + RANDOM_SUFFIX;
+        String storageName = "UT_Storage_Concurrent" + RANDOM_SUFFIX;
+        BusinessObjectFormatKey businessObjectFormatKey = new BusinessObjectFormatKey(namespace, businessObjectDefinitionName, FORMAT_USAGE_CODE, fileType,
+            FORMAT_VERSION);
+
+        // Build a list of partition filters, large enough to cause executing the select queries in chunks.
+        List<List<String>> partitionFilters = new ArrayList<>();
+        for (int i = 0; i < StorageUnitDao.MAX_PARTITION_FILTERS_PER_REQUEST + 10; i++)
+        {
+            partitionFilters.add(Arrays.asList(String.format("%s-%03d", PARTITION_VALUE, i), null, null, null, null));
+        }
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<Integer> storageUnitIds = transactionTemplate.execute(status -> {
+            businessObjectDefinitionDaoTestHelper.createBusinessObjectDefinitionEntity(namespace, businessObjectDefinitionName, dataProviderName, null);
+            List<Integer> ids = new ArrayList<>();
+            for (List<String> partitionFilter : partitionFilters)
+            {
+                ids.add(storageUnitDaoTestHelper
+                    .createStorageUnitEntity(storageName, namespace, businessObjectDefinitionName, FORMAT_USAGE_CODE, fileType, FORMAT_VERSION,
+                        partitionFilter.get(0), NO_SUBPARTITION_VALUES, DATA_VERSION, true, BusinessObjectDataStatusEntity.VALID,
+                        StorageUnitStatusEntity.ENABLED, NO_STORAGE_DIRECTORY_PATH).getId());
+            }
+            return ids;
+        });
+
+        try
+        {
+            TransactionTemplate readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+            readOnlyTransactionTemplate.setReadOnly(true);
+
+            // Retrieve the storage units with the queries running concurrently.
+            List<Integer> resultStorageUnitIds = readOnlyTransactionTemplate.execute(status -> {
+                assertTrue(readOnlyQueryExecutor.isConcurrentExecutionAllowed());
+                return getStorageUnitIds(storageUnitDao
+                    .getStorageUnitsByPartitionFiltersAndStorages(businessObjectFormatKey, partitionFilters, DATA_VERSION, null, Arrays.asList(storageName),
+                        null, null, SELECT_ONLY_AVAILABLE_STORAGE_UNITS));
+            });
+
+            // Validate that all the storage units are returned in the same order as when the queries run one after another.
+            assertEquals(storageUnitIds.size(), resultStorageUnitIds.size());
+            assertEquals(new HashSet<>(storageUnitIds), new HashSet<>(resultStorageUnitIds));
+
+            Map<String, Object> overrideMap = new HashMap<>();
+            overrideMap.put(ConfigurationValue.READ_ONLY_QUERY_THREAD_COUNT.getKey(), 1);
+            modifyPropertySourceInEnvironment(overrideMap);
+
+            try
+            {
+                assertEquals(resultStorageUnitIds, readOnlyTransactionTemplate.execute(status -> {
+                    assertFalse(readOnlyQueryExecutor.isConcurrentExecutionAllowed());
+                    return getStorageUnitIds(storageUnitDao
+                        .getStorageUnitsByPartitionFiltersAndStorages(businessObjectFormatKey, partitionFilters, DATA_VERSION, null, Arrays.asList(storageName),
+                            null, null, SELECT_ONLY_AVAILABLE_STORAGE_UNITS));
+                }));
+            }
+            finally
+            {
+                restorePropertySourceInEnvironment();
+            }
+        }
+        finally
+        {
+            transactionTemplate.execute(status -> {
+                for (Integer storageUnitId : storageUnitIds)
+                {
+                    herdDao.delete(herdDao.findById(StorageUnitEntity.class, storageUnitId).getBusinessObjectData());
+                }
+                herdDao.delete(businessObjectFormatDao.getBusinessObjectFormatByAltKey(businessObjectFormatKey));
+                herdDao.delete(businessObjectDefinitionDao.getBusinessObjectDefinitionByKey(namespace, businessObjectDefinitionName));
+                herdDao.delete(namespaceDao.getNamespaceByCd(namespace));
+                herdDao.delete(dataProviderDao.getDataProviderByName(dataProviderName));
+                herdDao.delete(fileTypeDao.getFileTypeByCode(fileType));
+                herdDao.delete(storageDao.getStorageByName(storageName));
+                return null;
+            });
+        }
+    }
+
     @Test
     public void testGetStorageUnitsByPartitionFiltersAndStoragesNotEnabledStorageUnitStatus()
     {
@@ -324,4 +492,14 @@ public class StorageUnitDaoTest extends AbstractDaoTest
         // Validate the results.
         assertEquals(Arrays.asList(enabledStorageUnitEntity, disabledStorageUnitEntity), resultStorageUnitEntities);
     }
+
+    private List<Integer> getStorageUnitIds(List<StorageUnitEntity> storageUnitEntities)
+    {
+        List<Integer> storageUnitIds = new ArrayList<>();
+        for (StorageUnitEntity storageUnitEntity : storageUnitEntities)
+        {
+            storageUnitIds.add(storageUnitEntity.getId());
+        }
+        return storageUnitIds;
+    }
 }
@@ -16,6 +16,7 @@
 package org.finra.herd.dao;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -150,6 +151,28 @@ public class StorageUnitNotificationRegistrationDaoTest extends AbstractDaoTest
         assertEquals(Arrays.asList(storageUnitNotificationRegistrationEntity), result);
     }
 
+    @Test
+    public void testGetStorageUnitNotificationRegistrationsByStatus()
+    {
+        // Create and persist an enabled and a disabled storage unit notification registration entities.
+        StorageUnitNotificationRegistrationEntity enabledNotificationRegistrationEntity = notificationRegistrationDaoTestHelper
+            .createStorageUnitNotificationRegistrationEntity(new NotificationRegistrationKey(NAMESPACE, NOTIFICATION_NAME), NOTIFICATION_EVENT_TYPE,
+                BDEF_NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, FORMAT_VERSION, STORAGE_NAME, STORAGE_UNIT_STATUS, STORAGE_UNIT_STATUS_2,
+                notificationRegistrationDaoTestHelper.getTestJobActions(), NotificationRegistrationStatusEntity.ENABLED);
+        StorageUnitNotificationRegistrationEntity disabledNotificationRegistrationEntity = notificationRegistrationDaoTestHelper
+            .createStorageUnitNotificationRegistrationEntity(new NotificationRegistrationKey(NAMESPACE, NOTIFICATION_NAME_2), NOTIFICATION_EVENT_TYPE,
+                BDEF_NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, FORMAT_VERSION, STORAGE_NAME, STORAGE_UNIT_STATUS, STORAGE_UNIT_STATUS_2,
+                notificationRegistrationDaoTestHelper.getTestJobActions(), NotificationRegistrationStatusEntity.DISABLED);
+
+        // Retrieve the enabled storage unit notification registrations using a lower case status.
+        List<StorageUnitNotificationRegistrationEntity> result =
+            storageUnitNotificationRegistrationDao.getStorageUnitNotificationRegistrationsByStatus(NotificationRegistrationStatusEntity.ENABLED.toLowerCase());
+
+        // Validate the results.
+        assertTrue(result.contains(enabledNotificationRegistrationEntity));
+        assertFalse(result.contains(disabledNotificationRegistrationEntity));
+    }
+
     @Test
     public void testGetStorageUnitNotificationRegistrationsInvalidInputs()
     {
@@ -0,0 +1,192 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.dao.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.amazonaws.services.ec2.model.SpotPrice;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+import org.finra.herd.core.helper.ConfigurationHelper;
+import org.finra.herd.dao.Ec2Dao;
+import org.finra.herd.dao.OnDemandPriceDao;
+import org.finra.herd.model.dto.AwsParamsDto;
+import org.finra.herd.model.dto.ConfigurationValue;
+import org.finra.herd.model.jpa.OnDemandPriceEntity;
+
+/**
+ * This class tests functionality within the EmrPriceSnapshotHelper.
+ */
+public class EmrPriceSnapshotHelperTest
+{
+    private static final String AVAILABILITY_ZONE = "us-east-1a";
+
+    private static final String REGION_NAME = "us-east-1";
+
+    private static final String INSTANCE_TYPE = "m1.large";
+
+    private static final String INSTANCE_TYPE_2 = "m1.xlarge";
+
+    private static final String INSTANCE_TYPE_NOT_FOUND = "I_DO_NOT_EXIST";
+
+    private static final Set<String> INSTANCE_TYPES = new HashSet<>(Arrays.asList(INSTANCE_TYPE, INSTANCE_TYPE_2));
+
+    @Mock
+    private AwsHelper awsHelper;
+
+    @Mock
+    private ConfigurationHelper configurationHelper;
+
+    @Mock
+    private Ec2Dao ec2Dao;
+
+    @InjectMocks
+    private EmrPriceSnapshotHelper emrPriceSnapshotHelper;
+
+    @Mock
+    private HerdStringHelper herdStringHelper;
+
+    @Mock
+    private OnDemandPriceDao onDemandPriceDao;
+
+    private final AwsParamsDto awsParamsDto = new AwsParamsDto();
+
+    @Before
+    public void before()
+    {
+        initMocks(this);
+
+        when(awsHelper.getAwsParamsDto()).thenReturn(awsParamsDto);
+        when(herdStringHelper.getDelimitedConfigurationValue(ConfigurationValue.EMR_SPOT_PRICE_HISTORY_PRODUCT_DESCRIPTIONS))
+            .thenReturn(Collections.emptyList());
+        when(ec2Dao.getLatestSpotPrices(eq(AVAILABILITY_ZONE), any(), any(), eq(awsParamsDto)))
+            .thenReturn(Arrays.asList(new SpotPrice().withInstanceType(INSTANCE_TYPE).withSpotPrice("0.05"),
+                new SpotPrice().withInstanceType(INSTANCE_TYPE_2).withSpotPrice("0.10")));
+        when(onDemandPriceDao.getOnDemandPrice(REGION_NAME, INSTANCE_TYPE)).thenReturn(createOnDemandPriceEntity("1.00"));
+        when(onDemandPriceDao.getOnDemandPrice(REGION_NAME, INSTANCE_TYPE_2)).thenReturn(createOnDemandPriceEntity("2.00"));
+    }
+
+    @Test
+    public void testGetPricesServedFromSnapshot()
+    {
+        setMaxAgeSeconds(300);
+
+        Map<String, BigDecimal> expectedSpotPrices = new HashMap<>();
+        expectedSpotPrices.put(INSTANCE_TYPE, new BigDecimal("0.05"));
+        expectedSpotPrices.put(INSTANCE_TYPE_2, new BigDecimal("0.10"));
+
+        Map<String, BigDecimal> expectedOnDemandPrices = new HashMap<>();
+        expectedOnDemandPrices.put(INSTANCE_TYPE, new BigDecimal("1.00"));
+        expectedOnDemandPrices.put(INSTANCE_TYPE_2, new BigDecimal("2.00"));
+
+        // Validate that the prices are only loaded by the first call.
+        for (int i = 0; i < 2; i++)
+        {
+            assertEquals(expectedSpotPrices, emrPriceSnapshotHelper.getSpotPrices(AVAILABILITY_ZONE, INSTANCE_TYPES));
+            assertEquals(expectedOnDemandPrices, emrPriceSnapshotHelper.getOnDemandPrices(REGION_NAME, INSTANCE_TYPES));
+        }
+
+        verify(ec2Dao).getLatestSpotPrices(AVAILABILITY_ZONE, INSTANCE_TYPES, Collections.emptyList(), awsParamsDto);
+        verify(onDemandPriceDao).getOnDemandPrice(REGION_NAME, INSTANCE_TYPE);
+        verify(onDemandPriceDao).getOnDemandPrice(REGION_NAME, INSTANCE_TYPE_2);
+        verifyNoMoreInteractions(ec2Dao, onDemandPriceDao);
+    }
+
+    @Test
+    public void testGetPricesNotFoundNotCached()
+    {
+        setMaxAgeSeconds(300);
+
+        Set<String> instanceTypes = new HashSet<>(Arrays.asList(INSTANCE_TYPE, INSTANCE_TYPE_NOT_FOUND));
+
+        // Validate that a missing price is looked up again by each call.
+        for (int i = 0; i < 2; i++)
+        {
+            assertEquals(Collections.singletonMap(INSTANCE_TYPE, new BigDecimal("1.00")),
+                emrPriceSnapshotHelper.getOnDemandPrices(REGION_NAME, instanceTypes));
+        }
+
+        verify(onDemandPriceDao).getOnDemandPrice(REGION_NAME, INSTANCE_TYPE);
+        verify(onDemandPriceDao, times(2)).getOnDemandPrice(REGION_NAME, INSTANCE_TYPE_NOT_FOUND);
+        verifyNoMoreInteractions(onDemandPriceDao);
+    }
+
+    @Test
+    public void testRefreshPrices() throws Exception
+    {
+        setMaxAgeSeconds(1);
+
+        emrPriceSnapshotHelper.getOnDemandPrices(REGION_NAME, Collections.singleton(INSTANCE_TYPE));
+
+        // Wait for half of the maximum age, so the requested price gets reloaded by the refresh.
+        Thread.sleep(600);
+        emrPriceSnapshotHelper.refreshPrices();
+        verify(onDemandPriceDao, times(2)).getOnDemandPrice(REGION_NAME, INSTANCE_TYPE);
+
+        // The reloaded price was not requested, so the next refresh drops it and the next call loads it again.
+        Thread.sleep(600);
+        emrPriceSnapshotHelper.refreshPrices();
+        emrPriceSnapshotHelper.getOnDemandPrices(REGION_NAME, Collections.singleton(INSTANCE_TYPE));
+        verify(onDemandPriceDao, times(3)).getOnDemandPrice(REGION_NAME, INSTANCE_TYPE);
+        verifyNoMoreInteractions(onDemandPriceDao);
+    }
+
+    @Test
+    public void testGetPricesSnapshotDisabled()
+    {
+        setMaxAgeSeconds(0);
+
+        // Validate that the prices are loaded by each call.
+        for (int i = 0; i < 2; i++)
+        {
+            emrPriceSnapshotHelper.getSpotPrices(AVAILABILITY_ZONE, INSTANCE_TYPES);
+        }
+
+        verify(ec2Dao, times(2)).getLatestSpotPrices(anyString(), any(), any(), any());
+        verifyNoMoreInteractions(ec2Dao);
+    }
+
+    private OnDemandPriceEntity createOnDemandPriceEntity(String value)
+    {
+        OnDemandPriceEntity onDemandPriceEntity = new OnDemandPriceEntity();
+        onDemandPriceEntity.setValue(new BigDecimal(value));
+        return onDemandPriceEntity;
+    }
+
+    private void setMaxAgeSeconds(int maxAgeSeconds)
+    {
+        when(configurationHelper.getProperty(ConfigurationValue.EMR_PRICE_SNAPSHOT_MAX_AGE_SECONDS, Integer.class)).thenReturn(maxAgeSeconds);
+    }
+}
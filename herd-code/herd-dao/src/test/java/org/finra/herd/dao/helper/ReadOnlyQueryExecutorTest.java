@@ -0,0 +1,201 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.dao.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import javax.persistence.EntityManager;
+
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.finra.herd.dao.AbstractDaoTest;
+import org.finra.herd.model.dto.ConfigurationValue;
+
+/**
+ * This class tests functionality within the ReadOnlyQueryExecutor class.
+ */
+public class ReadOnlyQueryExecutorTest extends AbstractDaoTest
+{
+    @Autowired
+    private ReadOnlyQueryExecutor readOnlyQueryExecutor;
+
+    @Test
+    public void testExecuteAll()
+    {
+        // Create queries that complete in the reverse order of the list.
+        List<Function<EntityManager, Integer>> queries = new ArrayList<>();
+        for (int i = 0; i < 5; i++)
+        {
+            int index = i;
+            queries.add(queryEntityManager -> {
+                // Only the first query runs in the calling thread on its entity manager.
+                if (index == 0)
+                {
+                    assertSame(entityManager, queryEntityManager);
+                }
+                else
+                {
+                    assertNotSame(entityManager, queryEntityManager);
+                }
+                assertNotNull(queryEntityManager.createQuery("select count(namespace) from NamespaceEntity namespace").getSingleResult());
+                sleep(50L * (5 - index));
+                return index;
+            });
+        }
+
+        // Validate that the results are returned in the order of the queries.
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), readOnlyQueryExecutor.executeAll(entityManager, queries));
+    }
+
+    @Test
+    public void testExecuteAllQueryFailed()
+    {
+        List<Function<EntityManager, Integer>> queries = new ArrayList<>();
+        queries.add(queryEntityManager -> 0);
+        queries.add(queryEntityManager -> {
+            throw new IllegalArgumentException(STRING_VALUE);
+        });
+
+        try
+        {
+            readOnlyQueryExecutor.executeAll(entityManager, queries);
+            fail();
+        }
+        catch (IllegalArgumentException e)
+        {
+            assertEquals(STRING_VALUE, e.getMessage());
+        }
+    }
+
+    @Test
+    public void testExecuteAllQueueFull()
+    {
+        // Create more queries than the thread pool can run and queue, where the queries running on the thread pool wait for the first query to complete.
+        int threadCount = configurationHelper.getProperty(ConfigurationValue.READ_ONLY_QUERY_THREAD_COUNT, Integer.class);
+        int queueCapacity = configurationHelper.getProperty(ConfigurationValue.READ_ONLY_QUERY_QUEUE_CAPACITY, Integer.class);
+        CountDownLatch firstQueryCompleted = new CountDownLatch(1);
+        List<Function<EntityManager, Boolean>> queries = new ArrayList<>();
+        queries.add(queryEntityManager -> {
+            firstQueryCompleted.countDown();
+            return queryEntityManager == entityManager;
+        });
+        for (int i = 0; i < threadCount + queueCapacity + 1; i++)
+        {
+            queries.add(queryEntityManager -> {
+                if (queryEntityManager != entityManager)
+                {
+                    await(firstQueryCompleted);
+                }
+                return queryEntityManager == entityManager;
+            });
+        }
+
+        // Validate that the first query and the queries that did not fit in the queue ran in the calling thread.
+        List<Boolean> results = readOnlyQueryExecutor.executeAll(entityManager, queries);
+        assertEquals(queries.size(), results.size());
+        assertTrue(results.get(0));
+        assertTrue(results.get(results.size() - 1));
+    }
+
+    @Test
+    public void testExecuteAllTimeout() throws Exception
+    {
+        List<Function<EntityManager, Integer>> queries = new ArrayList<>();
+        queries.add(queryEntityManager -> 0);
+        queries.add(queryEntityManager -> {
+            sleep(5000L);
+            return 1;
+        });
+
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.READ_ONLY_QUERY_TIMEOUT_SECONDS.getKey(), 1);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            readOnlyQueryExecutor.executeAll(entityManager, queries);
+            fail();
+        }
+        catch (IllegalStateException e)
+        {
+            assertEquals("Read-only queries did not complete within 1 seconds.", e.getMessage());
+        }
+        finally
+        {
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    @Test
+    public void testIsConcurrentExecutionAllowed() throws Exception
+    {
+        // Queries never run concurrently within a read-write transaction, since they would not see its changes.
+        assertFalse(readOnlyQueryExecutor.isConcurrentExecutionAllowed());
+
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.READ_ONLY_QUERY_THREAD_COUNT.getKey(), 1);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            assertFalse(readOnlyQueryExecutor.isConcurrentExecutionAllowed());
+        }
+        finally
+        {
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    private void await(CountDownLatch countDownLatch)
+    {
+        try
+        {
+            countDownLatch.await(10, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void sleep(long millis)
+    {
+        try
+        {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -16,6 +16,9 @@
 package org.finra.herd.dao.helper;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import javax.xml.bind.JAXBException;
 
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -43,12 +46,35 @@ public class XmlHelperTest extends AbstractDaoTest
         assertEquals(getTestXml().replaceAll("\\s+",""), xmlHelper.objectToXml(getTestBuildInformation(), true).replaceAll("\\s+",""));
     }
 
+    @Test
+    public void testObjectToXmlPooledMarshaller() throws Exception
+    {
+        // Validate that a pooled marshaller previously used with the formatted output does not format the XML.
+        xmlHelper.objectToXml(getTestBuildInformation(), true);
+        assertEquals(getTestXml(), xmlHelper.objectToXml(getTestBuildInformation()));
+    }
+
     @Test
     public void testUnmarshallXmlToObject() throws Exception
     {
         assertEquals(getTestBuildInformation(), xmlHelper.unmarshallXmlToObject(BuildInformation.class, getTestXml()));
     }
 
+    @Test
+    public void testUnmarshallXmlToObjectInvalidXml() throws Exception
+    {
+        try
+        {
+            xmlHelper.unmarshallXmlToObject(BuildInformation.class, "<buildInformation>");
+            fail();
+        }
+        catch (JAXBException e)
+        {
+            // Validate that a failed unmarshalling does not affect the subsequent ones.
+            assertEquals(getTestBuildInformation(), xmlHelper.unmarshallXmlToObject(BuildInformation.class, getTestXml()));
+        }
+    }
+
     private BuildInformation getTestBuildInformation()
     {
         return new BuildInformation(STRING_VALUE, STRING_VALUE, STRING_VALUE, STRING_VALUE);
@@ -53,6 +53,12 @@ public class MockJdbcOperations implements JdbcOperations
      */
     public static final String CASE_3_SQL = "case3";
 
+    /**
+     * Case4:
+     * Returns a result set with values that need to be escaped in CSV format
+     */
+    public static final String CASE_4_SQL = "case4";
+
     @Override
     public int update(JdbcTemplate jdbcTemplate, String sql)
     {
@@ -80,6 +86,8 @@ public class MockJdbcOperations implements JdbcOperations
      * - Runs extractor on a result set which has 3 columns [COL1, COL2, COL3] and 2 rows [A, B, C] and [D, E, F]
      * CASE_2:
      * - Throws a DataIntegrityViolationException
+     * CASE_4:
+     * - Runs extractor on a result set which has 3 columns [COL1, COL2, COL3] and 1 row [A,1, B "2", null]
      */
     @SuppressWarnings("resource")
     @Override
@@ -104,6 +112,12 @@ public class MockJdbcOperations implements JdbcOperations
         {
             throw new DataIntegrityViolationException("test", new SQLException("test DataIntegrityViolationException cause"));
         }
+        else if (CASE_4_SQL.equals(sql))
+        {
+            mockResultSetMetaData.setColumnNames(Arrays.asList("COL1", "COL2", "COL3"));
+
+            rows.add(Arrays.asList("A,1", "B \"2\"", null));
+        }
 
         try
         {
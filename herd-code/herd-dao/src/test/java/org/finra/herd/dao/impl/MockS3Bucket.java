@@ -15,6 +15,7 @@
 */
 package org.finra.herd.dao.impl;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -31,12 +32,12 @@ public class MockS3Bucket
     /**
      * Objects registered against this bucket.
      */
-    private Map<String, MockS3Object> objects = new HashMap<>();
+    private Map<String, MockS3Object> objects = Collections.synchronizedMap(new HashMap<>());
 
     /**
      * Versions registered against this bucket.
      */
-    private Map<String, MockS3Object> versions = new HashMap<>();
+    private Map<String, MockS3Object> versions = Collections.synchronizedMap(new HashMap<>());
 
 
     public String getName()
@@ -26,6 +26,8 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -152,9 +154,9 @@ public class MockS3OperationsImpl implements S3Operations
     public static final String MOCK_S3_BUCKET_NAME_INTERNAL_ERROR = "MOCK_S3_BUCKET_NAME_INTERNAL_ERROR";
 
     /**
-     * The buckets that are available in-memory.
+     * The buckets that are available in-memory. This map is accessed concurrently by the parallel S3 DAO operations.
      */
-    private Map<String, MockS3Bucket> mockS3Buckets = new HashMap<>();
+    private Map<String, MockS3Bucket> mockS3Buckets = Collections.synchronizedMap(new HashMap<>());
 
     @Override
     public ObjectMetadata getObjectMetadata(String sourceBucketName, String filePath, AmazonS3Client s3Client)
@@ -470,7 +472,8 @@ public class MockS3OperationsImpl implements S3Operations
 
     /**
      * Returns a list of objects. If the bucket does not exist, returns a listing with an empty list. If a prefix is specified in listObjectsRequest, only keys
-     * starting with the prefix will be returned.
+     * starting with the prefix will be returned. If a delimiter is specified, the keys are listed in the key order and the keys that contain the delimiter
+     * after the prefix are rolled up into common prefixes.
      */
     @Override
     public ObjectListing listObjects(ListObjectsRequest listObjectsRequest, AmazonS3Client s3Client)
@@ -492,10 +495,29 @@ public class MockS3OperationsImpl implements S3Operations
         MockS3Bucket mockS3Bucket = mockS3Buckets.get(bucketName);
         if (mockS3Bucket != null)
         {
-            for (MockS3Object mockS3Object : mockS3Bucket.getObjects().values())
+            // When a delimiter is specified, list the keys in the key order as S3 does, so the common prefixes and the objects can be merged.
+            String prefix = listObjectsRequest.getPrefix() == null ? "" : listObjectsRequest.getPrefix();
+            String delimiter = listObjectsRequest.getDelimiter();
+            List<MockS3Object> mockS3Objects = new ArrayList<>(mockS3Bucket.getObjects().values());
+            if (delimiter != null)
+            {
+                mockS3Objects.sort(Comparator.comparing(MockS3Object::getKey));
+            }
+
+            for (MockS3Object mockS3Object : mockS3Objects)
             {
                 String s3ObjectKey = mockS3Object.getKey();
-                if (listObjectsRequest.getPrefix() == null || s3ObjectKey.startsWith(listObjectsRequest.getPrefix()))
+                int delimiterIndex = delimiter == null ? -1 : s3ObjectKey.indexOf(delimiter, prefix.length());
+                if (s3ObjectKey.startsWith(prefix) && delimiterIndex >= 0)
+                {
+                    // Group the keys that contain the delimiter after the prefix into a common prefix.
+                    String commonPrefix = s3ObjectKey.substring(0, delimiterIndex + delimiter.length());
+                    if (!objectListing.getCommonPrefixes().contains(commonPrefix))
+                    {
+                        objectListing.getCommonPrefixes().add(commonPrefix);
+                    }
+                }
+                else if (s3ObjectKey.startsWith(prefix))
                 {
                     S3ObjectSummary s3ObjectSummary = new S3ObjectSummary();
                     s3ObjectSummary.setBucketName(bucketName);
@@ -643,15 +665,11 @@ public class MockS3OperationsImpl implements S3Operations
      */
     private MockS3Bucket getOrCreateBucket(String s3BucketName)
     {
-        MockS3Bucket mockS3Bucket = mockS3Buckets.get(s3BucketName);
-
-        if (mockS3Bucket == null)
-        {
-            mockS3Bucket = new MockS3Bucket();
-            mockS3Bucket.setName(s3BucketName);
-            mockS3Buckets.put(s3BucketName, mockS3Bucket);
-        }
-        return mockS3Bucket;
+        return mockS3Buckets.computeIfAbsent(s3BucketName, bucketName -> {
+            MockS3Bucket mockS3Bucket = new MockS3Bucket();
+            mockS3Bucket.setName(bucketName);
+            return mockS3Bucket;
+        });
     }
 
     /**
@@ -15,6 +15,9 @@
 */
 package org.finra.herd.dao.impl;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.ClientConfiguration;
 
@@ -25,6 +28,8 @@ import org.finra.herd.dao.SqsOperations;
  */
 public class MockSqsOperationsImpl implements SqsOperations
 {
+    public static final String MOCK_SQS_QUEUE_FIRST_MESSAGE_REJECTED_NAME = "mock_sqs_queue_first_message_rejected_name";
+
     public static final String MOCK_SQS_QUEUE_NOT_FOUND_NAME = "mock_sqs_queue_not_found_name";
 
     @Override
@@ -46,4 +51,24 @@ public class MockSqsOperationsImpl implements SqsOperations
 
         // Nothing else to do in the normal case since our unit tests aren't reading messages once they have been published.
     }
+
+    @Override
+    public List<Integer> sendSqsTextMessages(ClientConfiguration client, String queueName, List<String> messageTexts)
+    {
+        // Report no sent message for a specific queue name for testing purposes, as when a batch result fails its first entry.
+        List<Integer> sentMessageIndexes = new ArrayList<>();
+        if (queueName.equals(MOCK_SQS_QUEUE_FIRST_MESSAGE_REJECTED_NAME))
+        {
+            return sentMessageIndexes;
+        }
+
+        // Send the messages one by one, so the same test queue names trigger the same exceptions.
+        for (int i = 0; i < messageTexts.size(); i++)
+        {
+            sendSqsTextMessage(client, queueName, messageTexts.get(i));
+            sentMessageIndexes.add(i);
+        }
+
+        return sentMessageIndexes;
+    }
 }
@@ -40,6 +40,11 @@ public enum ConfigurationValue
      */
     SHOW_SQL("hibernate.show_sql", "false"),
 
+    /**
+     * The maximum number of statements Hibernate sends to the database in a single JDBC batch. The default is 50.
+     */
+    HIBERNATE_JDBC_BATCH_SIZE("hibernate.jdbc.batch_size", "50"),
+
     /**
      * The optional herd data source JNDI name. The default is herdDB.
      */
@@ -110,6 +115,46 @@ public enum ConfigurationValue
      */
     S3_ENDPOINT("s3.endpoint", null),
 
+    /**
+     * The maximum number of long-lived S3 clients kept by the S3 client registry. A value of 0 disables client pooling so a new S3 client is created and shut
+     * down for every S3 operation. The default is 50 clients.
+     */
+    S3_CLIENT_REGISTRY_MAX_SIZE("s3.client.registry.max.size", 50),
+
+    /**
+     * The number of seconds a pooled S3 client can stay unused before it gets evicted from the S3 client registry and shut down. The default is 600 seconds.
+     */
+    S3_CLIENT_REGISTRY_IDLE_TIMEOUT_SECS("s3.client.registry.idle.timeout.secs", 600),
+
+    /**
+     * The maximum number of S3 keys processed concurrently when restoring Glacier objects or checking their restore status. The default is 10 threads.
+     */
+    S3_RESTORE_THREAD_COUNT("s3.restore.thread.count", 10),
+
+    /**
+     * The maximum number of S3 requests per second issued when restoring Glacier objects or checking their restore status. A value of 0 disables the request
+     * rate cap. The default is 100 requests per second.
+     */
+    S3_RESTORE_MAX_REQUESTS_PER_SECOND("s3.restore.max.requests.per.second", 100),
+
+    /**
+     * The number of threads sending multi-object delete requests in parallel when deleting a list of S3 keys or an S3 directory. A value of 1 sends the
+     * delete requests one after another from the calling thread. The default is 5 threads.
+     */
+    S3_DELETE_THREAD_COUNT("s3.delete.thread.count", 5),
+
+    /**
+     * The maximum number of multi-object delete batches of up to 1000 keys each that can wait for a delete thread. This bounds the memory used while an S3
+     * directory is listed and deleted at the same time. The default is 10 batches.
+     */
+    S3_DELETE_QUEUE_CAPACITY("s3.delete.queue.capacity", 10),
+
+    /**
+     * The number of threads in the pool shared by all S3 directory listings that list sub-directories in parallel when discovering storage files. A value of
+     * 1 lists the whole S3 directory from the calling thread. The default is 10 threads.
+     */
+    S3_LIST_DIRECTORY_THREAD_COUNT("s3.list.directory.thread.count", 10),
+
     /**
      * The HTTP proxy hostname. This is optional and there is no default.
      */
@@ -120,6 +165,27 @@ public enum ConfigurationValue
      */
     HTTP_PROXY_PORT("http.proxy.port", null),
 
+    /**
+     * The maximum number of pooled HTTP connections shared by the HTTP clients, e.g. the ones used by the uploader and downloader to call the registration
+     * server. The default is 20.
+     */
+    HTTP_CLIENT_CONNECTION_POOL_MAX_TOTAL("http.client.connection.pool.max.total", 20),
+
+    /**
+     * The maximum number of pooled HTTP connections per host shared by the HTTP clients. The default is 10.
+     */
+    HTTP_CLIENT_CONNECTION_POOL_MAX_PER_ROUTE("http.client.connection.pool.max.per.route", 10),
+
+    /**
+     * Indicates whether the HTTP clients gzip compress the content of their requests. The server must accept gzip encoded requests. The default is "false".
+     */
+    HTTP_CLIENT_REQUEST_COMPRESSION_ENABLED("http.client.request.compression.enabled", "false"),
+
+    /**
+     * Indicates whether the HTTP clients ask for gzip or deflate compressed responses and decompress them. The default is "true".
+     */
+    HTTP_CLIENT_RESPONSE_COMPRESSION_ENABLED("http.client.response.compression.enabled", "true"),
+
     /**
      * The token delimiter to use for Activiti job definition ID template. The default is the tilde character.
      */
@@ -177,6 +243,12 @@ public enum ConfigurationValue
      */
     JMS_PUBLISHING_JOB_CRON_EXPRESSION("jms.publishing.job.cron.expression", "0 0/5 * * * ?"),
 
+    /**
+     * The maximum number of JMS messages claimed from the database queue and published by "jmsPublishing" system job in a single transaction. The default is
+     * 100.
+     */
+    JMS_PUBLISHING_JOB_BATCH_SIZE("jms.publishing.job.batch.size", 100),
+
     /**
      * The cron expression to schedule "storagePolicySelector" system job.  Default is to run the system job every night at 2 AM.
      */
@@ -234,6 +306,12 @@ public enum ConfigurationValue
      */
     EMR_VALID_STATES("emr.aws.valid.states", "STARTING|BOOTSTRAPPING|RUNNING|WAITING"),
 
+    /**
+     * The time to live in seconds of the index of active EMR clusters by name shared across requests. A value of 0 disables the index, so each lookup lists
+     * the active clusters. The default is 30 seconds.
+     */
+    EMR_ACTIVE_CLUSTER_INDEX_TIME_TO_LIVE_SECONDS("emr.active.cluster.index.time.to.live.seconds", 30),
+
     /**
      * EMR Jar file that executes a shell script. The default is the path to the EMR script runner JAR.
      */
@@ -304,6 +382,12 @@ public enum ConfigurationValue
      */
     EMR_SPOT_PRICE_HISTORY_PRODUCT_DESCRIPTIONS("emr.spot.price.history.product.descriptions", null),
 
+    /**
+     * The maximum age in seconds of the spot and on-demand prices used to find the best price for an EMR cluster. Prices are refreshed in the background while
+     * they are in use. A value of 0 disables the price snapshot, so the prices are looked up for each EMR cluster. The default is 300 seconds.
+     */
+    EMR_PRICE_SNAPSHOT_MAX_AGE_SECONDS("emr.price.snapshot.max.age.seconds", 300),
+
     /**
      * S3 protocol for constructing an S3 URL. The default is the standard "s3" prefix.
      */
@@ -361,6 +445,23 @@ public enum ConfigurationValue
      */
     DB_IN_CLAUSE_CHUNK_SIZE("db.in.clause.chunk.size", 1000),
 
+    /**
+     * The number of threads running independent read-only queries concurrently, e.g. the chunks of partition filters used to select storage units. Queries
+     * only run concurrently within read-only transactions. A value of 1 runs the queries one after another in the calling thread. The default is 4 threads.
+     */
+    READ_ONLY_QUERY_THREAD_COUNT("read.only.query.thread.count", 4),
+
+    /**
+     * The maximum number of read-only queries waiting for a thread. The queries that do not fit in the queue run one after another in the calling thread. The
+     * default is 100 queries.
+     */
+    READ_ONLY_QUERY_QUEUE_CAPACITY("read.only.query.queue.capacity", 100),
+
+    /**
+     * The maximum time in seconds a caller waits for its read-only queries to complete. The default is 300 seconds.
+     */
+    READ_ONLY_QUERY_TIMEOUT_SECONDS("read.only.query.timeout.seconds", 300),
+
     /**
      * The thread pool core pool size. The default is 100.
      */
@@ -423,9 +524,10 @@ public enum ConfigurationValue
 
     /**
      * JMS listener concurrency limits for the storage policy processor JMS message listener service via a "lower-upper" String, e.g. "5-10". Refer to
-     * DefaultMessageListenerContainer#setConcurrency for details. Default is "1-1".
+     * DefaultMessageListenerContainer#setConcurrency for details. Each listener thread waits for its storage policy transition to be finalized, so by default
+     * the upper limit is the total number of transfer, large transfer and finalize threads, e.g. "1-7" with the default thread counts.
      */
-    STORAGE_POLICY_PROCESSOR_JMS_LISTENER_POOL_CONCURRENCY_LIMITS("storage.policy.processor.jms.listener.pool.concurrency.limits", "1-1"),
+    STORAGE_POLICY_PROCESSOR_JMS_LISTENER_POOL_CONCURRENCY_LIMITS("storage.policy.processor.jms.listener.pool.concurrency.limits", null),
 
     /**
      * The maximum size in GB (gigabytes) of a business object data instance allowed to be processed (transitioned) by the storage policy processor.  The
@@ -433,11 +535,61 @@ public enum ConfigurationValue
      */
     STORAGE_POLICY_PROCESSOR_BDATA_SIZE_THRESHOLD_GB("storage.policy.processor.business.object.data.size.threshold.gigabytes", 10),
 
+    /**
+     * The number of threads transferring S3 data of business object data instances below the large transfer size threshold. The default is 4 threads.
+     */
+    STORAGE_POLICY_PROCESSOR_TRANSFER_THREAD_COUNT("storage.policy.processor.transfer.thread.count", 4),
+
+    /**
+     * The number of threads transferring S3 data of business object data instances at or above the large transfer size threshold. The default is 1 thread.
+     */
+    STORAGE_POLICY_PROCESSOR_LARGE_TRANSFER_THREAD_COUNT("storage.policy.processor.large.transfer.thread.count", 1),
+
+    /**
+     * The total storage files size in MB (megabytes) at or above which a business object data instance is transferred by the large transfer threads, so large
+     * transfers do not block small ones. The default is 1024 MB.
+     */
+    STORAGE_POLICY_PROCESSOR_LARGE_TRANSFER_SIZE_THRESHOLD_MB("storage.policy.processor.large.transfer.size.threshold.megabytes", 1024),
+
+    /**
+     * The number of threads completing storage policy transitions in the database once their S3 data is transferred. The default is 2 threads.
+     */
+    STORAGE_POLICY_PROCESSOR_FINALIZE_THREAD_COUNT("storage.policy.processor.finalize.thread.count", 2),
+
+    /**
+     * The maximum number of storage policy transitions waiting for each of the storage policy processor stages. The storage policy processor JMS message
+     * listener blocks while the queue is full. The default is 10 transitions.
+     */
+    STORAGE_POLICY_PROCESSOR_STAGE_QUEUE_CAPACITY("storage.policy.processor.stage.queue.capacity", 10),
+
+    /**
+     * The maximum number of concurrent S3 data transfers from a single source storage. The default is 4 transfers.
+     */
+    STORAGE_POLICY_PROCESSOR_STORAGE_CONCURRENCY_LIMIT("storage.policy.processor.storage.concurrency.limit", 4),
+
+    /**
+     * The maximum time in seconds the storage policy processor waits on shutdown for the queued and running storage policy transitions to complete. The
+     * default is 300 seconds.
+     */
+    STORAGE_POLICY_PROCESSOR_SHUTDOWN_TIMEOUT_SECONDS("storage.policy.processor.shutdown.timeout.seconds", 300),
+
     /**
      * The pagination size for the query that returns storage file paths. The default is 100000 results.
      */
     STORAGE_FILE_PATHS_QUERY_PAGINATION_SIZE("storage.file.paths.query.pagination.size", 100000),
 
+    /**
+     * The maximum number of storage units processed at a time when generating Hive DDL. Storage file paths are only loaded for a single chunk of storage units
+     * at a time. The default is 1000 storage units.
+     */
+    HIVE_DDL_STORAGE_UNIT_CHUNK_SIZE("hive.ddl.storage.unit.chunk.size", 1000),
+
+    /**
+     * The number of storage files registered before they are flushed to the database and removed from the persistence context. The default is 1000 storage
+     * files.
+     */
+    STORAGE_FILE_REGISTRATION_FLUSH_SIZE("storage.file.registration.flush.size", 1000),
+
     /**
      * The optional Log4J override configuration.
      */
@@ -496,6 +648,19 @@ public enum ConfigurationValue
      */
     USER_NAMESPACE_AUTHORIZATION_ENABLED("user.namespace.authorization.enabled", "false"),
 
+    /**
+     * The interval in seconds between checks of the user namespace authorizations generation number. Cached user namespace authorizations are dropped once
+     * the generation number changes, so this bounds the delay for user namespace authorization changes made by other nodes. A value of 0 disables the cache
+     * of user namespace authorizations. The default is 10 seconds.
+     */
+    USER_NAMESPACE_AUTHORIZATION_CACHE_GENERATION_CHECK_INTERVAL_SECONDS("user.namespace.authorization.cache.generation.check.interval.seconds", 10),
+
+    /**
+     * The maximum age in seconds of cached user namespace authorizations. It bounds the delay for changes made directly in the database, which do not change
+     * the user namespace authorizations generation number. The default is 300 seconds.
+     */
+    USER_NAMESPACE_AUTHORIZATION_CACHE_TIME_TO_LIVE_SECONDS("user.namespace.authorization.cache.time.to.live.seconds", 300),
+
     /**
      * Indicates whether the namespace IAM role authorization is enabled
      */
@@ -570,6 +735,13 @@ public enum ConfigurationValue
      */
     HERD_CACHE_MEMORY_STORE_EVICTION_POLICY("herd.cache.memory.store.eviction.policy", "LRU"),
 
+    /**
+     * The maximum age in seconds of the in-memory index of enabled notification registrations used to skip notification events that match no registration.
+     * The index is also reloaded whenever the notification registrations generation number changes, so this only bounds the delay for changes made directly
+     * in the database. A value of 0 disables the index. The default is 60 seconds.
+     */
+    NOTIFICATION_REGISTRATION_INDEX_TIME_TO_LIVE_SECONDS("notification.registration.index.time.to.live.seconds", 60),
+
     /**
      * The default value for EC2 node IAM profile name when creating EMR cluster.
      */
@@ -590,6 +762,45 @@ public enum ConfigurationValue
      */
     JDBC_RESULT_MAX_ROWS("jdbc.result.max.rows", null),
 
+    /**
+     * The maximum number of pooled connections per JDBC URL and user name used by the JDBC service. A value of 0 disables connection pooling, so every
+     * execution opens its own connections. The default is 8.
+     */
+    JDBC_CONNECTION_POOL_MAX_TOTAL("jdbc.connection.pool.max.total", 8),
+
+    /**
+     * The time in seconds after which an idle pooled connection of the JDBC service is closed. The default is 300 seconds.
+     */
+    JDBC_CONNECTION_POOL_IDLE_TIMEOUT_SECONDS("jdbc.connection.pool.idle.timeout.seconds", 300),
+
+    /**
+     * The maximum time in seconds the JDBC service waits for a pooled connection when all connections of the pool are in use. The default is 60 seconds.
+     */
+    JDBC_CONNECTION_POOL_MAX_WAIT_SECONDS("jdbc.connection.pool.max.wait.seconds", 60),
+
+    /**
+     * The maximum number of JDBC URL and user name combinations the JDBC service keeps connection pools for. The pool used least recently is closed when the
+     * limit is reached. The default is 20.
+     */
+    JDBC_CONNECTION_POOL_MAX_COUNT("jdbc.connection.pool.max.count", 20),
+
+    /**
+     * The optional SQL statement the JDBC service runs on every new pooled connection, for example to set up the session state of the connection.
+     */
+    JDBC_CONNECTION_POOL_INIT_SQL("jdbc.connection.pool.init.sql", null),
+
+    /**
+     * The optional SQL query the JDBC service uses to validate a pooled connection before it is borrowed. When not set, the connection is validated by the
+     * JDBC driver.
+     */
+    JDBC_CONNECTION_POOL_VALIDATION_QUERY("jdbc.connection.pool.validation.query", null),
+
+    /**
+     * The pipe delimited names of the S3 buckets the JDBC service may upload query results to. The results are uploaded with the credentials of herd, so no
+     * bucket is allowed by default.
+     */
+    JDBC_RESULT_S3_BUCKET_NAMES("jdbc.result.s3.bucket.names", null),
+
     /**
      * The maximum number of records per page returned in business object data search results
      */
@@ -0,0 +1,92 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.model.dto;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A read-only list of partition filters that is the n-fold Cartesian product of the partition values of each partition column. Each partition filter is
+ * computed from its index when it is accessed, so the product is never materialized. The partition values of the last partition column vary the fastest.
+ */
+public class PartitionFilterCrossProduct extends AbstractList<List<String>> implements RandomAccess
+{
+    private final List<List<String>> partitionValuesByColumn;
+
+    private final int size;
+
+    /**
+     * Fully-initialising value constructor.
+     *
+     * @param partitionValuesByColumn the partition values of each partition column in the order of the partition columns
+     *
+     * @throws IllegalArgumentException if the number of partition filters exceeds the maximum size of a list
+     */
+    public PartitionFilterCrossProduct(List<List<String>> partitionValuesByColumn)
+    {
+        long productSize = 1;
+        for (List<String> partitionValues : partitionValuesByColumn)
+        {
+            productSize *= partitionValues.size();
+            if (productSize > Integer.MAX_VALUE)
+            {
+                throw new IllegalArgumentException("The number of partition filters exceeds the system limit of " + Integer.MAX_VALUE + ".");
+            }
+        }
+
+        this.partitionValuesByColumn = Collections.unmodifiableList(partitionValuesByColumn);
+        this.size = (int) productSize;
+    }
+
+    /**
+     * Gets the partition values of each partition column.
+     *
+     * @return the partition values of each partition column in the order of the partition columns
+     */
+    public List<List<String>> getPartitionValuesByColumn()
+    {
+        return partitionValuesByColumn;
+    }
+
+    @Override
+    public List<String> get(int index)
+    {
+        if (index < 0 || index >= size)
+        {
+            throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size));
+        }
+
+        String[] partitionFilter = new String[partitionValuesByColumn.size()];
+        int remainder = index;
+        for (int i = partitionValuesByColumn.size() - 1; i >= 0; i--)
+        {
+            List<String> partitionValues = partitionValuesByColumn.get(i);
+            partitionFilter[i] = partitionValues.get(remainder % partitionValues.size());
+            remainder /= partitionValues.size();
+        }
+
+        return Arrays.asList(partitionFilter);
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+}
@@ -228,6 +228,8 @@ public class SecurityFunctions
 
     public static final String FN_PARTITION_KEY_GROUPS_POST = "FN_PARTITION_KEY_GROUPS_POST";
 
+    public static final String FN_SERVICE_METHOD_METRICS_GET = "FN_SERVICE_METHOD_METRICS_GET";
+
     public static final String FN_STORAGES_ALL_GET = "FN_STORAGES_ALL_GET";
 
     public static final String FN_STORAGES_DELETE = "FN_STORAGES_DELETE";
@@ -0,0 +1,138 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.model.dto;
+
+import java.sql.Timestamp;
+
+import org.finra.herd.model.api.xml.BusinessObjectDataKey;
+
+/**
+ * A business object data instance matching a storage policy, identified by the business object data and storage policy IDs along with the business object data
+ * key. The business object data "created on" timestamp and ID also identify the position of the candidate in the order the candidates are selected in.
+ */
+public class StoragePolicySelectionCandidate
+{
+    /**
+     * Default no-arg constructor.
+     */
+    public StoragePolicySelectionCandidate()
+    {
+        super();
+    }
+
+    /**
+     * Fully-initialising value constructor.
+     *
+     * @param businessObjectDataId the business object data ID
+     * @param businessObjectDataCreatedOn the business object data "created on" timestamp
+     * @param storagePolicyId the storage policy ID
+     */
+    public StoragePolicySelectionCandidate(final Integer businessObjectDataId, final Timestamp businessObjectDataCreatedOn, final Integer storagePolicyId)
+    {
+        this.businessObjectDataId = businessObjectDataId;
+        this.businessObjectDataCreatedOn = businessObjectDataCreatedOn;
+        this.storagePolicyId = storagePolicyId;
+    }
+
+    /**
+     * Fully-initialising value constructor.
+     *
+     * @param businessObjectDataId the business object data ID
+     * @param businessObjectDataCreatedOn the business object data "created on" timestamp
+     * @param storagePolicyId the storage policy ID
+     * @param businessObjectDataKey the business object data key
+     */
+    public StoragePolicySelectionCandidate(final Integer businessObjectDataId, final Timestamp businessObjectDataCreatedOn, final Integer storagePolicyId,
+        final BusinessObjectDataKey businessObjectDataKey)
+    {
+        this(businessObjectDataId, businessObjectDataCreatedOn, storagePolicyId);
+        this.businessObjectDataKey = businessObjectDataKey;
+    }
+
+    /**
+     * The business object data ID.
+     */
+    private Integer businessObjectDataId;
+
+    /**
+     * The business object data "created on" timestamp.
+     */
+    private Timestamp businessObjectDataCreatedOn;
+
+    /**
+     * The storage policy ID.
+     */
+    private Integer storagePolicyId;
+
+    /**
+     * The business object data key.
+     */
+    private BusinessObjectDataKey businessObjectDataKey;
+
+    public Integer getBusinessObjectDataId()
+    {
+        return businessObjectDataId;
+    }
+
+    public void setBusinessObjectDataId(Integer businessObjectDataId)
+    {
+        this.businessObjectDataId = businessObjectDataId;
+    }
+
+    public Timestamp getBusinessObjectDataCreatedOn()
+    {
+        return businessObjectDataCreatedOn;
+    }
+
+    public void setBusinessObjectDataCreatedOn(Timestamp businessObjectDataCreatedOn)
+    {
+        this.businessObjectDataCreatedOn = businessObjectDataCreatedOn;
+    }
+
+    public Integer getStoragePolicyId()
+    {
+        return storagePolicyId;
+    }
+
+    public void setStoragePolicyId(Integer storagePolicyId)
+    {
+        this.storagePolicyId = storagePolicyId;
+    }
+
+    public BusinessObjectDataKey getBusinessObjectDataKey()
+    {
+        return businessObjectDataKey;
+    }
+
+    public void setBusinessObjectDataKey(BusinessObjectDataKey businessObjectDataKey)
+    {
+        this.businessObjectDataKey = businessObjectDataKey;
+    }
+
+    /**
+     * Compares the position of this candidate with the position of another candidate in the order the candidates are selected in, i.e. by business object
+     * data "created on" timestamp and then by business object data ID.
+     *
+     * @param other the other candidate
+     *
+     * @return a negative integer, zero, or a positive integer as this candidate is positioned before, at the same position, or after the other candidate
+     */
+    public int comparePositionTo(StoragePolicySelectionCandidate other)
+    {
+        int result = businessObjectDataCreatedOn.compareTo(other.businessObjectDataCreatedOn);
+        return result != 0 ? result : businessObjectDataId.compareTo(other.businessObjectDataId);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.model.jpa;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * A generation number of a set of authorizations. The generation number is incremented every time the authorizations change, so every herd node can tell
+ * whether its cached copy of the authorizations is still current.
+ */
+@Table(name = AuthorizationGenerationEntity.TABLE_NAME)
+@Entity
+public class AuthorizationGenerationEntity extends AuditableEntity
+{
+    /**
+     * The table name.
+     */
+    public static final String TABLE_NAME = "athrn_gnrtn";
+
+    /**
+     * The code of the user namespace authorizations generation.
+     */
+    public static final String USER_NAMESPACE_AUTHORIZATION = "USER_NMSPC_ATHRN";
+
+    /**
+     * The code column.
+     */
+    @Id
+    @Column(name = "athrn_gnrtn_cd")
+    private String code;
+
+    /**
+     * The generation number column.
+     */
+    @Column(name = "gnrtn_nb", nullable = false)
+    private Long generationNumber;
+
+    public String getCode()
+    {
+        return code;
+    }
+
+    public void setCode(String code)
+    {
+        this.code = code;
+    }
+
+    public Long getGenerationNumber()
+    {
+        return generationNumber;
+    }
+
+    public void setGenerationNumber(Long generationNumber)
+    {
+        this.generationNumber = generationNumber;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.model.jpa;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * An entity listener that reports the notification registrations persisted, updated or removed by this JVM to the registered change handler, so in-memory
+ * views of the notification registrations can tell when they need to be reloaded. Please note that the listener is called when the change is flushed, before
+ * the transaction commits.
+ */
+public class NotificationRegistrationChangeListener
+{
+    private static volatile Runnable changeHandler;
+
+    /**
+     * Sets the handler called for each notification registration change made by this JVM.
+     *
+     * @param changeHandler the change handler
+     */
+    public static void setChangeHandler(Runnable changeHandler)
+    {
+        NotificationRegistrationChangeListener.changeHandler = changeHandler;
+    }
+
+    /**
+     * Reports a notification registration change to the change handler.
+     *
+     * @param notificationRegistrationEntity the notification registration entity that was changed
+     */
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object notificationRegistrationEntity)
+    {
+        Runnable currentChangeHandler = changeHandler;
+        if (currentChangeHandler != null)
+        {
+            currentChangeHandler.run();
+        }
+    }
+}
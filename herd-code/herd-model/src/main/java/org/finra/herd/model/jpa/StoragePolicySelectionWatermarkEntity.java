@@ -0,0 +1,87 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.model.jpa;
+
+import java.sql.Timestamp;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * The position of the last business object data processed by the storage policy selector for a storage policy priority level. The next storage policy
+ * selection resumes right after it.
+ */
+@Table(name = StoragePolicySelectionWatermarkEntity.TABLE_NAME)
+@Entity
+public class StoragePolicySelectionWatermarkEntity extends AuditableEntity
+{
+    /**
+     * The table name.
+     */
+    public static final String TABLE_NAME = "strge_plcy_slctn_wtrmk";
+
+    /**
+     * The storage policy priority level number column, where 0 is the highest priority level.
+     */
+    @Id
+    @Column(name = "strge_plcy_prty_lvl_nb")
+    private Integer storagePolicyPriorityLevelNumber;
+
+    /**
+     * The business object data ID column. This is not a foreign key, since the business object data is allowed to be deleted. A null value means that the
+     * next storage policy selection starts with the oldest business object data.
+     */
+    @Column(name = "bus_objct_data_id")
+    private Integer businessObjectDataId;
+
+    /**
+     * The business object data "created on" timestamp column.
+     */
+    @Column(name = "bus_objct_data_creat_ts")
+    private Timestamp businessObjectDataCreatedOn;
+
+    public Integer getStoragePolicyPriorityLevelNumber()
+    {
+        return storagePolicyPriorityLevelNumber;
+    }
+
+    public void setStoragePolicyPriorityLevelNumber(Integer storagePolicyPriorityLevelNumber)
+    {
+        this.storagePolicyPriorityLevelNumber = storagePolicyPriorityLevelNumber;
+    }
+
+    public Integer getBusinessObjectDataId()
+    {
+        return businessObjectDataId;
+    }
+
+    public void setBusinessObjectDataId(Integer businessObjectDataId)
+    {
+        this.businessObjectDataId = businessObjectDataId;
+    }
+
+    public Timestamp getBusinessObjectDataCreatedOn()
+    {
+        return businessObjectDataCreatedOn;
+    }
+
+    public void setBusinessObjectDataCreatedOn(Timestamp businessObjectDataCreatedOn)
+    {
+        this.businessObjectDataCreatedOn = businessObjectDataCreatedOn;
+    }
+}
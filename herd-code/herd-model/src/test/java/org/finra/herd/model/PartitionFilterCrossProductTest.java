@@ -0,0 +1,82 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.finra.herd.model.dto.PartitionFilterCrossProduct;
+
+/**
+ * Tests the PartitionFilterCrossProduct class.
+ */
+public class PartitionFilterCrossProductTest
+{
+    @Test
+    public void testGet()
+    {
+        PartitionFilterCrossProduct partitionFilters = new PartitionFilterCrossProduct(
+            Arrays.asList(Arrays.asList("A", "B"), Collections.singletonList((String) null), Arrays.asList("X", "Y", "Z")));
+
+        // Validate that the last partition column varies the fastest.
+        assertEquals(Arrays.asList(Arrays.asList("A", null, "X"), Arrays.asList("A", null, "Y"), Arrays.asList("A", null, "Z"), Arrays.asList("B", null, "X"),
+            Arrays.asList("B", null, "Y"), Arrays.asList("B", null, "Z")), new ArrayList<>(partitionFilters));
+
+        try
+        {
+            partitionFilters.get(6);
+            fail();
+        }
+        catch (IndexOutOfBoundsException e)
+        {
+            assertEquals("Index: 6, Size: 6", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testNoPartitionValues()
+    {
+        assertTrue(new PartitionFilterCrossProduct(Arrays.asList(Arrays.asList("A", "B"), Collections.<String>emptyList())).isEmpty());
+    }
+
+    @Test
+    public void testTooManyPartitionFilters()
+    {
+        List<String> partitionValues = new ArrayList<>();
+        for (int i = 0; i < 2000; i++)
+        {
+            partitionValues.add(String.valueOf(i));
+        }
+
+        try
+        {
+            new PartitionFilterCrossProduct(Arrays.asList(partitionValues, partitionValues, partitionValues));
+            fail();
+        }
+        catch (IllegalArgumentException e)
+        {
+            assertEquals("The number of partition filters exceeds the system limit of " + Integer.MAX_VALUE + ".", e.getMessage());
+        }
+    }
+}
@@ -15,13 +15,22 @@
  */
 package org.finra.herd.rest;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 
 import javax.servlet.ServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.output.DeferredFileOutputStream;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -66,6 +75,11 @@ import org.finra.herd.ui.constants.UiConstants;
 @Api(tags = "Business Object Data")
 public class BusinessObjectDataRestController extends HerdBaseController
 {
+    /**
+     * The number of bytes of streamed DDL that are kept in memory before the DDL gets spooled to a temporary file.
+     */
+    private static final int DDL_STREAM_SPOOL_MEMORY_THRESHOLD_BYTES = 1024 * 1024;
+
     @Autowired
     private BusinessObjectDataDaoHelper businessObjectDataDaoHelper;
 
@@ -460,6 +474,49 @@ public class BusinessObjectDataRestController extends HerdBaseController
         return businessObjectDataService.generateBusinessObjectDataDdl(businessObjectDataDdlRequest);
     }
 
+    /**
+     * Retrieves the DDL to initialize the specified type of the database system to perform queries for a range of requested business object data in the
+     * specified storage. The DDL is returned as plain text. Large DDL is spooled to a temporary file instead of being kept in memory and is sent to
+     * the client once it has been fully generated, so this endpoint should be used to generate DDL for a large number of partitions. <p> Requires READ
+     * permission on namespace </p>
+     *
+     * @param businessObjectDataDdlRequest the business object data DDL request
+     * @param servletResponse the servlet response
+     *
+     * @throws IOException if the DDL could not be written to the response
+     */
+    @RequestMapping(value = "/businessObjectData/generateDdlStream", method = RequestMethod.POST, consumes = {"application/xml", "application/json"},
+        produces = "text/plain")
+    @Secured(SecurityFunctions.FN_BUSINESS_OBJECT_DATA_GENERATE_DDL_POST)
+    public void generateBusinessObjectDataDdlStream(@RequestBody BusinessObjectDataDdlRequest businessObjectDataDdlRequest,
+        HttpServletResponse servletResponse) throws IOException
+    {
+        // Spool the generated DDL, keeping it in memory up to a threshold and in a temporary file after that. Nothing is sent to the client until the DDL
+        // generation completes, so a failure part way through is reported as a regular error response instead of a truncated DDL with HTTP 200.
+        DeferredFileOutputStream spool = new DeferredFileOutputStream(DDL_STREAM_SPOOL_MEMORY_THRESHOLD_BYTES, "herd-ddl-", ".tmp", null);
+        try
+        {
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(spool, StandardCharsets.UTF_8)))
+            {
+                businessObjectDataService.generateBusinessObjectDataDdl(businessObjectDataDdlRequest, writer);
+            }
+
+            // Send the generated DDL to the client.
+            servletResponse.setContentType("text/plain");
+            servletResponse.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            OutputStream outputStream = servletResponse.getOutputStream();
+            spool.writeTo(outputStream);
+            outputStream.flush();
+        }
+        finally
+        {
+            if (spool.getFile() != null)
+            {
+                FileUtils.deleteQuietly(spool.getFile());
+            }
+        }
+    }
+
     /**
      * Retrieves the DDL to initialize the specified type of the database system to perform queries for a collection of business object data in the specified
      * storage. <p> Requires READ permission on ALL namespaces </p>
@@ -636,7 +693,8 @@ public class BusinessObjectDataRestController extends HerdBaseController
 
     /**
      * Searches business object data based on namespace, definition name, format usage, file type, and format version. <p> Namespace and definition name are
-     * required. </p> <p> Requires READ permission on namespace </p>
+     * required. </p> <p> The results are returned in pages. To get the next page, pass the next page token of the result as the page token of the request.
+     * </p> <p> Requires READ permission on namespace </p>
      *
      * @param businessObjectDataSearchRequest search request
      *
@@ -24,7 +24,9 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
 
 import org.finra.herd.model.api.xml.BuildInformation;
+import org.finra.herd.model.api.xml.ServiceMethodMetrics;
 import org.finra.herd.model.dto.SecurityFunctions;
+import org.finra.herd.service.ServiceMethodMetricsService;
 import org.finra.herd.ui.constants.UiConstants;
 
 /**
@@ -38,6 +40,9 @@ public class HerdRestController extends HerdBaseController
     @Autowired
     private BuildInformation buildInformation;
 
+    @Autowired
+    private ServiceMethodMetricsService serviceMethodMetricsService;
+
     /**
      * Gets the build information.
      *
@@ -50,4 +55,17 @@ public class HerdRestController extends HerdBaseController
     {
         return buildInformation;
     }
+
+    /**
+     * Gets the call counters and latency percentiles of the service methods called on the node serving this request.
+     *
+     * @return the service method metrics.
+     */
+    @ApiOperation(value = "Gets the service method metrics of the node serving the request")
+    @RequestMapping(value = "/serviceMethodMetrics", method = RequestMethod.GET)
+    @Secured(SecurityFunctions.FN_SERVICE_METHOD_METRICS_GET)
+    public ServiceMethodMetrics getServiceMethodMetrics()
+    {
+        return serviceMethodMetricsService.getServiceMethodMetrics();
+    }
 }
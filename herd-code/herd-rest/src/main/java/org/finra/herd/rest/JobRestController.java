@@ -72,6 +72,8 @@ public class JobRestController extends HerdBaseController
      * @param status an optional job status filter
      * @param startTime an optional start time filter (ex. 2015, 2015-12, 2015-12-12T3:4:5)
      * @param endTime an optional end time filter (ex. 2015, 2015-12, 2015-12-12T3:4:5)
+     * @param pageToken an optional token returned as "nextPageToken" with the previous page of job summaries
+     * @param pageSize an optional page size, when either paging parameter is specified only a single page of job summaries is returned
      *
      * @return the list of job summaries.
      * @throws Exception if any problems were encountered.
@@ -80,10 +82,11 @@ public class JobRestController extends HerdBaseController
     @Secured(SecurityFunctions.FN_JOBS_GET)
     public JobSummaries getJobs(@RequestParam(value = "namespace", required = false) String namespace,
         @RequestParam(value = "jobName", required = false) String jobName, @RequestParam(value = "status", required = false) JobStatusEnum status,
-        @RequestParam(value = "startTime", required = false) DateTime startTime, @RequestParam(value = "endTime", required = false) DateTime endTime)
+        @RequestParam(value = "startTime", required = false) DateTime startTime, @RequestParam(value = "endTime", required = false) DateTime endTime,
+        @RequestParam(value = "pageToken", required = false) String pageToken, @RequestParam(value = "pageSize", required = false) Integer pageSize)
         throws Exception
     {
-        return jobService.getJobs(namespace, jobName, status, startTime, endTime);
+        return jobService.getJobs(namespace, jobName, status, startTime, endTime, pageToken, pageSize);
     }
 
     /**
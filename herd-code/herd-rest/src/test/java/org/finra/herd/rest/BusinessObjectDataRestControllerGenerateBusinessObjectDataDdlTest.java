@@ -15,10 +15,16 @@
 */
 package org.finra.herd.rest;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
 import java.util.Arrays;
 
 import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
 
+import org.finra.herd.model.ObjectNotFoundException;
 import org.finra.herd.model.api.xml.BusinessObjectDataDdl;
 import org.finra.herd.model.api.xml.BusinessObjectDataDdlRequest;
 import org.finra.herd.model.jpa.BusinessObjectDataEntity;
@@ -77,6 +83,48 @@ public class BusinessObjectDataRestControllerGenerateBusinessObjectDataDdlTest e
             .validateBusinessObjectDataDdl(request, businessObjectDataServiceTestHelper.getExpectedBusinessObjectDataDdl(), resultDdl);
     }
 
+    @Test
+    public void testGenerateBusinessObjectDataDdlStream() throws Exception
+    {
+        // Prepare test data.
+        businessObjectDataServiceTestHelper.createDatabaseEntitiesForBusinessObjectDataDdlTesting();
+
+        // Stream business object data ddl.
+        BusinessObjectDataDdlRequest request =
+            businessObjectDataServiceTestHelper.getTestBusinessObjectDataDdlRequest(UNSORTED_PARTITION_VALUES, CUSTOM_DDL_NAME);
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        businessObjectDataRestController.generateBusinessObjectDataDdlStream(request, servletResponse);
+
+        // Validate the results.
+        assertEquals("text/plain;charset=UTF-8", servletResponse.getContentType());
+        assertEquals(businessObjectDataServiceTestHelper.getExpectedBusinessObjectDataDdl(), servletResponse.getContentAsString());
+    }
+
+    @Test
+    public void testGenerateBusinessObjectDataDdlStreamMissingBusinessObjectData() throws Exception
+    {
+        // Prepare test data.
+        businessObjectDataServiceTestHelper.createDatabaseEntitiesForBusinessObjectDataDdlTesting();
+
+        // Try to stream business object data ddl for the non-existing business object data with "allow missing data" flag set to "false".
+        BusinessObjectDataDdlRequest request =
+            businessObjectDataServiceTestHelper.getTestBusinessObjectDataDdlRequest(UNSORTED_PARTITION_VALUES, CUSTOM_DDL_NAME);
+        request.getPartitionValueFilters().get(0).setPartitionValues(Arrays.asList("I_DO_NOT_EXIST"));
+        request.setAllowMissingData(false);
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        try
+        {
+            businessObjectDataRestController.generateBusinessObjectDataDdlStream(request, servletResponse);
+            fail("Should throw an ObjectNotFoundException when business object data does not exist.");
+        }
+        catch (ObjectNotFoundException e)
+        {
+            // Validate that none of the DDL generated before the failure was sent to the client.
+            assertFalse(servletResponse.isCommitted());
+            assertEquals("", servletResponse.getContentAsString());
+        }
+    }
+
     @Test
     public void testGenerateBusinessObjectDataDdlPartitionValueRange()
     {
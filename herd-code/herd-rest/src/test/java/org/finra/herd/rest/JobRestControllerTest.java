@@ -291,7 +291,8 @@ public class JobRestControllerTest extends AbstractRestTest
         deleteAllHistoricJobs();
 
         // There should be no jobs initially.
-        JobSummaries jobSummaries = jobRestController.getJobs(NO_NAMESPACE, NO_ACTIVITI_JOB_NAME, NO_ACTIVITI_JOB_STATUS, NO_START_TIME, NO_END_TIME);
+        JobSummaries jobSummaries =
+            jobRestController.getJobs(NO_NAMESPACE, NO_ACTIVITI_JOB_NAME, NO_ACTIVITI_JOB_STATUS, NO_START_TIME, NO_END_TIME, null, null);
         assertEquals(0, jobSummaries.getJobSummaries().size());
 
         // Create a "standard" job definition we can run a job against.
@@ -309,7 +310,7 @@ public class JobRestControllerTest extends AbstractRestTest
         activitiTaskService.complete(tasks.get(0).getId());
 
         // Query all the jobs which will have all 3 jobs created.
-        jobSummaries = jobRestController.getJobs(NO_NAMESPACE, NO_ACTIVITI_JOB_NAME, NO_ACTIVITI_JOB_STATUS, NO_START_TIME, NO_END_TIME);
+        jobSummaries = jobRestController.getJobs(NO_NAMESPACE, NO_ACTIVITI_JOB_NAME, NO_ACTIVITI_JOB_STATUS, NO_START_TIME, NO_END_TIME, null, null);
         assertEquals(1, jobSummaries.getJobSummaries().size());
 
         // Get the job summary and perform some validation.
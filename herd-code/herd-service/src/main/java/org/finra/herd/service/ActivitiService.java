@@ -16,6 +16,7 @@
 package org.finra.herd.service;
 
 import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -68,6 +69,15 @@ public interface ActivitiService
      */
     public List<ProcessInstance> getSuspendedProcessInstances();
 
+    /**
+     * Gets a list of the currently suspended process instances among the specified process instances. The process instances are selected with one query per
+     * batch of process instance IDs.
+     *
+     * @param processInstanceIds the process instance IDs
+     * @return the list of currently suspended process instances
+     */
+    public List<ProcessInstance> getSuspendedProcessInstancesByProcessInstanceIds(Set<String> processInstanceIds);
+
     /**
      * Gets a historic process instance by its process instance ID.
      *
@@ -116,6 +126,15 @@ public interface ActivitiService
      */
     long getJobsWithExceptionCountByProcessInstanceId(String processInstanceId);
 
+    /**
+     * Gets the counts of jobs with exceptions for a collection of process instances. The jobs are counted with one grouped query per batch of process instance
+     * IDs instead of one query per process instance.
+     *
+     * @param processInstanceIds The process instance IDs
+     * @return The map of process instance IDs to counts. Process instances without jobs with exceptions are not included.
+     */
+    Map<String, Long> getJobsWithExceptionCountByProcessInstanceIds(Collection<String> processInstanceIds);
+
     /**
      * Gets all historic process instances by their status and process definition keys. When job status is RUNNING or SUSPENDED, then all "unfinished" process
      * instances are returned.
@@ -129,6 +148,23 @@ public interface ActivitiService
     List<HistoricProcessInstance> getHistoricProcessInstancesByStatusAndProcessDefinitionKeys(JobStatusEnum jobStatus, Collection<String> processDefinitionKeys,
         DateTime startTime, DateTime endTime);
 
+    /**
+     * Gets a page of historic process instances by their status and process definition keys. When job status is RUNNING or SUSPENDED, then all "unfinished"
+     * process instances are returned. The process instances are ordered by start time descending and then by ID, and the page starts right after the
+     * specified process instance, so pages stay stable while new process instances are started.
+     *
+     * @param jobStatus The job status. Optional.
+     * @param processDefinitionKeys Collection of process definition keys
+     * @param startTime an optional job start time
+     * @param endTime an optional job end time
+     * @param afterStartTime the start time of the process instance the page follows, null for the first page
+     * @param afterProcessInstanceId the ID of the process instance the page follows, null for the first page
+     * @param maxResults the maximum number of process instances to return
+     * @return List of historic process instances
+     */
+    List<HistoricProcessInstance> getHistoricProcessInstancesByStatusAndProcessDefinitionKeys(JobStatusEnum jobStatus, Collection<String> processDefinitionKeys,
+        DateTime startTime, DateTime endTime, Date afterStartTime, String afterProcessInstanceId, int maxResults);
+
     /**
      * Gets the count of historic process instances by their status and process definition keys. When job status is RUNNING or SUSPENDED, then all "unfinished"
      * process are counted.
@@ -15,6 +15,8 @@
 */
 package org.finra.herd.service;
 
+import java.io.Writer;
+
 import org.finra.herd.model.api.xml.BusinessObjectData;
 import org.finra.herd.model.api.xml.BusinessObjectDataAvailability;
 import org.finra.herd.model.api.xml.BusinessObjectDataAvailabilityCollectionRequest;
@@ -112,6 +114,15 @@ public interface BusinessObjectDataService
      */
     public BusinessObjectDataDdl generateBusinessObjectDataDdl(BusinessObjectDataDdlRequest businessObjectDataDdlRequest);
 
+    /**
+     * Retrieves the DDL to initialize the specified type of the database system to perform queries for a range of requested business object data in the
+     * specified storage and streams it to the specified writer as it gets generated. This method starts a new transaction.
+     *
+     * @param businessObjectDataDdlRequest the business object data DDL request
+     * @param writer the writer to stream the DDL to
+     */
+    public void generateBusinessObjectDataDdl(BusinessObjectDataDdlRequest businessObjectDataDdlRequest, Writer writer);
+
     /**
      * Retrieves the DDL to initialize the specified type of the database system to perform queries for a collection of business object data in the specified
      * storages. This method starts a new transaction.
@@ -38,4 +38,20 @@ public interface JmsPublishingService
      * @return true if a message was sent or false if no message was sent (i.e. no message needed to be sent).
      */
     public boolean publishOldestJmsMessageFromDatabaseQueue();
+
+    /**
+     * Publishes and removes from the database queue a batch of the oldest JMS messages. The messages are claimed by locking them, so this method can run on
+     * several nodes at the same time. The messages are published in the order they were added to the database queue. Once a message fails to be published
+     * to its queue, the following messages for that queue stay in the database queue to be published later.
+     *
+     * @return the number of messages that were published
+     */
+    public int publishOldestJmsMessagesFromDatabaseQueue();
+
+    /**
+     * Gets the number of JMS messages waiting in the database queue.
+     *
+     * @return the number of JMS messages
+     */
+    public long getDatabaseQueueDepth();
 }
@@ -77,6 +77,25 @@ public interface JobService
      */
     public JobSummaries getJobs(String namespace, String jobName, JobStatusEnum jobStatus, DateTime startTime, DateTime endTime) throws Exception;
 
+    /**
+     * <p>Gets a page of job executions based on the specified filter parameters.</p> <p>Jobs' namespace to which you do not have READ permissions to will be
+     * omitted from the result. The jobs are ordered by start time descending. A page may contain fewer jobs than the page size, since jobs are filtered after
+     * the page is selected. The next page token is set when more jobs may follow.</p>
+     *
+     * @param namespace an optional namespace filter
+     * @param jobName an optional job name filter
+     * @param jobStatus an optional job status filter
+     * @param startTime an optional job start time filter
+     * @param endTime an optional job end time filter
+     * @param pageToken an optional token returned with the previous page, the first page is returned when not specified
+     * @param pageSize an optional page size, the maximum number of results allowed for a jobs query is used when not specified
+     *
+     * @return the page of job summaries
+     * @throws Exception if any problems were encountered
+     */
+    public JobSummaries getJobs(String namespace, String jobName, JobStatusEnum jobStatus, DateTime startTime, DateTime endTime, String pageToken,
+        Integer pageSize) throws Exception;
+
     /**
      * Signals the job with the receive task.
      *
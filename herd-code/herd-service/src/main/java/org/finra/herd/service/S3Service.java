@@ -16,6 +16,7 @@
 package org.finra.herd.service;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import com.amazonaws.services.s3.model.S3ObjectSummary;
 
@@ -57,6 +58,18 @@ public interface S3Service
      */
     public List<S3ObjectSummary> listDirectory(S3FileTransferRequestParamsDto s3FileTransferRequestParamsDto, boolean ignoreZeroByteDirectoryMarkers);
 
+    /**
+     * Lists all S3 objects matching the S3 key prefix in the given bucket (S3 bucket name) and passes them to the consumer a chunk at a time, in the key
+     * order and from the calling thread.
+     *
+     * @param s3FileTransferRequestParamsDto the S3 file transfer request parameters. The S3 bucket name and S3 key prefix identify the S3 objects to get
+     * listed.
+     * @param ignoreZeroByteDirectoryMarkers specifies whether to ignore 0 byte objects that represent S3 directories.
+     * @param s3ObjectSummariesConsumer the consumer of the S3 object summaries that match the prefix in the given bucket.
+     */
+    public void listDirectory(S3FileTransferRequestParamsDto s3FileTransferRequestParamsDto, boolean ignoreZeroByteDirectoryMarkers,
+        Consumer<List<S3ObjectSummary>> s3ObjectSummariesConsumer);
+
     /**
      * Uploads a local file into S3.
      *
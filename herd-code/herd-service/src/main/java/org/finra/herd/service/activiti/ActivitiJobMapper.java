@@ -0,0 +1,71 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.service.activiti;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+/**
+ * MyBatis mapper for the custom queries herd runs against the Activiti job table. The mapper is registered with the Activiti process engine by {@link
+ * HerdProcessEngineConfigurator} and executed using {@link org.activiti.engine.ManagementService#executeCustomSql}.
+ */
+public interface ActivitiJobMapper
+{
+    /**
+     * Selects the number of jobs with exceptions per process instance.
+     *
+     * @param processInstanceIds the process instance IDs
+     *
+     * @return the list of job counts, process instances without jobs with exceptions are not included
+     */
+    @Select({"<script>", "SELECT RES.PROCESS_INSTANCE_ID_ AS processInstanceId, COUNT(*) AS jobCount FROM ACT_RU_JOB RES",
+        "WHERE (RES.EXCEPTION_MSG_ IS NOT NULL OR RES.EXCEPTION_STACK_ID_ IS NOT NULL) AND RES.PROCESS_INSTANCE_ID_ IN",
+        "<foreach item='processInstanceId' collection='processInstanceIds' open='(' separator=', ' close=')'>#{processInstanceId}</foreach>",
+        "GROUP BY RES.PROCESS_INSTANCE_ID_", "</script>"})
+    List<ProcessInstanceJobCount> selectJobsWithExceptionCounts(@Param("processInstanceIds") List<String> processInstanceIds);
+
+    /**
+     * The number of jobs of a process instance.
+     */
+    class ProcessInstanceJobCount
+    {
+        private String processInstanceId;
+
+        private Long jobCount;
+
+        public String getProcessInstanceId()
+        {
+            return processInstanceId;
+        }
+
+        public void setProcessInstanceId(String processInstanceId)
+        {
+            this.processInstanceId = processInstanceId;
+        }
+
+        public Long getJobCount()
+        {
+            return jobCount;
+        }
+
+        public void setJobCount(Long jobCount)
+        {
+            this.jobCount = jobCount;
+        }
+    }
+}
@@ -15,6 +15,9 @@
 */
 package org.finra.herd.service.activiti;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import org.activiti.engine.cfg.ProcessEngineConfigurator;
 import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.activiti.engine.impl.variable.LongStringType;
@@ -32,7 +35,14 @@ public class HerdProcessEngineConfigurator implements ProcessEngineConfigurator
     @Override
     public void beforeInit(ProcessEngineConfigurationImpl configuration)
     {
-        // Nothing to do before init.
+        // Register the mappers of the custom queries herd runs against the Activiti tables, since they need to be known before the engine is built.
+        Set<Class<?>> customMybatisMappers = new HashSet<>();
+        if (configuration.getCustomMybatisMappers() != null)
+        {
+            customMybatisMappers.addAll(configuration.getCustomMybatisMappers());
+        }
+        customMybatisMappers.add(ActivitiJobMapper.class);
+        configuration.setCustomMybatisMappers(customMybatisMappers);
     }
 
     @Override
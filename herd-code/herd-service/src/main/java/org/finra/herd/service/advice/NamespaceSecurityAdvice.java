@@ -17,34 +17,48 @@ package org.finra.herd.service.advice;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Component;
 
 import org.finra.herd.core.helper.SpelExpressionHelper;
 import org.finra.herd.model.annotation.NamespacePermission;
 import org.finra.herd.model.annotation.NamespacePermissions;
+import org.finra.herd.model.api.xml.NamespacePermissionEnum;
 import org.finra.herd.service.helper.NamespaceSecurityHelper;
 
 @Component
 @Aspect
 public class NamespaceSecurityAdvice extends AbstractServiceAdvice
 {
+    /**
+     * The namespace permission checks of a method without namespace permission annotations.
+     */
+    private static final MethodPermissionChecks NO_PERMISSION_CHECKS = new MethodPermissionChecks(null, Collections.emptyList());
+
     @Autowired
     private SpelExpressionHelper spelExpressionHelper;
 
     @Autowired
     private NamespaceSecurityHelper namespaceSecurityHelper;
 
+    /**
+     * The namespace permission checks resolved from the annotations of each advised method, so the annotations are read and the SpEL expressions are parsed
+     * only once per method.
+     */
+    private final Map<Method, MethodPermissionChecks> methodPermissionChecksCache = new ConcurrentHashMap<>();
+
     /**
      * Check permission on the service methods before the execution. The method is expected to throw AccessDeniedException if current user does not have the
      * permissions.
@@ -54,45 +68,32 @@ public class NamespaceSecurityAdvice extends AbstractServiceAdvice
     @Before("serviceMethods()")
     public void checkPermission(JoinPoint joinPoint)
     {
-
         MethodSignature methodSignature = (MethodSignature) joinPoint.getSignature();
-        Method method = methodSignature.getMethod();
-
-        List<NamespacePermission> namespacePermissions = new ArrayList<>();
-        if (method.isAnnotationPresent(NamespacePermissions.class))
-        {
-            namespacePermissions.addAll(Arrays.asList(method.getAnnotation(NamespacePermissions.class).value()));
-        }
-        else if (method.isAnnotationPresent(NamespacePermission.class))
-        {
-            namespacePermissions.add(method.getAnnotation(NamespacePermission.class));
-        }
+        MethodPermissionChecks methodPermissionChecks =
+            methodPermissionChecksCache.computeIfAbsent(methodSignature.getMethod(), method -> getMethodPermissionChecks(method, methodSignature));
 
-        if (!namespacePermissions.isEmpty())
+        if (!methodPermissionChecks.permissionChecks.isEmpty())
         {
-            String[] parameterNames = methodSignature.getParameterNames();
+            String[] parameterNames = methodPermissionChecks.parameterNames;
             Object[] args = joinPoint.getArgs();
 
-            Map<String, Object> variables = new HashMap<>();
+            // All the expressions of the method are evaluated against the same context.
+            StandardEvaluationContext context = new StandardEvaluationContext();
             for (int i = 0; i < parameterNames.length; i++)
             {
-                variables.put(parameterNames[i], args[i]);
+                context.setVariable(parameterNames[i], args[i]);
             }
 
             List<AccessDeniedException> accessDeniedExceptions = new ArrayList<>();
-            for (NamespacePermission namespacePermission : namespacePermissions)
+            for (PermissionCheck permissionCheck : methodPermissionChecks.permissionChecks)
             {
-                for (String field : namespacePermission.fields())
+                try
                 {
-                    try
-                    {
-                        namespaceSecurityHelper.checkPermission(spelExpressionHelper.evaluate(field, Object.class, variables), namespacePermission
-                            .permissions());
-                    }
-                    catch (AccessDeniedException accessDeniedException)
-                    {
-                        accessDeniedExceptions.add(accessDeniedException);
-                    }
+                    namespaceSecurityHelper.checkPermission(permissionCheck.field.getValue(context, Object.class), permissionCheck.permissions);
+                }
+                catch (AccessDeniedException accessDeniedException)
+                {
+                    accessDeniedExceptions.add(accessDeniedException);
                 }
             }
             if (!accessDeniedExceptions.isEmpty())
@@ -101,4 +102,72 @@ public class NamespaceSecurityAdvice extends AbstractServiceAdvice
             }
         }
     }
+
+    /**
+     * Resolves the namespace permission checks of a method from its namespace permission annotations.
+     *
+     * @param method the method
+     * @param methodSignature the method signature that provides the parameter names of the method
+     *
+     * @return the namespace permission checks of the method
+     */
+    private MethodPermissionChecks getMethodPermissionChecks(Method method, MethodSignature methodSignature)
+    {
+        NamespacePermission[] namespacePermissions;
+        if (method.isAnnotationPresent(NamespacePermissions.class))
+        {
+            namespacePermissions = method.getAnnotation(NamespacePermissions.class).value();
+        }
+        else if (method.isAnnotationPresent(NamespacePermission.class))
+        {
+            namespacePermissions = new NamespacePermission[] {method.getAnnotation(NamespacePermission.class)};
+        }
+        else
+        {
+            return NO_PERMISSION_CHECKS;
+        }
+
+        List<PermissionCheck> permissionChecks = new ArrayList<>();
+        for (NamespacePermission namespacePermission : namespacePermissions)
+        {
+            for (String field : namespacePermission.fields())
+            {
+                permissionChecks.add(new PermissionCheck(spelExpressionHelper.parseExpression(field), namespacePermission.permissions()));
+            }
+        }
+
+        return new MethodPermissionChecks(methodSignature.getParameterNames(), permissionChecks);
+    }
+
+    /**
+     * The namespace permission checks of a method.
+     */
+    private static class MethodPermissionChecks
+    {
+        private final String[] parameterNames;
+
+        private final List<PermissionCheck> permissionChecks;
+
+        MethodPermissionChecks(String[] parameterNames, List<PermissionCheck> permissionChecks)
+        {
+            this.parameterNames = parameterNames;
+            this.permissionChecks = permissionChecks;
+        }
+    }
+
+    /**
+     * A namespace permission check of a single field.
+     */
+    private static class PermissionCheck
+    {
+        private final Expression field;
+
+        private final NamespacePermissionEnum[] permissions;
+
+        PermissionCheck(Expression field, NamespacePermissionEnum[] permissions)
+        {
+            this.field = field;
+            this.permissions = permissions;
+        }
+    }
 }
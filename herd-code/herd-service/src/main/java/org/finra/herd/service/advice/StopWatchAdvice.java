@@ -16,19 +16,23 @@
 package org.finra.herd.service.advice;
 
 import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
-import org.apache.commons.lang3.time.StopWatch;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.stereotype.Component;
 
 import org.finra.herd.core.HerdDateUtils;
 import org.finra.herd.core.SuppressLogging;
+import org.finra.herd.service.helper.ServiceMethodMetricsRegistry;
 
 @Component
 @Aspect
@@ -38,8 +42,16 @@ public class StopWatchAdvice extends AbstractServiceAdvice
     // The logger name is purposefully using the legacy name of "StopWatchAdvice" due to external monitoring depending on the legacy name.
     private static final Logger LOGGER = LoggerFactory.getLogger("org.finra.herd.core.StopWatchAdvice");
 
+    @Autowired
+    private ServiceMethodMetricsRegistry serviceMethodMetricsRegistry;
+
+    /**
+     * The advised methods keyed by target class and signature method, so the reflection and annotation lookups are only done once per method.
+     */
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Method, AdvisedMethod>> advisedMethods = new ConcurrentHashMap<>();
+
     /**
-     * Around advice that logs methods times for all service methods.
+     * Around advice that logs methods times for all service methods and records them in the service method metrics.
      *
      * @param pjp the proceeding join point.
      *
@@ -54,36 +66,79 @@ public class StopWatchAdvice extends AbstractServiceAdvice
 
         // Get the target method being called.
         MethodSignature targetMethodSignature = (MethodSignature) pjp.getSignature();
-        Method targetMethod = targetMethodSignature.getMethod();
-        if (targetMethod.getDeclaringClass().isInterface())
-        {
-            // Get the underlying implementation if we are given an interface.
-            targetMethod = pjp.getTarget().getClass().getMethod(pjp.getSignature().getName(), targetMethod.getParameterTypes());
-        }
+        AdvisedMethod advisedMethod = getAdvisedMethod(targetClass, targetMethodSignature.getMethod());
 
-        // Only keep a stop watch if the class and method aren't suppressing logging and the log level is info.
-        if ((AnnotationUtils.findAnnotation(targetClass, SuppressLogging.class) == null) &&
-            (AnnotationUtils.findAnnotation(targetMethod, SuppressLogging.class) == null) && (LOGGER.isInfoEnabled()))
+        // Start the stop watch.
+        long startNanos = advisedMethod.methodMetrics.start();
+        boolean failed = true;
+        try
         {
-            // Start the stop watch.
-            StopWatch stopWatch = new StopWatch();
-            stopWatch.start();
-
             // Proceed to the join point (i.e. call the method and let it return).
             Object returnValue = pjp.proceed();
-
-            // Log the duration.
-            long durationMilliseconds = stopWatch.getTime();
-            LOGGER.info("javaMethod=\"{}.{}\" javaMethodDurationTimeInMilliseconds={} javaMethodDurationTimeFormatted=\"{}\"", targetClass.getName(),
-                targetMethodSignature.getName(), durationMilliseconds, HerdDateUtils.formatDuration(durationMilliseconds));
+            failed = false;
 
             // Return the method return value.
             return returnValue;
         }
-        else
+        finally
+        {
+            long durationMilliseconds = TimeUnit.NANOSECONDS.toMillis(advisedMethod.methodMetrics.stop(startNanos, failed));
+
+            // Only log the duration if the method returned and the class and method aren't suppressing logging and the log level is info.
+            if (!failed && !advisedMethod.suppressLogging && LOGGER.isInfoEnabled())
+            {
+                LOGGER.info("javaMethod=\"{}.{}\" javaMethodDurationTimeInMilliseconds={} javaMethodDurationTimeFormatted=\"{}\"", targetClass.getName(),
+                    targetMethodSignature.getName(), durationMilliseconds, HerdDateUtils.formatDuration(durationMilliseconds));
+            }
+        }
+    }
+
+    /**
+     * Gets the advised method for a target class and signature method.
+     *
+     * @param targetClass the target class
+     * @param signatureMethod the method of the join point signature
+     *
+     * @return the advised method
+     * @throws NoSuchMethodException if the target class does not implement the method
+     */
+    private AdvisedMethod getAdvisedMethod(Class<?> targetClass, Method signatureMethod) throws NoSuchMethodException
+    {
+        ConcurrentMap<Method, AdvisedMethod> targetClassAdvisedMethods = advisedMethods.computeIfAbsent(targetClass, key -> new ConcurrentHashMap<>());
+        AdvisedMethod advisedMethod = targetClassAdvisedMethods.get(signatureMethod);
+        if (advisedMethod == null)
+        {
+            Method targetMethod = signatureMethod;
+            if (targetMethod.getDeclaringClass().isInterface())
+            {
+                // Get the underlying implementation if we are given an interface.
+                targetMethod = targetClass.getMethod(signatureMethod.getName(), signatureMethod.getParameterTypes());
+            }
+
+            boolean suppressLogging = AnnotationUtils.findAnnotation(targetClass, SuppressLogging.class) != null ||
+                AnnotationUtils.findAnnotation(targetMethod, SuppressLogging.class) != null;
+
+            advisedMethod = new AdvisedMethod(suppressLogging,
+                serviceMethodMetricsRegistry.getMethodMetrics(targetClass.getName() + "." + targetMethod.getName()));
+            targetClassAdvisedMethods.put(signatureMethod, advisedMethod);
+        }
+
+        return advisedMethod;
+    }
+
+    /**
+     * A service method along with whether it suppresses logging and its metrics.
+     */
+    private static class AdvisedMethod
+    {
+        private final boolean suppressLogging;
+
+        private final ServiceMethodMetricsRegistry.MethodMetrics methodMetrics;
+
+        AdvisedMethod(boolean suppressLogging, ServiceMethodMetricsRegistry.MethodMetrics methodMetrics)
         {
-            // Invoke the method normally.
-            return pjp.proceed();
+            this.suppressLogging = suppressLogging;
+            this.methodMetrics = methodMetrics;
         }
     }
 }
@@ -82,6 +82,7 @@ import org.finra.herd.service.activiti.HerdDelegateInterceptor;
 import org.finra.herd.service.activiti.HerdProcessEngineConfigurator;
 import org.finra.herd.service.helper.HerdErrorInformationExceptionHandler;
 import org.finra.herd.service.helper.HerdJmsDestinationResolver;
+import org.finra.herd.service.helper.StoragePolicyProcessorWorkerPool;
 import org.finra.herd.service.systemjobs.AbstractSystemJob;
 
 /**
@@ -425,19 +426,26 @@ public class ServiceSpringModuleConfig
     }
 
     /**
-     * Gets a JMS listener container factory that returns a JMS listener container for the storage policy processor JMS message listener service.
+     * Gets a JMS listener container factory that returns a JMS listener container for the storage policy processor JMS message listener service. Unless the
+     * concurrency limits are configured, they are sized from the storage policy processor worker pool stages, since each listener thread waits for its storage
+     * policy transition to be finalized.
      *
      * @param jmsConnectionFactory the JMS connection factory
+     * @param storagePolicyProcessorWorkerPool the storage policy processor worker pool
      *
      * @return the JMS listener container factory
      */
     @Bean
-    public DefaultJmsListenerContainerFactory storagePolicyProcessorJmsListenerContainerFactory(ConnectionFactory jmsConnectionFactory)
+    public DefaultJmsListenerContainerFactory storagePolicyProcessorJmsListenerContainerFactory(ConnectionFactory jmsConnectionFactory,
+        StoragePolicyProcessorWorkerPool storagePolicyProcessorWorkerPool)
     {
+        String concurrencyLimits = configurationHelper.getProperty(ConfigurationValue.STORAGE_POLICY_PROCESSOR_JMS_LISTENER_POOL_CONCURRENCY_LIMITS);
+
         DefaultJmsListenerContainerFactory factory = new DefaultJmsListenerContainerFactory();
         factory.setConnectionFactory(jmsConnectionFactory);
         factory.setDestinationResolver(herdDestinationResolver);
-        factory.setConcurrency(configurationHelper.getProperty(ConfigurationValue.STORAGE_POLICY_PROCESSOR_JMS_LISTENER_POOL_CONCURRENCY_LIMITS));
+        factory.setConcurrency(
+            StringUtils.isNotBlank(concurrencyLimits) ? concurrencyLimits : storagePolicyProcessorWorkerPool.getJmsListenerConcurrencyLimits());
 
         return factory;
     }
@@ -51,6 +51,7 @@ import org.finra.herd.model.api.xml.StorageFile;
 import org.finra.herd.model.api.xml.StorageUnit;
 import org.finra.herd.model.api.xml.StorageUnitCreateRequest;
 import org.finra.herd.model.dto.ConfigurationValue;
+import org.finra.herd.model.dto.PartitionFilterCrossProduct;
 import org.finra.herd.model.dto.S3FileTransferRequestParamsDto;
 import org.finra.herd.model.jpa.BusinessObjectDataAttributeDefinitionEntity;
 import org.finra.herd.model.jpa.BusinessObjectDataAttributeEntity;
@@ -139,6 +140,7 @@ public class BusinessObjectDataDaoHelper
      * Build partition filters based on the specified partition value filters.  This method also validates the partition value filters (including partition
      * keys) against the business object format schema.  When request contains multiple partition value filters, the system will check business object data
      * availability for n-fold Cartesian product of the partition values specified, where n is a number of partition value filters (partition value sets).
+     * The returned list is a read-only view of the Cartesian product, so the partition filters are only computed as they are accessed.
      *
      * @param partitionValueFilters the list of partition value filters
      * @param standalonePartitionValueFilter the standalone partition value filter
@@ -196,14 +198,13 @@ public class BusinessObjectDataDaoHelper
 
         // When request contains multiple partition value filters, the system will check business object data availability for n-fold Cartesian product
         // of the partition values specified, where n is a number of partition value filters (partition value sets).
-        List<String[]> crossProductResult = getCrossProduct(partitionValues);
-        List<List<String>> partitionFilters = new ArrayList<>();
-        for (String[] crossProductRow : crossProductResult)
+        List<List<String>> partitionValuesByColumn = new ArrayList<>();
+        for (int i = 0; i < BusinessObjectDataEntity.MAX_SUBPARTITIONS + 1; i++)
         {
-            partitionFilters.add(Arrays.asList(crossProductRow));
+            partitionValuesByColumn.add(partitionValues.get(i));
         }
 
-        return partitionFilters;
+        return new PartitionFilterCrossProduct(partitionValuesByColumn);
     }
 
     /**
@@ -853,39 +854,6 @@ public class BusinessObjectDataDaoHelper
         return storageFileHelper.createStorageFilesFromS3ObjectSummaries(s3ObjectSummaries);
     }
 
-    /**
-     * Returns a Cartesian product of the lists of values specified.
-     *
-     * @param lists the lists of values
-     *
-     * @return the Cartesian product
-     */
-    private List<String[]> getCrossProduct(Map<Integer, List<String>> lists)
-    {
-        List<String[]> results = new ArrayList<>();
-        getCrossProduct(results, lists, 0, new String[lists.size()]);
-        return results;
-    }
-
-    /**
-     * A helper function used to compute a Cartesian product of the lists of values specified.
-     */
-    private void getCrossProduct(List<String[]> results, Map<Integer, List<String>> lists, int depth, String[] current)
-    {
-        for (int i = 0; i < lists.get(depth).size(); i++)
-        {
-            current[depth] = lists.get(depth).get(i);
-            if (depth < lists.keySet().size() - 1)
-            {
-                getCrossProduct(results, lists, depth + 1, current);
-            }
-            else
-            {
-                results.add(Arrays.copyOf(current, current.length));
-            }
-        }
-    }
-
     /**
      * Gets the file validation parameters that can be used for getting a list of files by the S3 service. The returned DTO will contain the expected S3 key
      * prefix when the "validate path prefix" flag is set or it will contain the directory of the storage entity if not.
@@ -15,6 +15,7 @@
 */
 package org.finra.herd.service.helper;
 
+import java.io.Writer;
 import java.util.List;
 import java.util.Map;
 
@@ -61,6 +62,22 @@ public abstract class DdlGenerator
     public abstract String generateCreateTableDdl(BusinessObjectDataDdlRequest request, BusinessObjectFormatEntity businessObjectFormatEntity,
         CustomDdlEntity customDdlEntity, List<String> storageNames, List<StorageEntity> storageEntities, Map<StorageEntity, String> s3BucketNames);
 
+    /**
+     * This method generates the create table DDL as per specified business object data DDL request and streams it to the specified writer as it gets
+     * generated. This allows generating DDL for a large number of partitions without building the entire DDL in memory.
+     *
+     * @param request the business object data DDL request
+     * @param businessObjectFormatEntity the business object format entity
+     * @param customDdlEntity the optional custom DDL entity
+     * @param storageNames the list of storage names
+     * @param storageEntities the list of storage entities
+     * @param s3BucketNames the map of storage entities to the relative S3 bucket names
+     * @param writer the writer to stream the generated DDL to
+     */
+    public abstract void generateCreateTableDdl(BusinessObjectDataDdlRequest request, BusinessObjectFormatEntity businessObjectFormatEntity,
+        CustomDdlEntity customDdlEntity, List<String> storageNames, List<StorageEntity> storageEntities, Map<StorageEntity, String> s3BucketNames,
+        Writer writer);
+
     public abstract String generateReplaceColumnsStatement(BusinessObjectFormatDdlRequest request, BusinessObjectFormatEntity businessObjectFormatEntity);
 
     /**
@@ -15,12 +15,18 @@
 */
 package org.finra.herd.service.helper;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -89,6 +95,25 @@ public class Hive13DdlGenerator extends DdlGenerator
      */
     public static final String TEXT_HIVE_FILE_FORMAT = "TEXTFILE";
 
+    /**
+     * The maximum number of Hive partition path parsers kept in the cache.
+     */
+    private static final int MAX_HIVE_PARTITION_PATH_PARSERS = 1000;
+
+    /**
+     * The Hive partition path parsers keyed by the list of partition column names, so the parser for a format is only built once. The least recently used
+     * parser is removed once the cache is full.
+     */
+    private final Map<List<String>, HivePartitionPathParser> hivePartitionPathParsers =
+        Collections.synchronizedMap(new LinkedHashMap<List<String>, HivePartitionPathParser>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<String>, HivePartitionPathParser> eldest)
+            {
+                return size() > MAX_HIVE_PARTITION_PATH_PARSERS;
+            }
+        });
+
     @Autowired
     private BusinessObjectDataDaoHelper businessObjectDataDaoHelper;
 
@@ -156,6 +181,47 @@ public class Hive13DdlGenerator extends DdlGenerator
     @Override
     public String generateCreateTableDdl(BusinessObjectDataDdlRequest request, BusinessObjectFormatEntity businessObjectFormatEntity,
         CustomDdlEntity customDdlEntity, List<String> storageNames, List<StorageEntity> storageEntities, Map<StorageEntity, String> s3BucketNames)
+    {
+        StringWriter stringWriter = new StringWriter();
+        generateCreateTableDdlHelper(
+            getGenerateDdlRequest(request, businessObjectFormatEntity, customDdlEntity, storageNames, storageEntities, s3BucketNames), stringWriter);
+        return stringWriter.toString();
+    }
+
+    /**
+     * Generates the create table Hive 13 DDL as per specified business object data DDL request and streams it to the specified writer.
+     *
+     * @param request the business object data DDL request
+     * @param businessObjectFormatEntity the business object format entity
+     * @param customDdlEntity the optional custom DDL entity
+     * @param storageNames the list of storage names
+     * @param storageEntities the list of storage entities
+     * @param s3BucketNames the map of storage entities to the relative S3 bucket names
+     * @param writer the writer to stream the create table Hive DDL to
+     */
+    @Override
+    public void generateCreateTableDdl(BusinessObjectDataDdlRequest request, BusinessObjectFormatEntity businessObjectFormatEntity,
+        CustomDdlEntity customDdlEntity, List<String> storageNames, List<StorageEntity> storageEntities, Map<StorageEntity, String> s3BucketNames,
+        Writer writer)
+    {
+        generateCreateTableDdlHelper(getGenerateDdlRequest(request, businessObjectFormatEntity, customDdlEntity, storageNames, storageEntities, s3BucketNames),
+            writer);
+    }
+
+    /**
+     * Builds the DDL generation parameters as per specified business object data DDL request.
+     *
+     * @param request the business object data DDL request
+     * @param businessObjectFormatEntity the business object format entity
+     * @param customDdlEntity the optional custom DDL entity
+     * @param storageNames the list of storage names
+     * @param storageEntities the list of storage entities
+     * @param s3BucketNames the map of storage entities to the relative S3 bucket names
+     *
+     * @return the DDL generation parameters
+     */
+    private GenerateDdlRequest getGenerateDdlRequest(BusinessObjectDataDdlRequest request, BusinessObjectFormatEntity businessObjectFormatEntity,
+        CustomDdlEntity customDdlEntity, List<String> storageNames, List<StorageEntity> storageEntities, Map<StorageEntity, String> s3BucketNames)
     {
         // Get business object format key from the request.
         BusinessObjectFormatKey businessObjectFormatKey =
@@ -194,7 +260,7 @@ public class Hive13DdlGenerator extends DdlGenerator
         generateDdlRequest.storageNames = storageNames;
         generateDdlRequest.storageEntities = storageEntities;
         generateDdlRequest.s3BucketNames = s3BucketNames;
-        return generateCreateTableDdlHelper(generateDdlRequest);
+        return generateDdlRequest;
     }
 
     /**
@@ -221,7 +287,9 @@ public class Hive13DdlGenerator extends DdlGenerator
         generateDdlRequest.tableName = request.getTableName();
         generateDdlRequest.includeDropTableStatement = request.isIncludeDropTableStatement();
         generateDdlRequest.includeIfNotExistsOption = request.isIncludeIfNotExistsOption();
-        return generateCreateTableDdlHelper(generateDdlRequest);
+        StringWriter stringWriter = new StringWriter();
+        generateCreateTableDdlHelper(generateDdlRequest, stringWriter);
+        return stringWriter.toString();
     }
 
     @Override
@@ -327,30 +395,32 @@ public class Hive13DdlGenerator extends DdlGenerator
         // We are using linked hash map to preserve the order of the discovered partitions.
         LinkedHashMap<List<String>, HivePartitionDto> linkedHashMap = new LinkedHashMap<>();
 
-        Pattern pattern = getHivePathPattern(autoDiscoverableSubPartitionColumns);
+        HivePartitionPathParser hivePartitionPathParser = getHivePartitionPathParser(autoDiscoverableSubPartitionColumns);
         for (String storageFile : storageFiles)
         {
             // Remove S3 key prefix from the file path. Please note that the storage files are already validated to start with S3 key prefix.
             String relativeFilePath = storageFile.substring(s3KeyPrefix.length());
 
-            // Try to match the relative file path to the expected subpartition folders.
-            Matcher matcher = pattern.matcher(relativeFilePath);
-            Assert.isTrue(matcher.matches(), String.format("Registered storage file or directory does not match the expected Hive sub-directory pattern. " +
-                "Storage: {%s}, file/directory: {%s}, business object data: {%s}, S3 key prefix: {%s}, pattern: {^%s$}", storageName, storageFile,
-                businessObjectDataHelper.businessObjectDataEntityAltKeyToString(businessObjectDataEntity), s3KeyPrefix, pattern.pattern()));
+            // Try to match the relative file path to the expected subpartition folders. The error message is only built when the path does not match,
+            // since this runs for every storage file.
+            List<String> subPartitionValues = hivePartitionPathParser.parsePartitionValues(relativeFilePath);
+            if (subPartitionValues == null)
+            {
+                throw new IllegalArgumentException(String.format("Registered storage file or directory does not match the expected Hive sub-directory " +
+                    "pattern. Storage: {%s}, file/directory: {%s}, business object data: {%s}, S3 key prefix: {%s}, pattern: {^%s$}", storageName,
+                    storageFile, businessObjectDataHelper.businessObjectDataEntityAltKeyToString(businessObjectDataEntity), s3KeyPrefix,
+                    hivePartitionPathParser.getPattern().pattern()));
+            }
 
             // Add the top level partition value.
             HivePartitionDto newHivePartition = new HivePartitionDto();
             newHivePartition.getPartitionValues().add(businessObjectDataKey.getPartitionValue());
             newHivePartition.getPartitionValues().addAll(businessObjectDataKey.getSubPartitionValues());
-            // Extract relative partition values.
-            for (int i = 1; i <= matcher.groupCount(); i++)
-            {
-                newHivePartition.getPartitionValues().add(matcher.group(i));
-            }
+            // Add relative partition values.
+            newHivePartition.getPartitionValues().addAll(subPartitionValues);
 
             // Remove the trailing "/" plus an optional file name from the file path and store the result string as this partition relative path.
-            newHivePartition.setPath(relativeFilePath.replaceAll("/[^/]*$", ""));
+            newHivePartition.setPath(hivePartitionPathParser.getPartitionPath(relativeFilePath));
 
             // Check if we already have that partition discovered - that would happen if partition contains multiple data files.
             HivePartitionDto hivePartition = linkedHashMap.get(newHivePartition.getPartitionValues());
@@ -358,11 +428,14 @@ public class Hive13DdlGenerator extends DdlGenerator
             if (hivePartition != null)
             {
                 // Partition is already discovered, so just validate that the relative file paths match.
-                Assert.isTrue(hivePartition.getPath().equals(newHivePartition.getPath()), String.format(
-                    "Found two different locations for the same Hive partition. Storage: {%s}, business object data: {%s}, " +
-                        "S3 key prefix: {%s}, path[1]: {%s}, path[2]: {%s}", storageName,
-                    businessObjectDataHelper.businessObjectDataEntityAltKeyToString(businessObjectDataEntity), s3KeyPrefix, hivePartition.getPath(),
-                    newHivePartition.getPath()));
+                if (!hivePartition.getPath().equals(newHivePartition.getPath()))
+                {
+                    throw new IllegalArgumentException(String.format(
+                        "Found two different locations for the same Hive partition. Storage: {%s}, business object data: {%s}, " +
+                            "S3 key prefix: {%s}, path[1]: {%s}, path[2]: {%s}", storageName,
+                        businessObjectDataHelper.businessObjectDataEntityAltKeyToString(businessObjectDataEntity), s3KeyPrefix, hivePartition.getPath(),
+                        newHivePartition.getPath()));
+                }
             }
             else
             {
@@ -382,30 +455,29 @@ public class Hive13DdlGenerator extends DdlGenerator
      *
      * @param partitionColumns the list of partition columns
      *
-     * @return the newly created pattern to match Hive partition sub-directories.
+     * @return the pattern to match Hive partition sub-directories.
      */
     public Pattern getHivePathPattern(List<SchemaColumn> partitionColumns)
     {
-        StringBuilder sb = new StringBuilder(26);
+        return getHivePartitionPathParser(partitionColumns).getPattern();
+    }
 
-        // For each partition column, add a regular expression to match "<COLUMN_NAME|COLUMN-NAME>=<VALUE>" sub-directory.
+    /**
+     * Gets a parser for the Hive partition sub-directories of the specified partition columns. The parsers are cached per list of partition column names.
+     *
+     * @param partitionColumns the list of partition columns
+     *
+     * @return the Hive partition path parser
+     */
+    private HivePartitionPathParser getHivePartitionPathParser(List<SchemaColumn> partitionColumns)
+    {
+        List<String> partitionColumnNames = new ArrayList<>(partitionColumns.size());
         for (SchemaColumn partitionColumn : partitionColumns)
         {
-            String partitionColumnName = partitionColumn.getName();
-            // We are using a non-capturing group for the partition column names here - this is done by adding "?:" to the beginning of a capture group.
-            sb.append("\\/(?:");
-            sb.append(Matcher.quoteReplacement(partitionColumnName));
-            // Please note that for subpartition folder, we do support partition column names having all underscores replaced with hyphens.
-            sb.append('|');
-            sb.append(Matcher.quoteReplacement(partitionColumnName.replace("_", "-")));
-            sb.append(")=([^/]+)");
+            partitionColumnNames.add(partitionColumn.getName());
         }
 
-        // Add a regular expression for a trailing "/" and an optional file name.
-        sb.append("\\/[^/]*");
-
-        // We do a case-insensitive match for partition column names.
-        return Pattern.compile(sb.toString(), Pattern.CASE_INSENSITIVE);
+        return hivePartitionPathParsers.computeIfAbsent(partitionColumnNames, HivePartitionPathParser::new);
     }
 
     /**
@@ -421,13 +493,13 @@ public class Hive13DdlGenerator extends DdlGenerator
     }
 
     /**
-     * Generates and append to the string builder the create table Hive 13 DDL as per specified parameters.
+     * Generates and writes to the writer the create table Hive 13 DDL as per specified parameters.
      */
-    private String generateCreateTableDdlHelper(GenerateDdlRequest generateDdlRequest)
+    private void generateCreateTableDdlHelper(GenerateDdlRequest generateDdlRequest, Writer writer)
     {
         // TODO: We might want to consider using a template engine such as Velocity to generate this DDL so we don't wind up just doing string manipulation.
 
-        StringBuilder sb = new StringBuilder();
+        DdlOutput sb = new DdlOutput(writer);
 
         // For custom DDL, we would need to substitute the custom DDL tokens with their relative values.
         HashMap<String, String> replacements = new HashMap<>();
@@ -483,11 +555,14 @@ public class Hive13DdlGenerator extends DdlGenerator
         }
         else
         {
-            // Use the custom DDL in place of the create table statement.
-            sb.append(String.format("%s\n\n", generateDdlRequest.customDdlEntity.getDdl()));
-
             // We need to substitute the relative custom DDL token with an actual table name.
             replacements.put(TABLE_NAME_CUSTOM_DDL_TOKEN, generateDdlRequest.tableName);
+
+            // Use the custom DDL in place of the create table statement. For a non-partitioned table, the custom DDL is added once the table location is known.
+            if (generateDdlRequest.isPartitioned)
+            {
+                sb.append(String.format("%s\n\n", substituteCustomDdlTokens(generateDdlRequest.customDdlEntity.getDdl(), replacements)));
+            }
         }
 
         // Add alter table statements only if the list of partition filters is not empty - this is applicable to generating DDL for business object data only.
@@ -503,18 +578,33 @@ public class Hive13DdlGenerator extends DdlGenerator
             sb.append(String.format("LOCATION '%s';", NON_PARTITIONED_TABLE_LOCATION_CUSTOM_DDL_TOKEN));
         }
 
-        // Trim to remove unnecessary end-of-line characters, if any, from the end of the generated DDL.
-        String resultDdl = sb.toString().trim();
+        // For custom DDL used for a non-partitioned table, substitute the relative custom DDL tokens with their values. Please note that
+        // a non-partitioned table does not have any "alter table" statements, so the custom DDL is still the last statement in the DDL.
+        if (generateDdlRequest.customDdlEntity != null && !generateDdlRequest.isPartitioned)
+        {
+            sb.append(String.format("%s\n\n", substituteCustomDdlTokens(generateDdlRequest.customDdlEntity.getDdl(), replacements)));
+        }
+
+        sb.flush();
+    }
 
-        // For custom DDL, substitute the relative custom DDL tokens with their values.
-        if (generateDdlRequest.customDdlEntity != null)
+    /**
+     * Substitutes the custom DDL tokens with their values.
+     *
+     * @param customDdl the custom DDL
+     * @param replacements the hash map of string values to be used to substitute the custom DDL tokens with their actual values
+     *
+     * @return the custom DDL with the tokens substituted
+     */
+    private String substituteCustomDdlTokens(String customDdl, Map<String, String> replacements)
+    {
+        String resultDdl = customDdl;
+
+        for (Map.Entry<String, String> entry : replacements.entrySet())
         {
-            for (Map.Entry<String, String> entry : replacements.entrySet())
-            {
-                String token = entry.getKey();
-                String value = entry.getValue();
-                resultDdl = resultDdl.replaceAll(Pattern.quote(token), value);
-            }
+            String token = entry.getKey();
+            String value = entry.getValue();
+            resultDdl = resultDdl.replaceAll(Pattern.quote(token), value);
         }
 
         return resultDdl;
@@ -565,7 +655,7 @@ public class Hive13DdlGenerator extends DdlGenerator
         return sb.toString();
     }
 
-    private void generateStandardBaseDdl(GenerateDdlRequest generateDdlRequest, StringBuilder sb, BusinessObjectFormat businessObjectFormat,
+    private void generateStandardBaseDdl(GenerateDdlRequest generateDdlRequest, DdlOutput sb, BusinessObjectFormat businessObjectFormat,
         String ifNotExistsOption)
     {
         // Please note that we escape table name and all column names to avoid Hive reserved words in DDL statement generation.
@@ -686,7 +776,7 @@ public class Hive13DdlGenerator extends DdlGenerator
         return hiveFileFormat;
     }
 
-    private void processPartitionFiltersForGenerateDdl(GenerateDdlRequest generateDdlRequest, StringBuilder sb, HashMap<String, String> replacements,
+    private void processPartitionFiltersForGenerateDdl(GenerateDdlRequest generateDdlRequest, DdlOutput sb, HashMap<String, String> replacements,
         BusinessObjectFormatEntity businessObjectFormatEntity, BusinessObjectFormat businessObjectFormat, String ifNotExistsOption)
     {
         // Get the business object format key from the entity.
@@ -735,14 +825,21 @@ public class Hive13DdlGenerator extends DdlGenerator
         // Fail on any missing business object data unless the flag is set.
         if (generateDdlRequest.allowMissingData == null || !generateDdlRequest.allowMissingData)
         {
-            // Get a list of unmatched partition filters.
-            List<List<String>> unmatchedPartitionFilters = new ArrayList<>(generateDdlRequest.partitionFilters);
-            unmatchedPartitionFilters.removeAll(matchedAvailablePartitionFilters);
+            // Get the first unmatched partition filter, if any.
+            Set<List<String>> matchedPartitionFilters = new HashSet<>(matchedAvailablePartitionFilters);
+            List<String> unmatchedPartitionFilter = null;
+            for (List<String> partitionFilter : generateDdlRequest.partitionFilters)
+            {
+                if (!matchedPartitionFilters.contains(partitionFilter))
+                {
+                    unmatchedPartitionFilter = new ArrayList<>(partitionFilter);
+                    break;
+                }
+            }
 
             // Throw an exception if we have any unmatched partition filters.
-            if (!unmatchedPartitionFilters.isEmpty())
+            if (unmatchedPartitionFilter != null)
             {
-                List<String> unmatchedPartitionFilter = unmatchedPartitionFilters.get(0);
                 // Replace all null partition values with an empty string.
                 for (int i = 0; i < unmatchedPartitionFilter.size(); i++)
                 {
@@ -806,26 +903,33 @@ public class Hive13DdlGenerator extends DdlGenerator
 
     /**
      * Adds the relative "alter table add partition" statements for each storage unit entity. Please note that each request partition value might result in
-     * multiple available storage unit entities (subpartitions).
+     * multiple available storage unit entities (subpartitions). The storage units are processed in chunks, so only the storage file paths of a single chunk
+     * are kept in memory at a time.
      *
-     * @param sb the string builder to be updated with the "alter table add partition" statements
+     * @param sb the DDL output to be updated with the "alter table add partition" statements
      * @param replacements the hash map of string values to be used to substitute the custom DDL tokens with their actual values
      * @param businessObjectFormatEntity the business object format entity
      * @param businessObjectFormat the business object format
      * @param ifNotExistsOption specifies if generated DDL contains "if not exists" option
      * @param storageUnitEntities the list of storage unit entities
      */
-    private void processStorageUnitsForGenerateDdl(GenerateDdlRequest generateDdlRequest, StringBuilder sb, HashMap<String, String> replacements,
+    private void processStorageUnitsForGenerateDdl(GenerateDdlRequest generateDdlRequest, DdlOutput sb, HashMap<String, String> replacements,
         BusinessObjectFormatEntity businessObjectFormatEntity, BusinessObjectFormat businessObjectFormat, String ifNotExistsOption,
         List<StorageUnitEntity> storageUnitEntities)
     {
-        if (!CollectionUtils.isEmpty(storageUnitEntities))
+        // Get the maximum number of storage units to process at a time.
+        int chunkSize = Math.max(configurationHelper.getProperty(ConfigurationValue.HIVE_DDL_STORAGE_UNIT_CHUNK_SIZE, Integer.class), 1);
+
+        for (int fromIndex = 0; fromIndex < CollectionUtils.size(storageUnitEntities); fromIndex += chunkSize)
         {
-            // Retrieve all storage file paths for the relative storage units loaded in a multi-valued map for easy access.
-            MultiValuedMap<Integer, String> storageUnitIdToStorageFilePathsMap = storageFileDao.getStorageFilePathsByStorageUnits(storageUnitEntities);
+            List<StorageUnitEntity> storageUnitEntitiesChunk =
+                storageUnitEntities.subList(fromIndex, Math.min(fromIndex + chunkSize, storageUnitEntities.size()));
 
-            // Process all available business object data instances.
-            for (StorageUnitEntity storageUnitEntity : storageUnitEntities)
+            // Retrieve storage file paths for the relative storage units loaded in a multi-valued map for easy access.
+            MultiValuedMap<Integer, String> storageUnitIdToStorageFilePathsMap = storageFileDao.getStorageFilePathsByStorageUnits(storageUnitEntitiesChunk);
+
+            // Process available business object data instances from this chunk.
+            for (StorageUnitEntity storageUnitEntity : storageUnitEntitiesChunk)
             {
                 // Get business object data key and S3 key prefix for this business object data.
                 BusinessObjectDataKey businessObjectDataKey = businessObjectDataHelper.getBusinessObjectDataKey(storageUnitEntity.getBusinessObjectData());
@@ -932,7 +1036,7 @@ public class Hive13DdlGenerator extends DdlGenerator
     }
 
     /**
-     * Parameters grouping for {@link Hive13DdlGenerator#generateCreateTableDdlHelper(GenerateDdlRequest)}
+     * Parameters grouping for {@link Hive13DdlGenerator#generateCreateTableDdlHelper(GenerateDdlRequest, Writer)}
      */
     private static class GenerateDdlRequest
     {
@@ -969,6 +1073,102 @@ public class Hive13DdlGenerator extends DdlGenerator
         private String tableName;
     }
 
+    /**
+     * The output of the DDL generation that writes the generated DDL to a writer as it gets generated. To produce the same DDL as trimming the entire
+     * generated text would, the leading whitespace characters are skipped and the whitespace characters are only written once they are followed by more DDL.
+     */
+    private static class DdlOutput
+    {
+        private final Writer writer;
+
+        private final StringBuilder pendingWhitespace = new StringBuilder();
+
+        private boolean started;
+
+        private DdlOutput(Writer writer)
+        {
+            this.writer = writer;
+        }
+
+        /**
+         * Appends the specified text to the DDL.
+         *
+         * @param text the text to append
+         *
+         * @return this DDL output
+         */
+        private DdlOutput append(String text)
+        {
+            int start = 0;
+            int end = text.length();
+
+            // Skip the leading whitespace characters of the DDL.
+            if (!started)
+            {
+                while (start < end && text.charAt(start) <= ' ')
+                {
+                    start++;
+                }
+            }
+
+            // Hold back the trailing whitespace characters, since they are only written if more DDL follows.
+            int whitespaceStart = end;
+            while (whitespaceStart > start && text.charAt(whitespaceStart - 1) <= ' ')
+            {
+                whitespaceStart--;
+            }
+
+            try
+            {
+                if (whitespaceStart > start)
+                {
+                    writer.append(pendingWhitespace);
+                    pendingWhitespace.setLength(0);
+                    writer.write(text, start, whitespaceStart - start);
+                    started = true;
+                }
+            }
+            catch (IOException e)
+            {
+                throw new IllegalStateException(e);
+            }
+
+            if (started)
+            {
+                pendingWhitespace.append(text, whitespaceStart, end);
+            }
+
+            return this;
+        }
+
+        /**
+         * Appends the specified character to the DDL.
+         *
+         * @param character the character to append
+         *
+         * @return this DDL output
+         */
+        private DdlOutput append(char character)
+        {
+            return append(String.valueOf(character));
+        }
+
+        /**
+         * Flushes the DDL written so far.
+         */
+        private void flush()
+        {
+            try
+            {
+                writer.flush();
+            }
+            catch (IOException e)
+            {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
     /**
      * Eliminate storage units that belong to the same business object data by picking storage unit registered in a storage listed earlier in the list of
      * storage names specified in the request. If storage names are not specified, simply fail on business object data instances registered with multiple
@@ -1040,9 +1240,10 @@ public class Hive13DdlGenerator extends DdlGenerator
         // of business object data or storage unit statuses. We do validate that all specified storages are of "S3" storage platform type, so we specify S3
         // storage platform type in the herdDao call below, so we select storage units only from all S3 storages, when the specified list of storages is empty.
         // We want to select any existing storage units regardless of their status, so we pass "false" for selectOnlyAvailableStorageUnits parameter.
+        // The matched partition filters only specify registered partition values, so we pass "true" for partitionFiltersRegistered parameter.
         List<StorageUnitEntity> matchedNotAvailableStorageUnitEntities = storageUnitDao
             .getStorageUnitsByPartitionFiltersAndStorages(businessObjectFormatKey, matchedAvailablePartitionFilters, null, null, storageNames,
-                StoragePlatformEntity.S3, null, false);
+                StoragePlatformEntity.S3, null, false, true);
 
         // Exclude all storage units with business object data having "DELETED" status.
         matchedNotAvailableStorageUnitEntities =
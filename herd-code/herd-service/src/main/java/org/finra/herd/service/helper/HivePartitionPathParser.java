@@ -0,0 +1,161 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.service.helper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses relative storage file paths that are expected to match the Hive partition sub-directories of a list of partition columns, i.e.
+ * "/&lt;COLUMN_NAME|COLUMN-NAME&gt;=&lt;VALUE&gt;/.../&lt;optional file name&gt;". The partition column names are matched ignoring the case. The parsing is
+ * done by scanning the path, so no regular expression is evaluated per path. The equivalent regular expression is still available for error messages.
+ * <p/>
+ * Instances are immutable and can be shared between threads.
+ */
+public class HivePartitionPathParser
+{
+    private final String[] partitionColumnNames;
+
+    private final String[] hyphenatedPartitionColumnNames;
+
+    private final Pattern pattern;
+
+    /**
+     * Creates a parser for the specified partition columns.
+     *
+     * @param partitionColumnNames the list of partition column names in the order of the expected sub-directories
+     */
+    public HivePartitionPathParser(List<String> partitionColumnNames)
+    {
+        this.partitionColumnNames = partitionColumnNames.toArray(new String[partitionColumnNames.size()]);
+        this.hyphenatedPartitionColumnNames = new String[partitionColumnNames.size()];
+
+        StringBuilder sb = new StringBuilder(26);
+
+        // For each partition column, add a regular expression to match "<COLUMN_NAME|COLUMN-NAME>=<VALUE>" sub-directory.
+        for (int i = 0; i < this.partitionColumnNames.length; i++)
+        {
+            String partitionColumnName = this.partitionColumnNames[i];
+            // Please note that for subpartition folder, we do support partition column names having all underscores replaced with hyphens.
+            hyphenatedPartitionColumnNames[i] = partitionColumnName.replace("_", "-");
+
+            // We are using a non-capturing group for the partition column names here - this is done by adding "?:" to the beginning of a capture group.
+            sb.append("\\/(?:");
+            sb.append(Matcher.quoteReplacement(partitionColumnName));
+            sb.append('|');
+            sb.append(Matcher.quoteReplacement(hyphenatedPartitionColumnNames[i]));
+            sb.append(")=([^/]+)");
+        }
+
+        // Add a regular expression for a trailing "/" and an optional file name.
+        sb.append("\\/[^/]*");
+
+        // We do a case-insensitive match for partition column names.
+        this.pattern = Pattern.compile(sb.toString(), Pattern.CASE_INSENSITIVE);
+    }
+
+    /**
+     * Gets the regular expression pattern that matches the same relative paths as this parser.
+     *
+     * @return the pattern
+     */
+    public Pattern getPattern()
+    {
+        return pattern;
+    }
+
+    /**
+     * Parses the partition values from a relative file path.
+     *
+     * @param relativeFilePath the file path relative to the S3 key prefix, starting with a "/" character
+     *
+     * @return the list of partition values, one per partition column, or null if the path does not match the expected sub-directories
+     */
+    public List<String> parsePartitionValues(String relativeFilePath)
+    {
+        List<String> partitionValues = new ArrayList<>(partitionColumnNames.length);
+
+        int position = 0;
+        for (int i = 0; i < partitionColumnNames.length; i++)
+        {
+            // Each sub-directory must be followed by another "/" character, since the path ends with a trailing "/" and an optional file name.
+            if (position >= relativeFilePath.length() || relativeFilePath.charAt(position) != '/')
+            {
+                return null;
+            }
+            int subDirectoryStart = position + 1;
+            int subDirectoryEnd = relativeFilePath.indexOf('/', subDirectoryStart);
+            if (subDirectoryEnd < 0)
+            {
+                return null;
+            }
+
+            int valueStart = getPartitionValueStart(relativeFilePath, subDirectoryStart, subDirectoryEnd, partitionColumnNames[i]);
+            if (valueStart < 0)
+            {
+                valueStart = getPartitionValueStart(relativeFilePath, subDirectoryStart, subDirectoryEnd, hyphenatedPartitionColumnNames[i]);
+            }
+            if (valueStart < 0)
+            {
+                return null;
+            }
+
+            partitionValues.add(relativeFilePath.substring(valueStart, subDirectoryEnd));
+            position = subDirectoryEnd;
+        }
+
+        // The path must end with a "/" character followed by an optional file name.
+        if (position >= relativeFilePath.length() || relativeFilePath.charAt(position) != '/' || relativeFilePath.indexOf('/', position + 1) >= 0)
+        {
+            return null;
+        }
+
+        return partitionValues;
+    }
+
+    /**
+     * Gets the partition path of a relative file path that was successfully parsed, i.e. the path without the trailing "/" character and the optional file
+     * name.
+     *
+     * @param relativeFilePath the relative file path
+     *
+     * @return the partition path
+     */
+    public String getPartitionPath(String relativeFilePath)
+    {
+        return relativeFilePath.substring(0, relativeFilePath.lastIndexOf('/'));
+    }
+
+    /**
+     * Gets the start index of the partition value in a "&lt;COLUMN NAME&gt;=&lt;VALUE&gt;" sub-directory.
+     *
+     * @param path the path
+     * @param subDirectoryStart the start index of the sub-directory
+     * @param subDirectoryEnd the index of the "/" character that ends the sub-directory
+     * @param partitionColumnName the partition column name
+     *
+     * @return the start index of the non-empty partition value, or -1 if the sub-directory does not match the partition column name
+     */
+    private int getPartitionValueStart(String path, int subDirectoryStart, int subDirectoryEnd, String partitionColumnName)
+    {
+        int separatorIndex = subDirectoryStart + partitionColumnName.length();
+
+        return separatorIndex + 1 < subDirectoryEnd && path.charAt(separatorIndex) == '=' &&
+            path.regionMatches(true, subDirectoryStart, partitionColumnName, 0, partitionColumnName.length()) ? separatorIndex + 1 : -1;
+    }
+}
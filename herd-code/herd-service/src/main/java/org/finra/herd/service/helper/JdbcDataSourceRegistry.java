@@ -0,0 +1,298 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.service.helper;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.stereotype.Component;
+
+import org.finra.herd.core.helper.ConfigurationHelper;
+import org.finra.herd.model.dto.ConfigurationValue;
+
+/**
+ * A registry of connection pools used by the JDBC service, keyed by JDBC URL and user name. Each pool is bounded, validates connections when they are
+ * borrowed and closes connections that stay idle for too long. The number of pools is bounded as well and the pool used least recently is removed once the
+ * limit is reached.
+ * <p/>
+ * A data source is borrowed for the duration of an execution and must be returned afterwards. A pool removed from the registry is only closed once no
+ * execution is borrowing it anymore. Since pooled connections are shared by executions, a connection is rolled back and reset to auto-commit and read-write
+ * when it is returned, and the optional configured init SQL and validation query can reset any other session state.
+ */
+@Component
+public class JdbcDataSourceRegistry implements DisposableBean
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(JdbcDataSourceRegistry.class);
+
+    /**
+     * The maximum time between two runs of the idle connection evictor.
+     */
+    private static final long MAX_EVICTION_RUN_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    @Autowired
+    private ConfigurationHelper configurationHelper;
+
+    /**
+     * The connection pools in access order, so the first pool is the one used least recently.
+     */
+    private final Map<List<String>, PooledDataSource> dataSources = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * All connection pools that are not closed yet by their data source, including the pools removed from the registry that are still borrowed.
+     */
+    private final Map<DataSource, PooledDataSource> openDataSources = new IdentityHashMap<>();
+
+    /**
+     * Borrows a data source for the specified connection information. The data source is pooled unless connection pooling is disabled. The data source must
+     * be returned with {@link #returnDataSource(DataSource)} once it is no longer used.
+     *
+     * @param driverClassName the fully qualified JDBC driver class name
+     * @param url the JDBC URL
+     * @param username the user name
+     * @param password the password
+     *
+     * @return the data source
+     */
+    public DataSource borrowDataSource(String driverClassName, String url, String username, String password)
+    {
+        int maxTotal = configurationHelper.getProperty(ConfigurationValue.JDBC_CONNECTION_POOL_MAX_TOTAL, Integer.class);
+        if (maxTotal <= 0)
+        {
+            DriverManagerDataSource driverManagerDataSource = new DriverManagerDataSource();
+            driverManagerDataSource.setUrl(url);
+            driverManagerDataSource.setUsername(username);
+            driverManagerDataSource.setPassword(password);
+            driverManagerDataSource.setDriverClassName(driverClassName);
+            return driverManagerDataSource;
+        }
+
+        List<String> key = Arrays.asList(url, username);
+
+        synchronized (dataSources)
+        {
+            PooledDataSource pooledDataSource = dataSources.get(key);
+
+            // A pool is only reused with the password it was created with, so a changed password never gets connections opened with the previous one.
+            if (pooledDataSource != null && !(pooledDataSource.driverClassName.equals(driverClassName) && pooledDataSource.password.equals(password)))
+            {
+                dataSources.remove(key);
+                retire(pooledDataSource);
+                pooledDataSource = null;
+            }
+
+            if (pooledDataSource == null)
+            {
+                // Remove the least recently used pools to make room for the new one.
+                int maxCount = Math.max(configurationHelper.getProperty(ConfigurationValue.JDBC_CONNECTION_POOL_MAX_COUNT, Integer.class), 1);
+                Iterator<PooledDataSource> iterator = dataSources.values().iterator();
+                while (dataSources.size() >= maxCount && iterator.hasNext())
+                {
+                    PooledDataSource leastRecentlyUsedDataSource = iterator.next();
+                    iterator.remove();
+                    retire(leastRecentlyUsedDataSource);
+                }
+
+                pooledDataSource =
+                    new PooledDataSource(key, driverClassName, password, createBasicDataSource(driverClassName, url, username, password, maxTotal));
+                dataSources.put(key, pooledDataSource);
+                openDataSources.put(pooledDataSource.basicDataSource, pooledDataSource);
+
+                LOGGER.info("Created JDBC connection pool. jdbcUrl=\"{}\" username=\"{}\" maxTotal={} poolCount={}", url, username, maxTotal,
+                    dataSources.size());
+            }
+
+            pooledDataSource.borrowerCount++;
+            return pooledDataSource.basicDataSource;
+        }
+    }
+
+    /**
+     * Returns a data source borrowed with {@link #borrowDataSource(String, String, String, String)}. A pool removed from the registry is closed once the last
+     * borrower returns it.
+     *
+     * @param dataSource the data source
+     */
+    public void returnDataSource(DataSource dataSource)
+    {
+        synchronized (dataSources)
+        {
+            PooledDataSource pooledDataSource = openDataSources.get(dataSource);
+            if (pooledDataSource != null && --pooledDataSource.borrowerCount <= 0 && pooledDataSource.retired)
+            {
+                close(pooledDataSource);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of connection pools in the registry.
+     *
+     * @return the number of connection pools
+     */
+    public int getDataSourceCount()
+    {
+        synchronized (dataSources)
+        {
+            return dataSources.size();
+        }
+    }
+
+    @Override
+    public void destroy()
+    {
+        synchronized (dataSources)
+        {
+            for (PooledDataSource pooledDataSource : openDataSources.values().toArray(new PooledDataSource[0]))
+            {
+                close(pooledDataSource);
+            }
+            dataSources.clear();
+        }
+    }
+
+    /**
+     * Creates a bounded connection pool.
+     *
+     * @param driverClassName the fully qualified JDBC driver class name
+     * @param url the JDBC URL
+     * @param username the user name
+     * @param password the password
+     * @param maxTotal the maximum number of connections
+     *
+     * @return the connection pool
+     */
+    private BasicDataSource createBasicDataSource(String driverClassName, String url, String username, String password, int maxTotal)
+    {
+        long idleTimeoutMillis =
+            TimeUnit.SECONDS.toMillis(configurationHelper.getProperty(ConfigurationValue.JDBC_CONNECTION_POOL_IDLE_TIMEOUT_SECONDS, Integer.class));
+
+        BasicDataSource basicDataSource = new BasicDataSource();
+        basicDataSource.setDriverClassName(driverClassName);
+        basicDataSource.setUrl(url);
+        basicDataSource.setUsername(username);
+        basicDataSource.setPassword(password);
+        basicDataSource.setMaxTotal(maxTotal);
+        basicDataSource.setMaxIdle(maxTotal);
+        basicDataSource.setMinIdle(0);
+        basicDataSource.setMaxWaitMillis(
+            TimeUnit.SECONDS.toMillis(configurationHelper.getProperty(ConfigurationValue.JDBC_CONNECTION_POOL_MAX_WAIT_SECONDS, Integer.class)));
+        basicDataSource.setTestOnBorrow(true);
+        basicDataSource.setMinEvictableIdleTimeMillis(idleTimeoutMillis);
+        basicDataSource.setTimeBetweenEvictionRunsMillis(Math.max(Math.min(idleTimeoutMillis, MAX_EVICTION_RUN_INTERVAL_MILLIS), 1000));
+
+        // Reset the session state a previous execution may have left on a connection.
+        basicDataSource.setRollbackOnReturn(true);
+        basicDataSource.setEnableAutoCommitOnReturn(true);
+        basicDataSource.setDefaultAutoCommit(true);
+        basicDataSource.setDefaultReadOnly(false);
+
+        String initSql = configurationHelper.getProperty(ConfigurationValue.JDBC_CONNECTION_POOL_INIT_SQL);
+        if (StringUtils.isNotBlank(initSql))
+        {
+            basicDataSource.setConnectionInitSqls(Arrays.asList(initSql));
+        }
+
+        String validationQuery = configurationHelper.getProperty(ConfigurationValue.JDBC_CONNECTION_POOL_VALIDATION_QUERY);
+        if (StringUtils.isNotBlank(validationQuery))
+        {
+            basicDataSource.setValidationQuery(validationQuery);
+        }
+
+        return basicDataSource;
+    }
+
+    /**
+     * Marks a connection pool removed from the registry as retired and closes it unless it is still borrowed.
+     *
+     * @param pooledDataSource the connection pool
+     */
+    private void retire(PooledDataSource pooledDataSource)
+    {
+        pooledDataSource.retired = true;
+
+        if (pooledDataSource.borrowerCount <= 0)
+        {
+            close(pooledDataSource);
+        }
+        else
+        {
+            LOGGER.info("Retired JDBC connection pool. jdbcUrl=\"{}\" username=\"{}\" borrowerCount={}", pooledDataSource.key.get(0),
+                pooledDataSource.key.get(1), pooledDataSource.borrowerCount);
+        }
+    }
+
+    /**
+     * Closes a connection pool.
+     *
+     * @param pooledDataSource the connection pool
+     */
+    private void close(PooledDataSource pooledDataSource)
+    {
+        openDataSources.remove(pooledDataSource.basicDataSource);
+
+        List<String> key = pooledDataSource.key;
+        try
+        {
+            pooledDataSource.basicDataSource.close();
+            LOGGER.info("Closed JDBC connection pool. jdbcUrl=\"{}\" username=\"{}\"", key.get(0), key.get(1));
+        }
+        catch (SQLException e)
+        {
+            LOGGER.warn("Failed to close JDBC connection pool. jdbcUrl=\"{}\" username=\"{}\"", key.get(0), key.get(1), e);
+        }
+    }
+
+    /**
+     * A connection pool along with the connection information that is not part of its key and the number of executions borrowing it.
+     */
+    private static class PooledDataSource
+    {
+        private final List<String> key;
+
+        private final String driverClassName;
+
+        private final String password;
+
+        private final BasicDataSource basicDataSource;
+
+        private int borrowerCount;
+
+        private boolean retired;
+
+        PooledDataSource(List<String> key, String driverClassName, String password, BasicDataSource basicDataSource)
+        {
+            this.key = key;
+            this.driverClassName = driverClassName;
+            this.password = password;
+            this.basicDataSource = basicDataSource;
+        }
+    }
+}
@@ -0,0 +1,398 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.service.helper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.persistence.LockModeType;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import org.finra.herd.core.helper.ConfigurationHelper;
+import org.finra.herd.dao.BusinessObjectDataNotificationRegistrationDao;
+import org.finra.herd.dao.HerdDao;
+import org.finra.herd.dao.StorageUnitNotificationRegistrationDao;
+import org.finra.herd.model.api.xml.BusinessObjectDataKey;
+import org.finra.herd.model.dto.ConfigurationValue;
+import org.finra.herd.model.jpa.BusinessObjectDataNotificationRegistrationEntity;
+import org.finra.herd.model.jpa.NotificationRegistrationChangeListener;
+import org.finra.herd.model.jpa.NotificationRegistrationGenerationEntity;
+import org.finra.herd.model.jpa.NotificationRegistrationStatusEntity;
+import org.finra.herd.model.jpa.StorageUnitNotificationRegistrationEntity;
+
+/**
+ * An in-memory index of the enabled notification registrations keyed by notification event type, business object definition namespace and business object
+ * definition name. It tells whether a notification event might match a registration, so events that match no registration can be skipped without querying
+ * the database. A match found by the index is only a candidate - the registrations to process are still selected from the database.
+ * <p/>
+ * The index is reloaded when this node changes a notification registration, again once that change is committed, and when the notification registrations
+ * generation number stored in the database changes. Every herd node increments the generation number in the transaction that changes a notification
+ * registration, so the changes made by other nodes are picked up as soon as they are committed. The index is also reloaded once it gets older than the
+ * configured time to live, which bounds the delay for changes made directly in the database. Only one thread reloads the index at a time.
+ */
+@Component
+public class NotificationRegistrationMatchingIndex implements InitializingBean
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(NotificationRegistrationMatchingIndex.class);
+
+    @Autowired
+    private BusinessObjectDataNotificationRegistrationDao businessObjectDataNotificationRegistrationDao;
+
+    @Autowired
+    private ConfigurationHelper configurationHelper;
+
+    @Autowired
+    private HerdDao herdDao;
+
+    @Autowired
+    private StorageUnitNotificationRegistrationDao storageUnitNotificationRegistrationDao;
+
+    private final AtomicLong changeCount = new AtomicLong();
+
+    private volatile Snapshot snapshot;
+
+    @Override
+    public void afterPropertiesSet()
+    {
+        NotificationRegistrationChangeListener.setChangeHandler(this::onNotificationRegistrationChange);
+    }
+
+    /**
+     * Counts a notification registration change when it is flushed, so the transaction making the change reloads the index, and counts it again once the
+     * transaction commits. A reload by another thread that runs between the flush and the commit does not see the change, so the count after commit makes
+     * the next call reload the index again.
+     */
+    private void onNotificationRegistrationChange()
+    {
+        changeCount.incrementAndGet();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    changeCount.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    /**
+     * Records a change of the notification registrations. This increments the notification registrations generation number within the current transaction,
+     * so all herd nodes reload their index once the transaction is committed. The generation row is locked until the end of the transaction, so concurrent
+     * changes never lose an increment.
+     */
+    public void incrementGenerationNumber()
+    {
+        NotificationRegistrationGenerationEntity notificationRegistrationGenerationEntity = herdDao.getEntityManager()
+            .find(NotificationRegistrationGenerationEntity.class, NotificationRegistrationGenerationEntity.NOTIFICATION_REGISTRATION,
+                LockModeType.PESSIMISTIC_WRITE);
+
+        if (notificationRegistrationGenerationEntity == null)
+        {
+            notificationRegistrationGenerationEntity = new NotificationRegistrationGenerationEntity();
+            notificationRegistrationGenerationEntity.setCode(NotificationRegistrationGenerationEntity.NOTIFICATION_REGISTRATION);
+            notificationRegistrationGenerationEntity.setGenerationNumber(1L);
+        }
+        else
+        {
+            notificationRegistrationGenerationEntity.setGenerationNumber(notificationRegistrationGenerationEntity.getGenerationNumber() + 1);
+        }
+
+        herdDao.save(notificationRegistrationGenerationEntity);
+    }
+
+    /**
+     * Tells whether a business object data notification event might match an enabled business object data notification registration. The storage filter of
+     * the registrations is not checked, since it depends on the storage units of the business object data.
+     *
+     * @param notificationEventTypeCode the notification event type code
+     * @param businessObjectDataKey the business object data key
+     * @param newBusinessObjectDataStatus the new business object data status
+     * @param oldBusinessObjectDataStatus the old business object data status, null for a business object data registration event
+     *
+     * @return false if no registration matches the event, true otherwise
+     */
+    public boolean hasBusinessObjectDataNotificationRegistrations(String notificationEventTypeCode, BusinessObjectDataKey businessObjectDataKey,
+        String newBusinessObjectDataStatus, String oldBusinessObjectDataStatus)
+    {
+        Snapshot currentSnapshot = getSnapshot();
+        return currentSnapshot == null ||
+            matches(currentSnapshot.businessObjectDataFilters, notificationEventTypeCode, businessObjectDataKey, null, newBusinessObjectDataStatus,
+                oldBusinessObjectDataStatus);
+    }
+
+    /**
+     * Tells whether a storage unit notification event might match an enabled storage unit notification registration.
+     *
+     * @param notificationEventTypeCode the notification event type code
+     * @param businessObjectDataKey the business object data key
+     * @param storageName the storage name
+     * @param newStorageUnitStatus the new storage unit status
+     * @param oldStorageUnitStatus the old storage unit status, null for a storage unit creation event
+     *
+     * @return false if no registration matches the event, true otherwise
+     */
+    public boolean hasStorageUnitNotificationRegistrations(String notificationEventTypeCode, BusinessObjectDataKey businessObjectDataKey, String storageName,
+        String newStorageUnitStatus, String oldStorageUnitStatus)
+    {
+        Snapshot currentSnapshot = getSnapshot();
+        return currentSnapshot == null ||
+            matches(currentSnapshot.storageUnitFilters, notificationEventTypeCode, businessObjectDataKey, storageName, newStorageUnitStatus,
+                oldStorageUnitStatus);
+    }
+
+    /**
+     * Gets the current snapshot of the index, reloading it from the database when it is out of date.
+     *
+     * @return the snapshot, or null when the index is disabled
+     */
+    private Snapshot getSnapshot()
+    {
+        long timeToLiveMillis =
+            TimeUnit.SECONDS.toMillis(configurationHelper.getProperty(ConfigurationValue.NOTIFICATION_REGISTRATION_INDEX_TIME_TO_LIVE_SECONDS, Integer.class));
+        if (timeToLiveMillis <= 0)
+        {
+            return null;
+        }
+
+        // Get the generation number before reading the registrations, so changes committed while loading are picked up by the next call.
+        long generationNumber = getGenerationNumber();
+
+        Snapshot currentSnapshot = snapshot;
+        if (isOutOfDate(currentSnapshot, generationNumber, timeToLiveMillis))
+        {
+            // Reload the index on a single thread. The threads waiting for the reload use the reloaded snapshot instead of reloading it again.
+            synchronized (this)
+            {
+                currentSnapshot = snapshot;
+                if (isOutOfDate(currentSnapshot, generationNumber, timeToLiveMillis))
+                {
+                    currentSnapshot = loadSnapshot(generationNumber);
+                    snapshot = currentSnapshot;
+                }
+            }
+        }
+
+        return currentSnapshot;
+    }
+
+    /**
+     * Gets the notification registrations generation number from the database.
+     *
+     * @return the generation number, 0 if the generation row does not exist yet
+     */
+    private long getGenerationNumber()
+    {
+        NotificationRegistrationGenerationEntity notificationRegistrationGenerationEntity =
+            herdDao.findById(NotificationRegistrationGenerationEntity.class, NotificationRegistrationGenerationEntity.NOTIFICATION_REGISTRATION);
+        return notificationRegistrationGenerationEntity == null ? 0 : notificationRegistrationGenerationEntity.getGenerationNumber();
+    }
+
+    /**
+     * Tells whether a snapshot of the index needs to be reloaded.
+     *
+     * @param snapshot the snapshot, maybe null
+     * @param generationNumber the current notification registrations generation number
+     * @param timeToLiveMillis the time to live of the snapshot in milliseconds
+     *
+     * @return true if the snapshot needs to be reloaded, false otherwise
+     */
+    private boolean isOutOfDate(Snapshot snapshot, long generationNumber, long timeToLiveMillis)
+    {
+        return snapshot == null || snapshot.changeCount != changeCount.get() || snapshot.generationNumber != generationNumber ||
+            System.currentTimeMillis() - snapshot.loadedOn > timeToLiveMillis;
+    }
+
+    /**
+     * Loads a snapshot of the enabled notification registrations.
+     *
+     * @param generationNumber the notification registrations generation number the snapshot is loaded for
+     *
+     * @return the snapshot
+     */
+    private Snapshot loadSnapshot(long generationNumber)
+    {
+        // Get the change count before reading the registrations, so changes committed while loading are picked up by the next call.
+        long loadedChangeCount = changeCount.get();
+        long loadedOn = System.currentTimeMillis();
+
+        Map<List<String>, List<Filter>> businessObjectDataFilters = new HashMap<>();
+        for (BusinessObjectDataNotificationRegistrationEntity registration : businessObjectDataNotificationRegistrationDao
+            .getBusinessObjectDataNotificationRegistrationsByStatus(NotificationRegistrationStatusEntity.ENABLED))
+        {
+            // Registrations without a business object definition never match an event.
+            if (registration.getBusinessObjectDefinition() == null)
+            {
+                continue;
+            }
+
+            businessObjectDataFilters.computeIfAbsent(
+                getIndexKey(registration.getNotificationEventType().getCode(), registration.getBusinessObjectDefinition().getNamespace().getCode(),
+                    registration.getBusinessObjectDefinition().getName()), key -> new ArrayList<>()).add(
+                new Filter(registration.getUsage(), registration.getFileType() == null ? null : registration.getFileType().getCode(),
+                    registration.getBusinessObjectFormatVersion(), null,
+                    registration.getNewBusinessObjectDataStatus() == null ? null : registration.getNewBusinessObjectDataStatus().getCode(),
+                    registration.getOldBusinessObjectDataStatus() == null ? null : registration.getOldBusinessObjectDataStatus().getCode()));
+        }
+
+        Map<List<String>, List<Filter>> storageUnitFilters = new HashMap<>();
+        for (StorageUnitNotificationRegistrationEntity registration : storageUnitNotificationRegistrationDao
+            .getStorageUnitNotificationRegistrationsByStatus(NotificationRegistrationStatusEntity.ENABLED))
+        {
+            // Registrations without a business object definition never match an event.
+            if (registration.getBusinessObjectDefinition() == null)
+            {
+                continue;
+            }
+
+            storageUnitFilters.computeIfAbsent(
+                getIndexKey(registration.getNotificationEventType().getCode(), registration.getBusinessObjectDefinition().getNamespace().getCode(),
+                    registration.getBusinessObjectDefinition().getName()), key -> new ArrayList<>()).add(
+                new Filter(registration.getUsage(), registration.getFileType() == null ? null : registration.getFileType().getCode(),
+                    registration.getBusinessObjectFormatVersion(), registration.getStorage().getName(),
+                    registration.getNewStorageUnitStatus() == null ? null : registration.getNewStorageUnitStatus().getCode(),
+                    registration.getOldStorageUnitStatus() == null ? null : registration.getOldStorageUnitStatus().getCode()));
+        }
+
+        LOGGER.debug("Loaded notification registration matching index. generationNumber={} businessObjectDataRegistrationKeyCount={} " +
+            "storageUnitRegistrationKeyCount={}", generationNumber, businessObjectDataFilters.size(), storageUnitFilters.size());
+
+        return new Snapshot(loadedChangeCount, generationNumber, loadedOn, businessObjectDataFilters, storageUnitFilters);
+    }
+
+    /**
+     * Tells whether any of the indexed filters matches a notification event.
+     *
+     * @param filters the indexed filters
+     * @param notificationEventTypeCode the notification event type code
+     * @param businessObjectDataKey the business object data key
+     * @param storageName the storage name, null for business object data notification events
+     * @param newStatus the new status
+     * @param oldStatus the old status, maybe null
+     *
+     * @return true if a filter matches the event, false otherwise
+     */
+    private boolean matches(Map<List<String>, List<Filter>> filters, String notificationEventTypeCode, BusinessObjectDataKey businessObjectDataKey,
+        String storageName, String newStatus, String oldStatus)
+    {
+        for (Filter filter : filters.getOrDefault(
+            getIndexKey(notificationEventTypeCode, businessObjectDataKey.getNamespace(), businessObjectDataKey.getBusinessObjectDefinitionName()),
+            Collections.emptyList()))
+        {
+            if (filter.matches(businessObjectDataKey, storageName, newStatus, oldStatus))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Gets the case-insensitive index key.
+     *
+     * @param notificationEventTypeCode the notification event type code
+     * @param namespace the business object definition namespace
+     * @param businessObjectDefinitionName the business object definition name
+     *
+     * @return the index key
+     */
+    private List<String> getIndexKey(String notificationEventTypeCode, String namespace, String businessObjectDefinitionName)
+    {
+        return Arrays.asList(notificationEventTypeCode.toUpperCase(), namespace.toUpperCase(), businessObjectDefinitionName.toUpperCase());
+    }
+
+    /**
+     * The optional filters of a notification registration. A null filter value matches any event value.
+     */
+    private static class Filter
+    {
+        private final String usage;
+
+        private final String fileType;
+
+        private final Integer businessObjectFormatVersion;
+
+        private final String storageName;
+
+        private final String newStatus;
+
+        private final String oldStatus;
+
+        Filter(String usage, String fileType, Integer businessObjectFormatVersion, String storageName, String newStatus, String oldStatus)
+        {
+            this.usage = usage;
+            this.fileType = fileType;
+            this.businessObjectFormatVersion = businessObjectFormatVersion;
+            this.storageName = storageName;
+            this.newStatus = newStatus;
+            this.oldStatus = oldStatus;
+        }
+
+        boolean matches(BusinessObjectDataKey businessObjectDataKey, String eventStorageName, String eventNewStatus, String eventOldStatus)
+        {
+            // Please note that the old status of a registration event is null, so it only matches registrations without an old status filter.
+            return (usage == null || usage.equalsIgnoreCase(businessObjectDataKey.getBusinessObjectFormatUsage())) &&
+                (fileType == null || fileType.equalsIgnoreCase(businessObjectDataKey.getBusinessObjectFormatFileType())) &&
+                (businessObjectFormatVersion == null || businessObjectFormatVersion.equals(businessObjectDataKey.getBusinessObjectFormatVersion())) &&
+                (storageName == null || storageName.equalsIgnoreCase(eventStorageName)) &&
+                (newStatus == null || newStatus.equalsIgnoreCase(eventNewStatus)) &&
+                (oldStatus == null || oldStatus.equalsIgnoreCase(eventOldStatus));
+        }
+    }
+
+    /**
+     * An immutable snapshot of the index.
+     */
+    private static class Snapshot
+    {
+        private final long changeCount;
+
+        private final long generationNumber;
+
+        private final long loadedOn;
+
+        private final Map<List<String>, List<Filter>> businessObjectDataFilters;
+
+        private final Map<List<String>, List<Filter>> storageUnitFilters;
+
+        Snapshot(long changeCount, long generationNumber, long loadedOn, Map<List<String>, List<Filter>> businessObjectDataFilters,
+            Map<List<String>, List<Filter>> storageUnitFilters)
+        {
+            this.changeCount = changeCount;
+            this.generationNumber = generationNumber;
+            this.loadedOn = loadedOn;
+            this.businessObjectDataFilters = businessObjectDataFilters;
+            this.storageUnitFilters = storageUnitFilters;
+        }
+    }
+}
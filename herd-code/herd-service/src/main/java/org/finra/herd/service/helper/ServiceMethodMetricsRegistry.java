@@ -0,0 +1,360 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.service.helper;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+/**
+ * A registry of the call counters and latency histograms of the service methods. The metrics of each method are updated without locks and are published as
+ * an MBean named "org.finra.herd:type=ServiceMethodMetrics,name=&lt;java method&gt;".
+ */
+@Component
+public class ServiceMethodMetricsRegistry implements DisposableBean
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(ServiceMethodMetricsRegistry.class);
+
+    private static final String OBJECT_NAME_PREFIX = "org.finra.herd:type=ServiceMethodMetrics,name=";
+
+    private final ConcurrentMap<String, MethodMetrics> methodMetricsMap = new ConcurrentHashMap<>();
+
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    /**
+     * Gets the metrics of a service method, registering them on first use.
+     *
+     * @param javaMethod the fully qualified name of the method
+     *
+     * @return the method metrics
+     */
+    public MethodMetrics getMethodMetrics(String javaMethod)
+    {
+        MethodMetrics methodMetrics = methodMetricsMap.get(javaMethod);
+        if (methodMetrics == null)
+        {
+            MethodMetrics newMethodMetrics = new MethodMetrics(javaMethod);
+            methodMetrics = methodMetricsMap.putIfAbsent(javaMethod, newMethodMetrics);
+            if (methodMetrics == null)
+            {
+                methodMetrics = newMethodMetrics;
+                registerMBean(methodMetrics);
+            }
+        }
+
+        return methodMetrics;
+    }
+
+    /**
+     * Gets the metrics of all the service methods called so far, sorted by method name.
+     *
+     * @return the list of method metrics
+     */
+    public List<MethodMetrics> getAllMethodMetrics()
+    {
+        List<MethodMetrics> methodMetricsList = new ArrayList<>(methodMetricsMap.values());
+        methodMetricsList.sort(Comparator.comparing(MethodMetrics::getJavaMethod));
+        return methodMetricsList;
+    }
+
+    @Override
+    public void destroy()
+    {
+        for (MethodMetrics methodMetrics : methodMetricsMap.values())
+        {
+            try
+            {
+                mBeanServer.unregisterMBean(getObjectName(methodMetrics.getJavaMethod()));
+            }
+            catch (JMException e)
+            {
+                LOGGER.debug("Failed to unregister service method metrics MBean. javaMethod=\"{}\"", methodMetrics.getJavaMethod(), e);
+            }
+        }
+        methodMetricsMap.clear();
+    }
+
+    /**
+     * Publishes the method metrics as an MBean, replacing the MBean of another application context running in the same JVM.
+     *
+     * @param methodMetrics the method metrics
+     */
+    private void registerMBean(MethodMetrics methodMetrics)
+    {
+        try
+        {
+            ObjectName objectName = getObjectName(methodMetrics.getJavaMethod());
+            if (mBeanServer.isRegistered(objectName))
+            {
+                mBeanServer.unregisterMBean(objectName);
+            }
+            mBeanServer.registerMBean(new StandardMBean(methodMetrics, MethodMetricsMXBean.class, true), objectName);
+        }
+        catch (JMException e)
+        {
+            // The metrics are still available through the REST API.
+            LOGGER.warn("Failed to register service method metrics MBean. javaMethod=\"{}\"", methodMetrics.getJavaMethod(), e);
+        }
+    }
+
+    private ObjectName getObjectName(String javaMethod) throws JMException
+    {
+        return new ObjectName(OBJECT_NAME_PREFIX + ObjectName.quote(javaMethod));
+    }
+
+    /**
+     * The management interface of the method metrics. All the durations are in microseconds.
+     */
+    public interface MethodMetricsMXBean
+    {
+        long getCallCount();
+
+        long getErrorCount();
+
+        long getInFlightCount();
+
+        long getMeanDurationMicroseconds();
+
+        long getMedianDurationMicroseconds();
+
+        long getPercentile90DurationMicroseconds();
+
+        long getPercentile99DurationMicroseconds();
+
+        long getMaxDurationMicroseconds();
+    }
+
+    /**
+     * The call counters and latency histogram of a service method.
+     */
+    public static class MethodMetrics implements MethodMetricsMXBean
+    {
+        private final String javaMethod;
+
+        private final LongAdder callCount = new LongAdder();
+
+        private final LongAdder errorCount = new LongAdder();
+
+        private final LongAdder inFlightCount = new LongAdder();
+
+        private final LongAdder totalDurationMicroseconds = new LongAdder();
+
+        private final LongAccumulator maxDurationMicroseconds = new LongAccumulator(Math::max, 0);
+
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        MethodMetrics(String javaMethod)
+        {
+            this.javaMethod = javaMethod;
+        }
+
+        public String getJavaMethod()
+        {
+            return javaMethod;
+        }
+
+        /**
+         * Records the start of a method call.
+         *
+         * @return the start time in nanoseconds to pass to {@link #stop(long, boolean)}
+         */
+        public long start()
+        {
+            inFlightCount.increment();
+            return System.nanoTime();
+        }
+
+        /**
+         * Records the end of a method call.
+         *
+         * @param startNanos the start time returned by {@link #start()}
+         * @param failed whether the method threw an exception
+         *
+         * @return the duration of the call in nanoseconds
+         */
+        public long stop(long startNanos, boolean failed)
+        {
+            long durationNanos = System.nanoTime() - startNanos;
+            long durationMicroseconds = TimeUnit.NANOSECONDS.toMicros(durationNanos);
+
+            inFlightCount.decrement();
+            callCount.increment();
+            if (failed)
+            {
+                errorCount.increment();
+            }
+            totalDurationMicroseconds.add(durationMicroseconds);
+            maxDurationMicroseconds.accumulate(durationMicroseconds);
+            histogram.record(durationMicroseconds);
+
+            return durationNanos;
+        }
+
+        @Override
+        public long getCallCount()
+        {
+            return callCount.sum();
+        }
+
+        @Override
+        public long getErrorCount()
+        {
+            return errorCount.sum();
+        }
+
+        @Override
+        public long getInFlightCount()
+        {
+            return inFlightCount.sum();
+        }
+
+        @Override
+        public long getMeanDurationMicroseconds()
+        {
+            long count = callCount.sum();
+            return count == 0 ? 0 : totalDurationMicroseconds.sum() / count;
+        }
+
+        @Override
+        public long getMedianDurationMicroseconds()
+        {
+            return getPercentileDurationMicroseconds(50);
+        }
+
+        @Override
+        public long getPercentile90DurationMicroseconds()
+        {
+            return getPercentileDurationMicroseconds(90);
+        }
+
+        @Override
+        public long getPercentile99DurationMicroseconds()
+        {
+            return getPercentileDurationMicroseconds(99);
+        }
+
+        @Override
+        public long getMaxDurationMicroseconds()
+        {
+            return maxDurationMicroseconds.get();
+        }
+
+        /**
+         * Gets the duration below which the given percentage of the calls completed.
+         *
+         * @param percentile the percentile, between 0 and 100
+         *
+         * @return the duration in microseconds, never more than the maximum duration
+         */
+        public long getPercentileDurationMicroseconds(double percentile)
+        {
+            return Math.min(histogram.getValueAtPercentile(percentile), maxDurationMicroseconds.get());
+        }
+    }
+
+    /**
+     * A lock-free histogram with logarithmic buckets, each power of two range being split in linear sub-buckets. Every recorded value is counted in a bucket
+     * whose upper bound is within 1/16 (about 6%) of the value, so the histogram has a fixed size whatever the range of the recorded values.
+     */
+    static class LatencyHistogram
+    {
+        private static final int SUB_BUCKET_BITS = 4;
+
+        private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+        private final AtomicLongArray counts = new AtomicLongArray((Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT);
+
+        /**
+         * Records a value.
+         *
+         * @param value the value, negative values are recorded as zero
+         */
+        void record(long value)
+        {
+            counts.incrementAndGet(getBucketIndex(Math.max(value, 0)));
+        }
+
+        /**
+         * Gets the value at the given percentile. Values recorded while this method runs may or may not be taken into account.
+         *
+         * @param percentile the percentile, between 0 and 100
+         *
+         * @return the upper bound of the bucket holding the value at the percentile, or zero if no value was recorded
+         */
+        long getValueAtPercentile(double percentile)
+        {
+            long totalCount = 0;
+            for (int i = 0; i < counts.length(); i++)
+            {
+                totalCount += counts.get(i);
+            }
+
+            long targetCount = Math.max((long) Math.ceil(percentile / 100 * totalCount), 1);
+            long cumulativeCount = 0;
+            for (int i = 0; i < counts.length(); i++)
+            {
+                cumulativeCount += counts.get(i);
+                if (cumulativeCount >= targetCount)
+                {
+                    return getBucketUpperBound(i);
+                }
+            }
+
+            return 0;
+        }
+
+        static int getBucketIndex(long value)
+        {
+            if (value < SUB_BUCKET_COUNT)
+            {
+                return (int) value;
+            }
+
+            int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+            int shift = exponent - SUB_BUCKET_BITS;
+            return (shift + 1) * SUB_BUCKET_COUNT + (int) ((value >>> shift) & (SUB_BUCKET_COUNT - 1));
+        }
+
+        static long getBucketUpperBound(int index)
+        {
+            if (index < SUB_BUCKET_COUNT)
+            {
+                return index;
+            }
+
+            int shift = index / SUB_BUCKET_COUNT - 1;
+            long lowerBound = ((long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT)) << shift;
+            return lowerBound + (1L << shift) - 1;
+        }
+    }
+}
@@ -37,7 +37,8 @@ public class StorageFileDaoHelper
     private StorageFileDao storageFileDao;
 
     /**
-     * Creates storage file entities from the list of storage files.
+     * Creates storage file entities from the list of storage files. The storage file entities are saved in batches and are detached from the persistence
+     * context once saved, so the returned entities are not refreshed from the database (e.g. their createdOn is the timestamp set by the application).
      *
      * @param storageUnitEntity the storage unit entity
      * @param storageFiles the list of storage files
@@ -56,9 +57,10 @@ public class StorageFileDaoHelper
             storageFileEntity.setPath(storageFile.getFilePath());
             storageFileEntity.setFileSizeBytes(storageFile.getFileSizeBytes());
             storageFileEntity.setRowCount(storageFile.getRowCount());
-            storageFileDao.saveAndRefresh(storageFileEntity);
         }
 
+        storageFileDao.saveStorageFiles(storageFileEntities);
+
         return storageFileEntities;
     }
 
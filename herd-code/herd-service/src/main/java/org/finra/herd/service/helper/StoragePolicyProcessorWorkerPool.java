@@ -0,0 +1,400 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.service.helper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import org.finra.herd.core.helper.ConfigurationHelper;
+import org.finra.herd.model.dto.ConfigurationValue;
+
+/**
+ * The storage policy processor worker pool. It runs the S3 transfer and the database finalize stages of storage policy transitions on dedicated bounded thread
+ * pools. Transfers of large business object data instances run on their own threads, so they do not block transfers of small ones. The number of concurrent
+ * transfers from a single source storage is limited and the submitting thread blocks while the source storage is at its limit or the stage queue is full,
+ * which stops the JMS message listener from receiving more messages than the pool can process. Each JMS message listener thread waits for its transition to
+ * be finalized, so the listener concurrency is sized from the stage thread counts unless it is configured explicitly. On shutdown, the pool lets the queued
+ * and running transitions complete for up to the configured shutdown timeout.
+ */
+@Component
+public class StoragePolicyProcessorWorkerPool implements DisposableBean
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(StoragePolicyProcessorWorkerPool.class);
+
+    /**
+     * The name of the stage that transfers S3 data of small business object data instances.
+     */
+    public static final String TRANSFER_STAGE_NAME = "transfer";
+
+    /**
+     * The name of the stage that transfers S3 data of large business object data instances.
+     */
+    public static final String LARGE_TRANSFER_STAGE_NAME = "largeTransfer";
+
+    /**
+     * The name of the stage that completes storage policy transitions in the database.
+     */
+    public static final String FINALIZE_STAGE_NAME = "finalize";
+
+    private static final long BYTES_PER_MEGABYTE = 1024L * 1024L;
+
+    @Autowired
+    private ConfigurationHelper configurationHelper;
+
+    private final Map<String, Semaphore> storageTransferPermits = new ConcurrentHashMap<>();
+
+    private volatile Map<String, Stage> stages;
+
+    private long largeTransferSizeThresholdBytes;
+
+    private int storageConcurrencyLimit;
+
+    /**
+     * Submits a storage policy transition to the pool. The transfer task runs on one of the transfer stages chosen by the total size of the transition, and
+     * the finalize task runs on the finalize stage once the transfer task completes successfully. Failures are logged. This method blocks while the source
+     * storage is at its concurrency limit or the transfer stage queue is full.
+     *
+     * @param storageName the name of the source storage
+     * @param totalSizeBytes the total size of the source storage files in bytes
+     * @param description the description of the transition used for logging
+     * @param transferTask the task that transfers S3 data
+     * @param finalizeTask the task that completes the transition in the database
+     *
+     * @return the future that completes once the finalize task completes, or completes exceptionally with the failure of either task or with a {@link
+     * RejectedExecutionException} when the pool is shut down before the transition completes
+     */
+    public Future<Void> submit(String storageName, long totalSizeBytes, String description, Runnable transferTask, Runnable finalizeTask)
+    {
+        Map<String, Stage> currentStages = getStages();
+        Stage transferStage = currentStages.get(totalSizeBytes >= largeTransferSizeThresholdBytes ? LARGE_TRANSFER_STAGE_NAME : TRANSFER_STAGE_NAME);
+        Stage finalizeStage = currentStages.get(FINALIZE_STAGE_NAME);
+
+        Semaphore storageTransferPermit =
+            storageTransferPermits.computeIfAbsent(storageName.toUpperCase(), key -> new Semaphore(storageConcurrencyLimit, true));
+        try
+        {
+            storageTransferPermit.acquire();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(String.format("Interrupted while waiting for a transfer permit for \"%s\" storage.", storageName), e);
+        }
+
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        try
+        {
+            transferStage.execute(description, completion, () -> {
+                try
+                {
+                    transferTask.run();
+                }
+                finally
+                {
+                    storageTransferPermit.release();
+                }
+
+                finalizeStage.execute(description, completion, () -> {
+                    finalizeTask.run();
+                    completion.complete(null);
+                });
+            });
+        }
+        catch (RuntimeException e)
+        {
+            storageTransferPermit.release();
+            throw e;
+        }
+
+        return completion;
+    }
+
+    /**
+     * Gets the storage policy processor JMS message listener concurrency limits sized from the stages. A JMS message listener thread waits for its storage
+     * policy transition to be finalized before it receives the next message, so it takes as many listener threads as the stages have threads in total to
+     * keep every stage thread busy. More listener threads would only hold their messages in the stage queues.
+     *
+     * @return the concurrency limits as a "lower-upper" String
+     */
+    public String getJmsListenerConcurrencyLimits()
+    {
+        int stageThreadCount = Math.max(configurationHelper.getProperty(ConfigurationValue.STORAGE_POLICY_PROCESSOR_TRANSFER_THREAD_COUNT, Integer.class), 1) +
+            Math.max(configurationHelper.getProperty(ConfigurationValue.STORAGE_POLICY_PROCESSOR_LARGE_TRANSFER_THREAD_COUNT, Integer.class), 1) +
+            Math.max(configurationHelper.getProperty(ConfigurationValue.STORAGE_POLICY_PROCESSOR_FINALIZE_THREAD_COUNT, Integer.class), 1);
+        return "1-" + stageThreadCount;
+    }
+
+    /**
+     * Gets the number of storage policy transitions waiting for each stage.
+     *
+     * @return the map of stage names to queue depths
+     */
+    public Map<String, Integer> getQueueDepths()
+    {
+        Map<String, Integer> queueDepths = new LinkedHashMap<>();
+        getStages().forEach((stageName, stage) -> queueDepths.put(stageName, stage.executor.getQueue().size()));
+        return queueDepths;
+    }
+
+    /**
+     * Gets the average time in milliseconds spent running a task on each stage.
+     *
+     * @return the map of stage names to average latencies, zero for stages that did not complete any task
+     */
+    public Map<String, Long> getAverageLatencyMillis()
+    {
+        Map<String, Long> averageLatencyMillis = new LinkedHashMap<>();
+        getStages().forEach((stageName, stage) -> averageLatencyMillis.put(stageName, stage.getAverageLatencyMillis()));
+        return averageLatencyMillis;
+    }
+
+    /**
+     * Periodically logs the queue depth and the latency of each stage.
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void logStageGauges()
+    {
+        if (stages != null)
+        {
+            stages.forEach((stageName, stage) -> LOGGER.info(
+                "Storage policy processor stage gauges. stage=\"{}\" queueDepth={} activeCount={} completedCount={} failedCount={} averageLatencyMillis={} " +
+                    "maxLatencyMillis={}", stageName, stage.executor.getQueue().size(), stage.executor.getActiveCount(), stage.completedCount.get(),
+                stage.failedCount.get(), stage.getAverageLatencyMillis(), stage.maxLatencyMillis.get()));
+        }
+    }
+
+    @Override
+    public void destroy()
+    {
+        if (stages != null)
+        {
+            // Shut the transfer stages down before the finalize stage, since transfers hand the transitions over to the finalize stage.
+            long deadlineMillis = System.currentTimeMillis() +
+                TimeUnit.SECONDS.toMillis(configurationHelper.getProperty(ConfigurationValue.STORAGE_POLICY_PROCESSOR_SHUTDOWN_TIMEOUT_SECONDS, Integer.class));
+            stages.values().forEach(stage -> stage.shutdown(deadlineMillis));
+        }
+    }
+
+    /**
+     * Gets the stages creating them from the current configuration on first use.
+     *
+     * @return the map of stage names to stages
+     */
+    private synchronized Map<String, Stage> getStages()
+    {
+        if (stages == null)
+        {
+            int queueCapacity = configurationHelper.getProperty(ConfigurationValue.STORAGE_POLICY_PROCESSOR_STAGE_QUEUE_CAPACITY, Integer.class);
+
+            Map<String, Stage> newStages = new LinkedHashMap<>();
+            newStages.put(TRANSFER_STAGE_NAME, new Stage(TRANSFER_STAGE_NAME,
+                configurationHelper.getProperty(ConfigurationValue.STORAGE_POLICY_PROCESSOR_TRANSFER_THREAD_COUNT, Integer.class), queueCapacity));
+            newStages.put(LARGE_TRANSFER_STAGE_NAME, new Stage(LARGE_TRANSFER_STAGE_NAME,
+                configurationHelper.getProperty(ConfigurationValue.STORAGE_POLICY_PROCESSOR_LARGE_TRANSFER_THREAD_COUNT, Integer.class), queueCapacity));
+            newStages.put(FINALIZE_STAGE_NAME, new Stage(FINALIZE_STAGE_NAME,
+                configurationHelper.getProperty(ConfigurationValue.STORAGE_POLICY_PROCESSOR_FINALIZE_THREAD_COUNT, Integer.class), queueCapacity));
+
+            largeTransferSizeThresholdBytes =
+                configurationHelper.getProperty(ConfigurationValue.STORAGE_POLICY_PROCESSOR_LARGE_TRANSFER_SIZE_THRESHOLD_MB, Integer.class) *
+                    BYTES_PER_MEGABYTE;
+            storageConcurrencyLimit =
+                Math.max(configurationHelper.getProperty(ConfigurationValue.STORAGE_POLICY_PROCESSOR_STORAGE_CONCURRENCY_LIMIT, Integer.class), 1);
+            stages = newStages;
+        }
+
+        return stages;
+    }
+
+    /**
+     * A stage backed by a fixed size thread pool with a bounded queue. Submitting a task to a full queue blocks the submitting thread.
+     */
+    private static class Stage
+    {
+        private final String stageName;
+
+        private final ThreadPoolExecutor executor;
+
+        private final AtomicLong completedCount = new AtomicLong();
+
+        private final AtomicLong failedCount = new AtomicLong();
+
+        private final AtomicLong totalLatencyMillis = new AtomicLong();
+
+        private final AtomicLong maxLatencyMillis = new AtomicLong();
+
+        Stage(String stageName, int threadCount, int queueCapacity)
+        {
+            this.stageName = stageName;
+
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("storagePolicyProcessor-" + stageName + "-");
+            threadFactory.setDaemon(true);
+
+            int poolSize = Math.max(threadCount, 1);
+            this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)),
+                threadFactory, new BlockingRejectedExecutionHandler());
+        }
+
+        /**
+         * Runs the task on this stage, recording its latency and logging its failure. A failure of the task completes the storage policy transition future
+         * exceptionally.
+         *
+         * @param description the description of the storage policy transition used for logging
+         * @param completion the future of the storage policy transition
+         * @param task the task
+         */
+        void execute(String description, CompletableFuture<Void> completion, Runnable task)
+        {
+            try
+            {
+                executor.execute(new StageTask(description, completion, () -> {
+                    long startTime = System.currentTimeMillis();
+                    try
+                    {
+                        task.run();
+                    }
+                    catch (RuntimeException e)
+                    {
+                        failedCount.incrementAndGet();
+                        completion.completeExceptionally(e);
+                        LOGGER.error("Failed to run storage policy processor stage. stage=\"{}\" storagePolicyTransition={}", stageName, description, e);
+                    }
+                    finally
+                    {
+                        long latencyMillis = System.currentTimeMillis() - startTime;
+                        completedCount.incrementAndGet();
+                        totalLatencyMillis.addAndGet(latencyMillis);
+                        maxLatencyMillis.accumulateAndGet(latencyMillis, Math::max);
+                    }
+                }));
+            }
+            catch (RejectedExecutionException e)
+            {
+                completion.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        /**
+         * Shuts this stage down, letting the queued and running tasks complete until the deadline. The tasks still queued at the deadline are dropped and
+         * their storage policy transition futures complete exceptionally.
+         *
+         * @param deadlineMillis the deadline in milliseconds since the epoch
+         */
+        void shutdown(long deadlineMillis)
+        {
+            executor.shutdown();
+            try
+            {
+                if (executor.awaitTermination(Math.max(deadlineMillis - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS))
+                {
+                    return;
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+
+            int droppedCount = 0;
+            for (Runnable runnable : executor.shutdownNow())
+            {
+                ((StageTask) runnable).completion.completeExceptionally(new RejectedExecutionException(
+                    String.format("The storage policy processor stage \"%s\" is shut down. Storage policy transition: %s", stageName,
+                        ((StageTask) runnable).description)));
+                droppedCount++;
+            }
+
+            LOGGER.warn("Storage policy processor stage did not complete before the shutdown timeout. stage=\"{}\" droppedCount={} activeCount={}", stageName,
+                droppedCount, executor.getActiveCount());
+        }
+
+        long getAverageLatencyMillis()
+        {
+            long count = completedCount.get();
+            return count > 0 ? totalLatencyMillis.get() / count : 0;
+        }
+    }
+
+    /**
+     * A stage task along with the storage policy transition it belongs to, so the transition can be failed when the task is dropped at shutdown.
+     */
+    private static class StageTask implements Runnable
+    {
+        private final String description;
+
+        private final CompletableFuture<Void> completion;
+
+        private final Runnable task;
+
+        StageTask(String description, CompletableFuture<Void> completion, Runnable task)
+        {
+            this.description = description;
+            this.completion = completion;
+            this.task = task;
+        }
+
+        @Override
+        public void run()
+        {
+            task.run();
+        }
+    }
+
+    /**
+     * Waits for space in the queue of a thread pool instead of rejecting the task, so the submitting thread is held back while the stage is saturated.
+     */
+    private static class BlockingRejectedExecutionHandler implements RejectedExecutionHandler
+    {
+        @Override
+        public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor)
+        {
+            if (executor.isShutdown())
+            {
+                throw new RejectedExecutionException("The storage policy processor stage is shut down.");
+            }
+
+            BlockingQueue<Runnable> queue = executor.getQueue();
+            try
+            {
+                queue.put(runnable);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for space in the storage policy processor stage queue.", e);
+            }
+        }
+    }
+}
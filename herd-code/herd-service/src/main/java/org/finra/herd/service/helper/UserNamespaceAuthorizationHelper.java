@@ -17,17 +17,28 @@ package org.finra.herd.service.helper;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.LockModeType;
 
 import org.apache.commons.lang3.BooleanUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import org.finra.herd.core.helper.ConfigurationHelper;
 import org.finra.herd.core.helper.WildcardHelper;
+import org.finra.herd.dao.HerdDao;
 import org.finra.herd.dao.NamespaceDao;
 import org.finra.herd.dao.UserDao;
 import org.finra.herd.dao.UserNamespaceAuthorizationDao;
@@ -36,18 +47,27 @@ import org.finra.herd.model.api.xml.NamespaceKey;
 import org.finra.herd.model.api.xml.NamespacePermissionEnum;
 import org.finra.herd.model.dto.ApplicationUser;
 import org.finra.herd.model.dto.ConfigurationValue;
+import org.finra.herd.model.jpa.AuthorizationGenerationEntity;
 import org.finra.herd.model.jpa.UserEntity;
 import org.finra.herd.model.jpa.UserNamespaceAuthorizationEntity;
 
 /**
  * A helper class for UserNamespaceAuthorization related code.
+ * <p/>
+ * The namespace authorizations of a user are cached per user id. All cached authorizations are dropped when the user namespace authorizations generation
+ * number stored in the database changes, which happens every time a user namespace authorization is created, updated or deleted through herd.
  */
 @Component
 public class UserNamespaceAuthorizationHelper
 {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserNamespaceAuthorizationHelper.class);
+
     @Autowired
     private ConfigurationHelper configurationHelper;
 
+    @Autowired
+    private HerdDao herdDao;
+
     @Autowired
     private NamespaceDao namespaceDao;
 
@@ -60,6 +80,12 @@ public class UserNamespaceAuthorizationHelper
     @Autowired
     private WildcardHelper wildcardHelper;
 
+    private final Map<String, NamespaceAuthorizationSnapshot> namespaceAuthorizationSnapshots = new ConcurrentHashMap<>();
+
+    private volatile long generationNumber;
+
+    private volatile long generationCheckedOn;
+
     /**
      * Builds a set of namespace authorizations per specified user and adds them to the application user.
      *
@@ -70,36 +96,85 @@ public class UserNamespaceAuthorizationHelper
         // Get the user id from the application user.
         String userId = applicationUser.getUserId();
 
-        // Check if user namespace authorization is not enabled or this user is a namespace authorization administrator.
-        if (BooleanUtils.isNotTrue(configurationHelper.getBooleanProperty(ConfigurationValue.USER_NAMESPACE_AUTHORIZATION_ENABLED)) ||
-            isNamespaceAuthorizationAdmin(userId))
+        // Check if user namespace authorization is not enabled.
+        if (BooleanUtils.isNotTrue(configurationHelper.getBooleanProperty(ConfigurationValue.USER_NAMESPACE_AUTHORIZATION_ENABLED)))
+        {
+            // Assign all permissions for all namespaces configured in the system.
+            applicationUser.setNamespaceAuthorizations(getAllNamespaceAuthorizations());
+            return;
+        }
+
+        // Get the namespace authorizations of this user. Please note that namespaces are not cached for a namespace authorization administrator, so newly
+        // created namespaces are picked up right away.
+        NamespaceAuthorizationSnapshot namespaceAuthorizationSnapshot = getNamespaceAuthorizationSnapshot(userId);
+        if (namespaceAuthorizationSnapshot.namespaceAuthorizationAdmin)
         {
             // Assign all permissions for all namespaces configured in the system.
             applicationUser.setNamespaceAuthorizations(getAllNamespaceAuthorizations());
         }
         else
         {
-            // Assign a set of namespace authorizations per specified user.
+            // Assign a copy of the namespace authorizations, so the cached ones never get modified.
             Set<NamespaceAuthorization> namespaceAuthorizations = new HashSet<>();
             applicationUser.setNamespaceAuthorizations(namespaceAuthorizations);
-            for (UserNamespaceAuthorizationEntity userNamespaceAuthorizationEntity : userNamespaceAuthorizationDao
-                .getUserNamespaceAuthorizationsByUserId(userId))
+            for (NamespaceAuthorization namespaceAuthorization : namespaceAuthorizationSnapshot.namespaceAuthorizations)
             {
-                namespaceAuthorizations.add(toNamespaceAuthorization(userNamespaceAuthorizationEntity));
+                namespaceAuthorizations
+                    .add(createNamespaceAuthorization(namespaceAuthorization.getNamespace(), namespaceAuthorization.getNamespacePermissions()));
             }
+        }
+    }
 
-            // Search authorizations by wildcard token
-            for (UserNamespaceAuthorizationEntity wildcardEntity : userNamespaceAuthorizationDao
-                .getUserNamespaceAuthorizationsByUserIdStartsWith(WildcardHelper.WILDCARD_TOKEN))
+    /**
+     * Records a change of the user namespace authorizations. This increments the user namespace authorizations generation number within the current
+     * transaction, so all herd nodes drop their cached namespace authorizations once the transaction is committed. The generation row is locked until the end
+     * of the transaction, so concurrent changes never lose an increment. The namespace authorizations cached by this node are dropped after the commit, so a
+     * concurrent lookup can't cache the authorizations as they were before the change.
+     */
+    public void incrementGenerationNumber()
+    {
+        AuthorizationGenerationEntity authorizationGenerationEntity = herdDao.getEntityManager()
+            .find(AuthorizationGenerationEntity.class, AuthorizationGenerationEntity.USER_NAMESPACE_AUTHORIZATION, LockModeType.PESSIMISTIC_WRITE);
+
+        if (authorizationGenerationEntity == null)
+        {
+            authorizationGenerationEntity = new AuthorizationGenerationEntity();
+            authorizationGenerationEntity.setCode(AuthorizationGenerationEntity.USER_NAMESPACE_AUTHORIZATION);
+            authorizationGenerationEntity.setGenerationNumber(1L);
+        }
+        else
+        {
+            authorizationGenerationEntity.setGenerationNumber(authorizationGenerationEntity.getGenerationNumber() + 1);
+        }
+
+        herdDao.save(authorizationGenerationEntity);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter()
             {
-                if (wildcardHelper.matches(userId.toUpperCase(), wildcardEntity.getUserId().toUpperCase()))
+                @Override
+                public void afterCommit()
                 {
-                    namespaceAuthorizations.add(toNamespaceAuthorization(wildcardEntity));
+                    clearNamespaceAuthorizationSnapshots();
                 }
-            }
+            });
+        }
+        else
+        {
+            clearNamespaceAuthorizationSnapshots();
         }
     }
 
+    /**
+     * Drops the namespace authorizations cached by this node and makes the next lookup check the generation number again.
+     */
+    private void clearNamespaceAuthorizationSnapshots()
+    {
+        namespaceAuthorizationSnapshots.clear();
+        generationCheckedOn = 0;
+    }
+
     /**
      * Returns a list of namespace authorizations for all namespaces registered in the system and with all permissions enabled.
      *
@@ -112,10 +187,7 @@ public class UserNamespaceAuthorizationHelper
         List<NamespaceKey> namespaceKeys = namespaceDao.getNamespaces();
         for (NamespaceKey namespaceKey : namespaceKeys)
         {
-            NamespaceAuthorization namespaceAuthorization = new NamespaceAuthorization();
-            namespaceAuthorizations.add(namespaceAuthorization);
-            namespaceAuthorization.setNamespace(namespaceKey.getNamespaceCode());
-            namespaceAuthorization.setNamespacePermissions(getAllNamespacePermissions());
+            namespaceAuthorizations.add(createNamespaceAuthorization(namespaceKey.getNamespaceCode(), getAllNamespacePermissions()));
         }
 
         return namespaceAuthorizations;
@@ -162,6 +234,22 @@ public class UserNamespaceAuthorizationHelper
         return Arrays.asList(NamespacePermissionEnum.READ, NamespacePermissionEnum.WRITE, NamespacePermissionEnum.EXECUTE, NamespacePermissionEnum.GRANT);
     }
 
+    /**
+     * Creates a namespace authorization.
+     *
+     * @param namespace the namespace
+     * @param namespacePermissions the list of namespace permissions, copied to the namespace authorization
+     *
+     * @return the namespace authorization
+     */
+    private NamespaceAuthorization createNamespaceAuthorization(String namespace, List<NamespacePermissionEnum> namespacePermissions)
+    {
+        NamespaceAuthorization namespaceAuthorization = new NamespaceAuthorization();
+        namespaceAuthorization.setNamespace(namespace);
+        namespaceAuthorization.setNamespacePermissions(new ArrayList<>(namespacePermissions));
+        return namespaceAuthorization;
+    }
+
     /**
      * Converts the given UserNamespaceAuthorizationEntity to NamespaceAuthorization.
      *
@@ -171,10 +259,109 @@ public class UserNamespaceAuthorizationHelper
      */
     private NamespaceAuthorization toNamespaceAuthorization(UserNamespaceAuthorizationEntity userNamespaceAuthorizationEntity)
     {
-        NamespaceAuthorization namespaceAuthorization = new NamespaceAuthorization();
-        namespaceAuthorization.setNamespace(userNamespaceAuthorizationEntity.getNamespace().getCode());
-        namespaceAuthorization.setNamespacePermissions(getNamespacePermissions(userNamespaceAuthorizationEntity));
-        return namespaceAuthorization;
+        return createNamespaceAuthorization(userNamespaceAuthorizationEntity.getNamespace().getCode(),
+            getNamespacePermissions(userNamespaceAuthorizationEntity));
+    }
+
+    /**
+     * Gets the namespace authorization snapshot of the specified user from the cache, loading it from the database when it is not cached, it was loaded for
+     * an older generation of the user namespace authorizations or it is older than the configured time to live.
+     *
+     * @param userId the user id
+     *
+     * @return the namespace authorization snapshot
+     */
+    private NamespaceAuthorizationSnapshot getNamespaceAuthorizationSnapshot(String userId)
+    {
+        int generationCheckIntervalSeconds =
+            configurationHelper.getProperty(ConfigurationValue.USER_NAMESPACE_AUTHORIZATION_CACHE_GENERATION_CHECK_INTERVAL_SECONDS, Integer.class);
+        if (generationCheckIntervalSeconds <= 0)
+        {
+            return loadNamespaceAuthorizationSnapshot(userId, 0);
+        }
+
+        long currentGenerationNumber = getGenerationNumber(TimeUnit.SECONDS.toMillis(generationCheckIntervalSeconds));
+        long timeToLiveMillis = TimeUnit.SECONDS
+            .toMillis(configurationHelper.getProperty(ConfigurationValue.USER_NAMESPACE_AUTHORIZATION_CACHE_TIME_TO_LIVE_SECONDS, Integer.class));
+
+        String cacheKey = userId.toUpperCase();
+        NamespaceAuthorizationSnapshot namespaceAuthorizationSnapshot = namespaceAuthorizationSnapshots.get(cacheKey);
+        if (namespaceAuthorizationSnapshot == null || namespaceAuthorizationSnapshot.generationNumber != currentGenerationNumber ||
+            System.currentTimeMillis() - namespaceAuthorizationSnapshot.loadedOn > timeToLiveMillis)
+        {
+            namespaceAuthorizationSnapshot = loadNamespaceAuthorizationSnapshot(userId, currentGenerationNumber);
+            namespaceAuthorizationSnapshots.put(cacheKey, namespaceAuthorizationSnapshot);
+        }
+
+        return namespaceAuthorizationSnapshot;
+    }
+
+    /**
+     * Gets the user namespace authorizations generation number, reading it from the database once the specified interval has passed since the last check.
+     * All cached namespace authorization snapshots are dropped when the generation number changes.
+     *
+     * @param generationCheckIntervalMillis the interval between generation number checks in milliseconds
+     *
+     * @return the generation number
+     */
+    private long getGenerationNumber(long generationCheckIntervalMillis)
+    {
+        long currentTime = System.currentTimeMillis();
+        if (currentTime - generationCheckedOn > generationCheckIntervalMillis)
+        {
+            AuthorizationGenerationEntity authorizationGenerationEntity =
+                herdDao.findById(AuthorizationGenerationEntity.class, AuthorizationGenerationEntity.USER_NAMESPACE_AUTHORIZATION);
+            long currentGenerationNumber = authorizationGenerationEntity == null ? 0 : authorizationGenerationEntity.getGenerationNumber();
+
+            if (currentGenerationNumber != generationNumber)
+            {
+                LOGGER.info("User namespace authorizations changed. previousGenerationNumber={} generationNumber={} droppedSnapshotCount={}", generationNumber,
+                    currentGenerationNumber, namespaceAuthorizationSnapshots.size());
+                namespaceAuthorizationSnapshots.clear();
+                generationNumber = currentGenerationNumber;
+            }
+
+            generationCheckedOn = currentTime;
+        }
+
+        return generationNumber;
+    }
+
+    /**
+     * Loads the namespace authorization snapshot of the specified user from the database.
+     *
+     * @param userId the user id
+     * @param generationNumber the user namespace authorizations generation number the snapshot is loaded for
+     *
+     * @return the namespace authorization snapshot
+     */
+    private NamespaceAuthorizationSnapshot loadNamespaceAuthorizationSnapshot(String userId, long generationNumber)
+    {
+        long loadedOn = System.currentTimeMillis();
+
+        // Namespace authorizations of a namespace authorization administrator are not loaded.
+        if (isNamespaceAuthorizationAdmin(userId))
+        {
+            return new NamespaceAuthorizationSnapshot(generationNumber, loadedOn, true, Collections.emptySet());
+        }
+
+        Set<NamespaceAuthorization> namespaceAuthorizations = new HashSet<>();
+        for (UserNamespaceAuthorizationEntity userNamespaceAuthorizationEntity : userNamespaceAuthorizationDao.getUserNamespaceAuthorizationsByUserId(userId))
+        {
+            namespaceAuthorizations.add(toNamespaceAuthorization(userNamespaceAuthorizationEntity));
+        }
+
+        // Search authorizations by wildcard token
+        for (UserNamespaceAuthorizationEntity wildcardEntity : userNamespaceAuthorizationDao
+            .getUserNamespaceAuthorizationsByUserIdStartsWith(WildcardHelper.WILDCARD_TOKEN))
+        {
+            if (wildcardHelper.matches(userId.toUpperCase(), wildcardEntity.getUserId().toUpperCase()))
+            {
+                namespaceAuthorizations.add(toNamespaceAuthorization(wildcardEntity));
+            }
+        }
+
+        return new NamespaceAuthorizationSnapshot(generationNumber, loadedOn, false, Collections.unmodifiableSet(namespaceAuthorizations));
     }
 
     /**
@@ -189,4 +376,27 @@ public class UserNamespaceAuthorizationHelper
         UserEntity userEntity = userDao.getUserByUserId(userId);
         return userEntity != null ? userEntity.getNamespaceAuthorizationAdmin() : false;
     }
+
+    /**
+     * An immutable snapshot of the namespace authorizations of a user.
+     */
+    private static class NamespaceAuthorizationSnapshot
+    {
+        private final long generationNumber;
+
+        private final long loadedOn;
+
+        private final boolean namespaceAuthorizationAdmin;
+
+        private final Set<NamespaceAuthorization> namespaceAuthorizations;
+
+        NamespaceAuthorizationSnapshot(long generationNumber, long loadedOn, boolean namespaceAuthorizationAdmin,
+            Set<NamespaceAuthorization> namespaceAuthorizations)
+        {
+            this.generationNumber = generationNumber;
+            this.loadedOn = loadedOn;
+            this.namespaceAuthorizationAdmin = namespaceAuthorizationAdmin;
+            this.namespaceAuthorizations = namespaceAuthorizations;
+        }
+    }
 }
@@ -18,6 +18,9 @@ package org.finra.herd.service.impl;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -29,6 +32,10 @@ import org.activiti.engine.RuntimeService;
 import org.activiti.engine.history.HistoricActivityInstance;
 import org.activiti.engine.history.HistoricProcessInstance;
 import org.activiti.engine.history.HistoricProcessInstanceQuery;
+import org.activiti.engine.history.NativeHistoricProcessInstanceQuery;
+import org.activiti.engine.impl.cmd.AbstractCustomSqlExecution;
+import org.activiti.engine.impl.persistence.entity.HistoricProcessInstanceEntity;
+import org.activiti.engine.impl.persistence.entity.ProcessDefinitionEntity;
 import org.activiti.engine.repository.ProcessDefinition;
 import org.activiti.engine.runtime.Execution;
 import org.activiti.engine.runtime.Job;
@@ -39,6 +46,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import org.finra.herd.model.api.xml.JobStatusEnum;
+import org.finra.herd.service.activiti.ActivitiJobMapper;
 import org.finra.herd.service.ActivitiService;
 
 /**
@@ -47,6 +55,11 @@ import org.finra.herd.service.ActivitiService;
 @Service
 public class ActivitiServiceImpl implements ActivitiService
 {
+    /**
+     * The maximum number of process instance IDs in a single "in" clause.
+     */
+    private static final int PROCESS_INSTANCE_ID_BATCH_SIZE = 500;
+
     @Autowired
     private HistoryService activitiHistoryService;
 
@@ -83,6 +96,20 @@ public class ActivitiServiceImpl implements ActivitiService
         return activitiRuntimeService.createProcessInstanceQuery().suspended().list();
     }
 
+    @Override
+    public List<ProcessInstance> getSuspendedProcessInstancesByProcessInstanceIds(Set<String> processInstanceIds)
+    {
+        List<ProcessInstance> suspendedProcessInstances = new ArrayList<>();
+
+        // Select the suspended process instances per batch of process instance IDs, so the "in" clause stays bounded.
+        for (List<String> batch : getProcessInstanceIdBatches(processInstanceIds))
+        {
+            suspendedProcessInstances.addAll(activitiRuntimeService.createProcessInstanceQuery().processInstanceIds(new HashSet<>(batch)).suspended().list());
+        }
+
+        return suspendedProcessInstances;
+    }
+
     @Override
     public HistoricProcessInstance getHistoricProcessInstanceByProcessInstanceId(String processInstanceId)
     {
@@ -120,6 +147,34 @@ public class ActivitiServiceImpl implements ActivitiService
         return activitiManagementService.createJobQuery().withException().processInstanceId(processInstanceId).count();
     }
 
+    @Override
+    public Map<String, Long> getJobsWithExceptionCountByProcessInstanceIds(Collection<String> processInstanceIds)
+    {
+        Map<String, Long> jobsWithExceptionCounts = new HashMap<>();
+
+        // The job query API only counts the jobs of a single process instance, so count the jobs with exceptions per process instance using a custom grouped
+        // query, one per batch of process instance IDs.
+        for (List<String> batch : getProcessInstanceIdBatches(processInstanceIds))
+        {
+            List<ActivitiJobMapper.ProcessInstanceJobCount> processInstanceJobCounts = activitiManagementService
+                .executeCustomSql(new AbstractCustomSqlExecution<ActivitiJobMapper, List<ActivitiJobMapper.ProcessInstanceJobCount>>(ActivitiJobMapper.class)
+                {
+                    @Override
+                    public List<ActivitiJobMapper.ProcessInstanceJobCount> execute(ActivitiJobMapper activitiJobMapper)
+                    {
+                        return activitiJobMapper.selectJobsWithExceptionCounts(batch);
+                    }
+                });
+
+            for (ActivitiJobMapper.ProcessInstanceJobCount processInstanceJobCount : processInstanceJobCounts)
+            {
+                jobsWithExceptionCounts.put(processInstanceJobCount.getProcessInstanceId(), processInstanceJobCount.getJobCount());
+            }
+        }
+
+        return jobsWithExceptionCounts;
+    }
+
     @Override
     public List<HistoricProcessInstance> getHistoricProcessInstancesByStatusAndProcessDefinitionKeys(JobStatusEnum jobStatus,
         Collection<String> processDefinitionKeys, DateTime startTime, DateTime endTime)
@@ -127,6 +182,68 @@ public class ActivitiServiceImpl implements ActivitiService
         return createHistoricProcessInstanceQuery(processDefinitionKeys, jobStatus, startTime, endTime).list();
     }
 
+    @Override
+    public List<HistoricProcessInstance> getHistoricProcessInstancesByStatusAndProcessDefinitionKeys(JobStatusEnum jobStatus,
+        Collection<String> processDefinitionKeys, DateTime startTime, DateTime endTime, Date afterStartTime, String afterProcessInstanceId, int maxResults)
+    {
+        if (processDefinitionKeys.isEmpty())
+        {
+            return new ArrayList<>();
+        }
+
+        // The query API can't select the process instances following a given one, so the page is selected with a native query applying the same filters.
+        Map<String, Object> parameters = new HashMap<>();
+        StringBuilder sql = new StringBuilder("SELECT RES.* FROM ").append(activitiManagementService.getTableName(HistoricProcessInstanceEntity.class))
+            .append(" RES INNER JOIN ").append(activitiManagementService.getTableName(ProcessDefinitionEntity.class))
+            .append(" DEF ON RES.PROC_DEF_ID_ = DEF.ID_ WHERE DEF.KEY_ IN (");
+        int processDefinitionKeyIndex = 0;
+        for (String processDefinitionKey : processDefinitionKeys)
+        {
+            String parameterName = "processDefinitionKey" + processDefinitionKeyIndex;
+            sql.append(processDefinitionKeyIndex++ == 0 ? "" : ", ").append("#{").append(parameterName).append('}');
+            parameters.put(parameterName, processDefinitionKey);
+        }
+        sql.append(')');
+
+        if (JobStatusEnum.RUNNING.equals(jobStatus) || JobStatusEnum.SUSPENDED.equals(jobStatus))
+        {
+            sql.append(" AND RES.END_TIME_ IS NULL");
+        }
+        else if (JobStatusEnum.COMPLETED.equals(jobStatus))
+        {
+            sql.append(" AND RES.END_TIME_ IS NOT NULL");
+        }
+
+        if (startTime != null)
+        {
+            sql.append(" AND RES.START_TIME_ >= #{startedAfter}");
+            parameters.put("startedAfter", startTime.toDate());
+        }
+
+        if (endTime != null)
+        {
+            sql.append(" AND RES.END_TIME_ <= #{finishedBefore}");
+            parameters.put("finishedBefore", endTime.toDate());
+        }
+
+        if (afterStartTime != null)
+        {
+            sql.append(" AND (RES.START_TIME_ < #{afterStartTime} OR (RES.START_TIME_ = #{afterStartTime} AND RES.ID_ > #{afterProcessInstanceId}))");
+            parameters.put("afterStartTime", afterStartTime);
+            parameters.put("afterProcessInstanceId", afterProcessInstanceId);
+        }
+
+        sql.append(" ORDER BY RES.START_TIME_ DESC, RES.ID_ ASC");
+
+        NativeHistoricProcessInstanceQuery query = activitiHistoryService.createNativeHistoricProcessInstanceQuery().sql(sql.toString());
+        for (Map.Entry<String, Object> parameter : parameters.entrySet())
+        {
+            query.parameter(parameter.getKey(), parameter.getValue());
+        }
+
+        return query.listPage(0, maxResults);
+    }
+
     @Override
     public long getHistoricProcessInstancesCountByStatusAndProcessDefinitionKeys(JobStatusEnum jobStatus, Collection<String> processDefinitionKeys,
         DateTime startTime, DateTime endTime)
@@ -177,6 +294,26 @@ public class ActivitiServiceImpl implements ActivitiService
         activitiRuntimeService.deleteProcessInstance(processInstanceId, deleteReason);
     }
 
+    /**
+     * Splits process instance IDs into batches small enough for a single "in" clause.
+     *
+     * @param processInstanceIds the process instance IDs
+     *
+     * @return the list of batches
+     */
+    private List<List<String>> getProcessInstanceIdBatches(Collection<String> processInstanceIds)
+    {
+        List<List<String>> batches = new ArrayList<>();
+
+        List<String> processInstanceIdList = new ArrayList<>(processInstanceIds);
+        for (int fromIndex = 0; fromIndex < processInstanceIdList.size(); fromIndex += PROCESS_INSTANCE_ID_BATCH_SIZE)
+        {
+            batches.add(processInstanceIdList.subList(fromIndex, Math.min(fromIndex + PROCESS_INSTANCE_ID_BATCH_SIZE, processInstanceIdList.size())));
+        }
+
+        return batches;
+    }
+
     /**
      * Creates a HistoricProcessInstanceQuery in the given process definitions, optionally filtering by the given job status, start and end times.
      * 
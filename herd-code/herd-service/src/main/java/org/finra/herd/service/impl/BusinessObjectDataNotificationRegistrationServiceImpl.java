@@ -60,6 +60,7 @@ import org.finra.herd.service.helper.FileTypeDaoHelper;
 import org.finra.herd.service.helper.JobDefinitionDaoHelper;
 import org.finra.herd.service.helper.NamespaceDaoHelper;
 import org.finra.herd.service.helper.NotificationEventTypeDaoHelper;
+import org.finra.herd.service.helper.NotificationRegistrationMatchingIndex;
 import org.finra.herd.service.helper.NotificationRegistrationStatusDaoHelper;
 import org.finra.herd.service.helper.StorageDaoHelper;
 
@@ -97,6 +98,9 @@ public class BusinessObjectDataNotificationRegistrationServiceImpl implements Bu
     @Autowired
     private NotificationEventTypeDaoHelper notificationEventTypeDaoHelper;
 
+    @Autowired
+    private NotificationRegistrationMatchingIndex notificationRegistrationMatchingIndex;
+
     @Autowired
     private NotificationRegistrationStatusDaoHelper notificationRegistrationStatusDaoHelper;
 
@@ -192,6 +196,9 @@ public class BusinessObjectDataNotificationRegistrationServiceImpl implements Bu
         businessObjectDataNotificationRegistrationEntity =
             businessObjectDataNotificationRegistrationDao.saveAndRefresh(businessObjectDataNotificationRegistrationEntity);
 
+        // Let all herd nodes know that the notification registrations have changed.
+        notificationRegistrationMatchingIndex.incrementGenerationNumber();
+
         // Create and return the business object data notification object from the persisted entity.
         return createBusinessObjectDataNotificationFromEntity(businessObjectDataNotificationRegistrationEntity);
     }
@@ -296,6 +303,9 @@ public class BusinessObjectDataNotificationRegistrationServiceImpl implements Bu
         newBusinessObjectDataNotificationRegistrationEntity =
             businessObjectDataNotificationRegistrationDao.saveAndRefresh(newBusinessObjectDataNotificationRegistrationEntity);
 
+        // Let all herd nodes know that the notification registrations have changed.
+        notificationRegistrationMatchingIndex.incrementGenerationNumber();
+
         // Create and return the business object data notification object from the persisted entity.
         return createBusinessObjectDataNotificationFromEntity(newBusinessObjectDataNotificationRegistrationEntity);
     }
@@ -314,6 +324,9 @@ public class BusinessObjectDataNotificationRegistrationServiceImpl implements Bu
         // Delete the business object data notification.
         businessObjectDataNotificationRegistrationDao.delete(businessObjectDataNotificationRegistrationEntity);
 
+        // Let all herd nodes know that the notification registrations have changed.
+        notificationRegistrationMatchingIndex.incrementGenerationNumber();
+
         // Create and return the business object data notification object from the deleted entity.
         return createBusinessObjectDataNotificationFromEntity(businessObjectDataNotificationRegistrationEntity);
     }
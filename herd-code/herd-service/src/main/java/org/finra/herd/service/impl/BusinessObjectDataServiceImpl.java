@@ -16,11 +16,18 @@
 package org.finra.herd.service.impl;
 
 import java.io.File;
+import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 
 import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -84,6 +91,7 @@ import org.finra.herd.service.helper.BusinessObjectDataSearchHelper;
 import org.finra.herd.service.helper.BusinessObjectDataStatusDaoHelper;
 import org.finra.herd.service.helper.BusinessObjectFormatDaoHelper;
 import org.finra.herd.service.helper.CustomDdlDaoHelper;
+import org.finra.herd.service.helper.DdlGenerator;
 import org.finra.herd.service.helper.DdlGeneratorFactory;
 import org.finra.herd.service.helper.S3KeyPrefixHelper;
 import org.finra.herd.service.helper.StorageDaoHelper;
@@ -398,7 +406,7 @@ public class BusinessObjectDataServiceImpl implements BusinessObjectDataService
 
     @NamespacePermission(fields = "#request.namespace", permissions = NamespacePermissionEnum.READ)
     @Override
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
     public BusinessObjectDataAvailability checkBusinessObjectDataAvailability(BusinessObjectDataAvailabilityRequest request)
     {
         return checkBusinessObjectDataAvailabilityImpl(request);
@@ -407,7 +415,7 @@ public class BusinessObjectDataServiceImpl implements BusinessObjectDataService
     @NamespacePermission(fields = "#request?.businessObjectDataAvailabilityRequests?.![namespace]",
         permissions = NamespacePermissionEnum.READ)
     @Override
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
     public BusinessObjectDataAvailabilityCollectionResponse checkBusinessObjectDataAvailabilityCollection(
         BusinessObjectDataAvailabilityCollectionRequest request)
     {
@@ -444,40 +452,204 @@ public class BusinessObjectDataServiceImpl implements BusinessObjectDataService
             validateBusinessObjectDataAvailabilityRequest(request);
         }
 
+        return checkBusinessObjectDataAvailabilities(Collections.singletonList(request)).get(0);
+    }
+
+    /**
+     * Performs an availability check for a collection of business object data.
+     *
+     * @param businessObjectDataAvailabilityCollectionRequest the business object data availability collection requests
+     *
+     * @return the business object data availability information
+     */
+    protected BusinessObjectDataAvailabilityCollectionResponse checkBusinessObjectDataAvailabilityCollectionImpl(
+        BusinessObjectDataAvailabilityCollectionRequest businessObjectDataAvailabilityCollectionRequest)
+    {
+        // Perform the validation of the entire request, before we start processing the individual requests that requires the database access.
+        validateBusinessObjectDataAvailabilityCollectionRequest(businessObjectDataAvailabilityCollectionRequest);
+
+        // Process the individual requests and build the response. Requests for the same business object format and storages share their storage unit queries.
+        BusinessObjectDataAvailabilityCollectionResponse businessObjectDataAvailabilityCollectionResponse =
+            new BusinessObjectDataAvailabilityCollectionResponse();
+        List<BusinessObjectDataAvailability> businessObjectDataAvailabilityResponses =
+            checkBusinessObjectDataAvailabilities(businessObjectDataAvailabilityCollectionRequest.getBusinessObjectDataAvailabilityRequests());
+        businessObjectDataAvailabilityCollectionResponse.setBusinessObjectDataAvailabilityResponses(businessObjectDataAvailabilityResponses);
+        boolean isAllDataAvailable = true;
+        boolean isAllDataNotAvailable = true;
+        for (BusinessObjectDataAvailability businessObjectDataAvailability : businessObjectDataAvailabilityResponses)
+        {
+            isAllDataAvailable = isAllDataAvailable && businessObjectDataAvailability.getNotAvailableStatuses().isEmpty();
+            isAllDataNotAvailable = isAllDataNotAvailable && businessObjectDataAvailability.getAvailableStatuses().isEmpty();
+        }
+        businessObjectDataAvailabilityCollectionResponse.setIsAllDataAvailable(isAllDataAvailable);
+        businessObjectDataAvailabilityCollectionResponse.setIsAllDataNotAvailable(isAllDataNotAvailable);
+
+        return businessObjectDataAvailabilityCollectionResponse;
+    }
+
+    /**
+     * Performs availability checks for a list of already validated business object data availability requests. Requests for the same business object format,
+     * business object data version and storages are grouped into batches, so each batch runs a single storage unit query per lookup step instead of one query
+     * per request. The storage units returned for a batch are then split back between the requests as per their partition filters. Please note that a batch
+     * never combines more partition filters than the storage unit DAO sends in a single query, so the storage units for each request are returned in the same
+     * order as when the request is processed on its own.
+     *
+     * @param requests the list of business object data availability requests
+     *
+     * @return the list of business object data availability information in the order of the requests
+     */
+    private List<BusinessObjectDataAvailability> checkBusinessObjectDataAvailabilities(List<BusinessObjectDataAvailabilityRequest> requests)
+    {
+        // Resolve the business object format, the storages and the partition filters for each request. When a request fails here, the requests in front of it
+        // are still processed, so an error in any of those requests is reported first, just like when the requests are processed one by one.
+        List<AvailabilityCheck> availabilityChecks = new ArrayList<>();
+        RuntimeException availabilityCheckException = null;
+        for (BusinessObjectDataAvailabilityRequest request : requests)
+        {
+            try
+            {
+                availabilityChecks.add(createAvailabilityCheck(request));
+            }
+            catch (RuntimeException e)
+            {
+                availabilityCheckException = e;
+                break;
+            }
+        }
+
+        List<List<AvailabilityCheck>> availabilityCheckBatches = getAvailabilityCheckBatches(availabilityChecks);
+
+        // Retrieve a list of storage unit entities for the partition filters of each batch. The entities will be sorted by partition value that is identified
+        // by partition column position. If a business object data version isn't specified, the latest VALID business object data version is returned.
+        // Business object data availability works across all storage platform types, so the storage platform type is not specified in the herdDao call.
+        // We want to select only "available" storage units, so we exclude Glacier storage platform type (when storage names are not specified) and pass
+        // "true" for selectOnlyAvailableStorageUnits parameter.
+        Map<AvailabilityCheck, List<StorageUnitEntity>> availableStorageUnitEntitiesMap = new IdentityHashMap<>();
+        for (List<AvailabilityCheck> availabilityCheckBatch : availabilityCheckBatches)
+        {
+            AvailabilityCheck firstAvailabilityCheck = availabilityCheckBatch.get(0);
+            List<StorageUnitEntity> availableStorageUnitEntities = storageUnitDao
+                .getStorageUnitsByPartitionFiltersAndStorages(firstAvailabilityCheck.businessObjectFormatKey,
+                    getCombinedPartitionFilters(availabilityCheckBatch, availabilityCheck -> availabilityCheck.partitionFilters),
+                    firstAvailabilityCheck.request.getBusinessObjectDataVersion(), BusinessObjectDataStatusEntity.VALID, firstAvailabilityCheck.storageNames,
+                    null, StoragePlatformEntity.GLACIER, true);
+
+            for (AvailabilityCheck availabilityCheck : availabilityCheckBatch)
+            {
+                availableStorageUnitEntitiesMap.put(availabilityCheck,
+                    getMatchingStorageUnitEntities(availabilityCheckBatch, availableStorageUnitEntities, availabilityCheck.partitionFilters));
+            }
+        }
+
+        // Populate the available statuses in the order of the requests.
+        for (AvailabilityCheck availabilityCheck : availabilityChecks)
+        {
+            addAvailableBusinessObjectDataStatuses(availabilityCheck, availableStorageUnitEntitiesMap.get(availabilityCheck));
+        }
+
+        for (List<AvailabilityCheck> availabilityCheckBatch : availabilityCheckBatches)
+        {
+            AvailabilityCheck firstAvailabilityCheck = availabilityCheckBatch.get(0);
+            List<List<String>> unmatchedPartitionFilters =
+                getCombinedPartitionFilters(availabilityCheckBatch, availabilityCheck -> availabilityCheck.unmatchedPartitionFilters);
+
+            // We still need to try to retrieve business object data per list of unmatched filters regardless of business object data and/or storage unit
+            // statuses. This is done to populate not-available statuses with legitimate reasons.
+            // Business object data availability works across all storage platform types, so the storage platform type is not specified in the herdDao call.
+            // We want to select any existing storage units regardless of their status, so we pass "false" for selectOnlyAvailableStorageUnits parameter.
+            List<StorageUnitEntity> notAvailableStorageUnitEntities = storageUnitDao
+                .getStorageUnitsByPartitionFiltersAndStorages(firstAvailabilityCheck.businessObjectFormatKey, unmatchedPartitionFilters,
+                    firstAvailabilityCheck.request.getBusinessObjectDataVersion(), null, firstAvailabilityCheck.storageNames, null,
+                    StoragePlatformEntity.GLACIER, false);
+
+            // For all unmatched filters, select "available" storage units in any storages of the GLACIER storage platform type.
+            // This is done to be able to check if business object data with a "non-available" storage unit is actually archived.
+            // We want to select only "available" storage units, so we pass "true" for selectOnlyAvailableStorageUnits parameter.
+            List<StorageUnitEntity> archivedStorageUnitEntities = storageUnitDao
+                .getStorageUnitsByPartitionFiltersAndStorages(firstAvailabilityCheck.businessObjectFormatKey, unmatchedPartitionFilters,
+                    firstAvailabilityCheck.request.getBusinessObjectDataVersion(), null, null, StoragePlatformEntity.GLACIER, null, true);
+
+            // Populate a set of archived business object data entities for easy access. Please note that business object data might be archived in more
+            // than one Glacier storage. The set can be shared by all requests in the batch, since it is only checked against each request's own storage units.
+            Set<BusinessObjectDataEntity> archivedBusinessObjectDataEntities = storageUnitHelper.getBusinessObjectDataEntitiesSet(archivedStorageUnitEntities);
+
+            for (AvailabilityCheck availabilityCheck : availabilityCheckBatch)
+            {
+                addNotAvailableBusinessObjectDataStatuses(availabilityCheck,
+                    getMatchingStorageUnitEntities(availabilityCheckBatch, notAvailableStorageUnitEntities, availabilityCheck.unmatchedPartitionFilters),
+                    archivedBusinessObjectDataEntities);
+            }
+        }
+
+        if (availabilityCheckException != null)
+        {
+            throw availabilityCheckException;
+        }
+
+        List<BusinessObjectDataAvailability> businessObjectDataAvailabilities = new ArrayList<>();
+        for (AvailabilityCheck availabilityCheck : availabilityChecks)
+        {
+            businessObjectDataAvailabilities.add(availabilityCheck.businessObjectDataAvailability);
+        }
+
+        return businessObjectDataAvailabilities;
+    }
+
+    /**
+     * Creates an availability check for the specified business object data availability request. This validates that the business object format and the
+     * storages exist and builds the partition filters.
+     *
+     * @param request the business object data availability request
+     *
+     * @return the availability check
+     */
+    private AvailabilityCheck createAvailabilityCheck(BusinessObjectDataAvailabilityRequest request)
+    {
+        AvailabilityCheck availabilityCheck = new AvailabilityCheck();
+        availabilityCheck.request = request;
+
         // Get business object format key from the request.
-        BusinessObjectFormatKey businessObjectFormatKey = getBusinessObjectFormatKey(request);
+        availabilityCheck.businessObjectFormatKey = getBusinessObjectFormatKey(request);
 
         // Make sure that specified business object format exists.
-        BusinessObjectFormatEntity businessObjectFormatEntity = businessObjectFormatDaoHelper.getBusinessObjectFormatEntity(businessObjectFormatKey);
+        BusinessObjectFormatEntity businessObjectFormatEntity =
+            businessObjectFormatDaoHelper.getBusinessObjectFormatEntity(availabilityCheck.businessObjectFormatKey);
 
         // Get the list of storages from the request and validate that specified storages exist.
-        List<String> storageNames = getStorageNames(request);
-        storageDaoHelper.validateStorageExistence(storageNames);
+        availabilityCheck.storageNames = getStorageNames(request);
+        storageDaoHelper.validateStorageExistence(availabilityCheck.storageNames);
 
         // Build partition filters based on the specified partition value filters.
         // Business object data availability works across all storage platform types, so the storage platform type is not specified in the call.
         // Since we want to search across "available" storage units, we exclude Glacier storage platform type.
-        List<List<String>> partitionFilters = businessObjectDataDaoHelper
-            .buildPartitionFilters(request.getPartitionValueFilters(), request.getPartitionValueFilter(), businessObjectFormatKey,
-                request.getBusinessObjectDataVersion(), storageNames, null, StoragePlatformEntity.GLACIER, false, businessObjectFormatEntity);
-
-        // Retrieve a list of storage unit entities for the specified partition values. The entities will be sorted by partition value that is identified
-        // by partition column position. If a business object data version isn't specified, the latest VALID business object data version is returned.
-        // Business object data availability works across all storage platform types, so the storage platform type is not specified in the herdDao call.
-        // We want to select only "available" storage units, so we exclude Glacier storage platform type (when storage names are not specified) and pass
-        // "true" for selectOnlyAvailableStorageUnits parameter.
-        List<StorageUnitEntity> availableStorageUnitEntities = storageUnitDao
-            .getStorageUnitsByPartitionFiltersAndStorages(businessObjectFormatKey, partitionFilters, request.getBusinessObjectDataVersion(),
-                BusinessObjectDataStatusEntity.VALID, storageNames, null, StoragePlatformEntity.GLACIER, true);
+        availabilityCheck.partitionFilters = businessObjectDataDaoHelper
+            .buildPartitionFilters(request.getPartitionValueFilters(), request.getPartitionValueFilter(), availabilityCheck.businessObjectFormatKey,
+                request.getBusinessObjectDataVersion(), availabilityCheck.storageNames, null, StoragePlatformEntity.GLACIER, false, businessObjectFormatEntity);
 
         // Create business object data availability object instance and initialise it with request field values.
-        BusinessObjectDataAvailability businessObjectDataAvailability = createBusinessObjectDataAvailability(request);
+        availabilityCheck.businessObjectDataAvailability = createBusinessObjectDataAvailability(request);
 
         // Create "available" and "not available" business object data status lists.
-        List<BusinessObjectDataStatus> availableStatuses = new ArrayList<>();
-        businessObjectDataAvailability.setAvailableStatuses(availableStatuses);
-        List<BusinessObjectDataStatus> notAvailableStatuses = new ArrayList<>();
-        businessObjectDataAvailability.setNotAvailableStatuses(notAvailableStatuses);
+        availabilityCheck.businessObjectDataAvailability.setAvailableStatuses(new ArrayList<>());
+        availabilityCheck.businessObjectDataAvailability.setNotAvailableStatuses(new ArrayList<>());
+
+        return availabilityCheck;
+    }
+
+    /**
+     * Populates the available statuses of an availability check per list of "available" storage units selected for its partition filters. This also builds
+     * the list of partition filters that got no "available" business object data.
+     *
+     * @param availabilityCheck the availability check
+     * @param availableStorageUnitEntities the list of "available" storage unit entities that match the partition filters of the availability check
+     */
+    private void addAvailableBusinessObjectDataStatuses(AvailabilityCheck availabilityCheck, List<StorageUnitEntity> availableStorageUnitEntities)
+    {
+        BusinessObjectDataAvailabilityRequest request = availabilityCheck.request;
+        List<String> storageNames = availabilityCheck.storageNames;
+        List<List<String>> partitionFilters = availabilityCheck.partitionFilters;
+        List<BusinessObjectDataStatus> availableStatuses = availabilityCheck.businessObjectDataAvailability.getAvailableStatuses();
+        List<BusinessObjectDataStatus> notAvailableStatuses = availabilityCheck.businessObjectDataAvailability.getNotAvailableStatuses();
 
         // Build a list of matched available partition filters and populate the available statuses list. Please note that each request partition filter
         // might result in multiple available business object data entities. If storage names are not specified, fail on "duplicate" business object data
@@ -531,97 +703,239 @@ public class BusinessObjectDataServiceImpl implements BusinessObjectDataService
         // matched partition filters one more time to discover any non-available registered sub-partitions.
         if (includeAllRegisteredSubPartitions && !CollectionUtils.isEmpty(matchedAvailablePartitionFilters))
         {
-            addNotAvailableBusinessObjectDataStatuses(notAvailableStatuses, businessObjectFormatKey, matchedAvailablePartitionFilters, availablePartitions,
-                storageNames);
+            addNotAvailableBusinessObjectDataStatuses(notAvailableStatuses, availabilityCheck.businessObjectFormatKey, matchedAvailablePartitionFilters,
+                availablePartitions, storageNames);
         }
 
         // Get a list of unmatched partition filters.
-        List<List<String>> unmatchedPartitionFilters = new ArrayList<>(partitionFilters);
-        unmatchedPartitionFilters.removeAll(matchedAvailablePartitionFilters);
-
-        // We still need to try to retrieve business object data per list of unmatched filters regardless of business object data and/or storage unit statuses.
-        // This is done to populate not-available statuses with legitimate reasons.
-        // Business object data availability works across all storage platform types, so the storage platform type is not specified in the herdDao call.
-        // We want to select any existing storage units regardless of their status, so we pass "false" for selectOnlyAvailableStorageUnits parameter.
-        List<StorageUnitEntity> notAvailableStorageUnitEntities = storageUnitDao
-            .getStorageUnitsByPartitionFiltersAndStorages(businessObjectFormatKey, unmatchedPartitionFilters, request.getBusinessObjectDataVersion(), null,
-                storageNames, null, StoragePlatformEntity.GLACIER, false);
-
-        // For all unmatched filters, select "available" storage units in any storages of the GLACIER storage platform type.
-        // This is done to be able to check if business object data with a "non-available" storage unit is actually archived.
-        // We want to select only "available" storage units, so we pass "true" for selectOnlyAvailableStorageUnits parameter.
-        List<StorageUnitEntity> archivedStorageUnitEntities = storageUnitDao
-            .getStorageUnitsByPartitionFiltersAndStorages(businessObjectFormatKey, unmatchedPartitionFilters, request.getBusinessObjectDataVersion(), null,
-                null, StoragePlatformEntity.GLACIER, null, true);
+        Set<List<String>> matchedPartitionFilters = new HashSet<>(matchedAvailablePartitionFilters);
+        availabilityCheck.unmatchedPartitionFilters = new ArrayList<>();
+        for (List<String> partitionFilter : partitionFilters)
+        {
+            if (!matchedPartitionFilters.contains(partitionFilter))
+            {
+                availabilityCheck.unmatchedPartitionFilters.add(partitionFilter);
+            }
+        }
+    }
 
-        // Populate a set of archived business object data entities for easy access. Please note that business object data might be archived in more than
-        // one Glacier storage.
-        Set<BusinessObjectDataEntity> archivedBusinessObjectDataEntities = storageUnitHelper.getBusinessObjectDataEntitiesSet(archivedStorageUnitEntities);
+    /**
+     * Populates the not-available statuses of an availability check per list of storage units selected for its unmatched partition filters regardless of
+     * business object data and storage unit statuses.
+     *
+     * @param availabilityCheck the availability check
+     * @param notAvailableStorageUnitEntities the list of storage unit entities that match the unmatched partition filters of the availability check
+     * @param archivedBusinessObjectDataEntities the set of archived business object data entities, not null
+     */
+    private void addNotAvailableBusinessObjectDataStatuses(AvailabilityCheck availabilityCheck, List<StorageUnitEntity> notAvailableStorageUnitEntities,
+        Set<BusinessObjectDataEntity> archivedBusinessObjectDataEntities)
+    {
+        List<BusinessObjectDataStatus> notAvailableStatuses = availabilityCheck.businessObjectDataAvailability.getNotAvailableStatuses();
 
         // Populate the not-available statuses list.
         addNotAvailableBusinessObjectDataStatuses(notAvailableStatuses, notAvailableStorageUnitEntities, archivedBusinessObjectDataEntities);
 
         // Build a list of matched "not-available" partition filters.
         // Please note that each request partition filter might result in multiple available business object data entities.
-        List<List<String>> matchedNotAvailablePartitionFilters = getPartitionFilters(notAvailableStorageUnitEntities, partitionFilters.get(0));
+        List<List<String>> matchedNotAvailablePartitionFilters =
+            getPartitionFilters(notAvailableStorageUnitEntities, availabilityCheck.partitionFilters.get(0));
 
         // Update the list of unmatched partition filters.
+        List<List<String>> unmatchedPartitionFilters = availabilityCheck.unmatchedPartitionFilters;
         unmatchedPartitionFilters.removeAll(matchedNotAvailablePartitionFilters);
 
         // Populate the "not available" statuses per remaining unmatched filters.
         for (List<String> unmatchedPartitionFilter : unmatchedPartitionFilters)
         {
-            notAvailableStatuses.add(createNotAvailableBusinessObjectDataStatus(request, unmatchedPartitionFilter, REASON_NOT_REGISTERED));
+            notAvailableStatuses.add(createNotAvailableBusinessObjectDataStatus(availabilityCheck.request, unmatchedPartitionFilter, REASON_NOT_REGISTERED));
         }
+    }
 
-        return businessObjectDataAvailability;
+    /**
+     * Groups availability checks into batches that can share storage unit queries. Availability checks share a batch when they are for the same business
+     * object format, business object data version and storages, as long as the combined number of distinct partition filters fits into a single storage unit
+     * query.
+     *
+     * @param availabilityChecks the list of availability checks
+     *
+     * @return the list of batches
+     */
+    private List<List<AvailabilityCheck>> getAvailabilityCheckBatches(List<AvailabilityCheck> availabilityChecks)
+    {
+        List<List<AvailabilityCheck>> availabilityCheckBatches = new ArrayList<>();
+        Map<List<Object>, List<AvailabilityCheck>> openBatches = new HashMap<>();
+        Map<List<Object>, Set<List<String>>> openBatchPartitionFilters = new HashMap<>();
+
+        for (AvailabilityCheck availabilityCheck : availabilityChecks)
+        {
+            // The storage unit lookups are case-insensitive, so are the batch keys.
+            BusinessObjectFormatKey businessObjectFormatKey = availabilityCheck.businessObjectFormatKey;
+            List<String> storageNames = new ArrayList<>();
+            for (String storageName : availabilityCheck.storageNames)
+            {
+                storageNames.add(storageName.toUpperCase());
+            }
+            Collections.sort(storageNames);
+            List<Object> batchKey = Arrays.asList(businessObjectFormatKey.getNamespace().toUpperCase(),
+                businessObjectFormatKey.getBusinessObjectDefinitionName().toUpperCase(), businessObjectFormatKey.getBusinessObjectFormatUsage().toUpperCase(),
+                businessObjectFormatKey.getBusinessObjectFormatFileType().toUpperCase(), businessObjectFormatKey.getBusinessObjectFormatVersion(),
+                availabilityCheck.request.getBusinessObjectDataVersion(), storageNames);
+
+            // Add the availability check to the open batch with the same key, if the combined partition filters fit into a single storage unit query. An
+            // availability check with more partition filters than that gets a batch of its own, so its partition filters are never copied.
+            if (availabilityCheck.partitionFilters.size() > StorageUnitDao.MAX_PARTITION_FILTERS_PER_REQUEST)
+            {
+                availabilityCheckBatches.add(Collections.singletonList(availabilityCheck));
+                continue;
+            }
+            List<AvailabilityCheck> openBatch = openBatches.get(batchKey);
+            if (openBatch != null)
+            {
+                Set<List<String>> partitionFilters = new HashSet<>(openBatchPartitionFilters.get(batchKey));
+                partitionFilters.addAll(availabilityCheck.partitionFilters);
+                if (partitionFilters.size() <= StorageUnitDao.MAX_PARTITION_FILTERS_PER_REQUEST)
+                {
+                    openBatch.add(availabilityCheck);
+                    openBatchPartitionFilters.put(batchKey, partitionFilters);
+                    continue;
+                }
+            }
+
+            // Otherwise, start a new batch.
+            List<AvailabilityCheck> availabilityCheckBatch = new ArrayList<>();
+            availabilityCheckBatch.add(availabilityCheck);
+            availabilityCheckBatches.add(availabilityCheckBatch);
+            openBatches.put(batchKey, availabilityCheckBatch);
+            openBatchPartitionFilters.put(batchKey, new HashSet<>(availabilityCheck.partitionFilters));
+        }
+
+        return availabilityCheckBatches;
     }
 
     /**
-     * Performs an availability check for a collection of business object data.
+     * Gets the combined list of distinct partition filters for a batch of availability checks. For a single availability check, its own list of partition
+     * filters is returned as is.
      *
-     * @param businessObjectDataAvailabilityCollectionRequest the business object data availability collection requests
+     * @param availabilityCheckBatch the batch of availability checks
+     * @param partitionFiltersGetter the function that returns the partition filters of an availability check
      *
-     * @return the business object data availability information
+     * @return the list of partition filters
      */
-    protected BusinessObjectDataAvailabilityCollectionResponse checkBusinessObjectDataAvailabilityCollectionImpl(
-        BusinessObjectDataAvailabilityCollectionRequest businessObjectDataAvailabilityCollectionRequest)
+    private List<List<String>> getCombinedPartitionFilters(List<AvailabilityCheck> availabilityCheckBatch,
+        Function<AvailabilityCheck, List<List<String>>> partitionFiltersGetter)
     {
-        // Perform the validation of the entire request, before we start processing the individual requests that requires the database access.
-        validateBusinessObjectDataAvailabilityCollectionRequest(businessObjectDataAvailabilityCollectionRequest);
+        if (availabilityCheckBatch.size() == 1)
+        {
+            return partitionFiltersGetter.apply(availabilityCheckBatch.get(0));
+        }
 
-        // Process the individual requests and build the response.
-        BusinessObjectDataAvailabilityCollectionResponse businessObjectDataAvailabilityCollectionResponse =
-            new BusinessObjectDataAvailabilityCollectionResponse();
-        List<BusinessObjectDataAvailability> businessObjectDataAvailabilityResponses = new ArrayList<>();
-        businessObjectDataAvailabilityCollectionResponse.setBusinessObjectDataAvailabilityResponses(businessObjectDataAvailabilityResponses);
-        boolean isAllDataAvailable = true;
-        boolean isAllDataNotAvailable = true;
-        for (BusinessObjectDataAvailabilityRequest request : businessObjectDataAvailabilityCollectionRequest.getBusinessObjectDataAvailabilityRequests())
+        Set<List<String>> partitionFilters = new LinkedHashSet<>();
+        for (AvailabilityCheck availabilityCheck : availabilityCheckBatch)
         {
-            // Please note that when calling to process individual availability requests, we ask to skip the request validation and trimming step.
-            BusinessObjectDataAvailability businessObjectDataAvailability = checkBusinessObjectDataAvailabilityImpl(request, true);
-            businessObjectDataAvailabilityResponses.add(businessObjectDataAvailability);
-            isAllDataAvailable = isAllDataAvailable && businessObjectDataAvailability.getNotAvailableStatuses().isEmpty();
-            isAllDataNotAvailable = isAllDataNotAvailable && businessObjectDataAvailability.getAvailableStatuses().isEmpty();
+            partitionFilters.addAll(partitionFiltersGetter.apply(availabilityCheck));
         }
-        businessObjectDataAvailabilityCollectionResponse.setIsAllDataAvailable(isAllDataAvailable);
-        businessObjectDataAvailabilityCollectionResponse.setIsAllDataNotAvailable(isAllDataNotAvailable);
 
-        return businessObjectDataAvailabilityCollectionResponse;
+        return new ArrayList<>(partitionFilters);
+    }
+
+    /**
+     * Selects the storage units that match any of the specified partition filters out of the storage units returned for a batch of availability checks. For
+     * a single availability check, all storage units are returned as is.
+     *
+     * @param availabilityCheckBatch the batch of availability checks
+     * @param storageUnitEntities the list of storage unit entities returned for the batch
+     * @param partitionFilters the list of partition filters
+     *
+     * @return the list of matching storage unit entities in the original order
+     */
+    private List<StorageUnitEntity> getMatchingStorageUnitEntities(List<AvailabilityCheck> availabilityCheckBatch, List<StorageUnitEntity> storageUnitEntities,
+        List<List<String>> partitionFilters)
+    {
+        if (availabilityCheckBatch.size() == 1)
+        {
+            return storageUnitEntities;
+        }
+
+        List<StorageUnitEntity> matchingStorageUnitEntities = new ArrayList<>();
+        for (StorageUnitEntity storageUnitEntity : storageUnitEntities)
+        {
+            BusinessObjectDataEntity businessObjectDataEntity = storageUnitEntity.getBusinessObjectData();
+            List<String> partitionValues = Arrays.asList(businessObjectDataEntity.getPartitionValue(), businessObjectDataEntity.getPartitionValue2(),
+                businessObjectDataEntity.getPartitionValue3(), businessObjectDataEntity.getPartitionValue4(), businessObjectDataEntity.getPartitionValue5());
+
+            for (List<String> partitionFilter : partitionFilters)
+            {
+                if (matchesPartitionFilter(partitionValues, partitionFilter))
+                {
+                    matchingStorageUnitEntities.add(storageUnitEntity);
+                    break;
+                }
+            }
+        }
+
+        return matchingStorageUnitEntities;
+    }
+
+    /**
+     * Checks if the partition values match the partition filter the same way the storage unit DAO does, where the blank partition filter values match any
+     * partition value.
+     *
+     * @param partitionValues the list of primary and sub-partition values
+     * @param partitionFilter the partition filter
+     *
+     * @return true if the partition values match the partition filter
+     */
+    private boolean matchesPartitionFilter(List<String> partitionValues, List<String> partitionFilter)
+    {
+        for (int partitionLevel = 0; partitionLevel < partitionFilter.size(); partitionLevel++)
+        {
+            String partitionValue = partitionFilter.get(partitionLevel);
+            if (StringUtils.isNotBlank(partitionValue) && !partitionValue.equals(partitionValues.get(partitionLevel)))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * The state of an availability check for a single business object data availability request.
+     */
+    private static class AvailabilityCheck
+    {
+        private BusinessObjectDataAvailabilityRequest request;
+
+        private BusinessObjectFormatKey businessObjectFormatKey;
+
+        private List<String> storageNames;
+
+        private List<List<String>> partitionFilters;
+
+        private List<List<String>> unmatchedPartitionFilters = new ArrayList<>();
+
+        private BusinessObjectDataAvailability businessObjectDataAvailability;
     }
 
     @NamespacePermission(fields = "#request.namespace", permissions = NamespacePermissionEnum.READ)
     @Override
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
     public BusinessObjectDataDdl generateBusinessObjectDataDdl(BusinessObjectDataDdlRequest request)
     {
         return generateBusinessObjectDataDdlImpl(request, false);
     }
 
+    @NamespacePermission(fields = "#request.namespace", permissions = NamespacePermissionEnum.READ)
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void generateBusinessObjectDataDdl(BusinessObjectDataDdlRequest request, Writer writer)
+    {
+        generateBusinessObjectDataDdlImpl(request, false, writer);
+    }
+
     @NamespacePermission(fields = "#request?.businessObjectDataDdlRequests?.![namespace]", permissions = NamespacePermissionEnum.READ)
     @Override
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
     public BusinessObjectDataDdlCollectionResponse generateBusinessObjectDataDdlCollection(BusinessObjectDataDdlCollectionRequest request)
     {
         return generateBusinessObjectDataDdlCollectionImpl(request);
@@ -637,6 +951,22 @@ public class BusinessObjectDataServiceImpl implements BusinessObjectDataService
      * @return the business object data DDL information
      */
     protected BusinessObjectDataDdl generateBusinessObjectDataDdlImpl(BusinessObjectDataDdlRequest request, boolean skipRequestValidation)
+    {
+        return generateBusinessObjectDataDdlImpl(request, skipRequestValidation, null);
+    }
+
+    /**
+     * Retrieves the DDL to initialize the specified type of the database system to perform queries for a range of requested business object data in the
+     * specified storage. When a writer is specified, the DDL is streamed to the writer instead of being returned as part of the business object data DDL
+     * information.
+     *
+     * @param request the business object data DDL request
+     * @param skipRequestValidation specifies whether to skip the request validation and trimming
+     * @param writer the optional writer to stream the DDL to
+     *
+     * @return the business object data DDL information
+     */
+    protected BusinessObjectDataDdl generateBusinessObjectDataDdlImpl(BusinessObjectDataDdlRequest request, boolean skipRequestValidation, Writer writer)
     {
         // Perform the validation.
         if (!skipRequestValidation)
@@ -702,8 +1032,16 @@ public class BusinessObjectDataServiceImpl implements BusinessObjectDataService
 
         // Create and initialize a business object data DDL object instance.
         BusinessObjectDataDdl businessObjectDataDdl = createBusinessObjectDataDdl(request);
-        businessObjectDataDdl.setDdl(ddlGeneratorFactory.getDdlGenerator(request.getOutputFormat())
-            .generateCreateTableDdl(request, businessObjectFormatEntity, customDdlEntity, storageNames, storageEntities, s3BucketNames));
+        DdlGenerator ddlGenerator = ddlGeneratorFactory.getDdlGenerator(request.getOutputFormat());
+        if (writer == null)
+        {
+            businessObjectDataDdl.setDdl(
+                ddlGenerator.generateCreateTableDdl(request, businessObjectFormatEntity, customDdlEntity, storageNames, storageEntities, s3BucketNames));
+        }
+        else
+        {
+            ddlGenerator.generateCreateTableDdl(request, businessObjectFormatEntity, customDdlEntity, storageNames, storageEntities, s3BucketNames, writer);
+        }
 
         return businessObjectDataDdl;
     }
@@ -993,9 +1331,10 @@ public class BusinessObjectDataServiceImpl implements BusinessObjectDataService
         // This is done to include all registered sub-partitions in the response.
         // Business object data availability works across all storage platform types, so the storage platform type is not specified in the herdDao call.
         // We want to select any existing storage units regardless of their status, so we pass "false" for selectOnlyAvailableStorageUnits parameter.
+        // The matched partition filters only specify registered partition values, so we pass "true" for partitionFiltersRegistered parameter.
         List<StorageUnitEntity> matchedNotAvailableStorageUnitEntities = storageUnitDao
             .getStorageUnitsByPartitionFiltersAndStorages(businessObjectFormatKey, matchedAvailablePartitionFilters, null, null, storageNames, null,
-                StoragePlatformEntity.GLACIER, false);
+                StoragePlatformEntity.GLACIER, false, true);
 
         // Exclude all storage units with business object data having "DELETED" status.
         matchedNotAvailableStorageUnitEntities =
@@ -1012,7 +1351,7 @@ public class BusinessObjectDataServiceImpl implements BusinessObjectDataService
             // We want to select only "available" storage units, so we pass "true" for selectOnlyAvailableStorageUnits parameter.
             List<StorageUnitEntity> matchedArchivedStorageUnitEntities = storageUnitDao
                 .getStorageUnitsByPartitionFiltersAndStorages(businessObjectFormatKey, matchedAvailablePartitionFilters, null, null, null,
-                    StoragePlatformEntity.GLACIER, null, true);
+                    StoragePlatformEntity.GLACIER, null, true, true);
 
             // Populate a set of archived business object data entities for easy access.
             Set<BusinessObjectDataEntity> matchedArchivedBusinessObjectDataEntities =
@@ -1296,11 +1635,7 @@ public class BusinessObjectDataServiceImpl implements BusinessObjectDataService
         // validate search request
         businessObjectDataSearchHelper.validateBusinesObjectDataSearchRequest(request);
 
-        // search business object data
-        List<BusinessObjectData> businessObjectDataList = businessObjectDataDao.searchBusinessObjectData(request.getBusinessObjectDataSearchFilters());
-        BusinessObjectDataSearchResult result = new BusinessObjectDataSearchResult();
-        result.setBusinessObjectDataElements(businessObjectDataList);
-
-        return result;
+        // search business object data, resuming after the previous page if a page token is specified
+        return businessObjectDataDao.searchBusinessObjectData(request.getBusinessObjectDataSearchFilters(), request.getPageToken());
     }
 }
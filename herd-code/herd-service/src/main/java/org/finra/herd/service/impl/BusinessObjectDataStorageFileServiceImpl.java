@@ -16,14 +16,20 @@
 package org.finra.herd.service.impl;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import com.amazonaws.services.s3.model.S3ObjectSummary;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.time.StopWatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
@@ -63,6 +69,8 @@ import org.finra.herd.service.helper.StorageUnitDaoHelper;
 @Transactional(value = DaoSpringModuleConfig.HERD_TRANSACTION_MANAGER_BEAN_NAME)
 public class BusinessObjectDataStorageFileServiceImpl implements BusinessObjectDataStorageFileService
 {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BusinessObjectDataStorageFileServiceImpl.class);
+
     @Autowired
     private BusinessObjectDataDaoHelper businessObjectDataDaoHelper;
 
@@ -216,26 +224,54 @@ public class BusinessObjectDataStorageFileServiceImpl implements BusinessObjectD
         S3FileTransferRequestParamsDto params = storageHelper.getS3BucketAccessParams(storageUnitEntity.getStorage());
         params.setS3KeyPrefix(directoryPathWithTrailingSlash);
 
-        // List S3 files ignoring 0 byte objects that represent S3 directories.
-        // Please note that the map implementation returned by the helper method below
-        // preserves the original order of files as returned by the S3 list command.
-        Map<String, StorageFile> actualS3Keys = storageFileHelper.getStorageFilesMapFromS3ObjectSummaries(s3Service.listDirectory(params, true));
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+
+        // List S3 files ignoring 0 byte objects that represent S3 directories. The S3 directory is listed in parallel shards and the S3 objects are passed
+        // to the consumer below in the order returned by the S3 list command, so each listed S3 object is validated or collected as soon as it is listed.
+        // Please note that the map implementation below preserves the original order of files as returned by the S3 list command.
+        Map<String, StorageFile> discoveredStorageFiles = new LinkedHashMap<>();
+        Set<String> listedRegisteredStorageFilePaths = new HashSet<>();
+        s3Service.listDirectory(params, true, s3ObjectSummaries -> {
+            for (S3ObjectSummary s3ObjectSummary : s3ObjectSummaries)
+            {
+                StorageFile storageFile = new StorageFile(s3ObjectSummary.getKey(), s3ObjectSummary.getSize(), null);
+                StorageFileEntity storageFileEntity = storageFileEntities.get(storageFile.getFilePath());
+                if (storageFileEntity != null)
+                {
+                    // For an already registered storage file, validate file size against the metadata reported by S3.
+                    storageFileHelper.validateStorageFileEntity(storageFileEntity, params.getS3BucketName(),
+                        Collections.singletonMap(storageFile.getFilePath(), storageFile), true);
+                    listedRegisteredStorageFilePaths.add(storageFile.getFilePath());
+                }
+                else
+                {
+                    discoveredStorageFiles.put(storageFile.getFilePath(), storageFile);
+                }
+            }
+        });
 
-        // For the already registered storage files, validate file existence and file size against S3 keys and metadata reported by S3.
+        // Validate that all already registered storage files exist in S3.
         for (Map.Entry<String, StorageFileEntity> entry : storageFileEntities.entrySet())
         {
-            storageFileHelper.validateStorageFileEntity(entry.getValue(), params.getS3BucketName(), actualS3Keys, true);
+            if (!listedRegisteredStorageFilePaths.contains(entry.getKey()))
+            {
+                storageFileHelper.validateStorageFileEntity(entry.getValue(), params.getS3BucketName(), Collections.emptyMap(), true);
+            }
         }
 
-        // Remove all already registered storage files from the map of actual S3 keys.
-        actualS3Keys.keySet().removeAll(storageFileEntities.keySet());
+        stopWatch.stop();
+
+        LOGGER.info(
+            "Discovered storage files. s3BucketName=\"{}\" s3KeyPrefix=\"{}\" registeredStorageFileCount={} discoveredStorageFileCount={} durationMillis={}",
+            params.getS3BucketName(), directoryPathWithTrailingSlash, storageFileEntities.size(), discoveredStorageFiles.size(), stopWatch.getTime());
 
         // Validate that we have at least one unregistered storage file discovered in S3.
-        Assert.notEmpty(actualS3Keys.keySet(),
+        Assert.notEmpty(discoveredStorageFiles.keySet(),
             String.format("No unregistered storage files were discovered at s3://%s/%s location.", params.getS3BucketName(), directoryPathWithTrailingSlash));
 
         // Build and return a list of storage files.
-        return new ArrayList<>(actualS3Keys.values());
+        return new ArrayList<>(discoveredStorageFiles.values());
     }
 
     /**
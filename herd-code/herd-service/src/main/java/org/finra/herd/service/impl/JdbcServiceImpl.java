@@ -15,15 +15,24 @@
 */
 package org.finra.herd.service.impl;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 import javax.sql.DataSource;
 
 import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.CannotGetJdbcConnectionException;
@@ -50,6 +59,7 @@ import org.finra.herd.model.api.xml.S3PropertiesLocation;
 import org.finra.herd.model.dto.ConfigurationValue;
 import org.finra.herd.model.dto.S3FileTransferRequestParamsDto;
 import org.finra.herd.service.JdbcService;
+import org.finra.herd.service.helper.JdbcDataSourceRegistry;
 import org.finra.herd.service.helper.StorageHelper;
 import org.finra.herd.service.helper.VelocityHelper;
 
@@ -59,6 +69,8 @@ import org.finra.herd.service.helper.VelocityHelper;
 @Service
 public class JdbcServiceImpl implements JdbcService
 {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JdbcServiceImpl.class);
+
     public static final String DRIVER_REDSHIFT = "com.amazon.redshift.jdbc41.Driver";
     public static final String DRIVER_POSTGRES = "org.postgresql.Driver";
     public static final String DRIVER_ORACLE = "oracle.jdbc.OracleDriver";
@@ -70,6 +82,9 @@ public class JdbcServiceImpl implements JdbcService
     @Autowired
     private JdbcDao jdbcDao;
 
+    @Autowired
+    private JdbcDataSourceRegistry jdbcDataSourceRegistry;
+
     @Autowired
     private S3Dao s3Dao;
 
@@ -80,12 +95,12 @@ public class JdbcServiceImpl implements JdbcService
     private VelocityHelper velocityHelper;
 
     /**
-     * This implementation uses a {@link DriverManagerDataSource} and {@link DefaultTransactionDefinition}. It suspends the existing transaction and purposely
-     * runs this logic in "no transaction" to ensure we don't create a connection that would potentially become idle while all JDBC tasks execute. If the
-     * underlying connection pool has an abandoned connection timeout, it would reclaim and close the connection. Then when all the JDBC tasks below finish,
-     * this transaction would try to commit and would generate a "commit failed" exception because the connection is already closed. This approach is fine since
-     * we are not actually doing any "herd" DB operations below. When all the below JDBC operations are finished, nothing would happen here except the callers
-     * transaction would pick up where it left off which would be needed to write workflow variables, etc.
+     * This implementation uses a pooled data source from {@link JdbcDataSourceRegistry} and {@link DefaultTransactionDefinition}. It suspends the existing
+     * transaction and purposely runs this logic in "no transaction" to ensure we don't create a connection that would potentially become idle while all JDBC
+     * tasks execute. If the underlying connection pool has an abandoned connection timeout, it would reclaim and close the connection. Then when all the JDBC
+     * tasks below finish, this transaction would try to commit and would generate a "commit failed" exception because the connection is already closed. This
+     * approach is fine since we are not actually doing any "herd" DB operations below. When all the below JDBC operations are finished, nothing would happen
+     * here except the callers transaction would pick up where it left off which would be needed to write workflow variables, etc.
      */
     @Override
     @Transactional(propagation = Propagation.NOT_SUPPORTED)
@@ -95,7 +110,7 @@ public class JdbcServiceImpl implements JdbcService
     }
 
     /**
-     * This implementation uses a {@link DriverManagerDataSource}. Uses existing Spring ORM transaction.
+     * This implementation uses a pooled data source from {@link JdbcDataSourceRegistry}. Uses existing Spring ORM transaction.
      *
      * @param jdbcExecutionRequest JDBC execution request
      *
@@ -109,12 +124,20 @@ public class JdbcServiceImpl implements JdbcService
         S3PropertiesLocation s3PropertiesLocation = jdbcExecutionRequest.getS3PropertiesLocation();
         Map<String, Object> variables = getVariablesFromS3(s3PropertiesLocation);
 
-        // Create data source
-        DataSource dataSource = createDataSource(jdbcExecutionRequest.getConnection(), variables);
+        // Borrow a data source
+        DataSource dataSource = borrowDataSource(jdbcExecutionRequest.getConnection(), variables);
 
         // Execute the requested statements
         List<JdbcStatement> requestJdbcStatements = jdbcExecutionRequest.getStatements();
-        List<JdbcStatement> responseJdbcStatements = executeStatements(requestJdbcStatements, dataSource, variables);
+        List<JdbcStatement> responseJdbcStatements;
+        try
+        {
+            responseJdbcStatements = executeStatements(requestJdbcStatements, dataSource, variables);
+        }
+        finally
+        {
+            jdbcDataSourceRegistry.returnDataSource(dataSource);
+        }
 
         // Create and return the execution result
         return new JdbcExecutionResponse(null, responseJdbcStatements);
@@ -219,6 +242,44 @@ public class JdbcServiceImpl implements JdbcService
         Assert.notNull(jdbcStatement, "JDBC statement [" + jdbcStatementIndex + "] is required");
         Assert.notNull(jdbcStatement.getType(), "JDBC statement [" + jdbcStatementIndex + "] type is required");
         validateSqlStatement(jdbcStatement.getSql(), jdbcStatementIndex);
+
+        S3PropertiesLocation resultS3Location = jdbcStatement.getResultS3Location();
+        if (resultS3Location != null)
+        {
+            Assert.isTrue(JdbcStatementType.QUERY.equals(jdbcStatement.getType()),
+                "JDBC statement [" + jdbcStatementIndex + "] result S3 location is only supported for QUERY statements");
+            Assert.isTrue(StringUtils.isNotBlank(resultS3Location.getBucketName()),
+                "JDBC statement [" + jdbcStatementIndex + "] result S3 location bucket name is required");
+            Assert.isTrue(StringUtils.isNotBlank(resultS3Location.getKey()), "JDBC statement [" + jdbcStatementIndex + "] result S3 location key is required");
+            Assert.isTrue(getAllowedResultS3BucketNames().contains(resultS3Location.getBucketName().trim()),
+                "JDBC statement [" + jdbcStatementIndex + "] result S3 location bucket name \"" + resultS3Location.getBucketName().trim() +
+                    "\" is not allowed");
+        }
+    }
+
+    /**
+     * Gets the names of the S3 buckets query results may be uploaded to. Since the results are uploaded with the credentials of herd, only the configured
+     * buckets are allowed.
+     *
+     * @return the set of allowed S3 bucket names
+     */
+    private Set<String> getAllowedResultS3BucketNames()
+    {
+        Set<String> s3BucketNames = new HashSet<>();
+
+        String s3BucketNamesString = configurationHelper.getProperty(ConfigurationValue.JDBC_RESULT_S3_BUCKET_NAMES);
+        if (StringUtils.isNotBlank(s3BucketNamesString))
+        {
+            for (String s3BucketName : s3BucketNamesString.split("\\" + configurationHelper.getProperty(ConfigurationValue.FIELD_DATA_DELIMITER)))
+            {
+                if (StringUtils.isNotBlank(s3BucketName))
+                {
+                    s3BucketNames.add(s3BucketName.trim());
+                }
+            }
+        }
+
+        return s3BucketNames;
     }
 
     /**
@@ -305,6 +366,14 @@ public class JdbcServiceImpl implements JdbcService
                 jdbcStatement.setStatus(JdbcStatementStatus.SUCCESS);
                 jdbcStatement.setResult(String.valueOf(result));
             }
+            // Process QUERY type statements which write their result to S3
+            else if (JdbcStatementType.QUERY.equals(jdbcStatement.getType()) && jdbcStatement.getResultS3Location() != null)
+            {
+                long rowCount = queryToS3(jdbcTemplate, sql, jdbcStatement.getResultS3Location());
+
+                jdbcStatement.setStatus(JdbcStatementStatus.SUCCESS);
+                jdbcStatement.setResult(String.valueOf(rowCount));
+            }
             // Process QUERY type statements
             else if (JdbcStatementType.QUERY.equals(jdbcStatement.getType()))
             {
@@ -347,6 +416,77 @@ public class JdbcServiceImpl implements JdbcService
         }
     }
 
+    /**
+     * Executes a query and uploads its result to the specified S3 location as a CSV file. The result is written to a temporary local file while it is read, so
+     * it is neither held in memory nor limited by the maximum number of result rows.
+     *
+     * @param jdbcTemplate the JDBC template
+     * @param sql the SQL query
+     * @param resultS3Location the S3 location to upload the result to
+     *
+     * @return the number of result rows
+     */
+    private long queryToS3(JdbcTemplate jdbcTemplate, String sql, S3PropertiesLocation resultS3Location)
+    {
+        String s3BucketName = resultS3Location.getBucketName().trim();
+        String s3ObjectKey = resultS3Location.getKey().trim();
+
+        Path localFile = null;
+        try
+        {
+            localFile = Files.createTempFile("jdbcResult", ".csv");
+
+            long rowCount;
+            try (Writer writer = Files.newBufferedWriter(localFile, StandardCharsets.UTF_8))
+            {
+                rowCount = jdbcDao.queryToCsv(jdbcTemplate, sql, writer);
+            }
+
+            S3FileTransferRequestParamsDto s3FileTransferRequestParamsDto = storageHelper.getS3FileTransferRequestParamsDto();
+            s3FileTransferRequestParamsDto.setS3BucketName(s3BucketName);
+            s3FileTransferRequestParamsDto.setS3KeyPrefix(s3ObjectKey);
+            s3FileTransferRequestParamsDto.setLocalPath(localFile.toString());
+            s3Dao.uploadFile(s3FileTransferRequestParamsDto);
+
+            return rowCount;
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException(
+                String.format("Failed to write the JDBC query result to S3 bucket \"%s\" and key \"%s\".", s3BucketName, s3ObjectKey), e);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(
+                String.format("Interrupted while uploading the JDBC query result to S3 bucket \"%s\" and key \"%s\".", s3BucketName, s3ObjectKey), e);
+        }
+        finally
+        {
+            deleteLocalFile(localFile);
+        }
+    }
+
+    /**
+     * Deletes a local file, logging a failure to delete it.
+     *
+     * @param localFile the local file, maybe null
+     */
+    private void deleteLocalFile(Path localFile)
+    {
+        if (localFile != null)
+        {
+            try
+            {
+                Files.deleteIfExists(localFile);
+            }
+            catch (IOException e)
+            {
+                LOGGER.warn("Failed to delete the local JDBC query result file. localPath=\"{}\"", localFile, e);
+            }
+        }
+    }
+
     /**
      * Returns the message of the given exception, masking any sensitive information indicated by the given collection of sensitive data. If the variables is
      * null, no masking will occur.
@@ -396,19 +536,22 @@ public class JdbcServiceImpl implements JdbcService
         responseJdbcStatement.setType(requestJdbcStatement.getType());
         responseJdbcStatement.setSql(requestJdbcStatement.getSql());
         responseJdbcStatement.setContinueOnError(requestJdbcStatement.isContinueOnError());
+        responseJdbcStatement.setResultS3Location(requestJdbcStatement.getResultS3Location());
         responseJdbcStatement.setStatus(JdbcStatementStatus.SKIPPED);
         return responseJdbcStatement;
     }
 
     /**
-     * Creates and returns a new data source from the given connection information. Creates a new {@link DriverManagerDataSource}.
+     * Borrows a data source for the given connection information. The data source is a connection pool shared by all executions with the same JDBC URL and
+     * user name, or a new {@link DriverManagerDataSource} when connection pooling is disabled. The data source must be returned to the registry once the
+     * execution is done.
      *
      * @param jdbcConnection the JDBC connection
      * @param variables the optional map of key-value for expression evaluation
      *
-     * @return a new {@link DataSource}
+     * @return the {@link DataSource}
      */
-    private DataSource createDataSource(JdbcConnection jdbcConnection, Map<String, Object> variables)
+    private DataSource borrowDataSource(JdbcConnection jdbcConnection, Map<String, Object> variables)
     {
         String url = evaluate(jdbcConnection.getUrl(), variables, "jdbc connection url");
         String username = evaluate(jdbcConnection.getUsername(), variables, "jdbc connection username");
@@ -416,12 +559,7 @@ public class JdbcServiceImpl implements JdbcService
 
         validateUrl(url);
 
-        DriverManagerDataSource driverManagerDataSource = new DriverManagerDataSource();
-        driverManagerDataSource.setUrl(url);
-        driverManagerDataSource.setUsername(username);
-        driverManagerDataSource.setPassword(password);
-        driverManagerDataSource.setDriverClassName(getDriverClassName(jdbcConnection.getDatabaseType()));
-        return driverManagerDataSource;
+        return jdbcDataSourceRegistry.borrowDataSource(getDriverClassName(jdbcConnection.getDatabaseType()), url, username, password);
     }
 
     /**
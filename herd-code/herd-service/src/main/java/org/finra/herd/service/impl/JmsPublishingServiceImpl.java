@@ -15,6 +15,12 @@
 */
 package org.finra.herd.service.impl;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.time.StopWatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,10 +28,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import org.finra.herd.core.helper.ConfigurationHelper;
 import org.finra.herd.dao.JmsMessageDao;
 import org.finra.herd.dao.SqsDao;
 import org.finra.herd.dao.config.DaoSpringModuleConfig;
 import org.finra.herd.dao.helper.AwsHelper;
+import org.finra.herd.model.dto.AwsParamsDto;
+import org.finra.herd.model.dto.ConfigurationValue;
 import org.finra.herd.model.dto.JmsMessage;
 import org.finra.herd.model.jpa.JmsMessageEntity;
 import org.finra.herd.service.JmsPublishingService;
@@ -43,6 +52,9 @@ public class JmsPublishingServiceImpl implements JmsPublishingService
     @Autowired
     private AwsHelper awsHelper;
 
+    @Autowired
+    private ConfigurationHelper configurationHelper;
+
     @Autowired
     private JmsMessageDao jmsMessageDao;
 
@@ -76,6 +88,24 @@ public class JmsPublishingServiceImpl implements JmsPublishingService
         return publishOldestJmsMessageFromDatabaseQueueImpl();
     }
 
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * This implementation starts a new transaction.
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int publishOldestJmsMessagesFromDatabaseQueue()
+    {
+        return publishOldestJmsMessagesFromDatabaseQueueImpl();
+    }
+
+    @Override
+    public long getDatabaseQueueDepth()
+    {
+        return jmsMessageDao.getJmsMessageCount();
+    }
+
     /**
      * Adds a JMS message to the database queue.
      *
@@ -128,4 +158,105 @@ public class JmsPublishingServiceImpl implements JmsPublishingService
 
         return messageSent;
     }
+
+    /**
+     * Publishes and removes from the database queue a batch of the oldest JMS messages.
+     *
+     * @return the number of messages that were published
+     */
+    protected int publishOldestJmsMessagesFromDatabaseQueueImpl()
+    {
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+
+        // Claim a batch of the oldest JMS messages, unless the queue is empty.
+        int batchSize = configurationHelper.getProperty(ConfigurationValue.JMS_PUBLISHING_JOB_BATCH_SIZE, Integer.class);
+        List<JmsMessageEntity> jmsMessageEntities = jmsMessageDao.getOldestJmsMessages(Math.max(batchSize, 1));
+        if (jmsMessageEntities.isEmpty())
+        {
+            return 0;
+        }
+
+        // Group the messages by queue name, keeping the order of the messages within each queue.
+        Map<String, List<JmsMessageEntity>> jmsQueueNameToJmsMessageEntitiesMap = new LinkedHashMap<>();
+        for (JmsMessageEntity jmsMessageEntity : jmsMessageEntities)
+        {
+            jmsQueueNameToJmsMessageEntitiesMap.computeIfAbsent(jmsMessageEntity.getJmsQueueName(), jmsQueueName -> new ArrayList<>()).add(jmsMessageEntity);
+        }
+
+        AwsParamsDto awsParamsDto = awsHelper.getAwsParamsDto();
+        List<JmsMessageEntity> publishedJmsMessageEntities = new ArrayList<>();
+        Exception firstException = null;
+        for (Map.Entry<String, List<JmsMessageEntity>> entry : jmsQueueNameToJmsMessageEntitiesMap.entrySet())
+        {
+            String jmsQueueName = entry.getKey();
+            List<JmsMessageEntity> queueJmsMessageEntities = entry.getValue();
+            List<String> messageTexts = new ArrayList<>();
+            for (JmsMessageEntity jmsMessageEntity : queueJmsMessageEntities)
+            {
+                messageTexts.add(jmsMessageEntity.getMessageText());
+            }
+
+            try
+            {
+                LOGGER.debug("Sending SQS text messages. jmsQueueName=\"{}\" jmsMessageCount={}", jmsQueueName, messageTexts.size());
+
+                // Send the text messages to the specified AWS SQS queue.
+                for (Integer index : sqsDao.sendSqsTextMessages(awsParamsDto, jmsQueueName, messageTexts))
+                {
+                    publishedJmsMessageEntities.add(queueJmsMessageEntities.get(index));
+                }
+            }
+            catch (Exception e)
+            {
+                LOGGER.error("Failed to post messages on SQS queue. jmsQueueName=\"{}\" jmsMessageCount={}", jmsQueueName, messageTexts.size(), e);
+
+                // Keep publishing the messages for the other queues.
+                if (firstException == null)
+                {
+                    firstException = e;
+                }
+            }
+        }
+
+        // If nothing could be published, throw the exception up, since retrying right away is not going to help.
+        if (publishedJmsMessageEntities.isEmpty() && firstException != null)
+        {
+            throw new IllegalStateException(firstException.getMessage(), firstException);
+        }
+
+        // SQS might also reject the first message of a batch without throwing an exception. The rejected messages stay in the database queue.
+        if (publishedJmsMessageEntities.isEmpty())
+        {
+            for (JmsMessageEntity jmsMessageEntity : jmsMessageEntities)
+            {
+                LOGGER.warn("Failed to post message on SQS queue. jmsMessageId={} jmsQueueName=\"{}\"", jmsMessageEntity.getId(),
+                    jmsMessageEntity.getJmsQueueName());
+            }
+            return 0;
+        }
+
+        // Delete the published messages from the queue and measure how long they were waiting to be published.
+        long currentTimeMillis = System.currentTimeMillis();
+        long totalPublishLatencyMillis = 0;
+        long maxPublishLatencyMillis = 0;
+        for (JmsMessageEntity jmsMessageEntity : publishedJmsMessageEntities)
+        {
+            if (jmsMessageEntity.getCreatedOn() != null)
+            {
+                long publishLatencyMillis = Math.max(currentTimeMillis - jmsMessageEntity.getCreatedOn().getTime(), 0);
+                totalPublishLatencyMillis += publishLatencyMillis;
+                maxPublishLatencyMillis = Math.max(maxPublishLatencyMillis, publishLatencyMillis);
+            }
+            jmsMessageDao.delete(jmsMessageEntity);
+        }
+
+        stopWatch.stop();
+
+        LOGGER.info("Published JMS messages from the database queue. jmsMessageCount={} publishedJmsMessageCount={} averagePublishLatencyMillis={} " +
+            "maxPublishLatencyMillis={} durationMillis={}", jmsMessageEntities.size(), publishedJmsMessageEntities.size(),
+            totalPublishLatencyMillis / publishedJmsMessageEntities.size(), maxPublishLatencyMillis, stopWatch.getTime());
+
+        return publishedJmsMessageEntities.size();
+    }
 }
@@ -17,6 +17,7 @@ package org.finra.herd.service.impl;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -198,11 +199,23 @@ public class JobServiceImpl implements JobService
 
     @Override
     public JobSummaries getJobs(String namespace, String jobName, JobStatusEnum jobStatus, DateTime startTime, DateTime endTime) throws Exception
+    {
+        return getJobs(namespace, jobName, jobStatus, startTime, endTime, null, null);
+    }
+
+    @Override
+    public JobSummaries getJobs(String namespace, String jobName, JobStatusEnum jobStatus, DateTime startTime, DateTime endTime, String pageToken,
+        Integer pageSize) throws Exception
     {
         // Trim the parameters.
         String namespaceTrimmed = namespace == null ? null : namespace.trim();
         String jobNameTrimmed = jobName == null ? null : jobName.trim();
 
+        // Validate the paging parameters. Without them all matching jobs are returned, up to the maximum number of results allowed.
+        boolean paged = StringUtils.isNotBlank(pageToken) || pageSize != null;
+        PageToken previousPageToken = StringUtils.isNotBlank(pageToken) ? PageToken.parse(pageToken) : null;
+        int maxResults = paged ? getPageSize(pageSize) : 0;
+
         // Construct the list of job summaries to return.
         JobSummaries jobSummaries = new JobSummaries();
 
@@ -253,11 +266,42 @@ public class JobServiceImpl implements JobService
                     processDefinitionIdToKeyMap.put(processDefinition.getId(), processDefinition.getKey());
                 }
 
-                List<HistoricProcessInstance> historicProcessInstances =
-                    getHistoricProcessInstances(processDefinitionIdToKeyMap.values(), jobStatus, startTime, endTime);
+                List<HistoricProcessInstance> historicProcessInstances;
+                if (paged)
+                {
+                    // Select one extra process instance to find out whether there is a next page.
+                    historicProcessInstances = activitiService
+                        .getHistoricProcessInstancesByStatusAndProcessDefinitionKeys(jobStatus, processDefinitionIdToKeyMap.values(), startTime, endTime,
+                            previousPageToken == null ? null : previousPageToken.startTime,
+                            previousPageToken == null ? null : previousPageToken.processInstanceId, maxResults + 1);
+                    if (historicProcessInstances.size() > maxResults)
+                    {
+                        historicProcessInstances = historicProcessInstances.subList(0, maxResults);
+                        HistoricProcessInstance lastHistoricProcessInstance = historicProcessInstances.get(maxResults - 1);
+                        jobSummaries.setNextPageToken(
+                            new PageToken(lastHistoricProcessInstance.getStartTime(), lastHistoricProcessInstance.getId()).toString());
+                    }
+                }
+                else
+                {
+                    historicProcessInstances = getHistoricProcessInstances(processDefinitionIdToKeyMap.values(), jobStatus, startTime, endTime);
+                }
+
+                // Get the unfinished process instances started using the current versions of the process definitions, since only they need the runtime state.
+                Set<String> unfinishedProcessInstanceIds = new HashSet<>();
+                for (HistoricProcessInstance historicProcessInstance : historicProcessInstances)
+                {
+                    if (historicProcessInstance.getEndTime() == null &&
+                        processDefinitionIdToKeyMap.containsKey(historicProcessInstance.getProcessDefinitionId()))
+                    {
+                        unfinishedProcessInstanceIds.add(historicProcessInstance.getId());
+                    }
+                }
 
-                // Get a set of all runtime suspended process instance ids.
-                Set<String> suspendedProcessInstanceIds = getSuspendedProcessInstanceIds();
+                // Get the suspended process instance ids and the counts of jobs with exceptions for all the unfinished process instances at once.
+                Set<String> suspendedProcessInstanceIds = getSuspendedProcessInstanceIds(unfinishedProcessInstanceIds);
+                Map<String, Long> jobsWithExceptionCounts = unfinishedProcessInstanceIds.isEmpty() ? new HashMap<>() :
+                    activitiService.getJobsWithExceptionCountByProcessInstanceIds(unfinishedProcessInstanceIds);
 
                 // Compile the Regex pattern.
                 Pattern pattern = jobDefinitionHelper.getNamespaceAndJobNameRegexPattern();
@@ -297,7 +341,7 @@ public class JobServiceImpl implements JobService
                                 jobSummary.setStatus(suspended ? JobStatusEnum.SUSPENDED : JobStatusEnum.RUNNING);
 
                                 // If the end time is null, then determine the status based on the presence of any exceptions.
-                                jobSummary.setTotalExceptions(activitiService.getJobsWithExceptionCountByProcessInstanceId(historicProcessInstance.getId()));
+                                jobSummary.setTotalExceptions(jobsWithExceptionCounts.getOrDefault(historicProcessInstance.getId(), 0L));
                             }
                             else
                             {
@@ -822,19 +866,89 @@ public class JobServiceImpl implements JobService
     }
 
     /**
-     * Gets a set of all currently suspended runtime process instance ids.
+     * Validates the page size, defaulting it to the maximum number of results allowed for a jobs query.
+     *
+     * @param pageSize the optional page size
+     *
+     * @return the page size
+     */
+    private int getPageSize(Integer pageSize)
+    {
+        int jobsMaxQueryResults = herdStringHelper.getConfigurationValueAsInteger(ConfigurationValue.JOBS_QUERY_MAX_RESULTS);
+
+        if (pageSize == null)
+        {
+            return jobsMaxQueryResults;
+        }
+
+        Assert.isTrue(pageSize > 0 && pageSize <= jobsMaxQueryResults,
+            String.format("The page size must be between 1 and %d, but %d was specified.", jobsMaxQueryResults, pageSize));
+
+        return pageSize;
+    }
+
+    /**
+     * Gets a set of the currently suspended runtime process instance ids among the specified process instances.
+     *
+     * @param processInstanceIds the process instance ids
      *
      * @return the set of currently suspended process instance ids
      */
-    private Set<String> getSuspendedProcessInstanceIds()
+    private Set<String> getSuspendedProcessInstanceIds(Set<String> processInstanceIds)
     {
         Set<String> suspendedProcessInstanceIds = new HashSet<>();
 
-        for (ProcessInstance suspendedProcessInstance : activitiService.getSuspendedProcessInstances())
+        for (ProcessInstance suspendedProcessInstance : activitiService.getSuspendedProcessInstancesByProcessInstanceIds(processInstanceIds))
         {
             suspendedProcessInstanceIds.add(suspendedProcessInstance.getId());
         }
 
         return suspendedProcessInstanceIds;
     }
+
+    /**
+     * A token identifying the last job of a page of jobs by its start time and process instance id, so the next page starts right after it.
+     */
+    private static class PageToken
+    {
+        private static final String SEPARATOR = ":";
+
+        private final Date startTime;
+
+        private final String processInstanceId;
+
+        PageToken(Date startTime, String processInstanceId)
+        {
+            this.startTime = startTime;
+            this.processInstanceId = processInstanceId;
+        }
+
+        /**
+         * Parses a page token.
+         *
+         * @param pageToken the page token
+         *
+         * @return the parsed page token
+         */
+        static PageToken parse(String pageToken)
+        {
+            String[] tokens = pageToken.trim().split(SEPARATOR, 2);
+            Assert.isTrue(tokens.length == 2 && StringUtils.isNotBlank(tokens[1]), String.format("Invalid page token \"%s\".", pageToken));
+
+            try
+            {
+                return new PageToken(new Date(Long.parseLong(tokens[0])), tokens[1]);
+            }
+            catch (NumberFormatException e)
+            {
+                throw new IllegalArgumentException(String.format("Invalid page token \"%s\".", pageToken), e);
+            }
+        }
+
+        @Override
+        public String toString()
+        {
+            return startTime.getTime() + SEPARATOR + processInstanceId;
+        }
+    }
 }
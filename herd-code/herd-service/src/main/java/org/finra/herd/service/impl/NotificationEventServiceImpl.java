@@ -57,6 +57,7 @@ import org.finra.herd.service.NotificationEventService;
 import org.finra.herd.service.helper.BusinessObjectDataHelper;
 import org.finra.herd.service.helper.BusinessObjectFormatHelper;
 import org.finra.herd.service.helper.NotificationActionFactory;
+import org.finra.herd.service.helper.NotificationRegistrationMatchingIndex;
 
 /**
  * The notification event service.
@@ -85,6 +86,9 @@ public class NotificationEventServiceImpl implements NotificationEventService
     @Autowired
     private NotificationActionFactory notificationActionFactory;
 
+    @Autowired
+    private NotificationRegistrationMatchingIndex notificationRegistrationMatchingIndex;
+
     @Autowired
     private StorageUnitNotificationRegistrationDao storageUnitNotificationRegistrationDao;
 
@@ -110,6 +114,16 @@ public class NotificationEventServiceImpl implements NotificationEventService
     public List<Object> processBusinessObjectDataNotificationEventSync(NotificationEventTypeEntity.EventTypesBdata notificationEventType,
         BusinessObjectDataKey businessObjectDataKey, String newBusinessObjectDataStatus, String oldBusinessObjectDataStatus)
     {
+        // Skip the event without touching the database when no enabled business object data notification registration can match it.
+        if (!notificationRegistrationMatchingIndex
+            .hasBusinessObjectDataNotificationRegistrations(notificationEventType.name(), businessObjectDataKey, newBusinessObjectDataStatus,
+                oldBusinessObjectDataStatus))
+        {
+            LOGGER.debug("No business object data notification registration matches the event. notificationEventType=\"{}\" businessObjectDataKey={}",
+                notificationEventType.name(), businessObjectDataHelper.businessObjectDataKeyToString(businessObjectDataKey));
+            return new ArrayList<>();
+        }
+
         // Retrieve all matching business object data notification registrations with enabled status.
         List<BusinessObjectDataNotificationRegistrationEntity> businessObjectDataNotificationRegistrationEntities =
             businessObjectDataNotificationRegistrationDao
@@ -166,6 +180,17 @@ public class NotificationEventServiceImpl implements NotificationEventService
     public List<Object> processStorageUnitNotificationEventSync(NotificationEventTypeEntity.EventTypesStorageUnit notificationEventType,
         BusinessObjectDataKey businessObjectDataKey, String storageName, String newStorageUnitStatus, String oldStorageUnitStatus)
     {
+        // Skip the event without touching the database when no enabled storage unit notification registration can match it.
+        if (!notificationRegistrationMatchingIndex
+            .hasStorageUnitNotificationRegistrations(notificationEventType.name(), businessObjectDataKey, storageName, newStorageUnitStatus,
+                oldStorageUnitStatus))
+        {
+            LOGGER.debug(
+                "No storage unit notification registration matches the event. notificationEventType=\"{}\" businessObjectDataKey={} storageName=\"{}\"",
+                notificationEventType.name(), businessObjectDataHelper.businessObjectDataKeyToString(businessObjectDataKey), storageName);
+            return new ArrayList<>();
+        }
+
         // Retrieve all matching storage unit notification registrations with enabled status.
         List<StorageUnitNotificationRegistrationEntity> storageUnitNotificationRegistrationEntities = storageUnitNotificationRegistrationDao
             .getStorageUnitNotificationRegistrations(notificationEventType.name(), businessObjectDataKey, storageName, newStorageUnitStatus,
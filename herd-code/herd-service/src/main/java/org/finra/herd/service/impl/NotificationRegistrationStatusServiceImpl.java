@@ -30,6 +30,7 @@ import org.finra.herd.model.jpa.NotificationRegistrationEntity;
 import org.finra.herd.model.jpa.NotificationRegistrationStatusEntity;
 import org.finra.herd.service.NotificationRegistrationStatusService;
 import org.finra.herd.service.helper.NotificationRegistrationDaoHelper;
+import org.finra.herd.service.helper.NotificationRegistrationMatchingIndex;
 import org.finra.herd.service.helper.NotificationRegistrationStatusDaoHelper;
 
 @Service
@@ -39,6 +40,9 @@ public class NotificationRegistrationStatusServiceImpl implements NotificationRe
     @Autowired
     private NotificationRegistrationDaoHelper notificationRegistrationDaoHelper;
 
+    @Autowired
+    private NotificationRegistrationMatchingIndex notificationRegistrationMatchingIndex;
+
     @Autowired
     private NotificationRegistrationStatusDaoHelper notificationRegistrationStatusDaoHelper;
 
@@ -57,6 +61,9 @@ public class NotificationRegistrationStatusServiceImpl implements NotificationRe
             notificationRegistrationStatusDaoHelper.getNotificationRegistrationStatusEntity(notificationRegistrationStatus.trim());
         notificationRegistration.setNotificationRegistrationStatus(notificationRegistrationStatusEntity);
 
+        // Let all herd nodes know that the notification registrations have changed.
+        notificationRegistrationMatchingIndex.incrementGenerationNumber();
+
         NotificationRegistrationStatusUpdateResponse notificationRegistrationStatusUpdateResponse = new NotificationRegistrationStatusUpdateResponse();
         notificationRegistrationStatusUpdateResponse.setNotificationRegistrationKey(
             new NotificationRegistrationKey(notificationRegistration.getNamespace().getCode(), notificationRegistration.getName()));
@@ -16,6 +16,7 @@
 package org.finra.herd.service.impl;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import com.amazonaws.services.s3.model.S3ObjectSummary;
 import org.slf4j.Logger;
@@ -64,6 +65,13 @@ public class S3ServiceImpl implements S3Service
         return s3Dao.listDirectory(params, ignoreZeroByteDirectoryMarkers);
     }
 
+    @Override
+    public void listDirectory(S3FileTransferRequestParamsDto params, boolean ignoreZeroByteDirectoryMarkers,
+        Consumer<List<S3ObjectSummary>> s3ObjectSummariesConsumer)
+    {
+        s3Dao.listDirectory(params, ignoreZeroByteDirectoryMarkers, s3ObjectSummariesConsumer);
+    }
+
     @Override
     public S3FileTransferResultsDto uploadFile(S3FileTransferRequestParamsDto params) throws InterruptedException
     {
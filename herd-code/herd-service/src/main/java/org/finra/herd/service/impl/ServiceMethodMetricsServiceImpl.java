@@ -0,0 +1,56 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import org.finra.herd.model.api.xml.ServiceMethodMetric;
+import org.finra.herd.model.api.xml.ServiceMethodMetrics;
+import org.finra.herd.service.ServiceMethodMetricsService;
+import org.finra.herd.service.helper.ServiceMethodMetricsRegistry;
+
+/**
+ * The service method metrics service implementation. The metrics are kept in memory, so this service does not need a transaction.
+ */
+@Service
+public class ServiceMethodMetricsServiceImpl implements ServiceMethodMetricsService
+{
+    @Autowired
+    private ServiceMethodMetricsRegistry serviceMethodMetricsRegistry;
+
+    @Override
+    public ServiceMethodMetrics getServiceMethodMetrics()
+    {
+        ServiceMethodMetrics serviceMethodMetrics = new ServiceMethodMetrics();
+        for (ServiceMethodMetricsRegistry.MethodMetrics methodMetrics : serviceMethodMetricsRegistry.getAllMethodMetrics())
+        {
+            ServiceMethodMetric serviceMethodMetric = new ServiceMethodMetric();
+            serviceMethodMetric.setJavaMethod(methodMetrics.getJavaMethod());
+            serviceMethodMetric.setCallCount(methodMetrics.getCallCount());
+            serviceMethodMetric.setErrorCount(methodMetrics.getErrorCount());
+            serviceMethodMetric.setInFlightCount(methodMetrics.getInFlightCount());
+            serviceMethodMetric.setMeanDurationMicroseconds(methodMetrics.getMeanDurationMicroseconds());
+            serviceMethodMetric.setMedianDurationMicroseconds(methodMetrics.getMedianDurationMicroseconds());
+            serviceMethodMetric.setPercentile90DurationMicroseconds(methodMetrics.getPercentile90DurationMicroseconds());
+            serviceMethodMetric.setPercentile99DurationMicroseconds(methodMetrics.getPercentile99DurationMicroseconds());
+            serviceMethodMetric.setMaxDurationMicroseconds(methodMetrics.getMaxDurationMicroseconds());
+            serviceMethodMetrics.getServiceMethodMetrics().add(serviceMethodMetric);
+        }
+
+        return serviceMethodMetrics;
+    }
+}
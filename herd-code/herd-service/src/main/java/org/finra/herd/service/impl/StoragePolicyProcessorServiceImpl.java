@@ -15,18 +15,24 @@
 */
 package org.finra.herd.service.impl;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import org.finra.herd.dao.config.DaoSpringModuleConfig;
+import org.finra.herd.model.api.xml.StorageFile;
 import org.finra.herd.model.dto.StoragePolicySelection;
 import org.finra.herd.model.dto.StoragePolicyTransitionParamsDto;
 import org.finra.herd.model.jpa.NotificationEventTypeEntity;
 import org.finra.herd.service.NotificationEventService;
 import org.finra.herd.service.StoragePolicyProcessorHelperService;
 import org.finra.herd.service.StoragePolicyProcessorService;
+import org.finra.herd.service.helper.BusinessObjectDataHelper;
+import org.finra.herd.service.helper.StoragePolicyProcessorWorkerPool;
 
 /**
  * An implementation of the storage policy processor service.
@@ -35,9 +41,15 @@ import org.finra.herd.service.StoragePolicyProcessorService;
 @Transactional(value = DaoSpringModuleConfig.HERD_TRANSACTION_MANAGER_BEAN_NAME)
 public class StoragePolicyProcessorServiceImpl implements StoragePolicyProcessorService
 {
+    @Autowired
+    private BusinessObjectDataHelper businessObjectDataHelper;
+
     @Autowired
     private StoragePolicyProcessorHelperService storagePolicyProcessorHelperService;
 
+    @Autowired
+    private StoragePolicyProcessorWorkerPool storagePolicyProcessorWorkerPool;
+
     @Autowired
     private NotificationEventService notificationEventService;
 
@@ -66,9 +78,69 @@ public class StoragePolicyProcessorServiceImpl implements StoragePolicyProcessor
             storagePolicyTransitionParamsDto.getBusinessObjectDataKey(), storagePolicyTransitionParamsDto.getDestinationStorageName(),
             storagePolicyTransitionParamsDto.getNewDestinationStorageUnitStatus(), storagePolicyTransitionParamsDto.getOldDestinationStorageUnitStatus());
 
+        // Hand the S3 data transfer and the completion of the storage policy transition over to the storage policy processor worker pool.
+        executeStoragePolicyTransitionStages(storagePolicyTransitionParamsDto);
+    }
+
+    /**
+     * Runs the S3 data transfer and the completion of an initiated storage policy transition on the storage policy processor worker pool. This method returns
+     * once the transition is completed, so the storage policy selection message is acknowledged only after the transition is finalized. This holds the JMS
+     * message listener thread for the whole transition, which is why the listener concurrency is sized from the worker pool stages.
+     *
+     * @param storagePolicyTransitionParamsDto the storage policy transition DTO that contains parameters needed to perform a storage policy transition
+     */
+    protected void executeStoragePolicyTransitionStages(StoragePolicyTransitionParamsDto storagePolicyTransitionParamsDto)
+    {
+        // Get the total size of the source storage files, so large transitions do not block small ones.
+        long totalSizeBytes = 0;
+        for (StorageFile storageFile : storagePolicyTransitionParamsDto.getSourceStorageFiles())
+        {
+            totalSizeBytes += storageFile.getFileSizeBytes() != null ? storageFile.getFileSizeBytes() : 0;
+        }
+
+        Future<Void> completion = storagePolicyProcessorWorkerPool.submit(storagePolicyTransitionParamsDto.getSourceStorageName(), totalSizeBytes,
+            businessObjectDataHelper.businessObjectDataKeyToString(storagePolicyTransitionParamsDto.getBusinessObjectDataKey()),
+            () -> transferStoragePolicyTransition(storagePolicyTransitionParamsDto), () -> finalizeStoragePolicyTransition(storagePolicyTransitionParamsDto));
+
+        // Wait for the storage policy transition to complete and fail with the failure of its stages.
+        try
+        {
+            completion.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(String.format("Interrupted while waiting for the storage policy transition of {%s} business object data.",
+                businessObjectDataHelper.businessObjectDataKeyToString(storagePolicyTransitionParamsDto.getBusinessObjectDataKey())), e);
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Executes the actual S3 data transfer of a storage policy transition.
+     *
+     * @param storagePolicyTransitionParamsDto the storage policy transition DTO that contains parameters needed to perform a storage policy transition
+     */
+    protected void transferStoragePolicyTransition(StoragePolicyTransitionParamsDto storagePolicyTransitionParamsDto)
+    {
         // Execute the actual data transfer using the DAO tier.
         storagePolicyProcessorHelperService.executeStoragePolicyTransition(storagePolicyTransitionParamsDto);
+    }
 
+    /**
+     * Completes a storage policy transition once its S3 data is transferred.
+     *
+     * @param storagePolicyTransitionParamsDto the storage policy transition DTO that contains parameters needed to complete a storage policy transition
+     */
+    protected void finalizeStoragePolicyTransition(StoragePolicyTransitionParamsDto storagePolicyTransitionParamsDto)
+    {
         // Complete the storage policy transition.
         storagePolicyProcessorHelperService.completeStoragePolicyTransition(storagePolicyTransitionParamsDto);
 
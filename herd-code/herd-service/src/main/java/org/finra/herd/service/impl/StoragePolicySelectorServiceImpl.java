@@ -19,18 +19,21 @@ import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedHashSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
+import javax.persistence.LockModeType;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.time.StopWatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import org.finra.herd.core.HerdDateUtils;
 import org.finra.herd.dao.BusinessObjectDataDao;
 import org.finra.herd.dao.HerdDao;
 import org.finra.herd.dao.SqsDao;
@@ -38,18 +41,21 @@ import org.finra.herd.dao.config.DaoSpringModuleConfig;
 import org.finra.herd.dao.helper.AwsHelper;
 import org.finra.herd.dao.helper.JsonHelper;
 import org.finra.herd.model.api.xml.StoragePolicyKey;
-import org.finra.herd.model.dto.AwsParamsDto;
 import org.finra.herd.model.dto.StoragePolicyPriorityLevel;
 import org.finra.herd.model.dto.StoragePolicySelection;
-import org.finra.herd.model.jpa.BusinessObjectDataEntity;
+import org.finra.herd.model.dto.StoragePolicySelectionCandidate;
 import org.finra.herd.model.jpa.BusinessObjectDataStatusEntity;
 import org.finra.herd.model.jpa.StoragePolicyEntity;
 import org.finra.herd.model.jpa.StoragePolicyRuleTypeEntity;
+import org.finra.herd.model.jpa.StoragePolicySelectionWatermarkEntity;
 import org.finra.herd.service.StoragePolicySelectorService;
-import org.finra.herd.service.helper.BusinessObjectDataHelper;
 
 /**
- * The file upload cleanup service implementation.
+ * The storage policy selector service implementation. Each storage policy priority level resumes right after the business object data processed by the
+ * previous storage policy selection, as remembered by its storage policy selection watermark. Once a priority level runs out of candidates, it wraps around to
+ * the oldest business object data. Hence, business object data older than a watermark that becomes eligible later on (e.g. because of a new or changed
+ * storage policy) would only be selected after the scan wraps around. To avoid this delay, creating or updating a storage policy resets the watermarks of the
+ * priority levels affected by the change, so the next storage policy selection for these priority levels starts with the oldest business object data.
  */
 @Service
 @Transactional(value = DaoSpringModuleConfig.HERD_TRANSACTION_MANAGER_BEAN_NAME)
@@ -79,9 +85,6 @@ public class StoragePolicySelectorServiceImpl implements StoragePolicySelectorSe
     @Autowired
     private BusinessObjectDataDao businessObjectDataDao;
 
-    @Autowired
-    private BusinessObjectDataHelper businessObjectDataHelper;
-
     @Autowired
     private HerdDao herdDao;
 
@@ -94,122 +97,244 @@ public class StoragePolicySelectorServiceImpl implements StoragePolicySelectorSe
     @Override
     public List<StoragePolicySelection> execute(String sqsQueueName, int maxResult)
     {
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+
         // Create a result list.
         List<StoragePolicySelection> resultStoragePolicySelections = new ArrayList<>();
 
         // Get the current timestamp from the database.
         Timestamp currentTimestamp = herdDao.getCurrentTimestamp();
 
-        // Keep track of all business object data entities selected per storage policies. This is need to avoid a lower priority selection policy
-        // to be executed ahead of a higher priority one.
-        Set<BusinessObjectDataEntity> selectedBusinessObjectDataEntities = new LinkedHashSet<>();
+        // Keep track of the storage policies loaded for the selected business object data, since many of them are selected by the same storage policies.
+        Map<Integer, StoragePolicyEntity> storagePolicyEntities = new HashMap<>();
+
+        // Keep track of the storage policy selection candidates to resume after for each locked storage policy selection watermark. A null value means that
+        // the next storage policy selection starts with the oldest business object data.
+        Map<StoragePolicySelectionWatermarkEntity, StoragePolicySelectionCandidate> lastCandidates = new LinkedHashMap<>();
+
+        int scannedBusinessObjectDataCount = 0;
 
         // Separately process all possible storage policy priority levels in order of priorities. This is done to assure that higher priority level storage
         // policies will be listed earlier in the final result map.
-        for (StoragePolicyPriorityLevel storagePolicyPriorityLevel : STORAGE_POLICY_PRIORITY_LEVELS)
+        for (int priorityLevelNumber = 0;
+            priorityLevelNumber < STORAGE_POLICY_PRIORITY_LEVELS.size() && resultStoragePolicySelections.size() < maxResult; priorityLevelNumber++)
         {
-            // Until we reach maximum number of results or run out of entities to select, retrieve and process business object data entities mapped to their
-            // corresponding storage policy entities, where the business object data status is supported by the storage policy feature and the business object
-            // data alternate key values match storage policy's filter and transition (not taking into account storage policy rules).
-            int startPosition = 0;
-            while (true)
+            StoragePolicyPriorityLevel storagePolicyPriorityLevel = STORAGE_POLICY_PRIORITY_LEVELS.get(priorityLevelNumber);
+
+            // Resume right after the last candidate processed by the previous storage policy selection. Once we run out of candidates, wrap around to the
+            // oldest business object data and stop at the candidate we have started with, so every candidate is considered once per full pass.
+            // The watermark row stays locked until this transaction completes, so concurrent storage policy selections do not select the same business object
+            // data. The highest priority level is always processed first, so its watermark row serializes the concurrent storage policy selections.
+            StoragePolicySelectionWatermarkEntity storagePolicySelectionWatermarkEntity = getWatermark(priorityLevelNumber);
+            StoragePolicySelectionCandidate watermarkCandidate = storagePolicySelectionWatermarkEntity.getBusinessObjectDataId() == null ? null :
+                new StoragePolicySelectionCandidate(storagePolicySelectionWatermarkEntity.getBusinessObjectDataId(),
+                    storagePolicySelectionWatermarkEntity.getBusinessObjectDataCreatedOn(), null);
+            StoragePolicySelectionCandidate lastCandidate = watermarkCandidate;
+            boolean wrappedAround = watermarkCandidate == null;
+            boolean fullPassCompleted = false;
+
+            // Until we reach maximum number of results or complete a full pass, retrieve and process the IDs of the business object data selected by the
+            // storage policies, where the business object data status is supported by the storage policy feature, the business object data alternate key
+            // values match storage policy's filter and transition, and the business object data is old enough for the storage policy rule.
+            while (!fullPassCompleted && resultStoragePolicySelections.size() < maxResult)
             {
-                Map<BusinessObjectDataEntity, StoragePolicyEntity> map = businessObjectDataDao
-                    .getBusinessObjectDataEntitiesMatchingStoragePolicies(storagePolicyPriorityLevel, SUPPORTED_BUSINESS_OBJECT_DATA_STATUSES, startPosition,
-                        maxResult);
+                List<StoragePolicySelectionCandidate> storagePolicySelectionCandidates = businessObjectDataDao
+                    .getStoragePolicySelectionCandidates(storagePolicyPriorityLevel, STORAGE_POLICY_PRIORITY_LEVELS.subList(0, priorityLevelNumber),
+                        SUPPORTED_BUSINESS_OBJECT_DATA_STATUSES, currentTimestamp, lastCandidate, maxResult);
+                scannedBusinessObjectDataCount += storagePolicySelectionCandidates.size();
 
-                for (Map.Entry<BusinessObjectDataEntity, StoragePolicyEntity> entry : map.entrySet())
+                for (StoragePolicySelectionCandidate storagePolicySelectionCandidate : storagePolicySelectionCandidates)
                 {
-                    BusinessObjectDataEntity businessObjectDataEntity = entry.getKey();
+                    // Stop once we got back to the candidate the previous storage policy selection stopped at.
+                    if (wrappedAround && watermarkCandidate != null && storagePolicySelectionCandidate.comparePositionTo(watermarkCandidate) >= 0)
+                    {
+                        fullPassCompleted = true;
+                        break;
+                    }
+
+                    lastCandidate = storagePolicySelectionCandidate;
 
-                    // Process this storage policy selection, only if this business object data has not been selected earlier.
-                    if (!selectedBusinessObjectDataEntities.contains(businessObjectDataEntity))
+                    // Add this storage policy selection to the result list.
+                    resultStoragePolicySelections.add(createStoragePolicySelection(storagePolicySelectionCandidate, storagePolicyEntities));
+
+                    // Stop adding storage policy selections to the result list if we reached the max result limit.
+                    if (resultStoragePolicySelections.size() >= maxResult)
                     {
-                        // Remember that we got this business object data entity selected by a storage policy.
-                        selectedBusinessObjectDataEntities.add(businessObjectDataEntity);
-
-                        StoragePolicyEntity storagePolicyEntity = entry.getValue();
-
-                        // For DAYS_SINCE_BDATA_REGISTERED storage policy rule type, select business object data based on it "created on" timestamp.
-                        if (StoragePolicyRuleTypeEntity.DAYS_SINCE_BDATA_REGISTERED.equals(storagePolicyEntity.getStoragePolicyRuleType().getCode()))
-                        {
-                            // Compute threshold timestamp based on the current database timestamp and storage policy rule value.
-                            Timestamp thresholdTimestamp = HerdDateUtils.addDays(currentTimestamp, -storagePolicyEntity.getStoragePolicyRuleValue());
-
-                            // Select this business object data if it has "created on" timestamp before the threshold timestamp.
-                            if (businessObjectDataEntity.getCreatedOn().compareTo(thresholdTimestamp) < 0)
-                            {
-                                // Add this storage policy selection to the result list.
-                                StoragePolicySelection storagePolicySelection = new StoragePolicySelection();
-                                resultStoragePolicySelections.add(storagePolicySelection);
-                                storagePolicySelection.setBusinessObjectDataKey(businessObjectDataHelper.getBusinessObjectDataKey(businessObjectDataEntity));
-                                storagePolicySelection
-                                    .setStoragePolicyKey(new StoragePolicyKey(storagePolicyEntity.getNamespace().getCode(), storagePolicyEntity.getName()));
-                                storagePolicySelection.setStoragePolicyVersion(storagePolicyEntity.getVersion());
-                            }
-
-                            // Stop adding storage policy selections to the result list if we reached the max result limit.
-                            if (resultStoragePolicySelections.size() >= maxResult)
-                            {
-                                break;
-                            }
-                        }
-                        // Fail on un-supported storage policy rule type.
-                        else
-                        {
-                            throw new IllegalStateException(
-                                String.format("Storage policy type \"%s\" is not supported.", storagePolicyEntity.getStoragePolicyRuleType().getCode()));
-                        }
+                        break;
                     }
                 }
 
-                // Stop processing storage policies if we reached the max result limit or there are no more business object data to select.
-                if (resultStoragePolicySelections.size() >= maxResult || map.isEmpty())
+                // Wrap around to the oldest business object data once we run out of candidates.
+                if (!fullPassCompleted && storagePolicySelectionCandidates.isEmpty())
                 {
-                    break;
+                    if (wrappedAround)
+                    {
+                        fullPassCompleted = true;
+                    }
+                    else
+                    {
+                        wrappedAround = true;
+                        lastCandidate = null;
+                    }
                 }
-
-                // Increase the start position for the next select.
-                startPosition += maxResult;
             }
 
-            // Stop processing storage policies if we reached the max result limit.
-            if (resultStoragePolicySelections.size() >= maxResult)
-            {
-                break;
-            }
+            // Start the next storage policy selection with the oldest business object data once a full pass is completed.
+            lastCandidates.put(storagePolicySelectionWatermarkEntity, fullPassCompleted ? null : lastCandidate);
         }
 
         // Send all storage policy selections to the specified SQS queue.
         sendStoragePolicySelectionToSqsQueue(sqsQueueName, resultStoragePolicySelections);
 
+        // Now that the storage policy selections are sent, remember where to resume the next storage policy selection.
+        for (Map.Entry<StoragePolicySelectionWatermarkEntity, StoragePolicySelectionCandidate> entry : lastCandidates.entrySet())
+        {
+            updateWatermark(entry.getKey(), entry.getValue());
+        }
+
+        stopWatch.stop();
+
+        LOGGER.info("Executed storage policy selection. sqsQueueName=\"{}\" scannedBusinessObjectDataCount={} selectedBusinessObjectDataCount={} " +
+            "durationMillis={}", sqsQueueName, scannedBusinessObjectDataCount, resultStoragePolicySelections.size(), stopWatch.getTime());
+
         return resultStoragePolicySelections;
     }
 
     /**
-     * Sends storage policy selections to the specified AWS SQS queue.
+     * Gets the number of the storage policy priority level the specified storage policy belongs to, where 0 is the highest priority level.
+     *
+     * @param storagePolicyEntity the storage policy entity
+     *
+     * @return the storage policy priority level number
+     */
+    public static int getStoragePolicyPriorityLevelNumber(StoragePolicyEntity storagePolicyEntity)
+    {
+        boolean businessObjectDefinitionIsNull = storagePolicyEntity.getBusinessObjectDefinition() == null;
+        boolean usageIsNull = StringUtils.isBlank(storagePolicyEntity.getUsage());
+        boolean fileTypeIsNull = storagePolicyEntity.getFileType() == null;
+
+        for (int priorityLevelNumber = 0; priorityLevelNumber < STORAGE_POLICY_PRIORITY_LEVELS.size(); priorityLevelNumber++)
+        {
+            StoragePolicyPriorityLevel storagePolicyPriorityLevel = STORAGE_POLICY_PRIORITY_LEVELS.get(priorityLevelNumber);
+            if (storagePolicyPriorityLevel.isBusinessObjectDefinitionIsNull() == businessObjectDefinitionIsNull &&
+                storagePolicyPriorityLevel.isUsageIsNull() == usageIsNull && storagePolicyPriorityLevel.isFileTypeIsNull() == fileTypeIsNull)
+            {
+                return priorityLevelNumber;
+            }
+        }
+
+        // Fall back to the highest priority level, so all priority levels are treated as affected by this storage policy.
+        return 0;
+    }
+
+    /**
+     * Creates a storage policy selection for the specified storage policy selection candidate.
+     *
+     * @param storagePolicySelectionCandidate the storage policy selection candidate
+     * @param storagePolicyEntities the map of storage policy IDs to the storage policy entities loaded so far
+     *
+     * @return the storage policy selection
+     */
+    private StoragePolicySelection createStoragePolicySelection(StoragePolicySelectionCandidate storagePolicySelectionCandidate,
+        Map<Integer, StoragePolicyEntity> storagePolicyEntities)
+    {
+        StoragePolicyEntity storagePolicyEntity = storagePolicyEntities.computeIfAbsent(storagePolicySelectionCandidate.getStoragePolicyId(),
+            storagePolicyId -> herdDao.findById(StoragePolicyEntity.class, storagePolicyId));
+
+        // Fail on un-supported storage policy rule type. The business object data selected by DAYS_SINCE_BDATA_REGISTERED storage policy rule type
+        // is already known to have "created on" timestamp before the threshold timestamp.
+        if (!StoragePolicyRuleTypeEntity.DAYS_SINCE_BDATA_REGISTERED.equals(storagePolicyEntity.getStoragePolicyRuleType().getCode()))
+        {
+            throw new IllegalStateException(
+                String.format("Storage policy type \"%s\" is not supported.", storagePolicyEntity.getStoragePolicyRuleType().getCode()));
+        }
+
+        StoragePolicySelection storagePolicySelection = new StoragePolicySelection();
+        storagePolicySelection.setBusinessObjectDataKey(storagePolicySelectionCandidate.getBusinessObjectDataKey());
+        storagePolicySelection.setStoragePolicyKey(new StoragePolicyKey(storagePolicyEntity.getNamespace().getCode(), storagePolicyEntity.getName()));
+        storagePolicySelection.setStoragePolicyVersion(storagePolicyEntity.getVersion());
+
+        return storagePolicySelection;
+    }
+
+    /**
+     * Gets and locks the storage policy selection watermark for the specified storage policy priority level. The watermark gets created when it does not
+     * exist yet.
+     *
+     * @param priorityLevelNumber the storage policy priority level number, where 0 is the highest priority level
+     *
+     * @return the storage policy selection watermark entity
+     */
+    private StoragePolicySelectionWatermarkEntity getWatermark(int priorityLevelNumber)
+    {
+        StoragePolicySelectionWatermarkEntity storagePolicySelectionWatermarkEntity =
+            herdDao.getEntityManager().find(StoragePolicySelectionWatermarkEntity.class, priorityLevelNumber, LockModeType.PESSIMISTIC_WRITE);
+
+        if (storagePolicySelectionWatermarkEntity == null)
+        {
+            storagePolicySelectionWatermarkEntity = new StoragePolicySelectionWatermarkEntity();
+            storagePolicySelectionWatermarkEntity.setStoragePolicyPriorityLevelNumber(priorityLevelNumber);
+            storagePolicySelectionWatermarkEntity = herdDao.save(storagePolicySelectionWatermarkEntity);
+        }
+
+        return storagePolicySelectionWatermarkEntity;
+    }
+
+    /**
+     * Updates the storage policy selection candidate to resume after for the specified storage policy selection watermark.
+     *
+     * @param storagePolicySelectionWatermarkEntity the locked storage policy selection watermark entity
+     * @param storagePolicySelectionCandidate the storage policy selection candidate or null to start with the oldest business object data
+     */
+    private void updateWatermark(StoragePolicySelectionWatermarkEntity storagePolicySelectionWatermarkEntity,
+        StoragePolicySelectionCandidate storagePolicySelectionCandidate)
+    {
+        storagePolicySelectionWatermarkEntity
+            .setBusinessObjectDataId(storagePolicySelectionCandidate == null ? null : storagePolicySelectionCandidate.getBusinessObjectDataId());
+        storagePolicySelectionWatermarkEntity
+            .setBusinessObjectDataCreatedOn(storagePolicySelectionCandidate == null ? null : storagePolicySelectionCandidate.getBusinessObjectDataCreatedOn());
+        herdDao.save(storagePolicySelectionWatermarkEntity);
+    }
+
+    /**
+     * Sends storage policy selections to the specified AWS SQS queue using batch requests.
      *
      * @param sqsQueueName the SQS queue name to send storage policy selections to
      * @param storagePolicySelections the list of storage policy selections
      */
     private void sendStoragePolicySelectionToSqsQueue(String sqsQueueName, List<StoragePolicySelection> storagePolicySelections)
     {
-        AwsParamsDto awsParamsDto = awsHelper.getAwsParamsDto();
+        if (storagePolicySelections.isEmpty())
+        {
+            return;
+        }
+
+        List<String> messageTexts = new ArrayList<>(storagePolicySelections.size());
         for (StoragePolicySelection storagePolicySelection : storagePolicySelections)
         {
-            String messageText = null;
-            try
-            {
-                messageText = jsonHelper.objectToJson(storagePolicySelection);
-                sqsDao.sendSqsTextMessage(awsParamsDto, sqsQueueName, messageText);
-            }
-            catch (Exception e)
-            {
-                LOGGER.error("Failed to publish message to the JMS queue. jmsQueueName=\"{}\" jmsMessagePayload={}", sqsQueueName, messageText);
+            messageTexts.add(jsonHelper.objectToJson(storagePolicySelection));
+        }
 
-                // Throw the exception up.
-                throw new IllegalStateException(e.getMessage(), e);
-            }
+        List<Integer> sentMessageIndexes;
+        try
+        {
+            sentMessageIndexes = sqsDao.sendSqsTextMessages(awsHelper.getAwsParamsDto(), sqsQueueName, messageTexts);
+        }
+        catch (Exception e)
+        {
+            LOGGER.error("Failed to publish messages to the JMS queue. jmsQueueName=\"{}\" jmsMessageCount={}", sqsQueueName, messageTexts.size());
+
+            // Throw the exception up.
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+
+        // Fail when some of the storage policy selections were not sent, so the next storage policy selection does not skip them.
+        if (sentMessageIndexes.size() < messageTexts.size())
+        {
+            throw new IllegalStateException(String
+                .format("Failed to publish %d out of %d storage policy selections to \"%s\" SQS queue.", messageTexts.size() - sentMessageIndexes.size(),
+                    messageTexts.size(), sqsQueueName));
         }
     }
 }
@@ -161,6 +161,9 @@ public class StoragePolicyServiceImpl implements StoragePolicyService
             request.getStoragePolicyFilter().getBusinessObjectFormatUsage(), fileTypeEntity, storagePolicyStatusEntity,
             StoragePolicyEntity.STORAGE_POLICY_INITIAL_VERSION, true);
 
+        // Reset the storage policy selection watermarks affected by the new storage policy, so it also selects business object data older than them.
+        storagePolicyDao.resetStoragePolicySelectionWatermarks(StoragePolicySelectorServiceImpl.getStoragePolicyPriorityLevelNumber(storagePolicyEntity));
+
         // Create and return the storage policy object from the persisted entity.
         return createStoragePolicyFromEntity(storagePolicyEntity);
     }
@@ -229,6 +232,12 @@ public class StoragePolicyServiceImpl implements StoragePolicyService
         storagePolicyEntity.setLatestVersion(false);
         storagePolicyDao.saveAndRefresh(storagePolicyEntity);
 
+        // Reset the storage policy selection watermarks affected by the change. Since lower priority levels skip business object data matching higher
+        // priority level storage policies, this covers both the previous and the new priority level of the storage policy and all lower priority levels.
+        int storagePolicyPriorityLevelNumber = Math.min(StoragePolicySelectorServiceImpl.getStoragePolicyPriorityLevelNumber(storagePolicyEntity),
+            StoragePolicySelectorServiceImpl.getStoragePolicyPriorityLevelNumber(newVersionStoragePolicyEntity));
+        storagePolicyDao.resetStoragePolicySelectionWatermarks(storagePolicyPriorityLevelNumber);
+
         // Create and return the storage policy object from the new version entity.
         return createStoragePolicyFromEntity(newVersionStoragePolicyEntity);
     }
@@ -58,6 +58,7 @@ import org.finra.herd.service.helper.FileTypeDaoHelper;
 import org.finra.herd.service.helper.JobDefinitionDaoHelper;
 import org.finra.herd.service.helper.NamespaceDaoHelper;
 import org.finra.herd.service.helper.NotificationEventTypeDaoHelper;
+import org.finra.herd.service.helper.NotificationRegistrationMatchingIndex;
 import org.finra.herd.service.helper.NotificationRegistrationStatusDaoHelper;
 import org.finra.herd.service.helper.StorageDaoHelper;
 import org.finra.herd.service.helper.StorageUnitNotificationRegistrationDaoHelper;
@@ -88,6 +89,9 @@ public class StorageUnitNotificationRegistrationServiceImpl implements StorageUn
     @Autowired
     private NotificationEventTypeDaoHelper notificationEventTypeDaoHelper;
 
+    @Autowired
+    private NotificationRegistrationMatchingIndex notificationRegistrationMatchingIndex;
+
     @Autowired
     private NotificationRegistrationStatusDaoHelper notificationRegistrationStatusDaoHelper;
 
@@ -190,6 +194,9 @@ public class StorageUnitNotificationRegistrationServiceImpl implements StorageUn
         // Persist the new entity.
         storageUnitNotificationRegistrationEntity = storageUnitNotificationRegistrationDao.saveAndRefresh(storageUnitNotificationRegistrationEntity);
 
+        // Let all herd nodes know that the notification registrations have changed.
+        notificationRegistrationMatchingIndex.incrementGenerationNumber();
+
         // Create and return the storage unit notification object from the persisted entity.
         return createStorageUnitNotificationFromEntity(storageUnitNotificationRegistrationEntity);
     }
@@ -208,6 +215,9 @@ public class StorageUnitNotificationRegistrationServiceImpl implements StorageUn
         // Delete the storage unit notification.
         storageUnitNotificationRegistrationDao.delete(storageUnitNotificationRegistrationEntity);
 
+        // Let all herd nodes know that the notification registrations have changed.
+        notificationRegistrationMatchingIndex.incrementGenerationNumber();
+
         // Create and return the storage unit notification object from the deleted entity.
         return createStorageUnitNotificationFromEntity(storageUnitNotificationRegistrationEntity);
     }
@@ -344,6 +354,9 @@ public class StorageUnitNotificationRegistrationServiceImpl implements StorageUn
         // Persist the new entity.
         newStorageUnitNotificationRegistrationEntity = storageUnitNotificationRegistrationDao.saveAndRefresh(newStorageUnitNotificationRegistrationEntity);
 
+        // Let all herd nodes know that the notification registrations have changed.
+        notificationRegistrationMatchingIndex.incrementGenerationNumber();
+
         // Create and return the storage unit notification object from the persisted entity.
         return createStorageUnitNotificationFromEntity(newStorageUnitNotificationRegistrationEntity);
     }
@@ -88,6 +88,9 @@ public class UserNamespaceAuthorizationServiceImpl implements UserNamespaceAutho
         // Create and persist a new user namespace authorization entity from the request information.
         userNamespaceAuthorizationEntity = createUserNamespaceAuthorizationEntity(key.getUserId(), namespaceEntity, request.getNamespacePermissions());
 
+        // Let all herd nodes know that the user namespace authorizations have changed.
+        userNamespaceAuthorizationHelper.incrementGenerationNumber();
+
         // Create and return the user namespace authorization object from the persisted entity.
         return createUserNamespaceAuthorizationFromEntity(userNamespaceAuthorizationEntity);
     }
@@ -109,6 +112,9 @@ public class UserNamespaceAuthorizationServiceImpl implements UserNamespaceAutho
         updateNamespacePermissions(userNamespaceAuthorizationEntity, request.getNamespacePermissions());
         userNamespaceAuthorizationDao.saveAndRefresh(userNamespaceAuthorizationEntity);
 
+        // Let all herd nodes know that the user namespace authorizations have changed.
+        userNamespaceAuthorizationHelper.incrementGenerationNumber();
+
         // Create and return the user namespace authorization object from the updated entity.
         return createUserNamespaceAuthorizationFromEntity(userNamespaceAuthorizationEntity);
     }
@@ -140,6 +146,9 @@ public class UserNamespaceAuthorizationServiceImpl implements UserNamespaceAutho
         // Delete the business object definition.
         userNamespaceAuthorizationDao.delete(userNamespaceAuthorizationEntity);
 
+        // Let all herd nodes know that the user namespace authorizations have changed.
+        userNamespaceAuthorizationHelper.incrementGenerationNumber();
+
         // Create and return the user namespace authorization object from the deleted entity.
         return createUserNamespaceAuthorizationFromEntity(userNamespaceAuthorizationEntity);
     }
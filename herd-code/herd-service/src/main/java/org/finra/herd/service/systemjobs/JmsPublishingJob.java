@@ -52,13 +52,14 @@ public class JmsPublishingJob extends AbstractSystemJob
         // Log that the system job is started.
         LOGGER.info("Started system job. systemJobName=\"{}\"", JOB_NAME);
 
-        // Publish JMS messages stored in the database queue.
+        // Publish JMS messages stored in the database queue in batches.
         int publishedJmsMessagesCount = 0;
         try
         {
-            while (jmsPublishingService.publishOldestJmsMessageFromDatabaseQueue())
+            int batchPublishedJmsMessagesCount;
+            while ((batchPublishedJmsMessagesCount = jmsPublishingService.publishOldestJmsMessagesFromDatabaseQueue()) > 0)
             {
-                publishedJmsMessagesCount++;
+                publishedJmsMessagesCount += batchPublishedJmsMessagesCount;
             }
         }
         catch (Exception e)
@@ -67,8 +68,9 @@ public class JmsPublishingJob extends AbstractSystemJob
             LOGGER.error("Failed to publish a JMS message. systemJobName=\"{}\"", JOB_NAME, e);
         }
 
-        // Log the number of JMS messages successfully published.
-        LOGGER.info("Published JMS messages. systemJobName=\"{}\" jmsMessageCount={}", JOB_NAME, publishedJmsMessagesCount);
+        // Log the number of JMS messages successfully published along with the number of JMS messages still waiting in the database queue.
+        LOGGER.info("Published JMS messages. systemJobName=\"{}\" jmsMessageCount={} databaseQueueDepth={}", JOB_NAME, publishedJmsMessagesCount,
+            jmsPublishingService.getDatabaseQueueDepth());
 
         // Log that the system job is ended.
         LOGGER.info("Completed system job. systemJobName=\"{}\"", JOB_NAME);
@@ -491,6 +491,9 @@ public abstract class AbstractServiceTest extends AbstractDaoTest
     @Autowired
     protected S3Service s3Service;
 
+    @Autowired
+    protected ServiceMethodMetricsService serviceMethodMetricsService;
+
     @Autowired
     protected SqsMessageBuilder sqsMessageBuilder;
 
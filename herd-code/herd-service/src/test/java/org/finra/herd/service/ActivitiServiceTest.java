@@ -18,6 +18,7 @@ package org.finra.herd.service;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -29,7 +30,9 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -44,6 +47,10 @@ import org.activiti.engine.history.HistoricActivityInstance;
 import org.activiti.engine.history.HistoricActivityInstanceQuery;
 import org.activiti.engine.history.HistoricProcessInstance;
 import org.activiti.engine.history.HistoricProcessInstanceQuery;
+import org.activiti.engine.history.NativeHistoricProcessInstanceQuery;
+import org.activiti.engine.impl.cmd.CustomSqlExecution;
+import org.activiti.engine.impl.persistence.entity.HistoricProcessInstanceEntity;
+import org.activiti.engine.impl.persistence.entity.ProcessDefinitionEntity;
 import org.activiti.engine.repository.ProcessDefinition;
 import org.activiti.engine.repository.ProcessDefinitionQuery;
 import org.activiti.engine.runtime.Execution;
@@ -60,6 +67,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
 import org.finra.herd.model.api.xml.JobStatusEnum;
+import org.finra.herd.service.activiti.ActivitiJobMapper;
 import org.finra.herd.service.impl.ActivitiServiceImpl;
 
 public class ActivitiServiceTest
@@ -272,6 +280,101 @@ public class ActivitiServiceTest
         inOrder.verifyNoMoreInteractions();
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testGetJobsWithExceptionCountByProcessInstanceIds()
+    {
+        ActivitiJobMapper activitiJobMapper = mock(ActivitiJobMapper.class);
+        ActivitiJobMapper.ProcessInstanceJobCount processInstanceJobCount1 = new ActivitiJobMapper.ProcessInstanceJobCount();
+        processInstanceJobCount1.setProcessInstanceId("processInstanceId1");
+        processInstanceJobCount1.setJobCount(2L);
+        ActivitiJobMapper.ProcessInstanceJobCount processInstanceJobCount2 = new ActivitiJobMapper.ProcessInstanceJobCount();
+        processInstanceJobCount2.setProcessInstanceId("processInstanceId2");
+        processInstanceJobCount2.setJobCount(1L);
+        List<String> processInstanceIds = Arrays.asList("processInstanceId1", "processInstanceId2", "processInstanceId3");
+        when(activitiJobMapper.selectJobsWithExceptionCounts(processInstanceIds)).thenReturn(Arrays.asList(processInstanceJobCount1, processInstanceJobCount2));
+        when(activitiManagementService.executeCustomSql(any()))
+            .thenAnswer(invocation -> ((CustomSqlExecution<ActivitiJobMapper, ?>) invocation.getArguments()[0]).execute(activitiJobMapper));
+        Map<String, Long> actualResult = activitiService.getJobsWithExceptionCountByProcessInstanceIds(processInstanceIds);
+        Map<String, Long> expectedResult = new HashMap<>();
+        expectedResult.put("processInstanceId1", 2L);
+        expectedResult.put("processInstanceId2", 1L);
+        assertEquals(expectedResult, actualResult);
+        verify(activitiManagementService).executeCustomSql(any());
+        verify(activitiJobMapper).selectJobsWithExceptionCounts(processInstanceIds);
+        verifyNoMoreInteractions(activitiManagementService, activitiJobMapper);
+    }
+
+    @Test
+    public void testGetJobsWithExceptionCountByProcessInstanceIdsWhenNoProcessInstanceIds()
+    {
+        assertEquals(new HashMap<>(), activitiService.getJobsWithExceptionCountByProcessInstanceIds(new ArrayList<>()));
+        verifyNoMoreInteractions(activitiManagementService);
+    }
+
+    @Test
+    public void testGetSuspendedProcessInstancesByProcessInstanceIds()
+    {
+        Set<String> processInstanceIds = new HashSet<>(Arrays.asList("processInstanceId"));
+        ProcessInstanceQuery processInstanceQuery = mock(ProcessInstanceQuery.class);
+        when(activitiRuntimeService.createProcessInstanceQuery()).thenReturn(processInstanceQuery);
+        when(processInstanceQuery.processInstanceIds(processInstanceIds)).thenReturn(processInstanceQuery);
+        when(processInstanceQuery.suspended()).thenReturn(processInstanceQuery);
+        List<ProcessInstance> expectedProcessInstances = new ArrayList<>();
+        when(processInstanceQuery.list()).thenReturn(expectedProcessInstances);
+        List<ProcessInstance> actualProcessInstances = activitiService.getSuspendedProcessInstancesByProcessInstanceIds(processInstanceIds);
+        assertSame(expectedProcessInstances, actualProcessInstances);
+        InOrder inOrder = inOrder(processInstanceQuery);
+        inOrder.verify(processInstanceQuery).processInstanceIds(processInstanceIds);
+        inOrder.verify(processInstanceQuery).suspended();
+        inOrder.verify(processInstanceQuery).list();
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    @Test
+    public void testGetSuspendedProcessInstancesByProcessInstanceIdsWhenNoProcessInstanceIds()
+    {
+        assertEquals(new ArrayList<>(), activitiService.getSuspendedProcessInstancesByProcessInstanceIds(new HashSet<>()));
+        verifyNoMoreInteractions(activitiRuntimeService);
+    }
+
+    @Test
+    public void testGetHistoricProcessInstancesByStatusAndProcessDefinitionKeysPaged()
+    {
+        JobStatusEnum jobStatus = JobStatusEnum.COMPLETED;
+        Collection<String> processDefinitionKeys = Arrays.asList("processDefinitionKey1", "processDefinitionKey2");
+        Date afterStartTime = new Date(1234);
+        NativeHistoricProcessInstanceQuery nativeHistoricProcessInstanceQuery = mock(NativeHistoricProcessInstanceQuery.class);
+        when(activitiManagementService.getTableName(HistoricProcessInstanceEntity.class)).thenReturn("ACT_HI_PROCINST");
+        when(activitiManagementService.getTableName(ProcessDefinitionEntity.class)).thenReturn("ACT_RE_PROCDEF");
+        when(activitiHistoryService.createNativeHistoricProcessInstanceQuery()).thenReturn(nativeHistoricProcessInstanceQuery);
+        when(nativeHistoricProcessInstanceQuery.sql(any())).thenReturn(nativeHistoricProcessInstanceQuery);
+        when(nativeHistoricProcessInstanceQuery.parameter(any(), any())).thenReturn(nativeHistoricProcessInstanceQuery);
+        List<HistoricProcessInstance> expectedHistoricProcessInstances = new ArrayList<>();
+        when(nativeHistoricProcessInstanceQuery.listPage(0, 5)).thenReturn(expectedHistoricProcessInstances);
+        List<HistoricProcessInstance> actualHistoricProcessInstance = activitiService
+            .getHistoricProcessInstancesByStatusAndProcessDefinitionKeys(jobStatus, processDefinitionKeys, null, null, afterStartTime, "processInstanceId",
+                5);
+        assertSame(expectedHistoricProcessInstances, actualHistoricProcessInstance);
+        verify(nativeHistoricProcessInstanceQuery).sql("SELECT RES.* FROM ACT_HI_PROCINST RES INNER JOIN ACT_RE_PROCDEF DEF ON RES.PROC_DEF_ID_ = DEF.ID_ " +
+            "WHERE DEF.KEY_ IN (#{processDefinitionKey0}, #{processDefinitionKey1}) AND RES.END_TIME_ IS NOT NULL AND (RES.START_TIME_ < #{afterStartTime} " +
+            "OR (RES.START_TIME_ = #{afterStartTime} AND RES.ID_ > #{afterProcessInstanceId})) ORDER BY RES.START_TIME_ DESC, RES.ID_ ASC");
+        verify(nativeHistoricProcessInstanceQuery).parameter("processDefinitionKey0", "processDefinitionKey1");
+        verify(nativeHistoricProcessInstanceQuery).parameter("processDefinitionKey1", "processDefinitionKey2");
+        verify(nativeHistoricProcessInstanceQuery).parameter("afterStartTime", afterStartTime);
+        verify(nativeHistoricProcessInstanceQuery).parameter("afterProcessInstanceId", "processInstanceId");
+        verify(nativeHistoricProcessInstanceQuery).listPage(0, 5);
+        verifyNoMoreInteractions(nativeHistoricProcessInstanceQuery);
+    }
+
+    @Test
+    public void testGetHistoricProcessInstancesByStatusAndProcessDefinitionKeysPagedWhenNoProcessDefinitionKeys()
+    {
+        assertEquals(new ArrayList<>(), activitiService
+            .getHistoricProcessInstancesByStatusAndProcessDefinitionKeys(JobStatusEnum.COMPLETED, new ArrayList<>(), null, null, null, null, 5));
+        verifyNoMoreInteractions(activitiHistoryService, activitiManagementService);
+    }
+
     @Test
     public void testGetHistoricProcessInstancesByStatusAndProcessDefinitionKeysWhenStatusCompleted()
     {
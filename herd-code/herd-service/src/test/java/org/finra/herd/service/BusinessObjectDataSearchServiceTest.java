@@ -1,9 +1,16 @@
 package org.finra.herd.service;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.Test;
 import org.springframework.util.Assert;
@@ -16,6 +23,7 @@ import org.finra.herd.model.api.xml.BusinessObjectDataSearchResult;
 import org.finra.herd.model.api.xml.LatestAfterPartitionValue;
 import org.finra.herd.model.api.xml.LatestBeforePartitionValue;
 import org.finra.herd.model.api.xml.PartitionValueFilter;
+import org.finra.herd.model.dto.ConfigurationValue;
 
 /**
  * Test Business Object Data Search service
@@ -52,6 +60,40 @@ public class BusinessObjectDataSearchServiceTest extends AbstractServiceTest
 
     }
 
+    @Test
+    public void testSearchBusinessObjectDataPaged() throws Exception
+    {
+        businessObjectDataServiceTestHelper.createDatabaseEntitiesForBusinessObjectDataSearchTesting();
+
+        BusinessObjectDataSearchRequest request = new BusinessObjectDataSearchRequest();
+        BusinessObjectDataSearchKey key = new BusinessObjectDataSearchKey();
+        key.setNamespace(NAMESPACE);
+        key.setBusinessObjectDefinitionName(BDEF_NAME);
+        request.setBusinessObjectDataSearchFilters(Arrays.asList(new BusinessObjectDataSearchFilter(Arrays.asList(key))));
+
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.BUSINESS_OBJECT_DATA_SEARCH_MAX_RESULTS_PER_PAGE.getKey(), 1);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            BusinessObjectDataSearchResult result = businessObjectDataService.searchBusinessObjectData(request);
+            assertEquals(1, result.getBusinessObjectDataElements().size());
+            assertNotNull(result.getNextPageToken());
+
+            // Get the next page, which holds the last business object data.
+            request.setPageToken(result.getNextPageToken());
+            BusinessObjectDataSearchResult nextResult = businessObjectDataService.searchBusinessObjectData(request);
+            assertEquals(1, nextResult.getBusinessObjectDataElements().size());
+            assertNotEquals(result.getBusinessObjectDataElements().get(0).getId(), nextResult.getBusinessObjectDataElements().get(0).getId());
+            assertNull(nextResult.getNextPageToken());
+        }
+        finally
+        {
+            restorePropertySourceInEnvironment();
+        }
+    }
+
     @Test
     public void testSearchBusinessObjectDataWithPartitionFilterValues()
     {
@@ -16,6 +16,7 @@
 package org.finra.herd.service;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
@@ -24,6 +25,7 @@ import java.util.List;
 
 import org.junit.Test;
 
+import org.finra.herd.model.api.xml.BusinessObjectDataAvailability;
 import org.finra.herd.model.api.xml.BusinessObjectDataAvailabilityCollectionRequest;
 import org.finra.herd.model.api.xml.BusinessObjectDataAvailabilityCollectionResponse;
 import org.finra.herd.model.api.xml.BusinessObjectDataAvailabilityRequest;
@@ -48,6 +50,53 @@ public class BusinessObjectDataServiceCheckBusinessObjectDataAvailabilityCollect
             resultBusinessObjectDataAvailabilityCollectionResponse);
     }
 
+    @Test
+    public void testCheckBusinessObjectDataAvailabilityCollectionMatchesIndividualAvailabilityChecks()
+    {
+        // Prepare database entities required for testing.
+        businessObjectDataAvailabilityTestHelper.createDatabaseEntitiesForBusinessObjectDataAvailabilityTesting(null);
+
+        // Build a list of availability requests, where some of the requests share the business object format and storages, so their storage unit
+        // lookups get combined, and some of them do not.
+        List<BusinessObjectDataAvailabilityRequest> requests = new ArrayList<>();
+        requests.add(businessObjectDataServiceTestHelper.getTestBusinessObjectDataAvailabilityRequest(UNSORTED_PARTITION_VALUES));
+        requests.add(businessObjectDataServiceTestHelper.getTestBusinessObjectDataAvailabilityRequest(
+            Arrays.asList(STORAGE_1_AVAILABLE_PARTITION_VALUES.get(0), STORAGE_1_NOT_AVAILABLE_PARTITION_VALUES.get(0), PARTITION_VALUE)));
+        requests.add(businessObjectDataServiceTestHelper.getTestBusinessObjectDataAvailabilityRequest(STORAGE_1_NOT_AVAILABLE_PARTITION_VALUES));
+        BusinessObjectDataAvailabilityRequest request =
+            businessObjectDataServiceTestHelper.getTestBusinessObjectDataAvailabilityRequest(SORTED_PARTITION_VALUES);
+        request.setBusinessObjectFormatUsage(FORMAT_USAGE_CODE.toLowerCase());
+        requests.add(request);
+        request = businessObjectDataServiceTestHelper.getTestBusinessObjectDataAvailabilityRequest(STORAGE_1_AVAILABLE_PARTITION_VALUES);
+        request.setStorageNames(Arrays.asList(STORAGE_NAME));
+        requests.add(request);
+        request = businessObjectDataServiceTestHelper.getTestBusinessObjectDataAvailabilityRequest(UNSORTED_PARTITION_VALUES);
+        request.setBusinessObjectDataVersion(DATA_VERSION);
+        requests.add(request);
+        request = businessObjectDataServiceTestHelper.getTestBusinessObjectDataAvailabilityRequest(SORTED_PARTITION_VALUES);
+        request.setIncludeAllRegisteredSubPartitions(true);
+        requests.add(request);
+
+        // Check an availability for the collection of business object data.
+        BusinessObjectDataAvailabilityCollectionRequest businessObjectDataAvailabilityCollectionRequest = new BusinessObjectDataAvailabilityCollectionRequest();
+        businessObjectDataAvailabilityCollectionRequest.setBusinessObjectDataAvailabilityRequests(requests);
+        BusinessObjectDataAvailabilityCollectionResponse resultBusinessObjectDataAvailabilityCollectionResponse =
+            businessObjectDataService.checkBusinessObjectDataAvailabilityCollection(businessObjectDataAvailabilityCollectionRequest);
+
+        // Check an availability for each of the requests individually.
+        List<BusinessObjectDataAvailability> expectedBusinessObjectDataAvailabilities = new ArrayList<>();
+        for (BusinessObjectDataAvailabilityRequest businessObjectDataAvailabilityRequest : requests)
+        {
+            expectedBusinessObjectDataAvailabilities.add(businessObjectDataService.checkBusinessObjectDataAvailability(businessObjectDataAvailabilityRequest));
+        }
+
+        // Validate the response object.
+        assertEquals(expectedBusinessObjectDataAvailabilities,
+            resultBusinessObjectDataAvailabilityCollectionResponse.getBusinessObjectDataAvailabilityResponses());
+        assertFalse(resultBusinessObjectDataAvailabilityCollectionResponse.isIsAllDataAvailable());
+        assertFalse(resultBusinessObjectDataAvailabilityCollectionResponse.isIsAllDataNotAvailable());
+    }
+
     @Test
     public void testCheckBusinessObjectDataAvailabilityCollectionMissingRequiredParameters()
     {
@@ -20,10 +20,12 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.Ignore;
 import org.junit.Test;
@@ -2156,6 +2158,65 @@ public class BusinessObjectDataServiceGenerateBusinessObjectDataDdlTest extends
         assertNotNull(businessObjectDataDdl);
     }
 
+    @Test
+    public void testGenerateBusinessObjectDataDdlStream() throws Exception
+    {
+        // Prepare test data.
+        businessObjectDataServiceTestHelper.createDatabaseEntitiesForBusinessObjectDataDdlTesting();
+
+        // Override configuration to process a single storage unit at a time.
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.HIVE_DDL_STORAGE_UNIT_CHUNK_SIZE.getKey(), 1);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            // Stream business object data ddl with and without custom ddl.
+            for (String customDdlName : Arrays.asList(CUSTOM_DDL_NAME, null))
+            {
+                BusinessObjectDataDdlRequest request =
+                    businessObjectDataServiceTestHelper.getTestBusinessObjectDataDdlRequest(UNSORTED_PARTITION_VALUES, customDdlName);
+                StringWriter stringWriter = new StringWriter();
+                businessObjectDataService.generateBusinessObjectDataDdl(request, stringWriter);
+
+                // Validate that the streamed ddl matches the ddl returned by the string-returning API.
+                assertEquals(businessObjectDataService.generateBusinessObjectDataDdl(request).getDdl(), stringWriter.toString());
+            }
+        }
+        finally
+        {
+            // Restore the property sources so we don't affect other tests.
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    @Test
+    public void testGenerateBusinessObjectDataDdlStreamNoPartitioning()
+    {
+        // Prepare non-partitioned test business object data with custom ddl.
+        List<String> partitionValues = Arrays.asList(Hive13DdlGenerator.NO_PARTITIONING_PARTITION_VALUE);
+        businessObjectDataServiceTestHelper
+            .createDatabaseEntitiesForBusinessObjectDataDdlTesting(FileTypeEntity.TXT_FILE_TYPE, Hive13DdlGenerator.NO_PARTITIONING_PARTITION_KEY, null,
+                BusinessObjectDataEntity.FIRST_PARTITION_COLUMN_POSITION, partitionValues, NO_SUBPARTITION_VALUES, SCHEMA_DELIMITER_PIPE,
+                SCHEMA_ESCAPE_CHARACTER_BACKSLASH, SCHEMA_NULL_VALUE_BACKSLASH_N, schemaColumnDaoTestHelper.getTestSchemaColumns(), null, false,
+                CUSTOM_DDL_NAME, true, ALLOW_DUPLICATE_BUSINESS_OBJECT_DATA);
+
+        // Stream business object data ddl for a non-partitioned table.
+        BusinessObjectDataDdlRequest request =
+            businessObjectDataServiceTestHelper.getTestBusinessObjectDataDdlRequest(UNSORTED_PARTITION_VALUES, CUSTOM_DDL_NAME);
+        request.getPartitionValueFilters().get(0).setPartitionKey(Hive13DdlGenerator.NO_PARTITIONING_PARTITION_KEY);
+        request.getPartitionValueFilters().get(0).setPartitionValues(partitionValues);
+        StringWriter stringWriter = new StringWriter();
+        businessObjectDataService.generateBusinessObjectDataDdl(request, stringWriter);
+
+        // Validate the results.
+        String expectedDdl = businessObjectDataServiceTestHelper
+            .getExpectedBusinessObjectDataDdl(0, FIRST_COLUMN_NAME, FIRST_COLUMN_DATA_TYPE, ROW_FORMAT, Hive13DdlGenerator.TEXT_HIVE_FILE_FORMAT,
+                FileTypeEntity.TXT_FILE_TYPE, BusinessObjectDataEntity.FIRST_PARTITION_COLUMN_POSITION, UNSORTED_PARTITION_VALUES,
+                STORAGE_1_AVAILABLE_PARTITION_VALUES, false, true, true);
+        assertEquals(expectedDdl, stringWriter.toString());
+    }
+
     @Test
     public void testGenerateBusinessObjectDataDdlLatestBeforePartitionValueNoExists()
     {
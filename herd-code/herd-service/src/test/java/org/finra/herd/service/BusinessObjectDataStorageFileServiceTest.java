@@ -881,6 +881,29 @@ public class BusinessObjectDataStorageFileServiceTest extends AbstractServiceTes
                 Arrays.asList(new StorageFile(testS3KeyPrefix + "/" + FILE_PATH_2, FILE_SIZE_1_KB, NO_ROW_COUNT))), response);
     }
 
+    @Test
+    public void testCreateBusinessObjectDataStorageFilesAutoDiscoverySubDirectories() throws Exception
+    {
+        createData(testS3KeyPrefix, true, Arrays.asList(testS3KeyPrefix + "/" + FILE_PATH_1, testS3KeyPrefix + "/b/" + FILE_PATH_1));
+        businessObjectDataServiceTestHelper.prepareTestS3Files(testS3KeyPrefix, localTempPath,
+            Arrays.asList("c/d/" + FILE_PATH_2, FILE_PATH_1, "b/" + FILE_PATH_3, FILE_PATH_3, "b/" + FILE_PATH_1, "a/" + FILE_PATH_2),
+            Arrays.asList("a", "c/e"));
+
+        // Discover storage files located both right below the storage directory path and in its sub-directories.
+        BusinessObjectDataStorageFilesCreateResponse response = businessObjectDataStorageFileService.createBusinessObjectDataStorageFiles(
+            new BusinessObjectDataStorageFilesCreateRequest(NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, FORMAT_VERSION, PARTITION_VALUE,
+                NO_SUBPARTITION_VALUES, DATA_VERSION, StorageEntity.MANAGED_STORAGE, NO_STORAGE_FILES, DISCOVER_STORAGE_FILES));
+
+        // Validate the returned object. The discovered storage files are listed in the S3 key order and the directory markers are ignored.
+        assertEquals(
+            new BusinessObjectDataStorageFilesCreateResponse(NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, FORMAT_VERSION, PARTITION_VALUE,
+                NO_SUBPARTITION_VALUES, DATA_VERSION, StorageEntity.MANAGED_STORAGE, Arrays
+                .asList(new StorageFile(testS3KeyPrefix + "/a/" + FILE_PATH_2, FILE_SIZE_1_KB, NO_ROW_COUNT),
+                    new StorageFile(testS3KeyPrefix + "/b/" + FILE_PATH_3, FILE_SIZE_1_KB, NO_ROW_COUNT),
+                    new StorageFile(testS3KeyPrefix + "/c/d/" + FILE_PATH_2, FILE_SIZE_1_KB, NO_ROW_COUNT),
+                    new StorageFile(testS3KeyPrefix + "/" + FILE_PATH_3, FILE_SIZE_1_KB, NO_ROW_COUNT))), response);
+    }
+
     @Test
     public void testCreateBusinessObjectDataStorageFilesAutoDiscoveryStorageFilesSpecified()
     {
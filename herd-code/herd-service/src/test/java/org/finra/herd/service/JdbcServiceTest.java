@@ -15,12 +15,16 @@
 */
 package org.finra.herd.service;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
+import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import org.apache.commons.io.IOUtils;
 import org.fusesource.hawtbuf.ByteArrayInputStream;
 import org.junit.Assert;
 import org.junit.Test;
@@ -81,8 +85,10 @@ public class JdbcServiceTest extends AbstractServiceTest
         JdbcExecutionRequest jdbcExecutionRequest = jdbcServiceTestHelper.createDefaultUpdateJdbcExecutionRequest();
         // First statement already included
         // Second statement uses case 2 which throws an error
-        jdbcExecutionRequest.getStatements().add(new JdbcStatement(JdbcStatementType.UPDATE, MockJdbcOperations.CASE_2_SQL, null, null, null, null, null));
-        jdbcExecutionRequest.getStatements().add(new JdbcStatement(JdbcStatementType.UPDATE, MockJdbcOperations.CASE_1_SQL, null, null, null, null, null));
+        jdbcExecutionRequest.getStatements()
+            .add(new JdbcStatement(JdbcStatementType.UPDATE, MockJdbcOperations.CASE_2_SQL, null, null, null, null, null, null));
+        jdbcExecutionRequest.getStatements()
+            .add(new JdbcStatement(JdbcStatementType.UPDATE, MockJdbcOperations.CASE_1_SQL, null, null, null, null, null, null));
 
         // Execute
         JdbcExecutionResponse jdbcExecutionResponse = jdbcService.executeJdbc(jdbcExecutionRequest);
@@ -121,8 +127,10 @@ public class JdbcServiceTest extends AbstractServiceTest
         JdbcExecutionRequest jdbcExecutionRequest = jdbcServiceTestHelper.createDefaultUpdateJdbcExecutionRequest();
         // First statement already included
         // Second statement uses case 2 which throws an error
-        jdbcExecutionRequest.getStatements().add(new JdbcStatement(JdbcStatementType.UPDATE, MockJdbcOperations.CASE_2_SQL, true, null, null, null, null));
-        jdbcExecutionRequest.getStatements().add(new JdbcStatement(JdbcStatementType.UPDATE, MockJdbcOperations.CASE_1_SQL, false, null, null, null, null));
+        jdbcExecutionRequest.getStatements()
+            .add(new JdbcStatement(JdbcStatementType.UPDATE, MockJdbcOperations.CASE_2_SQL, true, null, null, null, null, null));
+        jdbcExecutionRequest.getStatements()
+            .add(new JdbcStatement(JdbcStatementType.UPDATE, MockJdbcOperations.CASE_1_SQL, false, null, null, null, null, null));
 
         // Execute
         JdbcExecutionResponse jdbcExecutionResponse = jdbcService.executeJdbc(jdbcExecutionRequest);
@@ -257,6 +265,89 @@ public class JdbcServiceTest extends AbstractServiceTest
         Assert.assertNull("JDBC statement result set", actualJdbcStatement.getResultSet());
     }
 
+    /**
+     * Use case where a query statement writes its result to S3. The result should be uploaded as a CSV file and the number of rows returned as the result.
+     */
+    @Test
+    public void testExecuteJdbcStatementTypeQueryResultS3LocationSuccess() throws Exception
+    {
+        String s3BucketName = "test_bucket";
+        String s3ObjectKey = "test_key";
+
+        // Get test request
+        JdbcExecutionRequest jdbcExecutionRequest = jdbcServiceTestHelper.createDefaultQueryJdbcExecutionRequest();
+        jdbcExecutionRequest.getStatements().get(0).setResultS3Location(new S3PropertiesLocation(s3BucketName, s3ObjectKey));
+
+        JdbcExecutionResponse jdbcExecutionResponse;
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.JDBC_RESULT_S3_BUCKET_NAMES.getKey(), "other_bucket|" + s3BucketName);
+        modifyPropertySourceInEnvironment(overrideMap);
+        try
+        {
+            jdbcExecutionResponse = jdbcService.executeJdbc(jdbcExecutionRequest);
+        }
+        finally
+        {
+            restorePropertySourceInEnvironment();
+        }
+
+        Assert.assertEquals("JDBC statements size", 1, jdbcExecutionResponse.getStatements().size());
+
+        JdbcStatement actualJdbcStatement = jdbcExecutionResponse.getStatements().get(0);
+        Assert.assertEquals("JDBC statement status", JdbcStatementStatus.SUCCESS, actualJdbcStatement.getStatus());
+        Assert.assertEquals("JDBC statement result", "2", actualJdbcStatement.getResult());
+        Assert.assertNull("JDBC statement result set", actualJdbcStatement.getResultSet());
+        Assert.assertEquals("JDBC statement result S3 location", new S3PropertiesLocation(s3BucketName, s3ObjectKey),
+            actualJdbcStatement.getResultS3Location());
+
+        // Validate the uploaded CSV file.
+        S3Object s3Object = s3Operations.getS3Object(new GetObjectRequest(s3BucketName, s3ObjectKey), null);
+        Assert.assertEquals("JDBC statement result S3 object content", "COL1,COL2,COL3\nA,B,C\nD,E,F\n",
+            IOUtils.toString(s3Object.getObjectContent(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parameter validation, result S3 location bucket name is not in the list of allowed bucket names.
+     */
+    @Test
+    public void testExecuteJdbcParamValidationResultS3LocationBucketNameNotAllowed()
+    {
+        JdbcExecutionRequest jdbcExecutionRequest = jdbcServiceTestHelper.createDefaultQueryJdbcExecutionRequest();
+        jdbcExecutionRequest.getStatements().get(0).setResultS3Location(new S3PropertiesLocation("test_bucket", "test_key"));
+
+        try
+        {
+            jdbcService.executeJdbc(jdbcExecutionRequest);
+            Assert.fail("expected an IllegalArgumentException, but no exception was thrown");
+        }
+        catch (Exception e)
+        {
+            Assert.assertEquals("thrown exception type", IllegalArgumentException.class, e.getClass());
+            Assert.assertEquals("thrown exception message", "JDBC statement [0] result S3 location bucket name \"test_bucket\" is not allowed", e.getMessage());
+        }
+    }
+
+    /**
+     * Parameter validation, result S3 location is only supported for query statements.
+     */
+    @Test
+    public void testExecuteJdbcParamValidationResultS3LocationUpdateStatement()
+    {
+        JdbcExecutionRequest jdbcExecutionRequest = jdbcServiceTestHelper.createDefaultUpdateJdbcExecutionRequest();
+        jdbcExecutionRequest.getStatements().get(0).setResultS3Location(new S3PropertiesLocation("test_bucket", "test_key"));
+
+        try
+        {
+            jdbcService.executeJdbc(jdbcExecutionRequest);
+            Assert.fail("expected an IllegalArgumentException, but no exception was thrown");
+        }
+        catch (Exception e)
+        {
+            Assert.assertEquals("thrown exception type", IllegalArgumentException.class, e.getClass());
+            Assert.assertEquals("thrown exception message", "JDBC statement [0] result S3 location is only supported for QUERY statements", e.getMessage());
+        }
+    }
+
     /**
      * Parameter validation, request object is null
      */
@@ -22,11 +22,15 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 
 import org.finra.herd.dao.impl.MockSqsOperationsImpl;
+import org.finra.herd.model.dto.ConfigurationValue;
 import org.finra.herd.model.jpa.JmsMessageEntity;
 
 /**
@@ -74,6 +78,101 @@ public class JmsPublishingServiceTest extends AbstractServiceTest
         assertEquals(MESSAGE_TEXT, jmsMessageEntity.getMessageText());
     }
 
+    @Test
+    public void testPublishOldestJmsMessagesFromDatabaseQueue() throws Exception
+    {
+        // Create three messages to be sent in the database.
+        jmsMessageDaoTestHelper.createJmsMessageEntity(JMS_QUEUE_NAME, MESSAGE_TEXT);
+        jmsMessageDaoTestHelper.createJmsMessageEntity(JMS_QUEUE_NAME_2, MESSAGE_TEXT);
+        jmsMessageDaoTestHelper.createJmsMessageEntity(JMS_QUEUE_NAME, MESSAGE_TEXT_2);
+        assertEquals(3, jmsPublishingService.getDatabaseQueueDepth());
+
+        // Validate that all messages get published in a single batch.
+        assertEquals(3, jmsPublishingService.publishOldestJmsMessagesFromDatabaseQueue());
+        assertEquals(0, jmsPublishingService.publishOldestJmsMessagesFromDatabaseQueue());
+        assertEquals(0, jmsPublishingService.getDatabaseQueueDepth());
+    }
+
+    @Test
+    public void testPublishOldestJmsMessagesFromDatabaseQueueBatchSize() throws Exception
+    {
+        // Create three messages to be sent in the database.
+        jmsMessageDaoTestHelper.createJmsMessageEntity(JMS_QUEUE_NAME, MESSAGE_TEXT);
+        jmsMessageDaoTestHelper.createJmsMessageEntity(JMS_QUEUE_NAME, MESSAGE_TEXT_2);
+        jmsMessageDaoTestHelper.createJmsMessageEntity(JMS_QUEUE_NAME_2, MESSAGE_TEXT);
+
+        // Override configuration to publish at most two messages per batch.
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.JMS_PUBLISHING_JOB_BATCH_SIZE.getKey(), 2);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            // Validate the results.
+            assertEquals(2, jmsPublishingService.publishOldestJmsMessagesFromDatabaseQueue());
+            assertEquals(1, jmsPublishingService.publishOldestJmsMessagesFromDatabaseQueue());
+            assertEquals(0, jmsPublishingService.publishOldestJmsMessagesFromDatabaseQueue());
+        }
+        finally
+        {
+            // Restore the property sources so we don't affect other tests.
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    @Test
+    public void testPublishOldestJmsMessagesFromDatabaseQueuePartialFailure() throws Exception
+    {
+        // Prepare database entries required for testing, where one of the messages has an invalid queue name.
+        jmsMessageDaoTestHelper.createJmsMessageEntity(MockSqsOperationsImpl.MOCK_SQS_QUEUE_NOT_FOUND_NAME, MESSAGE_TEXT);
+        jmsMessageDaoTestHelper.createJmsMessageEntity(JMS_QUEUE_NAME, MESSAGE_TEXT);
+        jmsMessageDaoTestHelper.createJmsMessageEntity(JMS_QUEUE_NAME, MESSAGE_TEXT_2);
+
+        // Validate that the messages for the valid queue got published.
+        assertEquals(2, jmsPublishingService.publishOldestJmsMessagesFromDatabaseQueue());
+
+        // Check that the failed JMS message is still in the database queue.
+        assertEquals(1, jmsPublishingService.getDatabaseQueueDepth());
+        JmsMessageEntity jmsMessageEntity = jmsMessageDao.getOldestJmsMessage();
+        assertNotNull(jmsMessageEntity);
+        assertEquals(MockSqsOperationsImpl.MOCK_SQS_QUEUE_NOT_FOUND_NAME, jmsMessageEntity.getJmsQueueName());
+    }
+
+    @Test
+    public void testPublishOldestJmsMessagesFromDatabaseQueueAwsServiceException() throws Exception
+    {
+        // Prepare database entries required for testing.
+        jmsMessageDaoTestHelper.createJmsMessageEntity(MockSqsOperationsImpl.MOCK_SQS_QUEUE_NOT_FOUND_NAME, MESSAGE_TEXT);
+
+        // Try to publish the JMS messages which should fail since the only database message has an invalid queue name.
+        try
+        {
+            jmsPublishingService.publishOldestJmsMessagesFromDatabaseQueue();
+            fail("Should throw a RuntimeException when AWS SQS queue does not exist.");
+        }
+        catch (IllegalStateException e)
+        {
+            assertEquals(String.format("AWS SQS queue with \"%s\" name not found.", MockSqsOperationsImpl.MOCK_SQS_QUEUE_NOT_FOUND_NAME), e.getMessage());
+        }
+
+        // Check that the test JMS message is still in the database queue.
+        assertEquals(1, jmsPublishingService.getDatabaseQueueDepth());
+    }
+
+    @Test
+    public void testPublishOldestJmsMessagesFromDatabaseQueueFirstMessageRejected() throws Exception
+    {
+        // Prepare database entries required for testing, where the SQS batch result fails the first message.
+        jmsMessageDaoTestHelper.createJmsMessageEntity(MockSqsOperationsImpl.MOCK_SQS_QUEUE_FIRST_MESSAGE_REJECTED_NAME, MESSAGE_TEXT);
+        jmsMessageDaoTestHelper.createJmsMessageEntity(MockSqsOperationsImpl.MOCK_SQS_QUEUE_FIRST_MESSAGE_REJECTED_NAME, MESSAGE_TEXT_2);
+
+        // Validate that no message got published.
+        assertEquals(0, jmsPublishingService.publishOldestJmsMessagesFromDatabaseQueue());
+
+        // Check that the test JMS messages are still in the database queue.
+        assertEquals(2, jmsPublishingService.getDatabaseQueueDepth());
+    }
+
     /**
      * This method is to get coverage for the JMS publishing service methods that have explicit transaction propagation annotation.
      */
@@ -91,5 +190,9 @@ public class JmsPublishingServiceTest extends AbstractServiceTest
 
         // Publish the JMS message from the database queue.
         assertTrue(jmsPublishingServiceImpl.publishOldestJmsMessageFromDatabaseQueue());
+
+        // Add a JMS message to the database queue and publish it as part of a batch.
+        jmsPublishingServiceImpl.addJmsMessageToDatabaseQueue(SQS_QUEUE_NAME, MESSAGE_TEXT);
+        assertEquals(1, jmsPublishingServiceImpl.publishOldestJmsMessagesFromDatabaseQueue());
     }
 }
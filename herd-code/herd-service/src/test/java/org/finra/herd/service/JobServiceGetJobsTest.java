@@ -17,6 +17,7 @@ import static org.mockito.MockitoAnnotations.initMocks;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
@@ -280,7 +281,8 @@ public class JobServiceGetJobsTest extends AbstractServiceTest
         historicProcessInstances.add(historicProcessInstanceEntity1);
         when(activitiService.getHistoricProcessInstancesByStatusAndProcessDefinitionKeys(any(), any(), any(), any())).thenReturn(historicProcessInstances);
 
-        when(activitiService.getJobsWithExceptionCountByProcessInstanceId(any())).thenReturn(expectedNumberOfExceptions);
+        when(activitiService.getJobsWithExceptionCountByProcessInstanceIds(any()))
+            .thenReturn(Collections.singletonMap(historicProcessInstanceEntity1.getId(), expectedNumberOfExceptions));
 
         JobSummaries getJobsResult = jobServiceImpl.getJobs(namespace, jobName, jobStatus, NO_START_TIME, NO_END_TIME);
 
@@ -295,11 +297,85 @@ public class JobServiceGetJobsTest extends AbstractServiceTest
         assertNull(jobSummary.getEndTime());
         assertEquals(expectedNumberOfExceptions, jobSummary.getTotalExceptions());
 
-        verify(activitiService).getJobsWithExceptionCountByProcessInstanceId(historicProcessInstanceEntity1.getId());
+        verify(activitiService).getSuspendedProcessInstancesByProcessInstanceIds(new HashSet<>(asList(historicProcessInstanceEntity1.getId())));
+        verify(activitiService).getJobsWithExceptionCountByProcessInstanceIds(new HashSet<>(asList(historicProcessInstanceEntity1.getId())));
+        verify(activitiService, times(0)).getJobsWithExceptionCountByProcessInstanceId(any());
         verify(activitiService).getHistoricProcessInstancesCountByStatusAndProcessDefinitionKeys(eq(JobStatusEnum.RUNNING), any(), any(), any());
         verify(activitiService).getHistoricProcessInstancesByStatusAndProcessDefinitionKeys(eq(JobStatusEnum.RUNNING), any(), any(), any());
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testGetJobsWithPageSizeAssertReturnPageAndNextPageToken() throws Exception
+    {
+        String namespace = "namespace";
+        String jobName = "jobName";
+        JobStatusEnum jobStatus = JobStatusEnum.RUNNING;
+
+        Set<String> authorizedNamespaces = new HashSet<>(Arrays.asList(namespace));
+        when(namespaceSecurityHelper.getAuthorizedNamespaces(any())).thenReturn(authorizedNamespaces);
+
+        NamespaceEntity namespaceEntity = new NamespaceEntity();
+        namespaceEntity.setCode(namespace);
+        when(namespaceDao.getNamespaceByCd(any())).thenReturn(namespaceEntity);
+
+        List<JobDefinitionEntity> jobDefinitionEntities = new ArrayList<>();
+        JobDefinitionEntity jobDefinitionEntity1 = new JobDefinitionEntity();
+        jobDefinitionEntity1.setActivitiId(namespace + "." + jobName + ":1" + ":1");
+        jobDefinitionEntities.add(jobDefinitionEntity1);
+        when(jobDefinitionDao.getJobDefinitionsByFilter(any(Collection.class), any())).thenReturn(jobDefinitionEntities);
+
+        ProcessDefinition processDefinition = mock(ProcessDefinition.class);
+        when(processDefinition.getId()).thenReturn("a.b:1:1");
+        when(processDefinition.getKey()).thenReturn("a.b");
+        when(activitiService.getProcessDefinitionsByIds(any())).thenReturn(asList(processDefinition));
+
+        // Return one process instance more than the page size to signal that there is a next page.
+        List<HistoricProcessInstance> historicProcessInstances = new ArrayList<>();
+        HistoricProcessInstanceEntity historicProcessInstanceEntity1 = new HistoricProcessInstanceEntity();
+        historicProcessInstanceEntity1.setId("historicProcessInstanceEntity1.id");
+        historicProcessInstanceEntity1.setProcessDefinitionId("a.b:1:1");
+        historicProcessInstanceEntity1.setStartTime(new Date(1234));
+        historicProcessInstances.add(historicProcessInstanceEntity1);
+        HistoricProcessInstanceEntity historicProcessInstanceEntity2 = new HistoricProcessInstanceEntity();
+        historicProcessInstanceEntity2.setId("historicProcessInstanceEntity2.id");
+        historicProcessInstanceEntity2.setProcessDefinitionId("a.b:1:1");
+        historicProcessInstanceEntity2.setStartTime(new Date(1234));
+        historicProcessInstances.add(historicProcessInstanceEntity2);
+        when(activitiService
+            .getHistoricProcessInstancesByStatusAndProcessDefinitionKeys(any(), any(), any(), any(), eq(new Date(5678)), eq("previousPageLastId"), eq(2)))
+            .thenReturn(historicProcessInstances);
+
+        JobSummaries getJobsResult = jobServiceImpl.getJobs(namespace, jobName, jobStatus, NO_START_TIME, NO_END_TIME, "5678:previousPageLastId", 1);
+
+        List<JobSummary> jobSummaries = getJobsResult.getJobSummaries();
+        assertEquals(1, jobSummaries.size());
+        assertEquals(historicProcessInstanceEntity1.getId(), jobSummaries.get(0).getId());
+        assertEquals(JobStatusEnum.RUNNING, jobSummaries.get(0).getStatus());
+        assertEquals(0, jobSummaries.get(0).getTotalExceptions());
+        assertEquals("1234:historicProcessInstanceEntity1.id", getJobsResult.getNextPageToken());
+
+        // The runtime state is only selected for the process instances on the page, and the total count is not queried.
+        verify(activitiService).getSuspendedProcessInstancesByProcessInstanceIds(new HashSet<>(asList(historicProcessInstanceEntity1.getId())));
+        verify(activitiService).getJobsWithExceptionCountByProcessInstanceIds(new HashSet<>(asList(historicProcessInstanceEntity1.getId())));
+        verify(activitiService, times(0)).getHistoricProcessInstancesCountByStatusAndProcessDefinitionKeys(any(), any(), any(), any());
+        verify(activitiService, times(0)).getSuspendedProcessInstances();
+    }
+
+    @Test
+    public void testGetJobsWhenPageSizeTooLargeAssertThrowException() throws Exception
+    {
+        try
+        {
+            jobServiceImpl.getJobs("namespace", "jobName", JobStatusEnum.COMPLETED, NO_START_TIME, NO_END_TIME, null, 2);
+            fail();
+        }
+        catch (IllegalArgumentException e)
+        {
+            assertEquals("The page size must be between 1 and 1, but 2 was specified.", e.getMessage());
+        }
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     public void testGetJobsWhenActivitiIdIsNotExpectedFormatAssertSuccess() throws Exception
@@ -61,6 +61,7 @@ import org.finra.herd.model.api.xml.NamespacePermissionEnum;
 import org.finra.herd.model.api.xml.Parameter;
 import org.finra.herd.model.api.xml.S3PropertiesLocation;
 import org.finra.herd.model.dto.ApplicationUser;
+import org.finra.herd.model.dto.ConfigurationValue;
 import org.finra.herd.model.dto.SecurityUserWrapper;
 import org.finra.herd.model.jpa.JobDefinitionEntity;
 
@@ -484,6 +485,79 @@ public class JobServiceTest extends AbstractServiceTest
         validateJobSummaries(expectedJobStatuses, resultJobSummaries);
     }
 
+    @Test
+    public void testGetJobsPaged() throws Exception
+    {
+        // Create and persist a job definition.
+        jobDefinitionServiceTestHelper.createJobDefinition(ACTIVITI_XML_TEST_USER_TASK_WITH_CLASSPATH);
+
+        // Create and start three Activiti jobs and suspend one of them.
+        List<Job> jobs = Arrays
+            .asList(jobService.createAndStartJob(jobServiceTestHelper.createJobCreateRequest(TEST_ACTIVITI_NAMESPACE_CD, TEST_ACTIVITI_JOB_NAME)),
+                jobService.createAndStartJob(jobServiceTestHelper.createJobCreateRequest(TEST_ACTIVITI_NAMESPACE_CD, TEST_ACTIVITI_JOB_NAME)),
+                jobService.createAndStartJob(jobServiceTestHelper.createJobCreateRequest(TEST_ACTIVITI_NAMESPACE_CD, TEST_ACTIVITI_JOB_NAME)));
+        activitiRuntimeService.suspendProcessInstanceById(jobs.get(1).getId());
+
+        // Allow READ access for the current user to the job definition namespace.
+        jobServiceTestHelper.setCurrentUserNamespaceAuthorizations(TEST_ACTIVITI_NAMESPACE_CD, Arrays.asList(NamespacePermissionEnum.READ));
+
+        // Get the first page of jobs.
+        JobSummaries firstPage =
+            jobService.getJobs(TEST_ACTIVITI_NAMESPACE_CD, TEST_ACTIVITI_JOB_NAME, NO_ACTIVITI_JOB_STATUS, NO_START_TIME, NO_END_TIME, null, 2);
+        assertEquals(2, firstPage.getJobSummaries().size());
+        assertNotNull(firstPage.getNextPageToken());
+
+        // Get the last page of jobs.
+        JobSummaries lastPage = jobService
+            .getJobs(TEST_ACTIVITI_NAMESPACE_CD, TEST_ACTIVITI_JOB_NAME, NO_ACTIVITI_JOB_STATUS, NO_START_TIME, NO_END_TIME, firstPage.getNextPageToken(), 2);
+        assertEquals(1, lastPage.getJobSummaries().size());
+        assertNull(lastPage.getNextPageToken());
+
+        // Validate that the pages together contain all the jobs along with their statuses.
+        JobSummaries allJobSummaries = new JobSummaries();
+        allJobSummaries.getJobSummaries().addAll(firstPage.getJobSummaries());
+        allJobSummaries.getJobSummaries().addAll(lastPage.getJobSummaries());
+        Map<String, JobStatusEnum> expectedJobStatuses = new HashMap<String, JobStatusEnum>()
+        {{
+                put(jobs.get(0).getId(), JobStatusEnum.RUNNING);
+                put(jobs.get(1).getId(), JobStatusEnum.SUSPENDED);
+                put(jobs.get(2).getId(), JobStatusEnum.RUNNING);
+            }};
+        validateJobSummaries(expectedJobStatuses, allJobSummaries);
+        for (JobSummary jobSummary : allJobSummaries.getJobSummaries())
+        {
+            assertEquals(0, jobSummary.getTotalExceptions());
+        }
+    }
+
+    @Test
+    public void testGetJobsPagedInvalidParameters() throws Exception
+    {
+        // Try to get jobs using a page token that is not a number.
+        try
+        {
+            jobService.getJobs(NO_NAMESPACE, NO_ACTIVITI_JOB_NAME, NO_ACTIVITI_JOB_STATUS, NO_START_TIME, NO_END_TIME, "I_AM_NOT_A_PAGE_TOKEN", null);
+            fail();
+        }
+        catch (IllegalArgumentException e)
+        {
+            assertEquals("Invalid page token \"I_AM_NOT_A_PAGE_TOKEN\".", e.getMessage());
+        }
+
+        // Try to get jobs using a page size that is larger than the maximum number of results allowed.
+        int jobsMaxQueryResults = configurationHelper.getProperty(ConfigurationValue.JOBS_QUERY_MAX_RESULTS, Integer.class);
+        try
+        {
+            jobService.getJobs(NO_NAMESPACE, NO_ACTIVITI_JOB_NAME, NO_ACTIVITI_JOB_STATUS, NO_START_TIME, NO_END_TIME, null, jobsMaxQueryResults + 1);
+            fail();
+        }
+        catch (IllegalArgumentException e)
+        {
+            assertEquals(String.format("The page size must be between 1 and %d, but %d was specified.", jobsMaxQueryResults, jobsMaxQueryResults + 1),
+                e.getMessage());
+        }
+    }
+
     @Test
     public void testGetJobsInvalidParameters() throws Exception
     {
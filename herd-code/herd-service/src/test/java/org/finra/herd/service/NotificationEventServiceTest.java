@@ -16,6 +16,7 @@
 package org.finra.herd.service;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -25,6 +26,7 @@ import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
 import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.util.CollectionUtils;
 
 import org.finra.herd.core.helper.LogLevel;
@@ -38,10 +40,12 @@ import org.finra.herd.model.jpa.BusinessObjectDataEntity;
 import org.finra.herd.model.jpa.BusinessObjectDataStatusEntity;
 import org.finra.herd.model.jpa.BusinessObjectFormatEntity;
 import org.finra.herd.model.jpa.NotificationEventTypeEntity;
+import org.finra.herd.model.jpa.NotificationRegistrationChangeListener;
 import org.finra.herd.model.jpa.NotificationRegistrationStatusEntity;
 import org.finra.herd.model.jpa.StorageEntity;
 import org.finra.herd.model.jpa.StoragePlatformEntity;
 import org.finra.herd.model.jpa.StorageUnitStatusEntity;
+import org.finra.herd.service.helper.NotificationRegistrationMatchingIndex;
 import org.finra.herd.service.impl.BusinessObjectDataNotificationJobActionServiceImpl;
 import org.finra.herd.service.impl.StorageUnitStatusChangeNotificationJobActionServiceImpl;
 
@@ -50,6 +54,9 @@ import org.finra.herd.service.impl.StorageUnitStatusChangeNotificationJobActionS
  */
 public class NotificationEventServiceTest extends AbstractServiceTest
 {
+    @Autowired
+    private NotificationRegistrationMatchingIndex notificationRegistrationMatchingIndex;
+
     @Test
     public void testProcessBusinessObjectDataRegistrationNotificationEventSync() throws Exception
     {
@@ -338,6 +345,80 @@ public class NotificationEventServiceTest extends AbstractServiceTest
         assertTrue(CollectionUtils.isEmpty(notificationActions));
     }
 
+    @Test
+    public void testProcessBusinessObjectDataNotificationEventSyncNoMatchingRegistrationThenRegistrationCreated() throws Exception
+    {
+        // Trigger the notification for a business object data that does not exist. Since no registration matches the event, the event
+        // is skipped without retrieving the business object data.
+        List<Object> notificationActions = notificationEventService
+            .processBusinessObjectDataNotificationEventSync(NotificationEventTypeEntity.EventTypesBdata.BUS_OBJCT_DATA_STTS_CHG,
+                new BusinessObjectDataKey(BDEF_NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, FORMAT_VERSION, PARTITION_VALUE,
+                    SUBPARTITION_VALUES, DATA_VERSION), BusinessObjectDataStatusEntity.VALID, BusinessObjectDataStatusEntity.UPLOADING);
+        assertTrue(CollectionUtils.isEmpty(notificationActions));
+
+        // Create a matching registration and validate that the event now triggers it.
+        runProcessBusinessObjectDataStatusChangeNotificationEventSyncTest();
+    }
+
+    @Test
+    public void testProcessStorageUnitNotificationEventSyncNoMatchingRegistration() throws Exception
+    {
+        // Create and persist a storage unit notification registration entity for another storage.
+        notificationRegistrationDaoTestHelper.createStorageUnitNotificationRegistrationEntity(new NotificationRegistrationKey(NAMESPACE, NOTIFICATION_NAME),
+            NotificationEventTypeEntity.EventTypesStorageUnit.STRGE_UNIT_STTS_CHG.name(), BDEF_NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE,
+            FORMAT_VERSION, STORAGE_NAME_2, StorageUnitStatusEntity.ENABLED, StorageUnitStatusEntity.DISABLED, new ArrayList<>(),
+            NotificationRegistrationStatusEntity.ENABLED);
+
+        // Trigger the notification for a business object data that does not exist. Since no registration matches the event, the event
+        // is skipped without retrieving the business object data.
+        List<Object> notificationActions = notificationEventService
+            .processStorageUnitNotificationEventSync(NotificationEventTypeEntity.EventTypesStorageUnit.STRGE_UNIT_STTS_CHG,
+                new BusinessObjectDataKey(BDEF_NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, FORMAT_VERSION, PARTITION_VALUE,
+                    SUBPARTITION_VALUES, DATA_VERSION), STORAGE_NAME, StorageUnitStatusEntity.ENABLED, StorageUnitStatusEntity.DISABLED);
+        assertTrue(CollectionUtils.isEmpty(notificationActions));
+    }
+
+    @Test
+    public void testHasStorageUnitNotificationRegistrationsRegistrationChangedByAnotherNode()
+    {
+        BusinessObjectDataKey businessObjectDataKey =
+            new BusinessObjectDataKey(BDEF_NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, FORMAT_VERSION, PARTITION_VALUE,
+                SUBPARTITION_VALUES, DATA_VERSION);
+
+        // Load the index while no registration matches the event.
+        assertFalse(notificationRegistrationMatchingIndex
+            .hasStorageUnitNotificationRegistrations(NotificationEventTypeEntity.EventTypesStorageUnit.STRGE_UNIT_STTS_CHG.name(), businessObjectDataKey,
+                STORAGE_NAME, StorageUnitStatusEntity.ENABLED, StorageUnitStatusEntity.DISABLED));
+
+        // Create a matching registration the way another node does, without reporting the change to the local listener.
+        NotificationRegistrationChangeListener.setChangeHandler(null);
+        try
+        {
+            notificationRegistrationDaoTestHelper.createStorageUnitNotificationRegistrationEntity(new NotificationRegistrationKey(NAMESPACE, NOTIFICATION_NAME),
+                NotificationEventTypeEntity.EventTypesStorageUnit.STRGE_UNIT_STTS_CHG.name(), BDEF_NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE,
+                FORMAT_FILE_TYPE_CODE, FORMAT_VERSION, STORAGE_NAME, StorageUnitStatusEntity.ENABLED, StorageUnitStatusEntity.DISABLED, new ArrayList<>(),
+                NotificationRegistrationStatusEntity.ENABLED);
+
+            // Validate that the index does not know about the registration yet.
+            assertFalse(notificationRegistrationMatchingIndex
+                .hasStorageUnitNotificationRegistrations(NotificationEventTypeEntity.EventTypesStorageUnit.STRGE_UNIT_STTS_CHG.name(), businessObjectDataKey,
+                    STORAGE_NAME, StorageUnitStatusEntity.ENABLED, StorageUnitStatusEntity.DISABLED));
+
+            // Increment the notification registrations generation number, as the other node does along with the registration change.
+            notificationRegistrationMatchingIndex.incrementGenerationNumber();
+
+            // Validate that the index is reloaded and the registration now matches the event.
+            assertTrue(notificationRegistrationMatchingIndex
+                .hasStorageUnitNotificationRegistrations(NotificationEventTypeEntity.EventTypesStorageUnit.STRGE_UNIT_STTS_CHG.name(), businessObjectDataKey,
+                    STORAGE_NAME, StorageUnitStatusEntity.ENABLED, StorageUnitStatusEntity.DISABLED));
+        }
+        finally
+        {
+            // Restore the local listener.
+            notificationRegistrationMatchingIndex.afterPropertiesSet();
+        }
+    }
+
     @Test
     public void testProcessBusinessObjectDataStatusChangeNotificationEventSync() throws Exception
     {
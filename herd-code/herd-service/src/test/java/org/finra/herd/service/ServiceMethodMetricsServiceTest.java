@@ -0,0 +1,64 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import org.finra.herd.model.api.xml.ServiceMethodMetric;
+import org.finra.herd.model.api.xml.ServiceMethodMetrics;
+import org.finra.herd.service.impl.StoragePlatformServiceImpl;
+
+/**
+ * This class tests functionality within the service method metrics service.
+ */
+public class ServiceMethodMetricsServiceTest extends AbstractServiceTest
+{
+    @Test
+    public void testGetServiceMethodMetrics()
+    {
+        String javaMethod = StoragePlatformServiceImpl.class.getName() + ".getStoragePlatforms";
+        long callCount = getServiceMethodMetric(serviceMethodMetricsService.getServiceMethodMetrics(), javaMethod).getCallCount();
+
+        // Call a service method through its proxy, so the call is recorded by the stop watch advice.
+        storagePlatformService.getStoragePlatforms();
+
+        ServiceMethodMetric serviceMethodMetric = getServiceMethodMetric(serviceMethodMetricsService.getServiceMethodMetrics(), javaMethod);
+        assertEquals(callCount + 1, serviceMethodMetric.getCallCount());
+        assertEquals(0, serviceMethodMetric.getErrorCount());
+        assertEquals(0, serviceMethodMetric.getInFlightCount());
+        assertTrue(serviceMethodMetric.getMedianDurationMicroseconds() <= serviceMethodMetric.getPercentile99DurationMicroseconds());
+        assertTrue(serviceMethodMetric.getPercentile99DurationMicroseconds() <= serviceMethodMetric.getMaxDurationMicroseconds());
+    }
+
+    private ServiceMethodMetric getServiceMethodMetric(ServiceMethodMetrics serviceMethodMetrics, String javaMethod)
+    {
+        for (ServiceMethodMetric serviceMethodMetric : serviceMethodMetrics.getServiceMethodMetrics())
+        {
+            if (serviceMethodMetric.getJavaMethod().equals(javaMethod))
+            {
+                return serviceMethodMetric;
+            }
+        }
+
+        // Return empty metrics when the method was not called yet.
+        ServiceMethodMetric serviceMethodMetric = new ServiceMethodMetric();
+        serviceMethodMetric.setJavaMethod(javaMethod);
+        return serviceMethodMetric;
+    }
+}
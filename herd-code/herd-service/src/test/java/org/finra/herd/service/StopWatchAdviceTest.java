@@ -15,6 +15,9 @@
 */
 package org.finra.herd.service;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
 import java.lang.reflect.Method;
 
 import org.aspectj.lang.Signature;
@@ -25,12 +28,18 @@ import org.finra.herd.core.MockMethodSignature;
 import org.finra.herd.core.MockProceedingJoinPoint;
 import org.finra.herd.core.SuppressLogging;
 import org.finra.herd.service.advice.StopWatchAdvice;
+import org.finra.herd.service.helper.ServiceMethodMetricsRegistry;
 
 /**
  * This class tests functionality within the stop watch advice.
  */
 public class StopWatchAdviceTest extends AbstractServiceTest
 {
+    private static final String ERROR_MESSAGE = "UT_StopWatchAdviceTest_Error";
+
+    @Autowired
+    private ServiceMethodMetricsRegistry serviceMethodMetricsRegistry;
+
     @Autowired
     private StopWatchAdvice stopWatchAdvice;
 
@@ -41,6 +50,33 @@ public class StopWatchAdviceTest extends AbstractServiceTest
         stopWatchAdvice.logMethodTime(new MockProceedingJoinPoint());
     }
 
+    @Test
+    public void testLogMethodTimeRecordsMetrics() throws Throwable
+    {
+        ServiceMethodMetricsRegistry.MethodMetrics methodMetrics =
+            serviceMethodMetricsRegistry.getMethodMetrics(MockProceedingJoinPoint.class.getName() + ".getMethod");
+        long callCount = methodMetrics.getCallCount();
+        long errorCount = methodMetrics.getErrorCount();
+
+        // Validate that both the returned and the failed calls are recorded.
+        stopWatchAdvice.logMethodTime(new MockProceedingJoinPoint());
+        try
+        {
+            stopWatchAdvice.logMethodTime(new MockProceedingJoinPointException());
+            fail();
+        }
+        catch (IllegalStateException e)
+        {
+            assertEquals(ERROR_MESSAGE, e.getMessage());
+        }
+
+        methodMetrics = serviceMethodMetricsRegistry.getMethodMetrics(MockProceedingJoinPointException.class.getName() + ".getMethod");
+        assertEquals(1, methodMetrics.getCallCount());
+        assertEquals(1, methodMetrics.getErrorCount());
+        assertEquals(callCount + 1, serviceMethodMetricsRegistry.getMethodMetrics(MockProceedingJoinPoint.class.getName() + ".getMethod").getCallCount());
+        assertEquals(errorCount, serviceMethodMetricsRegistry.getMethodMetrics(MockProceedingJoinPoint.class.getName() + ".getMethod").getErrorCount());
+    }
+
     @Test
     public void testLogMethodTimeClassSuppressLogging() throws Throwable
     {
@@ -55,6 +91,18 @@ public class StopWatchAdviceTest extends AbstractServiceTest
         stopWatchAdvice.logMethodTime(new MockProceedingJoinPointMethodSuppressLogging());
     }
 
+    /**
+     * This is a mock proceeding join point that throws an exception when it proceeds.
+     */
+    public class MockProceedingJoinPointException extends MockProceedingJoinPoint
+    {
+        @Override
+        public Object proceed() throws Throwable
+        {
+            throw new IllegalStateException(ERROR_MESSAGE);
+        }
+    }
+
     /**
      * This is a mock proceeding join point that has the suppress logging annotation present.
      */
@@ -18,7 +18,15 @@ package org.finra.herd.service;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -27,17 +35,21 @@ import org.fusesource.hawtbuf.ByteArrayInputStream;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import org.finra.herd.model.api.xml.BusinessObjectDataKey;
 import org.finra.herd.model.api.xml.StorageFile;
 import org.finra.herd.model.api.xml.StoragePolicyKey;
 import org.finra.herd.model.dto.S3FileTransferRequestParamsDto;
 import org.finra.herd.model.dto.StoragePolicySelection;
+import org.finra.herd.model.dto.StoragePolicyTransitionParamsDto;
 import org.finra.herd.model.jpa.BusinessObjectDataStatusEntity;
 import org.finra.herd.model.jpa.StoragePolicyStatusEntity;
 import org.finra.herd.model.jpa.StorageUnitEntity;
 import org.finra.herd.model.jpa.StorageUnitStatusEntity;
 import org.finra.herd.service.helper.StorageFileHelper;
+import org.finra.herd.service.helper.StoragePolicyProcessorWorkerPool;
+import org.finra.herd.service.impl.StoragePolicyProcessorServiceImpl;
 
 /**
  * This class tests various functionality within the storage policy processor service.
@@ -47,6 +59,9 @@ public class StoragePolicyProcessorServiceTest extends AbstractServiceTest
     @Autowired
     private StorageFileHelper storageFileHelper;
 
+    @Autowired
+    private StoragePolicyProcessorWorkerPool storagePolicyProcessorWorkerPool;
+
     @Autowired
     @Qualifier(value = "storagePolicyProcessorServiceImpl")
     private StoragePolicyProcessorService storagePolicyProcessorServiceImpl;
@@ -84,7 +99,7 @@ public class StoragePolicyProcessorServiceTest extends AbstractServiceTest
         // Add storage files to the source storage unit.
         for (String filePath : LOCAL_FILES)
         {
-            storageFileDaoTestHelper.createStorageFileEntity(sourceStorageUnitEntity, s3KeyPrefix + "/" + filePath, FILE_SIZE_1_KB, ROW_COUNT_1000);
+            storageFileDaoTestHelper.createStorageFileEntity(sourceStorageUnitEntity, s3KeyPrefix + "/" + filePath, FILE_SIZE_1_KB, ROW_COUNT);
         }
 
         // Get the source storage files.
@@ -157,4 +172,96 @@ public class StoragePolicyProcessorServiceTest extends AbstractServiceTest
             assertEquals("A storage policy selection must be specified.", e.getMessage());
         }
     }
+
+    @Test
+    public void testProcessStoragePolicySelectionMessageWorkerPool()
+    {
+        // Create a storage policy processor service that runs the storage policy transition stages on the worker pool.
+        StoragePolicyProcessorHelperService mockStoragePolicyProcessorHelperService = mock(StoragePolicyProcessorHelperService.class);
+        StoragePolicyProcessorServiceImpl storagePolicyProcessorService =
+            createWorkerPoolStoragePolicyProcessorService(mockStoragePolicyProcessorHelperService);
+
+        // Record the threads the transfer and finalize stages run on.
+        List<String> stageThreadNames = new ArrayList<>();
+        doAnswer(invocation -> stageThreadNames.add(Thread.currentThread().getName())).when(mockStoragePolicyProcessorHelperService)
+            .executeStoragePolicyTransition(any(StoragePolicyTransitionParamsDto.class));
+        doAnswer(invocation -> stageThreadNames.add(Thread.currentThread().getName())).when(mockStoragePolicyProcessorHelperService)
+            .completeStoragePolicyTransition(any(StoragePolicyTransitionParamsDto.class));
+
+        // Process a storage policy selection message.
+        storagePolicyProcessorService.processStoragePolicySelectionMessage(createStoragePolicySelection());
+
+        // Validate that both stages ran on the worker pool threads and the storage policy transition was finalized before the message processing returned.
+        assertEquals(2, stageThreadNames.size());
+        assertTrue(stageThreadNames.get(0).startsWith("storagePolicyProcessor-" + StoragePolicyProcessorWorkerPool.TRANSFER_STAGE_NAME + "-"));
+        assertTrue(stageThreadNames.get(1).startsWith("storagePolicyProcessor-" + StoragePolicyProcessorWorkerPool.FINALIZE_STAGE_NAME + "-"));
+        verify(mockStoragePolicyProcessorHelperService).executeStoragePolicyTransitionAfterStep(any(StoragePolicyTransitionParamsDto.class));
+    }
+
+    @Test
+    public void testProcessStoragePolicySelectionMessageWorkerPoolTransferFailure() throws Exception
+    {
+        // Create a storage policy processor service that runs the storage policy transition stages on the worker pool.
+        StoragePolicyProcessorHelperService mockStoragePolicyProcessorHelperService = mock(StoragePolicyProcessorHelperService.class);
+        StoragePolicyProcessorServiceImpl storagePolicyProcessorService =
+            createWorkerPoolStoragePolicyProcessorService(mockStoragePolicyProcessorHelperService);
+
+        // Fail the S3 data transfer.
+        doThrow(new IllegalStateException(MESSAGE_TEXT)).when(mockStoragePolicyProcessorHelperService)
+            .executeStoragePolicyTransition(any(StoragePolicyTransitionParamsDto.class));
+
+        // Validate that the message processing fails with the transfer failure and the storage policy transition is not finalized.
+        executeWithoutLogging(StoragePolicyProcessorWorkerPool.class, () -> {
+            try
+            {
+                storagePolicyProcessorService.processStoragePolicySelectionMessage(createStoragePolicySelection());
+                fail("Should throw an IllegalStateException.");
+            }
+            catch (IllegalStateException e)
+            {
+                assertEquals(MESSAGE_TEXT, e.getMessage());
+            }
+        });
+        verify(mockStoragePolicyProcessorHelperService, never()).completeStoragePolicyTransition(any(StoragePolicyTransitionParamsDto.class));
+    }
+
+    /**
+     * Creates a storage policy selection for the worker pool tests.
+     *
+     * @return the storage policy selection
+     */
+    private StoragePolicySelection createStoragePolicySelection()
+    {
+        return new StoragePolicySelection(
+            new BusinessObjectDataKey(BDEF_NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, FORMAT_VERSION, PARTITION_VALUE,
+                NO_SUBPARTITION_VALUES, DATA_VERSION), new StoragePolicyKey(STORAGE_POLICY_NAMESPACE_CD, STORAGE_POLICY_NAME), INITIAL_VERSION);
+    }
+
+    /**
+     * Creates a storage policy processor service that runs the storage policy transition stages on the worker pool, instead of the test implementation that
+     * runs them in the test transaction. The storage policy processor helper service initiates a small storage policy transition.
+     *
+     * @param mockStoragePolicyProcessorHelperService the mock storage policy processor helper service
+     *
+     * @return the storage policy processor service
+     */
+    private StoragePolicyProcessorServiceImpl createWorkerPoolStoragePolicyProcessorService(
+        StoragePolicyProcessorHelperService mockStoragePolicyProcessorHelperService)
+    {
+        StoragePolicyTransitionParamsDto storagePolicyTransitionParamsDto = new StoragePolicyTransitionParamsDto();
+        storagePolicyTransitionParamsDto.setBusinessObjectDataKey(createStoragePolicySelection().getBusinessObjectDataKey());
+        storagePolicyTransitionParamsDto.setSourceStorageName(STORAGE_NAME);
+        storagePolicyTransitionParamsDto.setDestinationStorageName(STORAGE_NAME_2);
+        storagePolicyTransitionParamsDto.setSourceStorageFiles(Arrays.asList(new StorageFile(TARGET_S3_KEY, FILE_SIZE_1_KB, ROW_COUNT)));
+        when(mockStoragePolicyProcessorHelperService.initiateStoragePolicyTransition(any(StoragePolicySelection.class)))
+            .thenReturn(storagePolicyTransitionParamsDto);
+
+        StoragePolicyProcessorServiceImpl storagePolicyProcessorService = new StoragePolicyProcessorServiceImpl();
+        ReflectionTestUtils.setField(storagePolicyProcessorService, "businessObjectDataHelper", businessObjectDataHelper);
+        ReflectionTestUtils.setField(storagePolicyProcessorService, "notificationEventService", mock(NotificationEventService.class));
+        ReflectionTestUtils.setField(storagePolicyProcessorService, "storagePolicyProcessorHelperService", mockStoragePolicyProcessorHelperService);
+        ReflectionTestUtils.setField(storagePolicyProcessorService, "storagePolicyProcessorWorkerPool", storagePolicyProcessorWorkerPool);
+
+        return storagePolicyProcessorService;
+    }
 }
@@ -262,4 +262,46 @@ public class StoragePolicySelectorServiceTest extends AbstractServiceTest
             new BusinessObjectDataKey(BDEF_NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, FORMAT_VERSION, PARTITION_VALUE_2,
                 SUBPARTITION_VALUES, DATA_VERSION), storagePolicyKey, INITIAL_VERSION)), resultStoragePolicySelections);
     }
+
+    @Test
+    public void testExecuteResumesAfterLastSelectedBusinessObjectData()
+    {
+        // Create a storage policy key.
+        StoragePolicyKey storagePolicyKey = new StoragePolicyKey(STORAGE_POLICY_NAMESPACE_CD, STORAGE_POLICY_NAME);
+
+        // Create and persist a storage policy entity.
+        storagePolicyDaoTestHelper
+            .createStoragePolicyEntity(storagePolicyKey, StoragePolicyRuleTypeEntity.DAYS_SINCE_BDATA_REGISTERED, BDATA_AGE_IN_DAYS, BDEF_NAMESPACE, BDEF_NAME,
+                FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, STORAGE_NAME, STORAGE_NAME_2, StoragePolicyStatusEntity.ENABLED, INITIAL_VERSION,
+                LATEST_VERSION_FLAG_SET);
+
+        // Create and persist two storage units in the storage policy filter storage, where the second business object data is older than the first.
+        List<String> partitionValues = Arrays.asList(PARTITION_VALUE, PARTITION_VALUE_2);
+        for (int i = 0; i < partitionValues.size(); i++)
+        {
+            StorageUnitEntity storageUnitEntity = storageUnitDaoTestHelper
+                .createStorageUnitEntity(STORAGE_NAME, BDEF_NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, FORMAT_VERSION,
+                    partitionValues.get(i), SUBPARTITION_VALUES, DATA_VERSION, LATEST_VERSION_FLAG_SET, BusinessObjectDataStatusEntity.VALID,
+                    StorageUnitStatusEntity.ENABLED, NO_STORAGE_DIRECTORY_PATH);
+            businessObjectDataDaoTestHelper.ageBusinessObjectData(storageUnitEntity.getBusinessObjectData(), BDATA_AGE_IN_DAYS + 1 + i);
+        }
+
+        // Execute the storage policy selection with max result limit set to 1 several times. Each execution is expected to resume after the business object
+        // data selected by the previous one, wrapping around to the oldest business object data once all of them are selected.
+        for (String expectedPartitionValue : Arrays.asList(PARTITION_VALUE_2, PARTITION_VALUE, PARTITION_VALUE_2))
+        {
+            assertEquals(Arrays.asList(new StoragePolicySelection(
+                new BusinessObjectDataKey(BDEF_NAMESPACE, BDEF_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, FORMAT_VERSION, expectedPartitionValue,
+                    SUBPARTITION_VALUES, DATA_VERSION), storagePolicyKey, INITIAL_VERSION)), storagePolicySelectorService.execute(SQS_QUEUE_NAME, 1));
+        }
+
+        // Execute the storage policy selection without the max result limit. Only the business object data that was not selected by the previous execution
+        // is expected to be selected, since this completes a full pass.
+        List<StoragePolicySelection> resultStoragePolicySelections = storagePolicySelectorService.execute(SQS_QUEUE_NAME, MAX_RESULT);
+        assertEquals(1, resultStoragePolicySelections.size());
+        assertEquals(PARTITION_VALUE, resultStoragePolicySelections.get(0).getBusinessObjectDataKey().getPartitionValue());
+
+        // The next execution starts a new pass with the oldest business object data, so both business object data instances are expected to be selected.
+        assertEquals(2, storagePolicySelectorService.execute(SQS_QUEUE_NAME, MAX_RESULT).size());
+    }
 }
@@ -16,6 +16,8 @@
 package org.finra.herd.service;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -37,7 +39,9 @@ import org.finra.herd.model.api.xml.StoragePolicyUpdateRequest;
 import org.finra.herd.model.dto.ConfigurationValue;
 import org.finra.herd.model.jpa.StoragePlatformEntity;
 import org.finra.herd.model.jpa.StoragePolicyEntity;
+import org.finra.herd.model.jpa.StoragePolicySelectionWatermarkEntity;
 import org.finra.herd.model.jpa.StoragePolicyStatusEntity;
+import org.finra.herd.service.impl.StoragePolicySelectorServiceImpl;
 
 /**
  * This class tests various functionality within the storage policy REST controller.
@@ -66,6 +70,26 @@ public class StoragePolicyServiceTest extends AbstractServiceTest
                 new StoragePolicyTransition(STORAGE_NAME_2), StoragePolicyStatusEntity.ENABLED), resultStoragePolicy);
     }
 
+    @Test
+    public void testCreateStoragePolicyResetsStoragePolicySelectionWatermarks()
+    {
+        StoragePolicyKey storagePolicyKey = new StoragePolicyKey(STORAGE_POLICY_NAMESPACE_CD, STORAGE_POLICY_NAME);
+
+        // Create and persist the relative database entities.
+        storagePolicyServiceTestHelper.createDatabaseEntitiesForStoragePolicyTesting();
+
+        // Advance the storage policy selection watermarks of all storage policy priority levels.
+        createStoragePolicySelectionWatermarkEntities();
+
+        // Create a storage policy with only business object format usage and file type specified in the storage policy filter.
+        storagePolicyService.createStoragePolicy(storagePolicyServiceTestHelper
+            .createStoragePolicyCreateRequest(storagePolicyKey, STORAGE_POLICY_RULE_TYPE, STORAGE_POLICY_RULE_VALUE, null, null, FORMAT_USAGE_CODE,
+                FORMAT_FILE_TYPE_CODE, STORAGE_NAME, STORAGE_NAME_2, StoragePolicyStatusEntity.ENABLED));
+
+        // Validate that only the watermarks of the storage policy priority level of the new storage policy and the lower priority levels got reset.
+        validateStoragePolicySelectionWatermarks(2);
+    }
+
     @Test
     public void testCreateStoragePolicyMissingRequiredParameters()
     {
@@ -704,6 +728,31 @@ public class StoragePolicyServiceTest extends AbstractServiceTest
         assertTrue(resultStoragePolicy.getId() > storagePolicyEntity.getId());
     }
 
+    @Test
+    public void testUpdateStoragePolicyResetsStoragePolicySelectionWatermarks()
+    {
+        StoragePolicyKey storagePolicyKey = new StoragePolicyKey(STORAGE_POLICY_NAMESPACE_CD, STORAGE_POLICY_NAME);
+
+        // Create and persist the relative database entities.
+        storagePolicyServiceTestHelper.createDatabaseEntitiesForStoragePolicyTesting();
+
+        // Create and persist a storage policy entity with only business object definition specified in the storage policy filter.
+        storagePolicyDaoTestHelper
+            .createStoragePolicyEntity(storagePolicyKey, STORAGE_POLICY_RULE_TYPE_2, STORAGE_POLICY_RULE_VALUE_2, BDEF_NAMESPACE_2, BDEF_NAME_2, null, null,
+                STORAGE_NAME_3, STORAGE_NAME_4, StoragePolicyStatusEntity.ENABLED, INITIAL_VERSION, LATEST_VERSION_FLAG_SET);
+
+        // Advance the storage policy selection watermarks of all storage policy priority levels.
+        createStoragePolicySelectionWatermarkEntities();
+
+        // Update the storage policy to have only business object format usage and file type specified in the storage policy filter.
+        storagePolicyService.updateStoragePolicy(storagePolicyKey, storagePolicyServiceTestHelper
+            .createStoragePolicyUpdateRequest(STORAGE_POLICY_RULE_TYPE, STORAGE_POLICY_RULE_VALUE, null, null, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE,
+                STORAGE_NAME, STORAGE_NAME_2, StoragePolicyStatusEntity.ENABLED));
+
+        // Validate that the watermarks got reset starting with the previous storage policy priority level, since it is higher than the new one.
+        validateStoragePolicySelectionWatermarks(1);
+    }
+
     @Test
     public void testUpdateStoragePolicyMissingRequiredParameters()
     {
@@ -1484,4 +1533,49 @@ public class StoragePolicyServiceTest extends AbstractServiceTest
                 e.getMessage());
         }
     }
+
+    /**
+     * Creates or updates the storage policy selection watermarks of all storage policy priority levels to point to some business object data.
+     */
+    private void createStoragePolicySelectionWatermarkEntities()
+    {
+        for (int priorityLevelNumber = 0; priorityLevelNumber < StoragePolicySelectorServiceImpl.STORAGE_POLICY_PRIORITY_LEVELS.size(); priorityLevelNumber++)
+        {
+            StoragePolicySelectionWatermarkEntity storagePolicySelectionWatermarkEntity =
+                herdDao.findById(StoragePolicySelectionWatermarkEntity.class, priorityLevelNumber);
+            if (storagePolicySelectionWatermarkEntity == null)
+            {
+                storagePolicySelectionWatermarkEntity = new StoragePolicySelectionWatermarkEntity();
+                storagePolicySelectionWatermarkEntity.setStoragePolicyPriorityLevelNumber(priorityLevelNumber);
+            }
+            storagePolicySelectionWatermarkEntity.setBusinessObjectDataId(INTEGER_VALUE);
+            storagePolicySelectionWatermarkEntity.setBusinessObjectDataCreatedOn(herdDao.getCurrentTimestamp());
+            herdDao.saveAndRefresh(storagePolicySelectionWatermarkEntity);
+        }
+    }
+
+    /**
+     * Validates that the storage policy selection watermarks starting with the specified storage policy priority level are reset, while the watermarks of the
+     * higher priority levels are not.
+     *
+     * @param resetPriorityLevelNumber the number of the highest storage policy priority level expected to be reset
+     */
+    private void validateStoragePolicySelectionWatermarks(int resetPriorityLevelNumber)
+    {
+        for (int priorityLevelNumber = 0; priorityLevelNumber < StoragePolicySelectorServiceImpl.STORAGE_POLICY_PRIORITY_LEVELS.size(); priorityLevelNumber++)
+        {
+            StoragePolicySelectionWatermarkEntity storagePolicySelectionWatermarkEntity =
+                herdDao.findById(StoragePolicySelectionWatermarkEntity.class, priorityLevelNumber);
+            if (priorityLevelNumber < resetPriorityLevelNumber)
+            {
+                assertEquals(INTEGER_VALUE, storagePolicySelectionWatermarkEntity.getBusinessObjectDataId());
+                assertNotNull(storagePolicySelectionWatermarkEntity.getBusinessObjectDataCreatedOn());
+            }
+            else
+            {
+                assertNull(storagePolicySelectionWatermarkEntity.getBusinessObjectDataId());
+                assertNull(storagePolicySelectionWatermarkEntity.getBusinessObjectDataCreatedOn());
+            }
+        }
+    }
 }
@@ -34,6 +34,7 @@ import org.finra.herd.model.api.xml.UserNamespaceAuthorizationCreateRequest;
 import org.finra.herd.model.api.xml.UserNamespaceAuthorizationKey;
 import org.finra.herd.model.api.xml.UserNamespaceAuthorizationUpdateRequest;
 import org.finra.herd.model.api.xml.UserNamespaceAuthorizations;
+import org.finra.herd.model.jpa.AuthorizationGenerationEntity;
 import org.finra.herd.model.jpa.NamespaceEntity;
 import org.finra.herd.model.jpa.UserNamespaceAuthorizationEntity;
 
@@ -63,6 +64,31 @@ public class UserNamespaceAuthorizationServiceTest extends AbstractServiceTest
             resultUserNamespaceAuthorization);
     }
 
+    @Test
+    public void testCreateUpdateDeleteUserNamespaceAuthorizationIncrementsGenerationNumber()
+    {
+        // Create a user namespace authorization key.
+        UserNamespaceAuthorizationKey key = new UserNamespaceAuthorizationKey(USER_ID, NAMESPACE);
+
+        // Create and persist the relative database entities.
+        namespaceDaoTestHelper.createNamespaceEntity(key.getNamespace());
+
+        // Get the current user namespace authorizations generation number.
+        long generationNumber = getUserNamespaceAuthorizationGenerationNumber();
+
+        // Create, update and delete a user namespace authorization and validate that each change increments the generation number.
+        userNamespaceAuthorizationService
+            .createUserNamespaceAuthorization(new UserNamespaceAuthorizationCreateRequest(key, Arrays.asList(NamespacePermissionEnum.READ)));
+        assertEquals(generationNumber + 1, getUserNamespaceAuthorizationGenerationNumber());
+
+        userNamespaceAuthorizationService
+            .updateUserNamespaceAuthorization(key, new UserNamespaceAuthorizationUpdateRequest(Arrays.asList(NamespacePermissionEnum.WRITE)));
+        assertEquals(generationNumber + 2, getUserNamespaceAuthorizationGenerationNumber());
+
+        userNamespaceAuthorizationService.deleteUserNamespaceAuthorization(key);
+        assertEquals(generationNumber + 3, getUserNamespaceAuthorizationGenerationNumber());
+    }
+
     @Test
     public void testCreateUserNamespaceAuthorizationMissingRequiredParameters()
     {
@@ -1004,4 +1030,16 @@ public class UserNamespaceAuthorizationServiceTest extends AbstractServiceTest
         // Validate the returned object.
         assertEquals(new UserNamespaceAuthorizations(), resultUserNamespaceAuthorizations);
     }
+
+    /**
+     * Gets the current user namespace authorizations generation number.
+     *
+     * @return the generation number, 0 if the user namespace authorizations never changed
+     */
+    private long getUserNamespaceAuthorizationGenerationNumber()
+    {
+        AuthorizationGenerationEntity authorizationGenerationEntity =
+            herdDao.findById(AuthorizationGenerationEntity.class, AuthorizationGenerationEntity.USER_NAMESPACE_AUTHORIZATION);
+        return authorizationGenerationEntity == null ? 0 : authorizationGenerationEntity.getGenerationNumber();
+    }
 }
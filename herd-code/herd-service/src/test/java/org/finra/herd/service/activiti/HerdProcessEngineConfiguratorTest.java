@@ -21,6 +21,7 @@ import org.activiti.engine.impl.variable.VariableType;
 import org.apache.commons.lang3.StringUtils;
 import org.activiti.engine.impl.variable.StringType;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import org.activiti.engine.impl.variable.DefaultVariableTypes;
 import org.activiti.spring.SpringProcessEngineConfiguration;
 import org.junit.Test;
@@ -54,4 +55,16 @@ public class HerdProcessEngineConfiguratorTest extends AbstractServiceTest
         type = configuration.getVariableTypes().findVariableType(StringUtils.repeat("a", 2001));
         assertEquals(LongStringType.class, type.getClass());
     }
-}
\ No newline at end of file
+
+    /**
+     * This method tests that the custom MyBatis mappers are registered before the process engine is initialized.
+     */
+    @Test
+    public void testBeforeInitRegistersCustomMybatisMappers() throws Exception
+    {
+        SpringProcessEngineConfiguration configuration = new SpringProcessEngineConfiguration();
+
+        herdProcessEngineConfigurator.beforeInit(configuration);
+        assertTrue(configuration.getCustomMybatisMappers().contains(ActivitiJobMapper.class));
+    }
+}
@@ -18,6 +18,8 @@ package org.finra.herd.service.advice;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Method;
@@ -433,6 +435,50 @@ public class NamespaceSecurityAdviceTest extends AbstractServiceTest
         }
     }
 
+    /**
+     * Test that the namespace permission checks of a method are resolved once and reused for the subsequent calls with different arguments.
+     */
+    @Test
+    public void checkPermissionAssertMethodPermissionChecksResolvedOnce() throws Exception
+    {
+        // Mock a join point of the method call
+        // mockMethodResolvedOnce("foo");
+        JoinPoint joinPoint = mock(JoinPoint.class);
+        MethodSignature methodSignature = mock(MethodSignature.class);
+        Method method = NamespaceSecurityAdviceTest.class.getDeclaredMethod("mockMethodResolvedOnce", String.class);
+        when(methodSignature.getParameterNames()).thenReturn(new String[] {"namespace"});
+        when(methodSignature.getMethod()).thenReturn(method);
+        when(joinPoint.getSignature()).thenReturn(methodSignature);
+        when(joinPoint.getArgs()).thenReturn(new Object[] {"foo"});
+
+        String userId = "userId";
+        ApplicationUser applicationUser = new ApplicationUser(getClass());
+        applicationUser.setUserId(userId);
+        applicationUser.setNamespaceAuthorizations(new HashSet<>());
+        applicationUser.getNamespaceAuthorizations().add(new NamespaceAuthorization("foo", Arrays.asList(NamespacePermissionEnum.READ)));
+        SecurityContextHolder.getContext().setAuthentication(
+            new TestingAuthenticationToken(new SecurityUserWrapper(userId, "", false, false, false, false, Arrays.asList(), applicationUser), null));
+
+        // The first call is allowed.
+        namespaceSecurityAdvice.checkPermission(joinPoint);
+
+        // The second call to the same method with another namespace is denied.
+        when(joinPoint.getArgs()).thenReturn(new Object[] {"bar"});
+        try
+        {
+            namespaceSecurityAdvice.checkPermission(joinPoint);
+            fail();
+        }
+        catch (Exception e)
+        {
+            assertEquals(AccessDeniedException.class, e.getClass());
+            assertEquals(String.format("User \"%s\" does not have \"[READ]\" permission(s) to the namespace \"bar\"", userId), e.getMessage());
+        }
+
+        // Validate that the parameter names were only resolved for the first call.
+        verify(methodSignature, times(1)).getParameterNames();
+    }
+
     @Test
     public void checkPermissionAssertNoErrorWhenUserHasMultiplePermissions() throws Exception
     {
@@ -938,4 +984,13 @@ public class NamespaceSecurityAdviceTest extends AbstractServiceTest
     private void mockMethod(List<String> namespaces)
     {
     }
+
+    /**
+     * Do not invoke this method. This method is a test input for reflection related tests. It is only used by the test that validates the caching of the
+     * namespace permission checks.
+     */
+    @NamespacePermission(fields = "#namespace", permissions = NamespacePermissionEnum.READ)
+    private void mockMethodResolvedOnce(String namespace)
+    {
+    }
 }
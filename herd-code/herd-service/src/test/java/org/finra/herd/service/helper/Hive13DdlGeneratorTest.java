@@ -16,6 +16,8 @@
 package org.finra.herd.service.helper;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
@@ -23,6 +25,8 @@ import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -157,6 +161,65 @@ public class Hive13DdlGeneratorTest extends AbstractServiceTest
         }
     }
 
+    @Test
+    public void testGetHivePathPatternCached()
+    {
+        // Validate that the same pattern instance is returned for the same partition column names.
+        assertSame(hive13DdlGenerator.getHivePathPattern(getPartitionColumns(Arrays.asList("Column1", "column_2"))),
+            hive13DdlGenerator.getHivePathPattern(getPartitionColumns(Arrays.asList("Column1", "column_2"))));
+    }
+
+    @Test
+    public void testHivePartitionPathParserMatchesHivePathPattern()
+    {
+        HivePartitionPathParser hivePartitionPathParser = new HivePartitionPathParser(Arrays.asList("Column1", "column_2"));
+        Pattern pattern = hivePartitionPathParser.getPattern();
+
+        List<String> relativeFilePaths = Arrays
+            .asList("/column1=a/column_2=b/file.dat", "/COLUMN1=a/COLUMN-2=b/file.dat", "/column1=a=b/column_2=c/", "/column1=a/column_2=b/",
+                "/column1=a/column_2=b/extra-folder/file.dat", "/column_2=a/column1=b/file.dat", "/column1=a/file.dat", "/column1=a/column_2=/file.dat",
+                "/column1=a/column_2/file.dat", "/column1=a/a/column_2=2/file.dat", "/column1=a/column_2=2", "/column1x=a/column_2=b/", "", "/", "//");
+
+        // Validate that the parser matches the same paths as the pattern and extracts the same partition values and partition paths.
+        for (String relativeFilePath : relativeFilePaths)
+        {
+            Matcher matcher = pattern.matcher(relativeFilePath);
+            List<String> partitionValues = hivePartitionPathParser.parsePartitionValues(relativeFilePath);
+            if (matcher.matches())
+            {
+                List<String> expectedPartitionValues = new ArrayList<>();
+                for (int i = 1; i <= matcher.groupCount(); i++)
+                {
+                    expectedPartitionValues.add(matcher.group(i));
+                }
+                assertEquals(relativeFilePath, expectedPartitionValues, partitionValues);
+                assertEquals(relativeFilePath, relativeFilePath.replaceAll("/[^/]*$", ""), hivePartitionPathParser.getPartitionPath(relativeFilePath));
+            }
+            else
+            {
+                assertNull(relativeFilePath, partitionValues);
+            }
+        }
+    }
+
+    @Test
+    public void testHivePartitionPathParserReusedAcrossFilePaths()
+    {
+        HivePartitionPathParser hivePartitionPathParser = new HivePartitionPathParser(Arrays.asList("region", "trade_date", "hour"));
+
+        // Validate that a single parser instance extracts the partition values and partition paths of consecutive file paths independently of each other.
+        assertEquals(Arrays.asList("R01", "2016-10-01", "05"),
+            hivePartitionPathParser.parsePartitionValues("/region=R01/trade-date=2016-10-01/hour=05/part-00001.gz"));
+        assertEquals("/region=R01/trade-date=2016-10-01/hour=05",
+            hivePartitionPathParser.getPartitionPath("/region=R01/trade-date=2016-10-01/hour=05/part-00001.gz"));
+        assertNull(hivePartitionPathParser.parsePartitionValues("/region=R01/trade-date=2016-10-01/part-00002.gz"));
+        assertEquals(Arrays.asList("R02", "2016-10-02", "06"),
+            hivePartitionPathParser.parsePartitionValues("/REGION=R02/TRADE_DATE=2016-10-02/HOUR=06/part-00003.gz"));
+        assertEquals("/REGION=R02/TRADE_DATE=2016-10-02/HOUR=06",
+            hivePartitionPathParser.getPartitionPath("/REGION=R02/TRADE_DATE=2016-10-02/HOUR=06/part-00003.gz"));
+        assertEquals(Arrays.asList("R03", "2016-10-03", "07"), hivePartitionPathParser.parsePartitionValues("/region=R03/trade_date=2016-10-03/hour=07/"));
+    }
+
     @Test
     public void testGetDdlCharacterValueEmptyString()
     {
@@ -0,0 +1,170 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.service.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import org.finra.herd.model.dto.ConfigurationValue;
+import org.finra.herd.service.AbstractServiceTest;
+
+/**
+ * This class tests functionality within the JdbcDataSourceRegistry.
+ */
+public class JdbcDataSourceRegistryTest extends AbstractServiceTest
+{
+    private static final String DRIVER_CLASS_NAME = "org.h2.Driver";
+
+    private static final String JDBC_URL = "jdbc:h2:mem:jdbcDataSourceRegistryTest";
+
+    private static final String JDBC_URL_2 = "jdbc:h2:mem:jdbcDataSourceRegistryTest2";
+
+    private static final String JDBC_PASSWORD = "UT_Password_1";
+
+    private static final String JDBC_PASSWORD_2 = "UT_Password_2";
+
+    @Autowired
+    private JdbcDataSourceRegistry jdbcDataSourceRegistry;
+
+    @After
+    public void after()
+    {
+        jdbcDataSourceRegistry.destroy();
+    }
+
+    @Test
+    public void testBorrowDataSourceReusesPool()
+    {
+        DataSource dataSource = jdbcDataSourceRegistry.borrowDataSource(DRIVER_CLASS_NAME, JDBC_URL, USER_ID, JDBC_PASSWORD);
+        assertTrue(dataSource instanceof BasicDataSource);
+
+        // Validate that the pool is reused for the same URL and user name, but not for another user name.
+        assertSame(dataSource, jdbcDataSourceRegistry.borrowDataSource(DRIVER_CLASS_NAME, JDBC_URL, USER_ID, JDBC_PASSWORD));
+        assertNotSame(dataSource, jdbcDataSourceRegistry.borrowDataSource(DRIVER_CLASS_NAME, JDBC_URL, USER_ID_2, JDBC_PASSWORD));
+        assertEquals(2, jdbcDataSourceRegistry.getDataSourceCount());
+    }
+
+    @Test
+    public void testBorrowDataSourcePasswordChanged()
+    {
+        BasicDataSource dataSource = (BasicDataSource) jdbcDataSourceRegistry.borrowDataSource(DRIVER_CLASS_NAME, JDBC_URL, USER_ID, JDBC_PASSWORD);
+        jdbcDataSourceRegistry.returnDataSource(dataSource);
+
+        // Validate that the pool created with the previous password is closed and replaced.
+        BasicDataSource newDataSource = (BasicDataSource) jdbcDataSourceRegistry.borrowDataSource(DRIVER_CLASS_NAME, JDBC_URL, USER_ID, JDBC_PASSWORD_2);
+        assertNotSame(dataSource, newDataSource);
+        assertTrue(dataSource.isClosed());
+        assertEquals(JDBC_PASSWORD_2, newDataSource.getPassword());
+        assertEquals(1, jdbcDataSourceRegistry.getDataSourceCount());
+    }
+
+    @Test
+    public void testBorrowDataSourceMaxCount() throws Exception
+    {
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.JDBC_CONNECTION_POOL_MAX_COUNT.getKey(), 1);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            BasicDataSource dataSource = (BasicDataSource) jdbcDataSourceRegistry.borrowDataSource(DRIVER_CLASS_NAME, JDBC_URL, USER_ID, JDBC_PASSWORD);
+            jdbcDataSourceRegistry.returnDataSource(dataSource);
+            jdbcDataSourceRegistry.borrowDataSource(DRIVER_CLASS_NAME, JDBC_URL_2, USER_ID, JDBC_PASSWORD);
+
+            // Validate that the least recently used pool got closed.
+            assertTrue(dataSource.isClosed());
+            assertEquals(1, jdbcDataSourceRegistry.getDataSourceCount());
+        }
+        finally
+        {
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    @Test
+    public void testBorrowDataSourceMaxCountPoolBorrowed() throws Exception
+    {
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.JDBC_CONNECTION_POOL_MAX_COUNT.getKey(), 1);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            BasicDataSource dataSource = (BasicDataSource) jdbcDataSourceRegistry.borrowDataSource(DRIVER_CLASS_NAME, JDBC_URL, USER_ID, JDBC_PASSWORD);
+            jdbcDataSourceRegistry.borrowDataSource(DRIVER_CLASS_NAME, JDBC_URL, USER_ID, JDBC_PASSWORD);
+            jdbcDataSourceRegistry.borrowDataSource(DRIVER_CLASS_NAME, JDBC_URL_2, USER_ID, JDBC_PASSWORD);
+
+            // Validate that the least recently used pool is removed from the registry, but stays open while it is borrowed.
+            assertEquals(1, jdbcDataSourceRegistry.getDataSourceCount());
+            assertFalse(dataSource.isClosed());
+
+            jdbcDataSourceRegistry.returnDataSource(dataSource);
+            assertFalse(dataSource.isClosed());
+
+            // Validate that the pool is closed once the last borrower returns it.
+            jdbcDataSourceRegistry.returnDataSource(dataSource);
+            assertTrue(dataSource.isClosed());
+        }
+        finally
+        {
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    @Test
+    public void testBorrowDataSourceResetsSessionState()
+    {
+        BasicDataSource dataSource = (BasicDataSource) jdbcDataSourceRegistry.borrowDataSource(DRIVER_CLASS_NAME, JDBC_URL, USER_ID, JDBC_PASSWORD);
+
+        assertTrue(dataSource.getRollbackOnReturn());
+        assertTrue(dataSource.getEnableAutoCommitOnReturn());
+        assertTrue(dataSource.getDefaultAutoCommit());
+        assertFalse(dataSource.getDefaultReadOnly());
+    }
+
+    @Test
+    public void testBorrowDataSourcePoolingDisabled() throws Exception
+    {
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.JDBC_CONNECTION_POOL_MAX_TOTAL.getKey(), 0);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            DataSource dataSource = jdbcDataSourceRegistry.borrowDataSource(DRIVER_CLASS_NAME, JDBC_URL, USER_ID, JDBC_PASSWORD);
+            assertTrue(dataSource instanceof DriverManagerDataSource);
+            assertEquals(0, jdbcDataSourceRegistry.getDataSourceCount());
+        }
+        finally
+        {
+            restorePropertySourceInEnvironment();
+        }
+    }
+}
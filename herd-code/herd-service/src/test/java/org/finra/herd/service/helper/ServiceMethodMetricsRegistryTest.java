@@ -0,0 +1,93 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.service.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.ObjectName;
+
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.finra.herd.service.AbstractServiceTest;
+
+/**
+ * This class tests functionality within the ServiceMethodMetricsRegistry.
+ */
+public class ServiceMethodMetricsRegistryTest extends AbstractServiceTest
+{
+    private static final String JAVA_METHOD = "org.finra.herd.service.impl.UtServiceImpl.utMethod";
+
+    @Autowired
+    private ServiceMethodMetricsRegistry serviceMethodMetricsRegistry;
+
+    @Test
+    public void testGetMethodMetrics() throws Exception
+    {
+        ServiceMethodMetricsRegistry.MethodMetrics methodMetrics = serviceMethodMetricsRegistry.getMethodMetrics(JAVA_METHOD);
+        assertSame(methodMetrics, serviceMethodMetricsRegistry.getMethodMetrics(JAVA_METHOD));
+        assertTrue(serviceMethodMetricsRegistry.getAllMethodMetrics().contains(methodMetrics));
+
+        long callCount = methodMetrics.getCallCount();
+        long errorCount = methodMetrics.getErrorCount();
+
+        long startNanos = methodMetrics.start();
+        assertEquals(1, methodMetrics.getInFlightCount());
+        methodMetrics.stop(startNanos, true);
+
+        assertEquals(0, methodMetrics.getInFlightCount());
+        assertEquals(callCount + 1, methodMetrics.getCallCount());
+        assertEquals(errorCount + 1, methodMetrics.getErrorCount());
+
+        // Validate that the metrics are published as an MBean.
+        assertEquals(callCount + 1, ManagementFactory.getPlatformMBeanServer()
+            .getAttribute(new ObjectName("org.finra.herd:type=ServiceMethodMetrics,name=" + ObjectName.quote(JAVA_METHOD)), "CallCount"));
+    }
+
+    @Test
+    public void testLatencyHistogram()
+    {
+        ServiceMethodMetricsRegistry.LatencyHistogram histogram = new ServiceMethodMetricsRegistry.LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(50));
+
+        for (long value = 1; value <= 1000; value++)
+        {
+            histogram.record(value);
+        }
+
+        // Validate that the percentiles are within the precision of the buckets.
+        assertEquals(500, histogram.getValueAtPercentile(50), 500 / 16);
+        assertEquals(900, histogram.getValueAtPercentile(90), 900 / 16);
+        assertEquals(990, histogram.getValueAtPercentile(99), 990 / 16);
+        assertTrue(histogram.getValueAtPercentile(100) >= 1000);
+    }
+
+    @Test
+    public void testLatencyHistogramBuckets()
+    {
+        // Validate that every value falls in a bucket whose bounds contain it, and that the buckets are contiguous.
+        for (long value : new long[] {0, 1, 15, 16, 17, 31, 32, 33, 1000, 123456789, Long.MAX_VALUE})
+        {
+            int index = ServiceMethodMetricsRegistry.LatencyHistogram.getBucketIndex(value);
+            assertTrue(value <= ServiceMethodMetricsRegistry.LatencyHistogram.getBucketUpperBound(index));
+            assertTrue(index == 0 || value > ServiceMethodMetricsRegistry.LatencyHistogram.getBucketUpperBound(index - 1));
+        }
+    }
+}
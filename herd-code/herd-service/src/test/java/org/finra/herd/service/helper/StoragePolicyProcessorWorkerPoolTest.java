@@ -0,0 +1,120 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.service.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.finra.herd.model.dto.ConfigurationValue;
+import org.finra.herd.service.AbstractServiceTest;
+
+/**
+ * This class tests functionality within the StoragePolicyProcessorWorkerPool.
+ */
+public class StoragePolicyProcessorWorkerPoolTest extends AbstractServiceTest
+{
+    private static final long LARGE_TRANSFER_SIZE_BYTES = 1024L * 1024L * 1024L * 1024L;
+
+    @Autowired
+    private StoragePolicyProcessorWorkerPool storagePolicyProcessorWorkerPool;
+
+    @Test
+    public void testGetJmsListenerConcurrencyLimits() throws Exception
+    {
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.STORAGE_POLICY_PROCESSOR_TRANSFER_THREAD_COUNT.getKey(), 3);
+        overrideMap.put(ConfigurationValue.STORAGE_POLICY_PROCESSOR_LARGE_TRANSFER_THREAD_COUNT.getKey(), 2);
+        overrideMap.put(ConfigurationValue.STORAGE_POLICY_PROCESSOR_FINALIZE_THREAD_COUNT.getKey(), 0);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            // Validate that the upper limit is the total number of stage threads, where each stage has at least one thread.
+            assertEquals("1-6", storagePolicyProcessorWorkerPool.getJmsListenerConcurrencyLimits());
+        }
+        finally
+        {
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    @Test
+    public void testSubmitLargeTransferDoesNotBlockSmallTransfer() throws Exception
+    {
+        CountDownLatch largeTransferReleased = new CountDownLatch(1);
+        CountDownLatch largeTransferFinalized = new CountDownLatch(1);
+        CountDownLatch smallTransferFinalized = new CountDownLatch(1);
+
+        // Submit a large transfer that blocks until it is released.
+        storagePolicyProcessorWorkerPool.submit(STORAGE_NAME, LARGE_TRANSFER_SIZE_BYTES, "large", () -> {
+            try
+            {
+                largeTransferReleased.await();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }, largeTransferFinalized::countDown);
+
+        // Submit a small transfer from the same storage and validate that it completes while the large transfer is still running.
+        storagePolicyProcessorWorkerPool.submit(STORAGE_NAME, FILE_SIZE_1_KB, "small", () -> {
+        }, smallTransferFinalized::countDown);
+        assertTrue(smallTransferFinalized.await(10, TimeUnit.SECONDS));
+        assertEquals(1, largeTransferFinalized.getCount());
+
+        // Release the large transfer and validate that it gets finalized.
+        largeTransferReleased.countDown();
+        assertTrue(largeTransferFinalized.await(10, TimeUnit.SECONDS));
+
+        // Validate the gauges.
+        assertEquals(Arrays.asList(StoragePolicyProcessorWorkerPool.TRANSFER_STAGE_NAME, StoragePolicyProcessorWorkerPool.LARGE_TRANSFER_STAGE_NAME,
+            StoragePolicyProcessorWorkerPool.FINALIZE_STAGE_NAME), new ArrayList<>(storagePolicyProcessorWorkerPool.getQueueDepths().keySet()));
+        assertEquals(storagePolicyProcessorWorkerPool.getQueueDepths().keySet(), storagePolicyProcessorWorkerPool.getAverageLatencyMillis().keySet());
+    }
+
+    @Test
+    public void testSubmitTransferFailureSkipsFinalize() throws Exception
+    {
+        AtomicBoolean finalized = new AtomicBoolean();
+        CountDownLatch nextTransferFinalized = new CountDownLatch(1);
+
+        executeWithoutLogging(StoragePolicyProcessorWorkerPool.class, () -> {
+            // Submit a transfer that fails followed by a transfer that succeeds on the same single threaded stage.
+            storagePolicyProcessorWorkerPool.submit(STORAGE_NAME, LARGE_TRANSFER_SIZE_BYTES, "failed", () -> {
+                throw new IllegalStateException("failed");
+            }, () -> finalized.set(true));
+            storagePolicyProcessorWorkerPool.submit(STORAGE_NAME, LARGE_TRANSFER_SIZE_BYTES, "next", () -> {
+            }, nextTransferFinalized::countDown);
+
+            // Validate that the failed transfer released its storage permit and was not finalized.
+            assertTrue(nextTransferFinalized.await(10, TimeUnit.SECONDS));
+            assertFalse(finalized.get());
+        });
+    }
+}
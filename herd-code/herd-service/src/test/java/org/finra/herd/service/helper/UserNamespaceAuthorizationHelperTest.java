@@ -18,27 +18,38 @@ package org.finra.herd.service.helper;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+
 import org.apache.commons.collections4.IterableUtils;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import org.finra.herd.core.helper.ConfigurationHelper;
 import org.finra.herd.core.helper.WildcardHelper;
+import org.finra.herd.dao.HerdDao;
 import org.finra.herd.dao.NamespaceDao;
 import org.finra.herd.dao.UserDao;
 import org.finra.herd.dao.UserNamespaceAuthorizationDao;
 import org.finra.herd.model.api.xml.NamespaceAuthorization;
+import org.finra.herd.model.api.xml.NamespacePermissionEnum;
 import org.finra.herd.model.dto.ApplicationUser;
+import org.finra.herd.model.dto.ConfigurationValue;
+import org.finra.herd.model.jpa.AuthorizationGenerationEntity;
 import org.finra.herd.model.jpa.NamespaceEntity;
 import org.finra.herd.model.jpa.UserNamespaceAuthorizationEntity;
 
@@ -53,6 +64,12 @@ public class UserNamespaceAuthorizationHelperTest
     @Mock
     private ConfigurationHelper configurationHelper;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private HerdDao herdDao;
+
     @Mock
     private UserDao userDao;
 
@@ -66,6 +83,10 @@ public class UserNamespaceAuthorizationHelperTest
     public void before()
     {
         initMocks(this);
+
+        // Disable the cache of user namespace authorizations by default.
+        when(configurationHelper.getProperty(ConfigurationValue.USER_NAMESPACE_AUTHORIZATION_CACHE_GENERATION_CHECK_INTERVAL_SECONDS, Integer.class))
+            .thenReturn(0);
     }
 
     @Test
@@ -158,4 +179,110 @@ public class UserNamespaceAuthorizationHelperTest
         verify(wildcardHelper).matches(eq(userId.toUpperCase()), eq(wildcardEntity.getUserId().toUpperCase()));
         verifyNoMoreInteractions(userNamespaceAuthorizationDao, wildcardHelper);
     }
+
+    @Test
+    public void testBuildNamespaceAuthorizationsAssertCachedUntilGenerationNumberChanges()
+    {
+        ApplicationUser applicationUser = new ApplicationUser(getClass());
+        String userId = "userId";
+        applicationUser.setUserId(userId);
+
+        when(configurationHelper.getBooleanProperty(any())).thenReturn(true);
+        when(configurationHelper.getProperty(ConfigurationValue.USER_NAMESPACE_AUTHORIZATION_CACHE_GENERATION_CHECK_INTERVAL_SECONDS, Integer.class))
+            .thenReturn(60);
+        when(configurationHelper.getProperty(ConfigurationValue.USER_NAMESPACE_AUTHORIZATION_CACHE_TIME_TO_LIVE_SECONDS, Integer.class)).thenReturn(300);
+
+        AuthorizationGenerationEntity authorizationGenerationEntity = new AuthorizationGenerationEntity();
+        authorizationGenerationEntity.setCode(AuthorizationGenerationEntity.USER_NAMESPACE_AUTHORIZATION);
+        authorizationGenerationEntity.setGenerationNumber(1L);
+        when(herdDao.findById(AuthorizationGenerationEntity.class, AuthorizationGenerationEntity.USER_NAMESPACE_AUTHORIZATION))
+            .thenReturn(authorizationGenerationEntity);
+
+        List<UserNamespaceAuthorizationEntity> userNamespaceAuthorizationEntities = new ArrayList<>();
+        UserNamespaceAuthorizationEntity userNamespaceAuthorizationEntity = new UserNamespaceAuthorizationEntity();
+        userNamespaceAuthorizationEntity.setUserId(userId);
+        NamespaceEntity namespaceEntity = new NamespaceEntity();
+        namespaceEntity.setCode("namespace");
+        userNamespaceAuthorizationEntity.setNamespace(namespaceEntity);
+        userNamespaceAuthorizationEntity.setReadPermission(true);
+        userNamespaceAuthorizationEntities.add(userNamespaceAuthorizationEntity);
+        when(userNamespaceAuthorizationDao.getUserNamespaceAuthorizationsByUserId(any())).thenReturn(userNamespaceAuthorizationEntities);
+
+        // Build the namespace authorizations and modify the returned copy.
+        userNamespaceAuthorizationHelper.buildNamespaceAuthorizations(applicationUser);
+        IterableUtils.get(applicationUser.getNamespaceAuthorizations(), 0).getNamespacePermissions().add(NamespacePermissionEnum.GRANT);
+
+        // Build the namespace authorizations again and validate that they come unchanged from the cache.
+        userNamespaceAuthorizationHelper.buildNamespaceAuthorizations(applicationUser);
+        assertEquals(1, applicationUser.getNamespaceAuthorizations().size());
+        NamespaceAuthorization namespaceAuthorization = IterableUtils.get(applicationUser.getNamespaceAuthorizations(), 0);
+        assertEquals(namespaceEntity.getCode(), namespaceAuthorization.getNamespace());
+        assertEquals(Arrays.asList(NamespacePermissionEnum.READ), namespaceAuthorization.getNamespacePermissions());
+        verify(userNamespaceAuthorizationDao).getUserNamespaceAuthorizationsByUserId(eq(userId));
+
+        // Change the user namespace authorizations and validate that the namespace authorizations get loaded again.
+        when(herdDao.getEntityManager()).thenReturn(entityManager);
+        when(entityManager
+            .find(AuthorizationGenerationEntity.class, AuthorizationGenerationEntity.USER_NAMESPACE_AUTHORIZATION, LockModeType.PESSIMISTIC_WRITE))
+            .thenReturn(authorizationGenerationEntity);
+        userNamespaceAuthorizationHelper.incrementGenerationNumber();
+        assertEquals(Long.valueOf(2), authorizationGenerationEntity.getGenerationNumber());
+        verify(herdDao).save(authorizationGenerationEntity);
+
+        userNamespaceAuthorizationHelper.buildNamespaceAuthorizations(applicationUser);
+        assertEquals(1, applicationUser.getNamespaceAuthorizations().size());
+        verify(userNamespaceAuthorizationDao, times(2)).getUserNamespaceAuthorizationsByUserId(eq(userId));
+        verify(userNamespaceAuthorizationDao, times(2)).getUserNamespaceAuthorizationsByUserIdStartsWith(eq(WildcardHelper.WILDCARD_TOKEN));
+        verifyNoMoreInteractions(userNamespaceAuthorizationDao, wildcardHelper);
+    }
+
+    @Test
+    public void testIncrementGenerationNumberAssertCacheDroppedAfterCommit()
+    {
+        ApplicationUser applicationUser = new ApplicationUser(getClass());
+        String userId = "userId";
+        applicationUser.setUserId(userId);
+
+        when(configurationHelper.getBooleanProperty(any())).thenReturn(true);
+        when(configurationHelper.getProperty(ConfigurationValue.USER_NAMESPACE_AUTHORIZATION_CACHE_GENERATION_CHECK_INTERVAL_SECONDS, Integer.class))
+            .thenReturn(60);
+        when(configurationHelper.getProperty(ConfigurationValue.USER_NAMESPACE_AUTHORIZATION_CACHE_TIME_TO_LIVE_SECONDS, Integer.class)).thenReturn(300);
+
+        AuthorizationGenerationEntity authorizationGenerationEntity = new AuthorizationGenerationEntity();
+        authorizationGenerationEntity.setCode(AuthorizationGenerationEntity.USER_NAMESPACE_AUTHORIZATION);
+        authorizationGenerationEntity.setGenerationNumber(1L);
+        when(herdDao.findById(AuthorizationGenerationEntity.class, AuthorizationGenerationEntity.USER_NAMESPACE_AUTHORIZATION))
+            .thenReturn(authorizationGenerationEntity);
+        when(herdDao.getEntityManager()).thenReturn(entityManager);
+        when(entityManager
+            .find(AuthorizationGenerationEntity.class, AuthorizationGenerationEntity.USER_NAMESPACE_AUTHORIZATION, LockModeType.PESSIMISTIC_WRITE))
+            .thenReturn(authorizationGenerationEntity);
+        when(userNamespaceAuthorizationDao.getUserNamespaceAuthorizationsByUserId(any())).thenReturn(new ArrayList<>());
+
+        // Cache the namespace authorizations.
+        userNamespaceAuthorizationHelper.buildNamespaceAuthorizations(applicationUser);
+        verify(userNamespaceAuthorizationDao).getUserNamespaceAuthorizationsByUserId(eq(userId));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try
+        {
+            // Change the user namespace authorizations within a transaction and validate that the cache is kept until the transaction is committed.
+            userNamespaceAuthorizationHelper.incrementGenerationNumber();
+            userNamespaceAuthorizationHelper.buildNamespaceAuthorizations(applicationUser);
+            verify(userNamespaceAuthorizationDao).getUserNamespaceAuthorizationsByUserId(eq(userId));
+
+            // Commit the transaction and validate that the namespace authorizations get loaded again.
+            for (TransactionSynchronization transactionSynchronization : TransactionSynchronizationManager.getSynchronizations())
+            {
+                transactionSynchronization.afterCommit();
+            }
+        }
+        finally
+        {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        userNamespaceAuthorizationHelper.buildNamespaceAuthorizations(applicationUser);
+        verify(userNamespaceAuthorizationDao, times(2)).getUserNamespaceAuthorizationsByUserId(eq(userId));
+    }
 }
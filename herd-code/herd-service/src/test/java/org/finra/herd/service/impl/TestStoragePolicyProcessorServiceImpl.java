@@ -21,6 +21,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import org.finra.herd.dao.config.DaoSpringModuleConfig;
 import org.finra.herd.model.dto.StoragePolicySelection;
+import org.finra.herd.model.dto.StoragePolicyTransitionParamsDto;
 
 /**
  * An implementation of the storage policy processor service for testing.
@@ -40,4 +41,16 @@ public class TestStoragePolicyProcessorServiceImpl extends StoragePolicyProcesso
     {
         processStoragePolicySelectionMessageImpl(storagePolicySelection);
     }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Overwrite the base class method to run the storage policy transition stages in the test transaction instead of the worker pool threads.
+     */
+    @Override
+    protected void executeStoragePolicyTransitionStages(StoragePolicyTransitionParamsDto storagePolicyTransitionParamsDto)
+    {
+        transferStoragePolicyTransition(storagePolicyTransitionParamsDto);
+        finalizeStoragePolicyTransition(storagePolicyTransitionParamsDto);
+    }
 }
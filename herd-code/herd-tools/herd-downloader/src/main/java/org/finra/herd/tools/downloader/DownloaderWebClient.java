@@ -108,7 +108,6 @@ public class DownloaderWebClient extends DataBridgeWebClient
 
         URI uri = uriBuilder.build();
 
-        CloseableHttpClient client = httpClientOperations.createHttpClient();
         HttpGet request = new HttpGet(uri);
         request.addHeader("Accepts", "application/xml");
 
@@ -121,8 +120,13 @@ public class DownloaderWebClient extends DataBridgeWebClient
         LOGGER.info(String.format("    HTTP GET URI: %s", request.getURI().toString()));
         LOGGER.info(String.format("    HTTP GET Headers: %s", Arrays.toString(request.getAllHeaders())));
 
-        BusinessObjectData businessObjectData =
-            getBusinessObjectData(httpClientOperations.execute(client, request), "retrieve business object data from the registration server");
+        // Close the client once the request is completed, so its connection is released back to the pool.
+        BusinessObjectData businessObjectData;
+        try (CloseableHttpClient client = httpClientOperations.createHttpClient())
+        {
+            businessObjectData =
+                getBusinessObjectData(httpClientOperations.execute(client, request), "retrieve business object data from the registration server");
+        }
 
         LOGGER.info("Successfully retrieved business object data from the registration server.");
 
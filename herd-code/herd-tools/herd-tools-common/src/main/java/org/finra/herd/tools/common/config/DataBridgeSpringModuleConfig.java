@@ -24,12 +24,15 @@ import org.springframework.context.annotation.Import;
 
 import org.finra.herd.core.helper.ConfigurationHelper;
 import org.finra.herd.dao.RetryPolicyFactory;
+import org.finra.herd.dao.S3ClientRegistry;
 import org.finra.herd.dao.S3Dao;
 import org.finra.herd.dao.SimpleExponentialBackoffStrategy;
 import org.finra.herd.dao.helper.AwsHelper;
+import org.finra.herd.dao.helper.HerdCharacterEscapeHandler;
 import org.finra.herd.dao.helper.HerdStringHelper;
 import org.finra.herd.dao.helper.JavaPropertiesHelper;
 import org.finra.herd.dao.helper.JsonHelper;
+import org.finra.herd.dao.helper.XmlHelper;
 import org.finra.herd.dao.impl.S3DaoImpl;
 import org.finra.herd.service.S3Service;
 import org.finra.herd.service.helper.AlternateKeyHelper;
@@ -82,6 +85,13 @@ public class DataBridgeSpringModuleConfig
         return new ConfigurationHelper();
     }
 
+    // This is needed in XmlHelper.
+    @Bean
+    public HerdCharacterEscapeHandler herdCharacterEscapeHandler()
+    {
+        return new HerdCharacterEscapeHandler();
+    }
+
     @Bean
     public HerdStringHelper herdStringHelper()
     {
@@ -107,6 +117,13 @@ public class DataBridgeSpringModuleConfig
         return new RetryPolicyFactory();
     }
 
+    // This dependency is required when S3Dao is used.
+    @Bean
+    public S3ClientRegistry s3ClientRegistry()
+    {
+        return new S3ClientRegistry();
+    }
+
     @Bean
     public S3Dao s3Dao()
     {
@@ -136,4 +153,10 @@ public class DataBridgeSpringModuleConfig
     {
         return new StorageUnitHelper();
     }
+
+    @Bean
+    public XmlHelper xmlHelper()
+    {
+        return new XmlHelper();
+    }
 }
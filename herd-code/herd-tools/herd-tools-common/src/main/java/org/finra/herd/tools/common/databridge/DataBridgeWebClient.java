@@ -15,10 +15,8 @@
 */
 package org.finra.herd.tools.common.databridge;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.StringWriter;
+import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
@@ -28,16 +26,15 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Marshaller;
-import javax.xml.bind.Unmarshaller;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpEntity;
 import org.apache.http.StatusLine;
+import org.apache.http.client.entity.GzipCompressingEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
@@ -52,8 +49,10 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.util.CollectionUtils;
 
+import org.finra.herd.core.helper.ConfigurationHelper;
 import org.finra.herd.dao.HttpClientOperations;
 import org.finra.herd.dao.helper.HerdStringHelper;
+import org.finra.herd.dao.helper.XmlHelper;
 import org.finra.herd.model.api.xml.Attribute;
 import org.finra.herd.model.api.xml.BusinessObjectData;
 import org.finra.herd.model.api.xml.BusinessObjectDataCreateRequest;
@@ -67,6 +66,7 @@ import org.finra.herd.model.api.xml.S3KeyPrefixInformation;
 import org.finra.herd.model.api.xml.Storage;
 import org.finra.herd.model.api.xml.StorageFile;
 import org.finra.herd.model.api.xml.StorageUnitCreateRequest;
+import org.finra.herd.model.dto.ConfigurationValue;
 import org.finra.herd.model.dto.DataBridgeBaseManifestDto;
 import org.finra.herd.model.dto.ManifestFile;
 import org.finra.herd.model.dto.RegServerAccessParamsDto;
@@ -88,12 +88,18 @@ public abstract class DataBridgeWebClient
 
     protected static final String HERD_APP_REST_URI_PREFIX = "/herd-app/rest";
 
+    @Autowired
+    protected ConfigurationHelper configurationHelper;
+
     @Autowired
     protected HerdStringHelper herdStringHelper;
 
     @Autowired
     protected HttpClientOperations httpClientOperations;
 
+    @Autowired
+    protected XmlHelper xmlHelper;
+
     /**
      * The DTO for the parameters required to communicate with the registration server.
      */
@@ -146,14 +152,7 @@ public abstract class DataBridgeWebClient
             storageFile.setRowCount(manifestFile.getRowCount());
         }
 
-        // Create a JAXB context and marshaller
-        JAXBContext requestContext = JAXBContext.newInstance(BusinessObjectDataStorageFilesCreateRequest.class);
-        Marshaller requestMarshaller = requestContext.createMarshaller();
-        requestMarshaller.setProperty(Marshaller.JAXB_ENCODING, StandardCharsets.UTF_8.name());
-        requestMarshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-
-        StringWriter sw = new StringWriter();
-        requestMarshaller.marshal(request, sw);
+        String xmlRequest = xmlHelper.objectToXml(request, true);
 
         BusinessObjectDataStorageFilesCreateResponse businessObjectDataStorageFilesCreateResponse;
         try (CloseableHttpClient client = httpClientOperations.createHttpClient())
@@ -171,11 +170,11 @@ public abstract class DataBridgeWebClient
                 post.addHeader(getAuthorizationHeader());
             }
 
-            post.setEntity(new StringEntity(sw.toString()));
+            post.setEntity(createRequestEntity(xmlRequest));
 
             LOGGER.info(String.format("    HTTP POST URI: %s", post.getURI().toString()));
             LOGGER.info(String.format("    HTTP POST Headers: %s", Arrays.toString(post.getAllHeaders())));
-            LOGGER.info(String.format("    HTTP POST Entity Content:%n%s", sw.toString()));
+            LOGGER.info(String.format("    HTTP POST Entity Content:%n%s", xmlRequest));
 
             // getBusinessObjectDataStorageFilesCreateResponse() might return a null. That happens when the web client gets status code 200 back from
             // the service (add storage files is a success), but it fails to retrieve or deserialize the actual HTTP response.
@@ -312,14 +311,7 @@ public abstract class DataBridgeWebClient
         // Add business object data parents, if any.
         request.setBusinessObjectDataParents(manifest.getBusinessObjectDataParents());
 
-        // Create a JAXB context and marshaller
-        JAXBContext requestContext = JAXBContext.newInstance(BusinessObjectDataCreateRequest.class);
-        Marshaller requestMarshaller = requestContext.createMarshaller();
-        requestMarshaller.setProperty(Marshaller.JAXB_ENCODING, StandardCharsets.UTF_8.name());
-        requestMarshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-
-        StringWriter sw = new StringWriter();
-        requestMarshaller.marshal(request, sw);
+        String xmlRequest = xmlHelper.objectToXml(request, true);
 
         BusinessObjectData businessObjectData;
         try (CloseableHttpClient client = httpClientOperations.createHttpClient())
@@ -337,11 +329,11 @@ public abstract class DataBridgeWebClient
                 post.addHeader(getAuthorizationHeader());
             }
 
-            post.setEntity(new StringEntity(sw.toString()));
+            post.setEntity(createRequestEntity(xmlRequest));
 
             LOGGER.info(String.format("    HTTP POST URI: %s", post.getURI().toString()));
             LOGGER.info(String.format("    HTTP POST Headers: %s", Arrays.toString(post.getAllHeaders())));
-            LOGGER.info(String.format("    HTTP POST Entity Content:%n%s", sw.toString()));
+            LOGGER.info(String.format("    HTTP POST Entity Content:%n%s", xmlRequest));
 
             businessObjectData =
                 getBusinessObjectData(httpClientOperations.execute(client, post), "register business object data with the registration server");
@@ -370,14 +362,7 @@ public abstract class DataBridgeWebClient
         BusinessObjectDataStatusUpdateRequest request = new BusinessObjectDataStatusUpdateRequest();
         request.setStatus(businessObjectDataStatus);
 
-        // Create a JAXB context and marshaller
-        JAXBContext requestContext = JAXBContext.newInstance(BusinessObjectDataStatusUpdateRequest.class);
-        Marshaller requestMarshaller = requestContext.createMarshaller();
-        requestMarshaller.setProperty(Marshaller.JAXB_ENCODING, StandardCharsets.UTF_8.name());
-        requestMarshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-
-        StringWriter sw = new StringWriter();
-        requestMarshaller.marshal(request, sw);
+        String xmlRequest = xmlHelper.objectToXml(request, true);
 
         BusinessObjectDataStatusUpdateResponse businessObjectDataStatusUpdateResponse;
         try (CloseableHttpClient client = httpClientOperations.createHttpClient())
@@ -408,11 +393,11 @@ public abstract class DataBridgeWebClient
                 httpPut.addHeader(getAuthorizationHeader());
             }
 
-            httpPut.setEntity(new StringEntity(sw.toString()));
+            httpPut.setEntity(createRequestEntity(xmlRequest));
 
             LOGGER.info(String.format("    HTTP POST URI: %s", httpPut.getURI().toString()));
             LOGGER.info(String.format("    HTTP POST Headers: %s", Arrays.toString(httpPut.getAllHeaders())));
-            LOGGER.info(String.format("    HTTP POST Entity Content:%n%s", sw.toString()));
+            LOGGER.info(String.format("    HTTP POST Entity Content:%n%s", xmlRequest));
 
             businessObjectDataStatusUpdateResponse = getBusinessObjectDataStatusUpdateResponse(httpClientOperations.execute(client, httpPut));
         }
@@ -422,6 +407,21 @@ public abstract class DataBridgeWebClient
         return businessObjectDataStatusUpdateResponse;
     }
 
+    /**
+     * Creates an HTTP request entity for the specified XML content, which is gzip compressed when request compression is enabled.
+     *
+     * @param xmlRequest the XML content of the request
+     *
+     * @return the HTTP request entity
+     * @throws UnsupportedEncodingException if the default content encoding is not supported.
+     */
+    protected HttpEntity createRequestEntity(String xmlRequest) throws UnsupportedEncodingException
+    {
+        HttpEntity requestEntity = new StringEntity(xmlRequest);
+        return configurationHelper.getBooleanProperty(ConfigurationValue.HTTP_CLIENT_REQUEST_COMPRESSION_ENABLED) ? new GzipCompressingEntity(requestEntity) :
+            requestEntity;
+    }
+
     /**
      * Returns an authorization header required for HTTPS client authentication with the registration server.
      *
@@ -570,7 +570,7 @@ public abstract class DataBridgeWebClient
      *
      * @return the BusinessObjectData object extracted from the registration server response.
      */
-    protected Object processXmlHttpResponse(CloseableHttpResponse response, String actionDescription, Class<?>... responseClass)
+    protected Object processXmlHttpResponse(CloseableHttpResponse response, String actionDescription, Class<?> responseClass)
     {
         StatusLine responseStatusLine = response.getStatusLine();
         Object responseObject = null;
@@ -583,23 +583,17 @@ public abstract class DataBridgeWebClient
             {
                 // Request is successfully handled by the Server.
                 xmlResponse = IOUtils.toString(response.getEntity().getContent(), StandardCharsets.UTF_8.name());
-                InputStream inputStream = new ByteArrayInputStream(xmlResponse.getBytes(StandardCharsets.UTF_8));
 
                 // Un-marshall the response to the specified object class.
-                JAXBContext responseContext = JAXBContext.newInstance(responseClass);
-                Unmarshaller responseUnmarshaller = responseContext.createUnmarshaller();
-                responseObject = responseUnmarshaller.unmarshal(inputStream);
+                responseObject = xmlHelper.unmarshallXmlToObject(responseClass, xmlResponse);
             }
             else
             {
                 // Handle erroneous HTTP response.
                 xmlResponse = IOUtils.toString(response.getEntity().getContent(), StandardCharsets.UTF_8.name());
-                InputStream inputStream = new ByteArrayInputStream(xmlResponse.getBytes(StandardCharsets.UTF_8));
 
                 // Un-marshall response to the ErrorInformation object.
-                JAXBContext responseContext = JAXBContext.newInstance(ErrorInformation.class);
-                Unmarshaller responseUnmarshaller = responseContext.createUnmarshaller();
-                ErrorInformation errorInfo = (ErrorInformation) responseUnmarshaller.unmarshal(inputStream);
+                ErrorInformation errorInfo = xmlHelper.unmarshallXmlToObject(ErrorInformation.class, xmlResponse);
 
                 errorException = new HttpErrorResponseException("Failed to " + actionDescription, errorInfo.getStatusCode(), errorInfo.getStatusDescription(),
                     errorInfo.getMessage());
@@ -21,8 +21,6 @@ import org.springframework.context.annotation.Configuration;
 import org.finra.herd.dao.HttpClientOperations;
 import org.finra.herd.dao.Log4jOverridableConfigurer;
 import org.finra.herd.dao.S3Operations;
-import org.finra.herd.dao.helper.HerdCharacterEscapeHandler;
-import org.finra.herd.dao.helper.XmlHelper;
 import org.finra.herd.dao.impl.MockHttpClientOperationsImpl;
 import org.finra.herd.dao.impl.MockS3OperationsImpl;
 
@@ -49,20 +47,6 @@ public class DataBridgeEnvTestSpringModuleConfig
         return new MockHttpClientOperationsImpl();
     }
 
-    // This is needed in MockHttpClientOperationsImpl.
-    @Bean
-    public XmlHelper xmlHelper()
-    {
-        return new XmlHelper();
-    }
-
-    // This is needed in XmlHelper.
-    @Bean
-    public HerdCharacterEscapeHandler herdCharacterEscapeHandler()
-    {
-        return new HerdCharacterEscapeHandler();
-    }
-
     @Bean
     public static Log4jOverridableConfigurer log4jConfigurer()
     {
@@ -19,23 +19,32 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import javax.xml.bind.JAXBException;
 
+import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpVersion;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.message.BasicStatusLine;
+import org.apache.http.util.EntityUtils;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.MapPropertySource;
 
 import org.finra.herd.dao.HttpClientOperations;
 import org.finra.herd.dao.helper.HerdStringHelper;
@@ -49,6 +58,7 @@ import org.finra.herd.model.api.xml.BusinessObjectDataStorageFilesCreateResponse
 import org.finra.herd.model.api.xml.ErrorInformation;
 import org.finra.herd.model.api.xml.S3KeyPrefixInformation;
 import org.finra.herd.model.api.xml.Storage;
+import org.finra.herd.model.dto.ConfigurationValue;
 import org.finra.herd.model.dto.DataBridgeBaseManifestDto;
 import org.finra.herd.model.dto.ManifestFile;
 import org.finra.herd.model.dto.RegServerAccessParamsDto;
@@ -57,6 +67,8 @@ import org.finra.herd.model.dto.UploaderInputManifestDto;
 
 public class DataBridgeWebClientTest extends AbstractDataBridgeTest
 {
+    private static final String REQUEST_COMPRESSION_PROPERTY_SOURCE_NAME = "requestCompressionPropertySource";
+
     private DataBridgeWebClient dataBridgeWebClient;
 
     @Autowired
@@ -81,8 +93,10 @@ public class DataBridgeWebClientTest extends AbstractDataBridgeTest
         regServerAccessParamsDto.setRegServerPort(8080);
         dataBridgeWebClient.setRegServerAccessParamsDto(regServerAccessParamsDto);
 
+        dataBridgeWebClient.configurationHelper = configurationHelper;
         dataBridgeWebClient.httpClientOperations = httpClientOperations;
         dataBridgeWebClient.herdStringHelper = herdStringHelper;
+        dataBridgeWebClient.xmlHelper = xmlHelper;
     }
 
     @Test
@@ -114,6 +128,42 @@ public class DataBridgeWebClientTest extends AbstractDataBridgeTest
         testAddStorageFiles(true);
     }
 
+    @Test
+    public void testCreateRequestEntity() throws Exception
+    {
+        String xmlRequest = xmlHelper.objectToXml(new ErrorInformation());
+
+        HttpEntity requestEntity = dataBridgeWebClient.createRequestEntity(xmlRequest);
+
+        assertNull(requestEntity.getContentEncoding());
+        assertEquals(xmlRequest, EntityUtils.toString(requestEntity));
+    }
+
+    @Test
+    public void testCreateRequestEntityCompressionEnabled() throws Exception
+    {
+        String xmlRequest = xmlHelper.objectToXml(new ErrorInformation());
+
+        getMutablePropertySources().addFirst(new MapPropertySource(REQUEST_COMPRESSION_PROPERTY_SOURCE_NAME,
+            Collections.singletonMap(ConfigurationValue.HTTP_CLIENT_REQUEST_COMPRESSION_ENABLED.getKey(), "true")));
+
+        try
+        {
+            HttpEntity requestEntity = dataBridgeWebClient.createRequestEntity(xmlRequest);
+
+            // Validate that the request content is gzip compressed.
+            assertEquals("gzip", requestEntity.getContentEncoding().getValue());
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            requestEntity.writeTo(outputStream);
+            assertEquals(xmlRequest,
+                IOUtils.toString(new GZIPInputStream(new ByteArrayInputStream(outputStream.toByteArray())), StandardCharsets.UTF_8.name()));
+        }
+        finally
+        {
+            getMutablePropertySources().remove(REQUEST_COMPRESSION_PROPERTY_SOURCE_NAME);
+        }
+    }
+
     @Test
     public void testGetBusinessObjectDataStorageFilesCreateResponse200BadContentReturnsNull() throws Exception
     {